@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
 
 @Configuration
 public class CacheBustingWebConfig implements WebMvcConfigurer {
@@ -19,7 +20,11 @@ public class CacheBustingWebConfig implements WebMvcConfigurer {
 
     @Override
     public void addResourceHandlers(final ResourceHandlerRegistry registry) {
-        registry.addResourceHandler(PREFIX_STATIC_RESOURCES + "/" + version.getVersion() + "/**")
-                .addResourceLocations("classpath:/static/");
+        // /resources/{파일 내용 해시}/js/index.js 요청에서 해시를 떼고, 파일의 현재 해시와 같을 때만 응답한다.
+        registry.addResourceHandler(PREFIX_STATIC_RESOURCES + "/**")
+                .addResourceLocations("classpath:/static/")
+                .resourceChain(true)
+                .addResolver(new VersionResourceResolver()
+                        .addVersionStrategy(new ContentHashVersionStrategy(version), "/**"));
     }
 }
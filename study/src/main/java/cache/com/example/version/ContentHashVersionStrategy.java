@@ -0,0 +1,48 @@
+package cache.com.example.version;
+
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.VersionStrategy;
+
+/**
+ * {@code {version}/js/index.js} 처럼 경로 맨 앞에 파일마다 다른 내용 해시를 붙인다.
+ * 스프링의 FixedVersionStrategy 는 모든 파일에 같은 접두사를 붙이므로 파일별 버전에는 쓸 수 없다.
+ */
+public class ContentHashVersionStrategy implements VersionStrategy {
+
+    private final ResourceVersion version;
+
+    public ContentHashVersionStrategy(final ResourceVersion version) {
+        this.version = version;
+    }
+
+    @Override
+    public String extractVersion(final String requestPath) {
+        final String path = requestPath.startsWith("/") ? requestPath.substring(1) : requestPath;
+        final int slash = path.indexOf('/');
+        if (slash < 0) {
+            return null;
+        }
+        // 버전 모양이 아닌 첫 세그먼트(예: js/index.js 의 js)는 버전으로 보지 않는다.
+        final String candidate = path.substring(0, slash);
+        return ResourceVersion.isVersion(candidate) ? candidate : null;
+    }
+
+    @Override
+    public String removeVersion(final String requestPath, final String version) {
+        final String path = requestPath.startsWith("/") ? requestPath.substring(1) : requestPath;
+        return path.substring(version.length() + 1);
+    }
+
+    @Override
+    public String addVersion(final String path, final String version) {
+        if (path.startsWith("/")) {
+            return "/" + version + path;
+        }
+        return version + "/" + path;
+    }
+
+    @Override
+    public String getResourceVersion(final Resource resource) {
+        return version.getVersion(resource);
+    }
+}
@@ -1,28 +1,107 @@
 package cache.com.example.version;
 
 import jakarta.annotation.PostConstruct;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Component;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * classpath:/static/ 아래 파일마다 내용 해시를 버전으로 쓰는 매니페스트.
+ * 내용이 같으면 배포 시점이나 노드와 관계없이 같은 버전이 나오므로, 바뀐 파일만 다시 내려받는다.
+ */
 @Component
 public class ResourceVersion {
 
-    private static final String DEFAULT_DATE_TIME_FORMAT = "yyyyMMddHHmmSS";
+    private static final String STATIC_LOCATION = "static/";
+    private static final int VERSION_LENGTH = 16;
 
-    private String version;
+    private Map<String, String> versions = Map.of();
 
     @PostConstruct
     public void init() {
-        this.version = now();
+        this.versions = Map.copyOf(scan());
+    }
+
+    /**
+     * @param path / 로 시작하는 static 기준 경로. 예: {@code /js/index.js}
+     * @return 매니페스트에 없는 파일이면 {@code null}
+     */
+    public String getVersion(final String path) {
+        return versions.get(path);
+    }
+
+    /**
+     * 매니페스트가 만드는 버전처럼 소문자 16진수 {@value #VERSION_LENGTH} 자리인지 확인한다.
+     */
+    public static boolean isVersion(final String candidate) {
+        return candidate.length() == VERSION_LENGTH
+                && candidate.chars().allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'));
+    }
+
+    /**
+     * 리소스 핸들러가 찾은 파일의 버전. 매니페스트에 없으면 내용을 읽어 해시를 구한다.
+     */
+    public String getVersion(final Resource resource) {
+        final String path = pathOf(resource);
+        if (path != null && versions.containsKey(path)) {
+            return versions.get(path);
+        }
+        return hash(resource);
+    }
+
+    private Map<String, String> scan() {
+        final var manifest = new HashMap<String, String>();
+        try {
+            final var resolver = new PathMatchingResourcePatternResolver();
+            for (final Resource resource : resolver.getResources("classpath:/" + STATIC_LOCATION + "**")) {
+                final String path = pathOf(resource);
+                if (path != null && resource.isReadable() && !path.endsWith("/")) {
+                    manifest.put(path, hash(resource));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return manifest;
+    }
+
+    private static String pathOf(final Resource resource) {
+        try {
+            final String root = new ClassPathResource(STATIC_LOCATION).getURL().toString();
+            final String url = resource.getURL().toString();
+            if (!url.startsWith(root)) {
+                return null;
+            }
+            return "/" + url.substring(root.length());
+        } catch (IOException e) {
+            return null;
+        }
     }
 
-    public String getVersion() {
-        return version;
+    private static String hash(final Resource resource) {
+        try (final InputStream inputStream = resource.getInputStream()) {
+            final byte[] digest = sha256().digest(inputStream.readAllBytes());
+            return HexFormat.of().formatHex(digest).substring(0, VERSION_LENGTH);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    private static String now() {
-        final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DEFAULT_DATE_TIME_FORMAT);
-        return LocalDateTime.now().format(formatter);
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
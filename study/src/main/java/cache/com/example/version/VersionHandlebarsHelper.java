@@ -20,6 +20,10 @@ public class VersionHandlebarsHelper {
 
     public String staticUrls(String path, Options options) {
         log.debug("static url : {}", path);
-        return String.format("/resources/%s%s", version.getVersion(), path);
+        final String fileVersion = version.getVersion(path);
+        if (fileVersion == null) {
+            return String.format("/resources%s", path);
+        }
+        return String.format("/resources/%s%s", fileVersion, path);
     }
 }
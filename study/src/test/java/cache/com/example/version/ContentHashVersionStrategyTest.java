@@ -0,0 +1,53 @@
+package cache.com.example.version;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentHashVersionStrategyTest {
+
+    private static final String VERSION = "ba7816bf8f01cfea";
+
+    private final ContentHashVersionStrategy strategy = new ContentHashVersionStrategy(new ResourceVersion());
+
+    @Test
+    void extractsVersionFromVersionedPath() {
+        assertThat(strategy.extractVersion(VERSION + "/js/index.js")).isEqualTo(VERSION);
+        assertThat(strategy.extractVersion("/" + VERSION + "/js/index.js")).isEqualTo(VERSION);
+    }
+
+    @Test
+    void findsNoVersionInUnversionedPath() {
+        assertThat(strategy.extractVersion("index.js")).isNull();
+        assertThat(strategy.extractVersion("/index.js")).isNull();
+        assertThat(strategy.extractVersion("js/index.js")).isNull();
+    }
+
+    @Test
+    void findsNoVersionInMalformedPath() {
+        assertThat(strategy.extractVersion("")).isNull();
+        assertThat(strategy.extractVersion("//js/index.js")).isNull();
+        // 대문자, 16진수가 아닌 글자, 길이가 다른 해시
+        assertThat(strategy.extractVersion("BA7816BF8F01CFEA/js/index.js")).isNull();
+        assertThat(strategy.extractVersion("ba7816bf8f01cfeg/js/index.js")).isNull();
+        assertThat(strategy.extractVersion("ba7816bf8f01cfe/js/index.js")).isNull();
+        assertThat(strategy.extractVersion("ba7816bf8f01cfea0/js/index.js")).isNull();
+    }
+
+    @Test
+    void removesVersionFromPath() {
+        assertThat(strategy.removeVersion(VERSION + "/js/index.js", VERSION)).isEqualTo("js/index.js");
+        assertThat(strategy.removeVersion("/" + VERSION + "/js/index.js", VERSION)).isEqualTo("js/index.js");
+    }
+
+    @Test
+    void addedVersionIsExtractedAndRemovedAgain() {
+        // when
+        final String versioned = strategy.addVersion("/js/index.js", VERSION);
+
+        // then
+        assertThat(versioned).isEqualTo("/" + VERSION + "/js/index.js");
+        assertThat(strategy.extractVersion(versioned)).isEqualTo(VERSION);
+        assertThat(strategy.removeVersion(versioned, VERSION)).isEqualTo("js/index.js");
+    }
+}
@@ -0,0 +1,56 @@
+package cache.com.example.version;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceVersionTest {
+
+    @Test
+    void versionIsSha256TruncatedToSixteenHexCharacters() {
+        // given
+        final var resourceVersion = new ResourceVersion();
+        final var resource = new ByteArrayResource("abc".getBytes(StandardCharsets.UTF_8));
+
+        // when
+        final String version = resourceVersion.getVersion(resource);
+
+        // then
+        // SHA-256("abc") = ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad
+        assertThat(version).isEqualTo("ba7816bf8f01cfea");
+        assertThat(ResourceVersion.isVersion(version)).isTrue();
+    }
+
+    @Test
+    void manifestIsStableAcrossRuns() {
+        // given
+        final var first = new ResourceVersion();
+        final var second = new ResourceVersion();
+
+        // when
+        first.init();
+        second.init();
+
+        // then
+        final String version = first.getVersion("/js/index.js");
+        assertThat(version).matches("[0-9a-f]{16}");
+        assertThat(second.getVersion("/js/index.js")).isEqualTo(version);
+        assertThat(first.getVersion(new ClassPathResource("static/js/index.js"))).isEqualTo(version);
+    }
+
+    @Test
+    void unknownPathHasNoVersion() {
+        // given
+        final var resourceVersion = new ResourceVersion();
+
+        // when
+        resourceVersion.init();
+
+        // then
+        assertThat(resourceVersion.getVersion("/js/missing.js")).isNull();
+    }
+}
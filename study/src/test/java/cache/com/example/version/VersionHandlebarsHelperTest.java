@@ -0,0 +1,36 @@
+package cache.com.example.version;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VersionHandlebarsHelperTest {
+
+    @Test
+    void addsVersionOfKnownFile() {
+        // given
+        final var resourceVersion = new ResourceVersion();
+        resourceVersion.init();
+        final var helper = new VersionHandlebarsHelper(resourceVersion);
+
+        // when
+        final String url = helper.staticUrls("/js/index.js", null);
+
+        // then
+        assertThat(url).isEqualTo("/resources/" + resourceVersion.getVersion("/js/index.js") + "/js/index.js");
+    }
+
+    @Test
+    void fallsBackToUnversionedUrlWhenVersionIsUnknown() {
+        // given
+        final var resourceVersion = new ResourceVersion();
+        resourceVersion.init();
+        final var helper = new VersionHandlebarsHelper(resourceVersion);
+
+        // when
+        final String url = helper.staticUrls("/js/missing.js", null);
+
+        // then
+        assertThat(url).isEqualTo("/resources/js/missing.js");
+    }
+}
@@ -0,0 +1,151 @@
+package camp.nextstep.db;
+
+import camp.nextstep.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserStore} 의 가입 처리량과 재시작 복구 시간을 잰다.
+ * <ul>
+ * <li>{@code register}: 64 스레드가 동시에 가입한다. 가입마다 디스크에 내린 뒤 돌아오므로 fsync 를 얼마나 묶는지가 처리량을 정한다.
+ * 반복이 끝날 때마다 fsync 한 번에 묶인 평균 가입 수를 출력한다.</li>
+ * <li>{@code recover}: 사용자 {@code userCount} 명 중 90% 는 스냅숏에, 나머지는 로그에 둔 디렉터리를 다시 연다.</li>
+ * </ul>
+ * 1000만 명을 메모리에 올리려면 힙이 4GB 는 있어야 한다. 작은 환경에서는 {@code -p userCount=1000000} 으로 돌린다.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class UserStoreBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Registration {
+
+        private final AtomicLong sequence = new AtomicLong();
+        private Path directory;
+        private UserStore store;
+        private long lastSequence;
+        private long lastSyncCount;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("user-store-register");
+            store = UserStore.open(directory);
+        }
+
+        @TearDown(Level.Iteration)
+        public void printBatching() {
+            final long users = sequence.get() - lastSequence;
+            final long syncs = store.getSyncCount() - lastSyncCount;
+            System.out.printf("%n  %d users in %d fsyncs (%.1f per fsync)%n", users, syncs,
+                    (double) users / Math.max(syncs, 1));
+            lastSequence = sequence.get();
+            lastSyncCount = store.getSyncCount();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            store.close();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Recovery {
+
+        @Param("10000000")
+        private int userCount;
+
+        private Path directory;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            directory = Files.createTempDirectory("user-store-recover");
+            final int snapshotUsers = userCount / 10 * 9;
+            // 스냅숏은 직접 뜬다.
+            final var store = UserStore.open(directory, Long.MAX_VALUE);
+            register(store, 0, snapshotUsers);
+            store.snapshot();
+            register(store, snapshotUsers, userCount);
+            store.close();
+        }
+
+        private static void register(final UserStore store, final int from, final int to) throws Exception {
+            // 그룹 커밋이 묶을 수 있도록 여러 스레드로 나눠 넣는다.
+            final int threads = 256;
+            final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                executor.submit(() -> {
+                    for (int i = from + thread; i < to; i += threads) {
+                        store.save(newUser(i));
+                    }
+                    return null;
+                });
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(1, TimeUnit.HOURS)) {
+                throw new IllegalStateException("Registration did not finish");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Threads(64)
+    public void register(final Registration state) throws IOException {
+        state.store.save(newUser(state.sequence.getAndIncrement()));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int recover(final Recovery state) throws IOException {
+        final var store = UserStore.open(state.directory, Long.MAX_VALUE);
+        final int size = store.size();
+        store.close();
+        return size;
+    }
+
+    private static User newUser(final long i) {
+        return new User("user" + i, "password" + i, "user" + i + "@woowahan.com");
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        try (final Stream<Path> files = Files.walk(directory)) {
+            for (final Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
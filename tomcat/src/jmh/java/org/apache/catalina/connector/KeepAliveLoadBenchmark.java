@@ -0,0 +1,126 @@
+package org.apache.catalina.connector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 쉬고 있는 keep-alive 연결을 많이 열어 둔 채로, 몇몇 연결이 요청을 주고받는 초당 요청 수를 잰다.
+ * JIO 커넥터에서 쉬는 연결마다 스레드 하나가 읽기에 막혀 있으므로, 가상 스레드와 플랫폼 스레드 풀의 차이가 여기서 난다.
+ * 플랫폼 풀은 쉬는 연결이 모두 스레드를 얻도록 maxThreads 를 넉넉히 준다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class KeepAliveLoadBenchmark {
+
+    private static final byte[] REQUEST = "GET / HTTP/1.1\r\nHost: localhost\r\n\r\n"
+            .getBytes(StandardCharsets.ISO_8859_1);
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"false", "true"})
+        private boolean useVirtualThreads;
+
+        @Param({"0", "1000"})
+        private int idleConnections;
+
+        private Connector connector;
+        private final List<Socket> idleSockets = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            connector = new Connector(freePort(), 1024);
+            connector.setUseVirtualThreads(useVirtualThreads);
+            connector.setMaxThreads(idleConnections + 100);
+            // 측정 중에 쉬는 연결이나 요청하는 연결이 끊기지 않게 한다.
+            connector.getProtocol().setKeepAliveTimeout(120_000);
+            connector.getProtocol().setMaxKeepAliveRequests(0);
+            connector.start();
+            for (int i = 0; i < idleConnections; i++) {
+                final var socket = new Socket("localhost", connector.getLocalPort());
+                idleSockets.add(socket);
+                readHelloWorld(socket);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            for (final Socket socket : idleSockets) {
+                socket.close();
+            }
+            connector.stop();
+        }
+
+        private static int freePort() throws IOException {
+            try (final var serverSocket = new ServerSocket(0)) {
+                return serverSocket.getLocalPort();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private Socket socket;
+        private OutputStream output;
+        private InputStream input;
+        private int responseLength;
+
+        @Setup(Level.Trial)
+        public void setUp(final Server server) throws IOException {
+            socket = new Socket("localhost", server.connector.getLocalPort());
+            socket.setTcpNoDelay(true);
+            output = socket.getOutputStream();
+            input = socket.getInputStream();
+            // 응답은 Date 헤더 길이까지 늘 같으므로 처음 한 번 재어 두고 그만큼만 읽는다.
+            responseLength = readHelloWorld(socket);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Benchmark
+    public int request(final Client client) throws IOException {
+        client.output.write(REQUEST);
+        return client.input.readNBytes(client.responseLength).length;
+    }
+
+    private static int readHelloWorld(final Socket socket) throws IOException {
+        socket.getOutputStream().write(REQUEST);
+        final InputStream input = socket.getInputStream();
+        final var response = new StringBuilder();
+        while (!response.toString().endsWith("Hello world!")) {
+            response.append((char) input.read());
+        }
+        return response.length();
+    }
+}
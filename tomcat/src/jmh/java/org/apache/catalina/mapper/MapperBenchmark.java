@@ -0,0 +1,88 @@
+package org.apache.catalina.mapper;
+
+import org.apache.catalina.Handler;
+import org.apache.coyote.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 라우트 100개를 등록한 트라이와, 패턴마다 정규식을 차례로 맞춰 보는 방식을 비교한다.
+ * 할당량은 {@code -prof gc} 로 확인한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    private static final int RESOURCE_COUNT = 25;
+    private static final Handler HANDLER = (request, response) -> {};
+
+    @Param({"/login", "/resource12/42/items/7", "/static/css/styles.css"})
+    private String path;
+
+    private Mapper mapper;
+    private Map<Pattern, Handler> regexRoutes;
+    private Request request;
+
+    @Setup
+    public void setUp() {
+        mapper = new Mapper();
+        regexRoutes = new LinkedHashMap<>();
+        add("/login");
+        add("/register");
+        for (int i = 0; i < RESOURCE_COUNT; i++) {
+            add("/resource" + i);
+            add("/resource" + i + "/{id}");
+            add("/resource" + i + "/{id}/items");
+            add("/resource" + i + "/{id}/items/{itemId}");
+        }
+        add("/static/*");
+        mapper.compile();
+
+        final byte[] line = ("GET " + path + " HTTP/1.1").getBytes(StandardCharsets.ISO_8859_1);
+        request = new Request();
+        request.setBuffer(line);
+        request.setMethod(0, 3);
+        request.setRequestURI(4, 4 + path.length());
+    }
+
+    private void add(final String pattern) {
+        mapper.get(pattern, HANDLER);
+        final String regex = pattern.replaceAll("\\{[^}]+}", "([^/]+)").replace("/*", "(/.*)?");
+        regexRoutes.put(Pattern.compile(regex), HANDLER);
+    }
+
+    @Benchmark
+    public Handler trie() {
+        return mapper.map(request).getHandler(request);
+    }
+
+    @Benchmark
+    public Handler regex() {
+        final String uri = request.getRequestURI();
+        for (final Map.Entry<Pattern, Handler> route : regexRoutes.entrySet()) {
+            if (route.getKey().matcher(uri).matches()) {
+                return route.getValue();
+            }
+        }
+        return null;
+    }
+}
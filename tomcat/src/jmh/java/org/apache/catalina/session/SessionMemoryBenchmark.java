@@ -0,0 +1,82 @@
+package org.apache.catalina.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 세션 100만, 1000만 개를 힙({@link StandardManager})과 힙 밖({@link OffHeapManager})에 두고 전체 GC 시간을 잰다.
+ * GC 가 살아 있는 객체를 모두 따라가야 하므로 세션 수에 따른 GC 멈춤 시간을 가늠할 수 있다.
+ * 메모리 사용량은 반복이 끝날 때마다 출력한다.
+ * <p>
+ * 1000만 개를 힙에 두려면 힙이 8GB 는 있어야 한다. 메모리가 작은 환경에서는 {@code -p sessionCount=1000000} 으로 돌린다.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g", "-XX:MaxDirectMemorySize=4g", "-XX:+UseG1GC"})
+@State(Scope.Benchmark)
+public class SessionMemoryBenchmark {
+
+    private static final long OFF_HEAP_MEMORY = 4L * 1024 * 1024 * 1024;
+
+    @Param({"1000000", "10000000"})
+    private int sessionCount;
+
+    @Param({"heap", "offHeap"})
+    private String store;
+
+    private Object manager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Supplier<HttpSession> factory;
+        if (store.equals("heap")) {
+            final var heapManager = new StandardManager();
+            factory = heapManager::createSession;
+            manager = heapManager;
+        } else {
+            final var offHeapManager = new OffHeapManager(OFF_HEAP_MEMORY);
+            factory = offHeapManager::createSession;
+            manager = offHeapManager;
+        }
+        for (int i = 0; i < sessionCount; i++) {
+            final HttpSession session = factory.get();
+            session.setAttribute("account", "user" + i);
+            session.setAttribute("visits", i);
+        }
+    }
+
+    @Benchmark
+    public void fullGc() {
+        System.gc();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printMemory() {
+        final long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        if (manager instanceof OffHeapManager offHeapManager) {
+            System.out.printf("%n  heap used %d MB, off-heap used %d MB (reserved %d MB), index %d MB%n",
+                    heapUsed >> 20, offHeapManager.getUsedMemory() >> 20, offHeapManager.getReservedMemory() >> 20,
+                    offHeapManager.getIndexMemory() >> 20);
+            return;
+        }
+        System.out.printf("%n  heap used %d MB%n", heapUsed >> 20);
+    }
+}
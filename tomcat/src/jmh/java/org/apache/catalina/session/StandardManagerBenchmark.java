@@ -0,0 +1,88 @@
+package org.apache.catalina.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.apache.catalina.util.SessionIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 세션 100만 개를 둔 매니저를 32 스레드가 동시에 조회한다.
+ * 잠금 하나로 감싼 {@link HashMap} 과, 공유 {@link SecureRandom} 하나로 ID 를 만드는 방식을 함께 잰다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(32)
+@State(Scope.Benchmark)
+public class StandardManagerBenchmark {
+
+    @Param("1000000")
+    private int sessionCount;
+
+    private StandardManager manager;
+    private Map<String, HttpSession> synchronizedMap;
+    private String[] ids;
+    private SessionIdGenerator sessionIdGenerator;
+    private SecureRandom sharedRandom;
+
+    @Setup
+    public void setUp() {
+        manager = new StandardManager();
+        synchronizedMap = Collections.synchronizedMap(new HashMap<>(sessionCount * 2));
+        ids = new String[sessionCount];
+        for (int i = 0; i < sessionCount; i++) {
+            final StandardSession session = manager.createSession();
+            ids[i] = session.getId();
+            synchronizedMap.put(session.getId(), session);
+        }
+        sessionIdGenerator = new SessionIdGenerator();
+        sharedRandom = new SecureRandom();
+    }
+
+    @Benchmark
+    public HttpSession findSession() throws IOException {
+        return manager.findSession(randomId());
+    }
+
+    @Benchmark
+    public HttpSession synchronizedHashMap() {
+        return synchronizedMap.get(randomId());
+    }
+
+    @Benchmark
+    public String generateSessionId() {
+        return sessionIdGenerator.generateSessionId();
+    }
+
+    @Benchmark
+    public String sharedSecureRandom() {
+        final byte[] bytes = new byte[16];
+        sharedRandom.nextBytes(bytes);
+        return HexFormat.of().withUpperCase().formatHex(bytes);
+    }
+
+    private String randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
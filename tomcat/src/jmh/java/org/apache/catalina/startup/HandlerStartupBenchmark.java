@@ -0,0 +1,144 @@
+package org.apache.catalina.startup;
+
+import org.apache.catalina.Handler;
+import org.apache.catalina.annotation.RequestMapping;
+import org.apache.catalina.mapper.Mapper;
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 새 JVM 에서 핸들러 20개를 등록하기까지 걸리는 시간을 잰다. 첫 실행만 재야 하므로 포크마다 한 번씩 돈다.
+ * <ul>
+ * <li>{@code index}: 컴파일할 때 만든 {@link HandlerIndex#RESOURCE} 를 읽는다.</li>
+ * <li>{@code scan}: {@link HandlerScanner} 로 {@code org.apache} 아래 클래스를 모두 훑는다.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class HandlerStartupBenchmark {
+
+    private static final String SCAN_PACKAGE = "org.apache";
+
+    @Benchmark
+    public Mapper index() throws IOException {
+        final ClassLoader classLoader = HandlerStartupBenchmark.class.getClassLoader();
+        final List<HandlerDefinition> definitions = HandlerIndex.load(classLoader);
+        return register(definitions, classLoader);
+    }
+
+    @Benchmark
+    public Mapper scan() {
+        final ClassLoader classLoader = HandlerStartupBenchmark.class.getClassLoader();
+        final List<HandlerDefinition> definitions = HandlerScanner.scan(SCAN_PACKAGE, classLoader);
+        return register(definitions, classLoader);
+    }
+
+    private static Mapper register(final List<HandlerDefinition> definitions, final ClassLoader classLoader) {
+        final var mapper = new Mapper();
+        HandlerIndex.register(mapper, definitions, classLoader);
+        mapper.compile();
+        return mapper;
+    }
+
+    public abstract static class NoContent implements Handler {
+
+        @Override
+        public void handle(final Request request, final Response response) {
+            response.setStatus(204);
+        }
+    }
+
+    @RequestMapping(value = "/resource0/{id}", method = {"GET", "POST"})
+    public static class Resource0Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource1/{id}", method = {"GET", "POST"})
+    public static class Resource1Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource2/{id}", method = {"GET", "POST"})
+    public static class Resource2Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource3/{id}", method = {"GET", "POST"})
+    public static class Resource3Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource4/{id}", method = {"GET", "POST"})
+    public static class Resource4Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource5/{id}", method = {"GET", "POST"})
+    public static class Resource5Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource6/{id}", method = {"GET", "POST"})
+    public static class Resource6Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource7/{id}", method = {"GET", "POST"})
+    public static class Resource7Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource8/{id}", method = {"GET", "POST"})
+    public static class Resource8Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource9/{id}", method = {"GET", "POST"})
+    public static class Resource9Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource10/{id}", method = {"GET", "POST"})
+    public static class Resource10Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource11/{id}", method = {"GET", "POST"})
+    public static class Resource11Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource12/{id}", method = {"GET", "POST"})
+    public static class Resource12Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource13/{id}", method = {"GET", "POST"})
+    public static class Resource13Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource14/{id}", method = {"GET", "POST"})
+    public static class Resource14Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource15/{id}", method = {"GET", "POST"})
+    public static class Resource15Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource16/{id}", method = {"GET", "POST"})
+    public static class Resource16Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource17/{id}", method = {"GET", "POST"})
+    public static class Resource17Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource18/{id}", method = {"GET", "POST"})
+    public static class Resource18Handler extends NoContent {
+    }
+
+    @RequestMapping(value = "/resource19/{id}", method = {"GET", "POST"})
+    public static class Resource19Handler extends NoContent {
+    }
+}
@@ -0,0 +1,100 @@
+package org.apache.coyote.http11;
+
+import org.apache.coyote.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 상태 기계 파서와 BufferedReader + String.split 방식을 브라우저가 보내는 크기의 요청으로 비교한다.
+ * 할당량은 {@code -prof gc} 로 확인한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Http11ParserBenchmark {
+
+    private static final String HTTP_REQUEST = String.join("\r\n",
+            "GET /css/styles.css HTTP/1.1",
+            "Host: localhost:8080",
+            "Connection: keep-alive",
+            "User-Agent: Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36",
+            "Accept: text/css,*/*;q=0.1",
+            "Referer: http://localhost:8080/index.html",
+            "Accept-Encoding: gzip, deflate, br, zstd",
+            "Accept-Language: ko-KR,ko;q=0.9,en-US;q=0.8,en;q=0.7",
+            "If-None-Match: \"5f0c3b1a2d\"",
+            "",
+            "");
+
+    private byte[] bytes;
+    private ByteBuffer buffer;
+    private Http11Parser parser;
+    private Request request;
+
+    @Setup
+    public void setUp() {
+        bytes = HTTP_REQUEST.getBytes(StandardCharsets.ISO_8859_1);
+        buffer = ByteBuffer.wrap(bytes);
+        parser = new Http11Parser();
+        request = new Request();
+        request.setBuffer(bytes);
+    }
+
+    @Benchmark
+    public void stateMachine(final Blackhole blackhole) {
+        buffer.clear();
+        request.recycle();
+        parser.parse(buffer, request);
+        blackhole.consume(request.hasHeaderToken("Connection", "keep-alive"));
+        blackhole.consume(request.isMethod("GET"));
+    }
+
+    @Benchmark
+    public void stateMachineInChunks(final Blackhole blackhole) {
+        buffer.clear();
+        request.recycle();
+        // 패킷이 나뉘어 도착한 경우
+        for (int limit = 64; limit < bytes.length; limit += 64) {
+            buffer.limit(limit);
+            parser.parse(buffer, request);
+        }
+        buffer.limit(bytes.length);
+        blackhole.consume(parser.parse(buffer, request));
+    }
+
+    @Benchmark
+    public void bufferedReaderSplit(final Blackhole blackhole) throws IOException {
+        final var reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.ISO_8859_1));
+        final String[] requestLine = reader.readLine().split(" ");
+        final Map<String, String> headers = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+            final String[] header = line.split(": ", 2);
+            headers.put(header[0], header[1]);
+        }
+        blackhole.consume(requestLine);
+        blackhole.consume(headers.get("Connection"));
+    }
+}
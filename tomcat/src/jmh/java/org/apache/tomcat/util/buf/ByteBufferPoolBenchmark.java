@@ -0,0 +1,79 @@
+package org.apache.tomcat.util.buf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 연결 하나가 쓰는 읽기(16KB), 쓰기(8KB) 버퍼를 얻는 비용을 잰다.
+ * 풀에서 빌렸다가 돌려주는 방식과 연결마다 새로 만드는 방식을 비교한다. 할당량과 GC 횟수는 {@code -prof gc} 로 확인한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ByteBufferPoolBenchmark {
+
+    private static final int INPUT_BUFFER_SIZE = 16 * 1024;
+    private static final int OUTPUT_BUFFER_SIZE = 8 * 1024;
+
+    private final ByteBufferPool heapPool = new ByteBufferPool(false, 64L * 1024 * 1024);
+    private final ByteBufferPool directPool = new ByteBufferPool(true, 64L * 1024 * 1024);
+
+    @Benchmark
+    public int allocate() {
+        final ByteBuffer input = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+        final ByteBuffer output = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+        return use(input, output);
+    }
+
+    @Benchmark
+    public int pooled() {
+        final PooledByteBuffer input = heapPool.acquire(INPUT_BUFFER_SIZE);
+        final PooledByteBuffer output = heapPool.acquire(OUTPUT_BUFFER_SIZE);
+        try {
+            return use(input.buffer(), output.buffer());
+        } finally {
+            output.release();
+            input.release();
+        }
+    }
+
+    @Benchmark
+    public int allocateDirect() {
+        final ByteBuffer output = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+        return use(output, output);
+    }
+
+    @Benchmark
+    public int pooledDirect() {
+        final PooledByteBuffer output = directPool.acquire(OUTPUT_BUFFER_SIZE);
+        try {
+            return use(output.buffer(), output.buffer());
+        } finally {
+            output.release();
+        }
+    }
+
+    /**
+     * 요청 한 줄을 읽고 응답 한 줄을 쓰는 정도만 건드린다.
+     */
+    private static int use(final ByteBuffer input, final ByteBuffer output) {
+        input.putLong(0, System.nanoTime());
+        output.putLong(0, input.getLong(0));
+        return input.capacity() + output.capacity();
+    }
+}
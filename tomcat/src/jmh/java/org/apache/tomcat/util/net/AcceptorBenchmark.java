@@ -0,0 +1,84 @@
+package org.apache.tomcat.util.net;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 억셉터 수를 늘리면서 초당 맺고 끊는 연결 수를 잰다. 재배포 뒤 클라이언트가 한꺼번에 다시 연결하는 상황을 흉내 내어,
+ * 여러 클라이언트 스레드가 연결만 맺고 서버가 바로 닫을 때까지 기다린다.
+ * {@code reusePort} 가 true 면 억셉터마다 SO_REUSEPORT 리슨 소켓을 따로 연다. 억셉터 수만큼 코어가 있어야 차이가 보인다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class AcceptorBenchmark {
+
+    @Param({"1", "2", "4"})
+    private int acceptorThreadCount;
+
+    @Param({"false", "true"})
+    private boolean reusePort;
+
+    @Param({"jio", "nio"})
+    private String endpointType;
+
+    private ExecutorService executor;
+    private AbstractEndpoint<?> endpoint;
+    private InetSocketAddress address;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        final AbstractEndpoint.Handler handler = socketWrapper -> SocketState.CLOSED;
+        endpoint = endpointType.equals("nio")
+                ? new NioEndpoint(0, 1024, executor, handler)
+                : new JioEndpoint(0, 1024, executor, handler);
+        endpoint.setAcceptorThreadCount(acceptorThreadCount);
+        endpoint.setReusePort(reusePort);
+        endpoint.bind();
+        endpoint.start();
+        address = new InetSocketAddress("localhost", endpoint.getLocalPort());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        endpoint.stop();
+        executor.shutdownNow();
+    }
+
+    /**
+     * NIO 는 읽을 데이터가 있어야 워커에게 넘기므로 한 바이트를 보낸다. 서버가 먼저 닫으므로 클라이언트 포트는
+     * TIME_WAIT 에 묶이지 않는다.
+     */
+    @Benchmark
+    public int connect() throws IOException {
+        try (final var socket = new Socket()) {
+            socket.connect(address);
+            socket.getOutputStream().write('x');
+            return socket.getInputStream().read();
+        }
+    }
+}
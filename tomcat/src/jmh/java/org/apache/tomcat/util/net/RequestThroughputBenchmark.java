@@ -0,0 +1,119 @@
+package org.apache.tomcat.util.net;
+
+import org.apache.coyote.Processor;
+import org.apache.coyote.http11.Http11Processor;
+import org.apache.coyote.http11.Http11Protocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * keep-alive 연결마다 GET / 를 주고받으며 JIO 와 NIO 엔드포인트의 초당 요청 수를 잰다.
+ * 클라이언트 스레드마다 연결 하나를 끝까지 쓰므로 연결을 맺는 비용은 빠지고 요청 처리와 디스패치 비용만 남는다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class RequestThroughputBenchmark {
+
+    private static final byte[] REQUEST = "GET / HTTP/1.1\r\nHost: localhost\r\n\r\n"
+            .getBytes(StandardCharsets.ISO_8859_1);
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"jio", "nio"})
+        private String endpointType;
+
+        private final Http11Protocol protocol = new Http11Protocol();
+        private ExecutorService executor;
+        private AbstractEndpoint<?> endpoint;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            // 측정 중에 연결이 끊기지 않도록 keep-alive 요청 수는 제한하지 않는다.
+            protocol.setMaxKeepAliveRequests(0);
+            // JIO 는 연결마다 워커를 붙잡으므로 클라이언트 수보다 스레드가 적으면 안 된다.
+            executor = Executors.newCachedThreadPool();
+            final AbstractEndpoint.Handler handler = Server.this::process;
+            endpoint = endpointType.equals("nio")
+                    ? new NioEndpoint(0, 1024, executor, handler)
+                    : new JioEndpoint(0, 1024, executor, handler);
+            endpoint.bind();
+            endpoint.start();
+        }
+
+        private SocketState process(final SocketWrapperBase<?> socketWrapper) {
+            var processor = (Processor) socketWrapper.getCurrentProcessor();
+            if (processor == null) {
+                processor = new Http11Processor(protocol);
+                socketWrapper.setCurrentProcessor(processor);
+            }
+            return processor.process(socketWrapper);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            endpoint.stop();
+            executor.shutdownNow();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private Socket socket;
+        private OutputStream output;
+        private InputStream input;
+        private int responseLength;
+
+        @Setup(Level.Trial)
+        public void setUp(final Server server) throws IOException {
+            socket = new Socket("localhost", server.endpoint.getLocalPort());
+            socket.setTcpNoDelay(true);
+            output = socket.getOutputStream();
+            input = socket.getInputStream();
+            // 응답은 Date 헤더 길이까지 늘 같으므로 처음 한 번 재어 두고 그만큼만 읽는다.
+            output.write(REQUEST);
+            final var response = new StringBuilder();
+            while (!response.toString().endsWith("Hello world!")) {
+                response.append((char) input.read());
+            }
+            responseLength = response.length();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Benchmark
+    public int request(final Client client) throws IOException {
+        client.output.write(REQUEST);
+        return client.input.readNBytes(client.responseLength).length;
+    }
+}
@@ -1,10 +1,12 @@
 package camp.nextstep;
 
+import camp.nextstep.db.InMemoryUserRepository;
 import org.apache.catalina.startup.Tomcat;
 
 public class Application {
 
     public static void main(String[] args) {
+        InMemoryUserRepository.open();
         final var tomcat = new Tomcat();
         tomcat.start();
     }
@@ -1,26 +1,85 @@
 package camp.nextstep.db;
 
 import camp.nextstep.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.Map;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * 사용자 저장소. 메모리에서 조회하고, 저장은 {@link UserStore} 로 디스크에 남긴다.
+ * 데이터 디렉터리는 {@code nextstep.db.dir} 시스템 속성으로 정하며 기본값은 {@code data/users} 다.
+ * <p>
+ * 저장소는 클래스를 읽을 때가 아니라 {@link #open()} 이나 처음 쓸 때 연다. 열지 못하면 그 호출만 실패하고 다음 호출이 다시 연다.
+ */
 public class InMemoryUserRepository {
 
-    private static final Map<String, User> database = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(InMemoryUserRepository.class);
 
-    static {
-        final User user = new User(1L, "gugu", "password", "hkkang@woowahan.com");
-        database.put(user.getAccount(), user);
+    private static volatile UserStore database;
+
+    /**
+     * 저장소를 열고 기본 사용자를 넣는다. 이미 열려 있으면 아무것도 하지 않는다. 서버를 시작할 때 불러 두면 첫 요청이 기다리지 않는다.
+     *
+     * @throws IllegalStateException 데이터 디렉터리를 열 수 없거나 다른 프로세스가 쓰고 있는 경우
+     */
+    public static void open() {
+        database();
+    }
+
+    private static UserStore database() {
+        final UserStore opened = database;
+        if (opened != null) {
+            return opened;
+        }
+        synchronized (InMemoryUserRepository.class) {
+            if (database == null) {
+                database = openStore();
+            }
+            return database;
+        }
+    }
+
+    private static UserStore openStore() {
+        final Path directory = Path.of(System.getProperty("nextstep.db.dir", "data/users")).toAbsolutePath();
+        final UserStore store;
+        try {
+            store = UserStore.open(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open user store at " + directory
+                    + " (set -Dnextstep.db.dir to a writable directory not used by another process): "
+                    + e.getMessage(), e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                store.close();
+            } catch (IOException e) {
+                log.error("Failed to close user store", e);
+            }
+        }, "user-store-shutdown"));
+        if (store.findByAccount("gugu").isEmpty()) {
+            save(store, new User(1L, "gugu", "password", "hkkang@woowahan.com"));
+        }
+        return store;
     }
 
     public static void save(User user) {
-        database.put(user.getAccount(), user);
+        save(database(), user);
+    }
+
+    private static void save(final UserStore store, final User user) {
+        try {
+            store.save(user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     public static Optional<User> findByAccount(String account) {
-        return Optional.ofNullable(database.get(account));
+        return database().findByAccount(account);
     }
 
     private InMemoryUserRepository() {}
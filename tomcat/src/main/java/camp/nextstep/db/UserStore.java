@@ -0,0 +1,311 @@
+package camp.nextstep.db;
+
+import camp.nextstep.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.CRC32C;
+
+/**
+ * 사용자를 메모리에 두고 {@link WriteAheadLog} 와 스냅숏으로 디스크에 남기는 저장소.
+ * <p>
+ * {@link #save(User)} 는 로그를 디스크에 내린 뒤에 메모리에 반영하므로, 조회에 보이는 사용자는 재시작해도 남는다.
+ * 로그 세그먼트가 차면 뒤에서 스냅숏을 뜨고 스냅숏에 들어간 세그먼트를 지운다.
+ * 스냅숏을 뜨는 동안에도 저장은 계속되므로 스냅숏에는 다음 세그먼트의 일부가 섞일 수 있다. 같은 계정은 나중 레코드가 이기므로
+ * 다음 세그먼트부터 다시 적용하면 결과는 같다.
+ * <p>
+ * 시작할 때는 스냅숏을 읽고 그 뒤 세그먼트만 다시 적용한다.
+ * <p>
+ * 한 디렉터리는 한 저장소만 연다. 열 때 잠금 파일을 잡고 닫을 때 놓으며, 이미 잡혀 있으면 바로 실패한다.
+ * <p>
+ * 스냅숏 형식은 {@code magic | version | 다음 세그먼트 번호 | (1 | 사용자)* | 0 | crc32c} 이다.
+ */
+public class UserStore implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStore.class);
+
+    static final String SNAPSHOT_FILE = "users.snapshot";
+    static final String LOCK_FILE = "users.lock";
+    private static final String SNAPSHOT_TEMP_FILE = "users.snapshot.tmp";
+    private static final int SNAPSHOT_MAGIC = 0x55534E50;
+    private static final int VERSION = 1;
+    private static final long DEFAULT_SEGMENT_RECORDS = 1_000_000;
+
+    private final Path directory;
+    private final FileChannel lockChannel;
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final WriteAheadLog<User> writeAheadLog;
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "user-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private UserStore(final Path directory, final long segmentRecords, final FileChannel lockChannel) {
+        this.directory = directory;
+        this.lockChannel = lockChannel;
+        this.writeAheadLog = new WriteAheadLog<>(directory, UserStore::encode, this::apply,
+                this::scheduleSnapshot, segmentRecords);
+    }
+
+    public static UserStore open(final Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_RECORDS);
+    }
+
+    /**
+     * @param segmentRecords 이만큼 저장할 때마다 스냅숏을 뜬다.
+     * @throws IOException 다른 프로세스나 저장소가 이미 이 디렉터리를 열고 있는 경우
+     */
+    public static UserStore open(final Path directory, final long segmentRecords) throws IOException {
+        final FileChannel lockChannel = lock(directory);
+        try {
+            final var store = new UserStore(directory, segmentRecords, lockChannel);
+            store.recover();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 두 저장소가 같은 로그에 덧붙이면 레코드가 섞이므로 기다리지 않고 실패한다. 잠금은 채널을 닫으면 풀린다.
+     */
+    private static FileChannel lock(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        final var channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        try {
+            final FileLock lock = channel.tryLock();
+            if (lock == null) {
+                throw new IOException("User store is locked by another process: " + directory);
+            }
+            return channel;
+        } catch (OverlappingFileLockException e) {
+            channel.close();
+            throw new IOException("User store is already open: " + directory, e);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void recover() throws IOException {
+        final long startTime = System.nanoTime();
+        final long firstSegment = loadSnapshot();
+        final int snapshotUsers = users.size();
+        final long replayed = writeAheadLog.open(firstSegment, data -> put(decode(data)));
+        log.info("Recovered {} users ({} from snapshot, {} log records) in {} ms", users.size(), snapshotUsers,
+                replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+
+    /**
+     * 디스크에 내린 뒤에 돌아온다.
+     *
+     * @throws IOException 로그를 쓰지 못한 경우. 이 때는 메모리에도 반영하지 않는다.
+     */
+    public void save(final User user) throws IOException {
+        writeAheadLog.append(user);
+    }
+
+    public Optional<User> findByAccount(final String account) {
+        return Optional.ofNullable(users.get(account));
+    }
+
+    public int size() {
+        return users.size();
+    }
+
+    private void apply(final List<User> saved) {
+        for (final User user : saved) {
+            put(user);
+        }
+    }
+
+    private void put(final User user) {
+        users.put(user.getAccount(), user);
+    }
+
+    /**
+     * 세그먼트를 넘기고 스냅숏을 떠서 로그를 비운다. 스냅숏이 디스크에 내려간 뒤에 돌아온다.
+     */
+    public void snapshot() throws IOException {
+        final long firstSegment = writeAheadLog.rotate();
+        try {
+            snapshotExecutor.submit(() -> {
+                writeSnapshot(firstSegment);
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while taking snapshot", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void scheduleSnapshot(final long firstSegment) {
+        snapshotExecutor.execute(() -> {
+            try {
+                writeSnapshot(firstSegment);
+            } catch (IOException e) {
+                // 로그는 그대로 남으므로 다음 스냅숏이 이어받는다.
+                log.error("Failed to write user snapshot", e);
+            }
+        });
+    }
+
+    /**
+     * @param firstSegment 스냅숏에 다 들어가지 않았을 수 있는 첫 세그먼트
+     */
+    private void writeSnapshot(final long firstSegment) throws IOException {
+        final long startTime = System.nanoTime();
+        final Path temp = directory.resolve(SNAPSHOT_TEMP_FILE);
+        final var crc = new CRC32C();
+        long count = 0;
+        try (final var channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final var buffered = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            final var out = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(firstSegment);
+            for (final User user : users.values()) {
+                out.writeBoolean(true);
+                write(out, user);
+                count++;
+            }
+            out.writeBoolean(false);
+            out.flush();
+            new DataOutputStream(buffered).writeInt((int) crc.getValue());
+            buffered.flush();
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        writeAheadLog.forceDirectory();
+        writeAheadLog.deleteSegmentsBefore(firstSegment);
+        log.info("Wrote snapshot of {} users in {} ms", count,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+
+    /**
+     * @return 스냅숏 뒤에 다시 적용할 첫 세그먼트 번호. 스냅숏이 없으면 0
+     */
+    private long loadSnapshot() throws IOException {
+        final Path path = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        final var crc = new CRC32C();
+        try (final var buffered = new BufferedInputStream(Files.newInputStream(path), 64 * 1024)) {
+            final var in = new DataInputStream(new CheckedInputStream(buffered, crc));
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Invalid user snapshot: " + path);
+            }
+            final long firstSegment = in.readLong();
+            while (in.readBoolean()) {
+                put(read(in));
+            }
+            final int expected = (int) crc.getValue();
+            if (new DataInputStream(buffered).readInt() != expected) {
+                // 임시 파일에 다 쓴 뒤에 이름을 바꾸므로 정상이라면 깨질 수 없다.
+                throw new IOException("Corrupted user snapshot: " + path);
+            }
+            return firstSegment;
+        }
+    }
+
+    private static byte[] encode(final User user) {
+        final var bytes = new ByteArrayOutputStream(64);
+        try {
+            write(new DataOutputStream(bytes), user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static User decode(final byte[] data) {
+        try {
+            return read(new DataInputStream(new ByteArrayInputStream(data)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(final DataOutput out, final User user) throws IOException {
+        final Long id = user.getId();
+        out.writeBoolean(id != null);
+        if (id != null) {
+            out.writeLong(id);
+        }
+        out.writeUTF(user.getAccount());
+        out.writeUTF(user.getPassword());
+        out.writeUTF(user.getEmail());
+    }
+
+    private static User read(final DataInput in) throws IOException {
+        final Long id = in.readBoolean() ? in.readLong() : null;
+        return new User(id, in.readUTF(), in.readUTF(), in.readUTF());
+    }
+
+    /**
+     * 남은 쓰기와 진행 중인 스냅숏을 마치고 닫는다. 잠금은 맨 마지막에 놓는다.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeAheadLog.close();
+            snapshotExecutor.shutdown();
+            try {
+                if (!snapshotExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
+                    log.warn("User snapshot did not finish in time");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            lockChannel.close();
+        }
+    }
+
+    /**
+     * 지금까지 fsync 한 횟수.
+     */
+    public long getSyncCount() {
+        return writeAheadLog.getSyncCount();
+    }
+}
@@ -0,0 +1,439 @@
+package camp.nextstep.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 쓰기를 디스크에 내린 뒤에야 반영하는 선행 기록 로그.
+ * <p>
+ * {@link #append(Object)} 는 레코드를 대기열에 넣고 기다리기만 한다. 쓰기 스레드 하나가 대기열에 모인 레코드를 한 번에
+ * 쓰고 {@code fsync} 한 번으로 내린 뒤(그룹 커밋), 로그 순서대로 반영하고 기다리던 스레드를 깨운다.
+ * fsync 하는 동안 들어온 레코드는 다음 묶음이 되므로, 동시에 쓰는 스레드가 많을수록 fsync 한 번에 더 많이 내린다.
+ * <p>
+ * 로그는 {@code wal-<번호>.log} 세그먼트로 나뉜다. 레코드가 일정 수를 넘으면 묶음 경계에서 다음 세그먼트로 넘어가고
+ * 리스너에 새 번호를 알린다. 그 시점에는 앞 세그먼트까지의 레코드가 모두 반영되어 있으므로 스냅숏을 뜬 뒤 앞 세그먼트를 지울 수 있다.
+ * <p>
+ * 레코드 형식은 {@code 길이(4) | crc32c(4) | 내용} 이다.
+ */
+public class WriteAheadLog<T> implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final Path directory;
+    private final Function<T, byte[]> encoder;
+    private final Consumer<List<T>> applier;
+    private final LongConsumer rotationListener;
+    private final long segmentRecords;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingAvailable = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private List<T> pendingRecords = new ArrayList<>();
+    private ByteArrayOutputStream pendingBytes = new ByteArrayOutputStream();
+    private long appendedSequence;
+    private long flushedSequence;
+    private boolean closed;
+    private IOException failure;
+
+    // 아래는 쓰기 스레드와 rotate() 가 writeLock 을 잡고 쓴다.
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private FileChannel channel;
+    private long segment;
+    private long segmentRecordCount;
+    private long syncCount;
+
+    private Thread writer;
+
+    /**
+     * @param encoder          레코드를 바이트로 바꾼다. 호출한 스레드에서 실행한다.
+     * @param applier          디스크에 내린 묶음을 로그 순서대로 반영한다. 쓰기 스레드에서 실행한다.
+     * @param rotationListener 세그먼트를 넘길 때 새 세그먼트 번호를 받는다. 쓰기 스레드에서 실행하므로 오래 걸리는 일은 넘겨야 한다.
+     * @param segmentRecords   세그먼트 하나에 넣을 레코드 수
+     */
+    public WriteAheadLog(final Path directory, final Function<T, byte[]> encoder, final Consumer<List<T>> applier,
+                         final LongConsumer rotationListener, final long segmentRecords) {
+        if (segmentRecords < 1) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentRecords);
+        }
+        this.directory = directory;
+        this.encoder = encoder;
+        this.applier = applier;
+        this.rotationListener = rotationListener;
+        this.segmentRecords = segmentRecords;
+    }
+
+    /**
+     * {@code firstSegment} 부터 남은 세그먼트를 순서대로 읽어 {@code replayer} 에 넘기고, 새 세그먼트를 열어 쓰기를 받는다.
+     * 그보다 앞선 세그먼트는 스냅숏에 들어 있으므로 지운다.
+     * 마지막 세그먼트 끝에 쓰다 만 레코드가 있으면 잘라 낸다. 그 앞 세그먼트가 깨졌다면 복구하지 않는다.
+     *
+     * @return 다시 읽은 레코드 수
+     * @throws IOException 마지막이 아닌 세그먼트가 깨진 경우
+     */
+    public long open(final long firstSegment, final Consumer<byte[]> replayer) throws IOException {
+        Files.createDirectories(directory);
+        final List<Long> segments = listSegments();
+        long replayed = 0;
+        long lastSegment = firstSegment - 1;
+        for (int i = 0; i < segments.size(); i++) {
+            final long number = segments.get(i);
+            if (number < firstSegment) {
+                Files.delete(segmentPath(number));
+                continue;
+            }
+            replayed += replay(number, i == segments.size() - 1, replayer);
+            lastSegment = number;
+        }
+        writeLock.lock();
+        try {
+            openSegment(lastSegment + 1);
+        } finally {
+            writeLock.unlock();
+        }
+        writer = new Thread(this::writeLoop, "wal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        return replayed;
+    }
+
+    private long replay(final long number, final boolean last, final Consumer<byte[]> replayer) throws IOException {
+        final Path path = segmentPath(number);
+        try (final var segmentChannel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long size = segmentChannel.size();
+            final var buffer = ByteBuffer.allocate(64 * 1024);
+            final var crc = new CRC32C();
+            long position = 0;
+            long records = 0;
+            buffer.limit(0);
+            while (position < size) {
+                if (!ensure(segmentChannel, buffer, RECORD_HEADER_SIZE)) {
+                    break;
+                }
+                final int length = buffer.getInt(buffer.position());
+                final int checksum = buffer.getInt(buffer.position() + 4);
+                if (length < 0 || length > size - position - RECORD_HEADER_SIZE) {
+                    break;
+                }
+                final byte[] data = new byte[length];
+                buffer.position(buffer.position() + RECORD_HEADER_SIZE);
+                readRecord(segmentChannel, buffer, data);
+                crc.reset();
+                crc.update(data);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                replayer.accept(data);
+                position += RECORD_HEADER_SIZE + length;
+                records++;
+            }
+            if (position < size) {
+                if (!last) {
+                    throw new IOException("Corrupted write-ahead log segment: " + path);
+                }
+                log.warn("Truncating torn write-ahead log tail at {} of {}", position, path);
+                segmentChannel.truncate(position);
+                segmentChannel.force(true);
+            }
+            return records;
+        }
+    }
+
+    private static boolean ensure(final FileChannel channel, final ByteBuffer buffer, final int length)
+            throws IOException {
+        if (buffer.remaining() >= length) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < length) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static void readRecord(final FileChannel channel, final ByteBuffer buffer, final byte[] data)
+            throws IOException {
+        final int buffered = Math.min(buffer.remaining(), data.length);
+        buffer.get(data, 0, buffered);
+        if (buffered < data.length) {
+            // 길이는 파일 크기 안쪽임을 확인했으므로 끝까지 읽힌다.
+            final var rest = ByteBuffer.wrap(data, buffered, data.length - buffered);
+            while (rest.hasRemaining()) {
+                if (channel.read(rest) < 0) {
+                    throw new IOException("Unexpected end of write-ahead log");
+                }
+            }
+        }
+    }
+
+    /**
+     * 레코드를 로그에 쓰고 디스크에 내린 뒤 반영될 때까지 기다린다.
+     *
+     * @throws IOException 로그가 닫혔거나 쓰기에 실패한 경우. 한 번 실패한 로그는 더 쓰지 않는다.
+     */
+    public void append(final T record) throws IOException {
+        final byte[] data = encoder.apply(record);
+        final var crc = new CRC32C();
+        crc.update(data);
+        final byte[] header = ByteBuffer.allocate(RECORD_HEADER_SIZE)
+                .putInt(data.length)
+                .putInt((int) crc.getValue())
+                .array();
+        lock.lock();
+        try {
+            checkWritable();
+            pendingRecords.add(record);
+            pendingBytes.write(header);
+            pendingBytes.write(data);
+            final long sequence = ++appendedSequence;
+            pendingAvailable.signal();
+            while (flushedSequence < sequence && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (flushedSequence < sequence) {
+                throw new IOException("Write-ahead log failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkWritable() throws IOException {
+        if (failure != null) {
+            throw new IOException("Write-ahead log failed", failure);
+        }
+        if (closed) {
+            throw new IOException("Write-ahead log closed");
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            final List<T> records;
+            final byte[] bytes;
+            final long sequence;
+            lock.lock();
+            try {
+                while (pendingRecords.isEmpty() && !closed) {
+                    pendingAvailable.awaitUninterruptibly();
+                }
+                if (pendingRecords.isEmpty()) {
+                    return;
+                }
+                records = pendingRecords;
+                bytes = pendingBytes.toByteArray();
+                sequence = appendedSequence;
+                pendingRecords = new ArrayList<>();
+                pendingBytes = new ByteArrayOutputStream(bytes.length);
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flush(records, bytes);
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to write write-ahead log", e);
+                fail(e);
+                return;
+            }
+            lock.lock();
+            try {
+                flushedSequence = sequence;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            // 묶음은 이미 디스크에 내렸으므로 세그먼트를 넘기다 실패해도 기다리던 쓰기는 성공이다. 다음 쓰기부터 실패한다.
+            try {
+                rotateIfFull();
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to rotate write-ahead log", e);
+                fail(e);
+                return;
+            }
+        }
+    }
+
+    private void fail(final Exception e) {
+        lock.lock();
+        try {
+            failure = e instanceof IOException ioException ? ioException : new IOException(e);
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush(final List<T> records, final byte[] bytes) throws IOException {
+        writeLock.lock();
+        try {
+            final var buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            syncCount++;
+            applier.accept(records);
+            segmentRecordCount += records.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 그 사이 {@link #rotate()} 가 먼저 넘겼다면 다시 넘기지 않는다. 리스너가 던진 예외는 로그를 망가뜨리지 않으므로 남기기만 한다.
+     */
+    private void rotateIfFull() throws IOException {
+        final long next;
+        writeLock.lock();
+        try {
+            if (segmentRecordCount < segmentRecords) {
+                return;
+            }
+            next = rotateInternal();
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            rotationListener.accept(next);
+        } catch (RuntimeException e) {
+            log.error("Write-ahead log rotation listener failed", e);
+        }
+    }
+
+    /**
+     * 다음 세그먼트로 넘긴다. 돌아온 시점에는 앞 세그먼트까지의 레코드가 모두 반영되어 있다.
+     *
+     * @return 새 세그먼트 번호
+     */
+    public long rotate() throws IOException {
+        writeLock.lock();
+        try {
+            if (channel == null) {
+                throw new IOException("Write-ahead log closed");
+            }
+            return rotateInternal();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private long rotateInternal() throws IOException {
+        channel.close();
+        openSegment(segment + 1);
+        return segment;
+    }
+
+    private void openSegment(final long number) throws IOException {
+        channel = FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        // 새 파일이 디렉터리에 남도록 디렉터리도 내린다.
+        forceDirectory();
+        segment = number;
+        segmentRecordCount = 0;
+    }
+
+    /**
+     * {@code firstSegment} 보다 앞선 세그먼트를 지운다. 스냅숏을 저장한 뒤에 부른다.
+     */
+    public void deleteSegmentsBefore(final long firstSegment) throws IOException {
+        for (final long number : listSegments()) {
+            if (number < firstSegment) {
+                Files.deleteIfExists(segmentPath(number));
+            }
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(final long number) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    void forceDirectory() {
+        try (final var directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            // 디렉터리를 열 수 없는 파일 시스템도 있다.
+            log.debug("Failed to sync directory {}", directory, e);
+        }
+    }
+
+    /**
+     * 지금까지 fsync 한 횟수. 레코드 수보다 작을수록 그룹 커밋이 잘 묶인 것이다.
+     */
+    public long getSyncCount() {
+        writeLock.lock();
+        try {
+            return syncCount;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 대기 중인 레코드를 모두 쓴 뒤 닫는다.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pendingAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writeLock.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
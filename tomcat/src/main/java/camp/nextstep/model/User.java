@@ -22,10 +22,22 @@ public class User {
         return this.password.equals(password);
     }
 
+    public Long getId() {
+        return id;
+    }
+
     public String getAccount() {
         return account;
     }
 
+    public String getPassword() {
+        return password;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
     @Override
     public String toString() {
         return "User{" +
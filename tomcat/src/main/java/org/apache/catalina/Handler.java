@@ -0,0 +1,16 @@
+package org.apache.catalina;
+
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+
+import java.io.IOException;
+
+/**
+ * 라우트 하나의 요청을 처리한다. {@link org.apache.catalina.mapper.Mapper} 에 경로와 메서드를 붙여 등록한다.
+ * 여러 스레드가 동시에 부르므로 상태를 두지 않는다.
+ */
+@FunctionalInterface
+public interface Handler {
+
+    void handle(Request request, Response response) throws IOException;
+}
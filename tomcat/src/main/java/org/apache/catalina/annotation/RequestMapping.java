@@ -0,0 +1,27 @@
+package org.apache.catalina.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link org.apache.catalina.Handler} 구현 클래스를 라우트로 등록한다. 클래스는 public 이고 인자 없는 public 생성자가 있어야 한다.
+ * <p>
+ * 컴파일할 때 애너테이션 프로세서가 붙은 클래스를 모아 {@code META-INF/catalina/handlers.idx} 에 적고,
+ * {@link org.apache.catalina.startup.Tomcat} 은 시작할 때 클래스패스를 훑지 않고 이 색인만 읽는다.
+ * 실행 중에도 남겨 두는 것은 색인 없이 클래스패스를 훑는 경우를 위해서다.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface RequestMapping {
+
+    /**
+     * 경로 패턴. 형식은 {@link org.apache.catalina.mapper.Mapper} 를 따른다.
+     */
+    String value();
+
+    String[] method() default "GET";
+}
@@ -1,82 +1,314 @@
 package org.apache.catalina.connector;
 
+import org.apache.coyote.Processor;
 import org.apache.coyote.http11.Http11Processor;
+import org.apache.coyote.http11.Http11Protocol;
+import org.apache.tomcat.util.net.AbstractEndpoint;
+import org.apache.tomcat.util.net.JioEndpoint;
+import org.apache.tomcat.util.net.NioEndpoint;
+import org.apache.tomcat.util.net.SocketState;
+import org.apache.tomcat.util.net.SocketWrapperBase;
+import org.apache.tomcat.util.threads.CoDelPolicy;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.apache.tomcat.util.threads.ThreadPoolStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
-public class Connector implements Runnable {
+public class Connector {
 
     private static final Logger log = LoggerFactory.getLogger(Connector.class);
 
     private static final int DEFAULT_PORT = 8080;
     private static final int DEFAULT_ACCEPT_COUNT = 100;
+    private static final int DEFAULT_MAX_THREADS = 200;
+    private static final int DEFAULT_MIN_SPARE_THREADS = 10;
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 100;
+    private static final int DEFAULT_CONNECTION_TIMEOUT = 20_000;
+    private static final int DEFAULT_MAX_CONNECTIONS = 8192;
+    private static final int DEFAULT_QUEUE_DELAY_TARGET = 0;
+    private static final int DEFAULT_QUEUE_DELAY_INTERVAL = 100;
+    private static final long EXECUTOR_TERMINATION_TIMEOUT_SECONDS = 5L;
 
-    private final ServerSocket serverSocket;
-    private boolean stopped;
+    private final int port;
+    private final int acceptCount;
+    private final Http11Protocol protocol = new Http11Protocol();
+
+    private int maxThreads = DEFAULT_MAX_THREADS;
+    private int minSpareThreads = DEFAULT_MIN_SPARE_THREADS;
+    private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+    private int connectionTimeout = DEFAULT_CONNECTION_TIMEOUT;
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private int queueDelayTarget = DEFAULT_QUEUE_DELAY_TARGET;
+    private int queueDelayInterval = DEFAULT_QUEUE_DELAY_INTERVAL;
+    private int acceptorThreadCount = 1;
+    private boolean reusePort = false;
+    private int pollerThreadCount = Runtime.getRuntime().availableProcessors();
+    private boolean useVirtualThreads = false;
+    private boolean useNio = false;
+    private ExecutorService executor;
+    private AbstractEndpoint<?> endpoint;
 
     public Connector() {
         this(DEFAULT_PORT, DEFAULT_ACCEPT_COUNT);
     }
 
     public Connector(final int port, final int acceptCount) {
-        this.serverSocket = createServerSocket(port, acceptCount);
-        this.stopped = false;
+        this.port = checkPort(port);
+        this.acceptCount = checkAcceptCount(acceptCount);
     }
 
-    private ServerSocket createServerSocket(final int port, final int acceptCount) {
+    public void start() {
+        protocol.getMapper().compile();
+        executor = createExecutor();
+        endpoint = createEndpoint();
         try {
-            final int checkedPort = checkPort(port);
-            final int checkedAcceptCount = checkAcceptCount(acceptCount);
-            return new ServerSocket(checkedPort, checkedAcceptCount);
+            endpoint.bind();
         } catch (IOException e) {
+            // 리슨 소켓을 열지 못했다면 워커 스레드만 남지 않도록 함께 정리한다.
+            endpoint.stop();
+            endpoint = null;
+            stopExecutor();
+            executor = null;
             throw new UncheckedIOException(e);
         }
+        endpoint.start();
+        log.info("Web Application Server started {} port. ({}, acceptors: {}{}, {})",
+                endpoint.getLocalPort(), useNio ? "nio" : "jio", acceptorThreadCount,
+                reusePort ? " with SO_REUSEPORT" : "", describeExecutor());
     }
 
-    public void start() {
-        var thread = new Thread(this);
-        thread.setDaemon(true);
-        thread.start();
-        stopped = false;
-        log.info("Web Application Server started {} port.", serverSocket.getLocalPort());
+    private ExecutorService createExecutor() {
+        if (useVirtualThreads) {
+            // 가상 스레드는 블로킹 I/O 에서 캐리어 스레드를 반납하므로 풀링하지 않고 연결마다 하나씩 만든다.
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 1).factory());
+        }
+        return ThreadPoolExecutor.create(minSpareThreads, maxThreads, maxQueueSize,
+                new TaskThreadFactory("http-exec-", true));
     }
 
-    @Override
-    public void run() {
-        // 클라이언트가 연결될때까지 대기한다.
-        while (!stopped) {
-            connect();
+    private AbstractEndpoint<?> createEndpoint() {
+        final AbstractEndpoint<?> created;
+        if (useNio) {
+            final var nioEndpoint = new NioEndpoint(port, acceptCount, executor, new ConnectionHandler());
+            nioEndpoint.setPollerThreadCount(pollerThreadCount);
+            created = nioEndpoint;
+        } else {
+            created = new JioEndpoint(port, acceptCount, executor, new ConnectionHandler());
+        }
+        created.setConnectionTimeout(connectionTimeout);
+        created.setAcceptorThreadCount(acceptorThreadCount);
+        created.setReusePort(reusePort);
+        created.setMaxConnections(maxConnections);
+        created.setOverloadResponse(protocol.getOverloadResponse());
+        if (queueDelayTarget > 0 && !useNio) {
+            // 블로킹 연결은 워커가 keep-alive 내내 붙잡으므로 큐 대기 시간이 요청이 아니라 앞 연결이 끝나기를 기다린 시간이 된다.
+            log.warn("Queue delay target is ignored for the jio endpoint, it only applies to nio");
+        } else if (queueDelayTarget > 0) {
+            created.setQueueDelayPolicy(new CoDelPolicy(queueDelayTarget,
+                    Math.max(queueDelayInterval, queueDelayTarget), TimeUnit.MILLISECONDS));
         }
+        return created;
     }
 
-    private void connect() {
-        try {
-            process(serverSocket.accept());
-        } catch (IOException e) {
-            log.error(e.getMessage(), e);
+    private String describeExecutor() {
+        if (useVirtualThreads) {
+            return "virtual threads";
         }
+        return String.format("maxThreads: %d, minSpareThreads: %d, maxQueueSize: %d",
+                maxThreads, minSpareThreads, maxQueueSize);
     }
 
-    private void process(final Socket connection) {
-        if (connection == null) {
-            return;
+    public void stop() {
+        if (endpoint != null) {
+            endpoint.stop();
         }
-        var processor = new Http11Processor(connection);
-        new Thread(processor).start();
+        stopExecutor();
     }
 
-    public void stop() {
-        stopped = true;
+    private void stopExecutor() {
+        if (executor == null) {
+            return;
+        }
+        if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+            log.info("Thread pool stats at shutdown. {}", threadPoolExecutor.getStats());
+        }
+        executor.shutdown();
         try {
-            serverSocket.close();
-        } catch (IOException e) {
-            log.error(e.getMessage(), e);
+            if (!executor.awaitTermination(EXECUTOR_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getLocalPort() {
+        if (endpoint == null) {
+            return port;
+        }
+        return endpoint.getLocalPort();
+    }
+
+    /**
+     * keep-alive 등 HTTP/1.1 처리 설정. 커넥터를 시작하기 전에 바꾼다.
+     */
+    public Http11Protocol getProtocol() {
+        return protocol;
+    }
+
+    public ThreadPoolStats getThreadPoolStats() {
+        if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+            return threadPoolExecutor.getStats();
         }
+        return new ThreadPoolStats(0, 0, 0, maxThreads, 0, maxQueueSize, 0, 0);
+    }
+
+    /**
+     * 지금 열려 있는 연결 수.
+     */
+    public int getConnectionCount() {
+        return endpoint == null ? 0 : endpoint.getConnectionCount();
+    }
+
+    /**
+     * 연결 수 제한, 스레드 풀 포화, 큐 대기 시간 때문에 503 으로 거절한 연결 수.
+     */
+    public long getRejectedCount() {
+        return endpoint == null ? 0 : endpoint.getRejectedCount();
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(final int maxThreads) {
+        this.maxThreads = checkMaxThreads(maxThreads);
+        this.minSpareThreads = Math.min(minSpareThreads, this.maxThreads);
+    }
+
+    public int getMinSpareThreads() {
+        return minSpareThreads;
+    }
+
+    public void setMinSpareThreads(final int minSpareThreads) {
+        this.minSpareThreads = checkMinSpareThreads(minSpareThreads);
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public void setMaxQueueSize(final int maxQueueSize) {
+        this.maxQueueSize = checkMaxQueueSize(maxQueueSize);
+    }
+
+    public int getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    /**
+     * 연결 후 요청이 도착하기를 기다리는 시간(ms). 0 이하면 제한하지 않는다.
+     */
+    public void setConnectionTimeout(final int connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * 동시에 열어 둘 연결 수. 넘으면 요청을 읽지 않고 Retry-After 를 붙인 503 으로 바로 거절한다. 0 이하면 제한하지 않는다.
+     */
+    public void setMaxConnections(final int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getQueueDelayTarget() {
+        return queueDelayTarget;
+    }
+
+    /**
+     * 요청이 워커 스레드를 기다리는 목표 시간(ms). 한 인터벌 내내 이보다 오래 기다렸다면 과부하로 보고,
+     * 그동안 목표보다 오래 기다린 요청은 처리하지 않고 503 으로 거절한다. 기본값 0 은 대기 시간을 보지 않는다.
+     * 요청마다 워커에게 넘기는 NIO 에서만 쓴다. JIO 는 워커가 연결을 통째로 붙잡으므로 대기 시간이 요청 부하를 뜻하지 않는다.
+     */
+    public void setQueueDelayTarget(final int queueDelayTarget) {
+        this.queueDelayTarget = queueDelayTarget;
+    }
+
+    public int getQueueDelayInterval() {
+        return queueDelayInterval;
+    }
+
+    /**
+     * 과부하인지 다시 판단하는 간격(ms). 과부하가 아닐 때도 이보다 오래 기다린 연결은 거절한다.
+     */
+    public void setQueueDelayInterval(final int queueDelayInterval) {
+        this.queueDelayInterval = queueDelayInterval;
+    }
+
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * 연결마다 가상 스레드에서 {@link Http11Processor} 를 실행한다.
+     * 이 모드에서는 maxThreads, minSpareThreads, maxQueueSize 설정을 사용하지 않는다.
+     */
+    public void setUseVirtualThreads(final boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
+    public boolean isUseNio() {
+        return useNio;
+    }
+
+    /**
+     * 블로킹 소켓 대신 {@link NioEndpoint} 의 셀렉터 이벤트 루프로 연결을 받는다.
+     * 요청을 기다리는 연결은 워커 스레드를 차지하지 않는다.
+     */
+    public void setUseNio(final boolean useNio) {
+        this.useNio = useNio;
+    }
+
+    public int getAcceptorThreadCount() {
+        return acceptorThreadCount;
+    }
+
+    /**
+     * 연결을 받는 스레드 수. 재배포 뒤 연결이 한꺼번에 다시 몰릴 때 연결 수락이 한 코어에서 줄 서지 않게 늘린다.
+     */
+    public void setAcceptorThreadCount(final int acceptorThreadCount) {
+        this.acceptorThreadCount = checkAcceptorThreadCount(acceptorThreadCount);
+    }
+
+    public boolean isReusePort() {
+        return reusePort;
+    }
+
+    /**
+     * 억셉터마다 SO_REUSEPORT 로 같은 포트에 리슨 소켓을 따로 열어, 커널이 새 연결을 억셉터들에게 나눠 주게 한다.
+     * 지원하지 않는 플랫폼에서는 모든 억셉터가 리슨 소켓 하나를 나눠 쓴다.
+     */
+    public void setReusePort(final boolean reusePort) {
+        this.reusePort = reusePort;
+    }
+
+    public int getPollerThreadCount() {
+        return pollerThreadCount;
+    }
+
+    public void setPollerThreadCount(final int pollerThreadCount) {
+        this.pollerThreadCount = checkPollerThreadCount(pollerThreadCount);
     }
 
     private int checkPort(final int port) {
@@ -90,6 +322,72 @@ public class Connector implements Runnable {
     }
 
     private int checkAcceptCount(final int acceptCount) {
-        return Math.max(acceptCount, DEFAULT_ACCEPT_COUNT);
+        if (acceptCount < 1) {
+            return DEFAULT_ACCEPT_COUNT;
+        }
+        return acceptCount;
+    }
+
+    private int checkMaxThreads(final int maxThreads) {
+        if (maxThreads < 1) {
+            return DEFAULT_MAX_THREADS;
+        }
+        return maxThreads;
+    }
+
+    private int checkMinSpareThreads(final int minSpareThreads) {
+        if (minSpareThreads < 0) {
+            return Math.min(DEFAULT_MIN_SPARE_THREADS, maxThreads);
+        }
+        return Math.min(minSpareThreads, maxThreads);
+    }
+
+    private int checkMaxQueueSize(final int maxQueueSize) {
+        if (maxQueueSize < 1) {
+            return DEFAULT_MAX_QUEUE_SIZE;
+        }
+        return maxQueueSize;
+    }
+
+    private int checkAcceptorThreadCount(final int acceptorThreadCount) {
+        if (acceptorThreadCount < 1) {
+            return 1;
+        }
+        return acceptorThreadCount;
+    }
+
+    private int checkPollerThreadCount(final int pollerThreadCount) {
+        if (pollerThreadCount < 1) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return pollerThreadCount;
+    }
+
+    /**
+     * 논블로킹 연결은 여러 번 나누어 처리되므로 연결에 프로세서를 붙여 둔다.
+     */
+    private final class ConnectionHandler implements AbstractEndpoint.Handler {
+
+        @Override
+        public SocketState process(final SocketWrapperBase<?> socketWrapper) {
+            var processor = (Processor) socketWrapper.getCurrentProcessor();
+            if (processor == null) {
+                processor = new Http11Processor(protocol);
+                socketWrapper.setCurrentProcessor(processor);
+            }
+            return processor.process(socketWrapper);
+        }
+
+        /**
+         * 요청을 반쯤 받은 채 타임아웃된 연결처럼 프로세서가 버퍼를 들고 있을 때 돌려받는다.
+         */
+        @Override
+        public void release(final SocketWrapperBase<?> socketWrapper) {
+            final var processor = (Processor) socketWrapper.getCurrentProcessor();
+            if (processor != null) {
+                socketWrapper.setCurrentProcessor(null);
+                processor.release();
+            }
+        }
     }
 }
@@ -0,0 +1,242 @@
+package org.apache.catalina.connector;
+
+import org.apache.catalina.Handler;
+import org.apache.catalina.mapper.Mapper;
+import org.apache.catalina.mapper.Route;
+import org.apache.catalina.webresources.CacheControlPolicy;
+import org.apache.catalina.webresources.CacheControlRule;
+import org.apache.catalina.webresources.CachedResource;
+import org.apache.catalina.webresources.WebResourceRoot;
+import org.apache.coyote.Adapter;
+import org.apache.coyote.BodyPart;
+import org.apache.coyote.CompressionConfig;
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+import org.apache.tomcat.util.http.FastHttpDateFormat;
+import org.apache.tomcat.util.http.Ranges;
+import org.apache.tomcat.util.http.Ranges.ByteRange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 요청 경로에 맞는 응답을 채운다. {@link Mapper} 에 등록한 라우트를 먼저 찾고, 없으면 정적 리소스를 응답한다.
+ * / 는 인사말을 응답하는 GET, POST 라우트로 미리 등록해 둔다.
+ */
+public class CoyoteAdapter implements Adapter {
+
+    private static final byte[] HELLO_WORLD = "Hello world!".getBytes(StandardCharsets.UTF_8);
+    private static final String NOT_FOUND_PAGE = "/404.html";
+    private static final String MIME_BOUNDARY = "CATALINA_MIME_BOUNDARY";
+    private static final byte[] MULTIPART_END =
+            ("\r\n--" + MIME_BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1);
+
+    private final WebResourceRoot resources;
+    private final Mapper mapper;
+
+    public CoyoteAdapter() {
+        this(new WebResourceRoot());
+    }
+
+    public CoyoteAdapter(final WebResourceRoot resources) {
+        this(resources, new Mapper());
+    }
+
+    public CoyoteAdapter(final WebResourceRoot resources, final Mapper mapper) {
+        this.resources = resources;
+        this.mapper = mapper;
+        final Handler helloWorld = (request, response) -> {
+            response.setContentType("text/html;charset=utf-8");
+            response.setBody(HELLO_WORLD);
+        };
+        mapper.get("/", helloWorld).post("/", helloWorld);
+    }
+
+    @Override
+    public void service(final Request request, final Response response) throws IOException {
+        final Route route = mapper.map(request);
+        if (route != null) {
+            final Handler handler = route.getHandler(request);
+            if (handler == null) {
+                response.setStatus(405);
+                response.addHeader("Allow", route.getAllow());
+                return;
+            }
+            handler.handle(request, response);
+            return;
+        }
+        final String path = getPath(request);
+        if (!request.isMethod("GET") && !request.isMethod("HEAD")) {
+            response.setStatus(405);
+            response.addHeader("Allow", "GET, HEAD");
+            return;
+        }
+        final CachedResource resource = getResource(path);
+        if (resource == null) {
+            notFound(request, response);
+            return;
+        }
+        // 규칙 비교는 할당 없이 문자열 몇 개만 보고, 헤더는 규칙이 미리 인코딩해 둔 것을 쓴다.
+        final CacheControlRule rule = resources.getCacheControlPolicy().findRule(path, resource.getContentType());
+        if (rule != null) {
+            response.setCacheHeaders(rule.getHeaders(System.currentTimeMillis()));
+        }
+        if (isNotModified(resource, request)) {
+            response.setStatus(304);
+            response.setEntityHeaders(acceptsGzip(resource, request)
+                    ? resource.getGzipNotModifiedHeaders()
+                    : resource.getNotModifiedHeaders());
+            return;
+        }
+        final String range = request.getHeader("Range");
+        if (range != null && request.isMethod("GET") && isIfRangeSatisfied(resource, request)) {
+            final List<ByteRange> ranges = Ranges.parse(range, resource.getContentLength());
+            if (ranges != null) {
+                serveRanges(resource, ranges, response);
+                return;
+            }
+        }
+        serve(resource, request, response);
+    }
+
+    /**
+     * /resources/{version}/css/styles.css 처럼 버전이 붙은 경로는 /css/styles.css 를 찾는다.
+     * 버전이 지금 내용의 해시와 다르면 1년 동안 immutable 로 캐시될 수 없으므로 없는 리소스로 본다.
+     */
+    private CachedResource getResource(final String path) {
+        if (!path.startsWith(CacheControlPolicy.VERSIONED_PREFIX)) {
+            return resources.getResource(path);
+        }
+        final int versionStart = CacheControlPolicy.VERSIONED_PREFIX.length();
+        final int versionEnd = path.indexOf('/', versionStart);
+        if (versionEnd < 0) {
+            return resources.getResource(path);
+        }
+        final CachedResource resource = resources.getResource(path.substring(versionEnd));
+        if (resource == null || !resource.matchesVersion(path.substring(versionStart, versionEnd))) {
+            return null;
+        }
+        return resource;
+    }
+
+    /**
+     * If-None-Match 가 있으면 If-Modified-Since 는 보지 않는다.
+     */
+    private boolean isNotModified(final CachedResource resource, final Request request) {
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return resource.matchesETag(ifNoneMatch);
+        }
+        final long since = FastHttpDateFormat.parseDate(request.getHeader("If-Modified-Since"));
+        return since >= 0 && !resource.isModifiedSince(since);
+    }
+
+    /**
+     * If-Range 가 없거나 리소스가 그대로일 때만 구간을 보낸다. 바뀌었다면 전체를 다시 보낸다.
+     * ETag 는 강한 비교를 하고, 날짜는 Last-Modified 와 정확히 같아야 한다.
+     */
+    private boolean isIfRangeSatisfied(final CachedResource resource, final Request request) {
+        final String ifRange = request.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        final String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            return value.equals(resource.getETag());
+        }
+        final long date = FastHttpDateFormat.parseDate(value);
+        return date >= 0 && resource.getLastModified() > 0 && resource.getLastModified() / 1000 == date / 1000;
+    }
+
+    /**
+     * 구간은 압축하지 않은 원본 기준이다. 힙에 있는 리소스는 캐시된 배열의 구간을 복사 없이 보내고,
+     * 나머지는 파일 구간을 소켓으로 바로 보낸다.
+     */
+    private void serveRanges(final CachedResource resource, final List<ByteRange> ranges, final Response response) {
+        final long length = resource.getContentLength();
+        if (ranges.isEmpty()) {
+            response.setStatus(416);
+            response.addHeader("Content-Range", "bytes */" + length);
+            return;
+        }
+        response.setStatus(206);
+        response.addHeader("ETag", resource.getETag());
+        if (resource.getLastModified() > 0) {
+            response.addHeader("Last-Modified", FastHttpDateFormat.formatDate(resource.getLastModified()));
+        }
+        if (ranges.size() == 1) {
+            final ByteRange range = ranges.get(0);
+            response.setContentType(resource.getContentType());
+            response.addHeader("Content-Range", contentRange(range, length));
+            response.addBodyPart(bodyPart(resource, range));
+            return;
+        }
+        response.setContentType("multipart/byteranges; boundary=" + MIME_BOUNDARY);
+        for (int i = 0; i < ranges.size(); i++) {
+            final ByteRange range = ranges.get(i);
+            final String partHeader = (i == 0 ? "" : "\r\n") + "--" + MIME_BOUNDARY + "\r\n"
+                    + "Content-Type: " + resource.getContentType() + "\r\n"
+                    + "Content-Range: " + contentRange(range, length) + "\r\n\r\n";
+            response.addBodyPart(new BodyPart.Bytes(partHeader.getBytes(StandardCharsets.ISO_8859_1)));
+            response.addBodyPart(bodyPart(resource, range));
+        }
+        response.addBodyPart(new BodyPart.Bytes(MULTIPART_END));
+    }
+
+    private String contentRange(final ByteRange range, final long length) {
+        return "bytes " + range.start() + "-" + range.end() + "/" + length;
+    }
+
+    private BodyPart bodyPart(final CachedResource resource, final ByteRange range) {
+        if (resource.getContent() != null) {
+            return new BodyPart.Bytes(resource.getContent(), (int) range.start(), (int) range.length());
+        }
+        return new BodyPart.FileRegion(resource.getFile(), range.start(), range.length());
+    }
+
+    private boolean acceptsGzip(final CachedResource resource, final Request request) {
+        return resource.getGzipContent() != null
+                && CompressionConfig.GZIP.equals(resources.getCompressionConfig().negotiate(request));
+    }
+
+    private String getPath(final Request request) {
+        final String uri = request.getRequestURI();
+        final int query = uri.indexOf('?');
+        if (query < 0) {
+            return uri;
+        }
+        return uri.substring(0, query);
+    }
+
+    private void notFound(final Request request, final Response response) {
+        response.setStatus(404);
+        final CachedResource page = resources.getResource(NOT_FOUND_PAGE);
+        if (page != null) {
+            serve(page, request, response);
+        }
+    }
+
+    private void serve(final CachedResource resource, final Request request, final Response response) {
+        response.setContentType(resource.getContentType());
+        if (acceptsGzip(resource, request)) {
+            response.setEntityHeaders(resource.getGzipEntityHeaders());
+            response.setBody(resource.getGzipContent());
+            return;
+        }
+        response.setEntityHeaders(resource.getEntityHeaders());
+        if (resource.getContent() == null) {
+            response.setBodyFile(resource.getFile(), 0, resource.getContentLength());
+            return;
+        }
+        response.setBody(resource.getContent());
+    }
+
+    public WebResourceRoot getResources() {
+        return resources;
+    }
+
+    public Mapper getMapper() {
+        return mapper;
+    }
+}
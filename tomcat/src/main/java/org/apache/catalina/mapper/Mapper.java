@@ -0,0 +1,275 @@
+package org.apache.catalina.mapper;
+
+import org.apache.catalina.Handler;
+import org.apache.coyote.Request;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 요청 경로와 메서드로 {@link Handler} 를 찾는다.
+ * <p>
+ * 경로 패턴은 세 가지를 쓸 수 있다.
+ * <ul>
+ * <li>{@code /login}: 경로가 정확히 같을 때</li>
+ * <li>{@code /users/{id}}: {@code {id}} 자리에 {@code /} 를 뺀 한 조각 이상이 올 때. 값은
+ * {@link Request#getPathVariable(String)} 로 읽는다.</li>
+ * <li>{@code /static/*}: {@code /static} 과 그 아래 모든 경로. {@code *} 는 마지막 조각에만 쓴다.</li>
+ * </ul>
+ * 등록한 패턴은 {@link #compile()} 에서 공통 접두사를 한 간선으로 합친 래딕스 트라이로 만든다.
+ * 매칭은 요청 버퍼의 바이트를 그대로 따라 내려가므로 문자열이나 정규식을 만들지 않는다.
+ * 같은 자리에 글자 조각과 변수가 함께 있으면 글자 조각을 먼저 보고, 그 아래에서 맞는 패턴이 없을 때만 변수로 되돌아간다.
+ * 그 다음이 {@code *} 이다.
+ * <p>
+ * 등록은 시작하기 전에 끝낸다. 컴파일한 트라이는 바뀌지 않으므로 여러 스레드가 잠금 없이 매칭한다.
+ */
+public class Mapper {
+
+    private final BuildNode root = new BuildNode();
+    private volatile Node compiled;
+
+    /**
+     * 같은 메서드와 패턴을 다시 등록하면 앞의 핸들러를 바꾼다.
+     *
+     * @throws IllegalArgumentException 패턴 형식이 잘못됐거나, 같은 자리의 경로 변수 이름이 다른 경우
+     */
+    public synchronized Mapper addRoute(final String method, final String pattern, final Handler handler) {
+        if (method == null || method.isEmpty() || handler == null) {
+            throw new IllegalArgumentException("Invalid route: " + method + " " + pattern);
+        }
+        if (pattern == null || !pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Route pattern must start with '/': " + pattern);
+        }
+        final List<String> variableNames = new ArrayList<>();
+        BuildNode node = root;
+        boolean prefix = false;
+        final String[] segments = pattern.substring(1).split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            final String segment = segments[i];
+            if (segment.equals("*")) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'*' must be the last segment: " + pattern);
+                }
+                prefix = true;
+                break;
+            }
+            node = node.literal((byte) '/');
+            if (segment.startsWith("{") && segment.endsWith("}") && segment.length() > 2) {
+                final String name = segment.substring(1, segment.length() - 1);
+                node = node.variable(name, pattern);
+                variableNames.add(name);
+                continue;
+            }
+            if (segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0 || segment.indexOf('*') >= 0) {
+                throw new IllegalArgumentException("Invalid route pattern: " + pattern);
+            }
+            for (final byte b : segment.getBytes(StandardCharsets.UTF_8)) {
+                node = node.literal(b);
+            }
+        }
+        final String[] names = variableNames.toArray(String[]::new);
+        if (prefix) {
+            node.prefix = add(node.prefix, pattern, names, method, handler);
+        } else {
+            node.exact = add(node.exact, pattern, names, method, handler);
+        }
+        compiled = null;
+        return this;
+    }
+
+    private static RouteBuilder add(final RouteBuilder builder, final String pattern, final String[] names,
+                                    final String method, final Handler handler) {
+        final RouteBuilder target = builder != null ? builder : new RouteBuilder(pattern, names);
+        target.handlers.put(method, handler);
+        return target;
+    }
+
+    public Mapper get(final String pattern, final Handler handler) {
+        return addRoute("GET", pattern, handler);
+    }
+
+    public Mapper post(final String pattern, final Handler handler) {
+        return addRoute("POST", pattern, handler);
+    }
+
+    /**
+     * 등록한 패턴으로 트라이를 만든다. 커넥터가 시작할 때 부르며, 부르지 않았다면 첫 매칭에서 만든다.
+     */
+    public synchronized void compile() {
+        if (compiled == null) {
+            compiled = compile(new ByteArrayOutputStream(), root);
+        }
+    }
+
+    /**
+     * 쿼리 문자열을 뺀 요청 경로로 라우트를 찾고, 경로 변수를 요청에 채운다.
+     * 라우트를 찾은 뒤 메서드에 맞는 핸들러는 {@link Route#getHandler(Request)} 로 고른다.
+     *
+     * @return 경로가 맞는 라우트. 없으면 {@code null}
+     */
+    public Route map(final Request request) {
+        Node node = compiled;
+        if (node == null) {
+            compile();
+            node = compiled;
+        }
+        final byte[] buffer = request.getBuffer();
+        final int start = request.getRequestURIStart();
+        int end = start;
+        final int uriEnd = request.getRequestURIEnd();
+        while (end < uriEnd && buffer[end] != '?') {
+            end++;
+        }
+        final Route route = match(node, buffer, start, end, 0, request);
+        if (route != null) {
+            request.setPathVariableNames(route.getPathVariableNames());
+        }
+        return route;
+    }
+
+    private static Route match(final Node node, final byte[] buffer, int position, final int end, final int depth,
+                               final Request request) {
+        final byte[] label = node.label;
+        if (end - position < label.length) {
+            return null;
+        }
+        for (final byte b : label) {
+            if (buffer[position++] != b) {
+                return null;
+            }
+        }
+        if (position == end) {
+            return node.exact != null ? node.exact : node.prefix;
+        }
+        final Node child = node.child(buffer[position]);
+        if (child != null) {
+            final Route route = match(child, buffer, position, end, depth, request);
+            if (route != null) {
+                return route;
+            }
+        }
+        if (node.variable != null) {
+            int segmentEnd = position;
+            while (segmentEnd < end && buffer[segmentEnd] != '/') {
+                segmentEnd++;
+            }
+            if (segmentEnd > position) {
+                request.setPathVariable(depth, position, segmentEnd);
+                final Route route = match(node.variable, buffer, segmentEnd, end, depth + 1, request);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+        if (node.prefix != null && buffer[position] == '/') {
+            return node.prefix;
+        }
+        return null;
+    }
+
+    /**
+     * 라우트나 변수가 없고 자식이 하나뿐인 노드는 건너뛰며 간선 라벨에 이어 붙인다.
+     */
+    private static Node compile(final ByteArrayOutputStream label, BuildNode node) {
+        while (node.exact == null && node.prefix == null && node.variable == null && node.children.size() == 1) {
+            final Map.Entry<Byte, BuildNode> only = node.children.firstEntry();
+            label.write(only.getKey());
+            node = only.getValue();
+        }
+        final byte[] keys = new byte[node.children.size()];
+        final Node[] children = new Node[keys.length];
+        int i = 0;
+        for (final Map.Entry<Byte, BuildNode> entry : node.children.entrySet()) {
+            final var childLabel = new ByteArrayOutputStream();
+            childLabel.write(entry.getKey());
+            keys[i] = entry.getKey();
+            children[i] = compile(childLabel, entry.getValue());
+            i++;
+        }
+        final Node variable = node.variable == null ? null : compile(new ByteArrayOutputStream(), node.variable);
+        return new Node(label.toByteArray(), keys, children, variable,
+                node.exact == null ? null : node.exact.build(),
+                node.prefix == null ? null : node.prefix.build());
+    }
+
+    private static final class Node {
+
+        private final byte[] label;
+        private final byte[] keys;
+        private final Node[] children;
+        private final Node variable;
+        private final Route exact;
+        private final Route prefix;
+
+        private Node(final byte[] label, final byte[] keys, final Node[] children, final Node variable,
+                     final Route exact, final Route prefix) {
+            this.label = label;
+            this.keys = keys;
+            this.children = children;
+            this.variable = variable;
+            this.exact = exact;
+            this.prefix = prefix;
+        }
+
+        /**
+         * 자식 간선은 첫 바이트가 모두 다르다. 한 노드의 자식은 몇 개 안 되므로 차례로 비교한다.
+         */
+        private Node child(final byte first) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == first) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 등록하는 동안 쓰는 한 바이트짜리 간선의 트라이.
+     */
+    private static final class BuildNode {
+
+        private final TreeMap<Byte, BuildNode> children = new TreeMap<>();
+        private BuildNode variable;
+        private String variableName;
+        private RouteBuilder exact;
+        private RouteBuilder prefix;
+
+        private BuildNode literal(final byte b) {
+            return children.computeIfAbsent(b, key -> new BuildNode());
+        }
+
+        private BuildNode variable(final String name, final String pattern) {
+            if (variable == null) {
+                variable = new BuildNode();
+                variableName = name;
+            } else if (!variableName.equals(name)) {
+                throw new IllegalArgumentException(
+                        "Path variable {" + name + "} conflicts with {" + variableName + "}: " + pattern);
+            }
+            return variable;
+        }
+    }
+
+    private static final class RouteBuilder {
+
+        private final String pattern;
+        private final String[] pathVariableNames;
+        private final Map<String, Handler> handlers = new LinkedHashMap<>();
+
+        private RouteBuilder(final String pattern, final String[] pathVariableNames) {
+            this.pattern = pattern;
+            this.pathVariableNames = pathVariableNames;
+        }
+
+        private Route build() {
+            return new Route(pattern, handlers.keySet().toArray(String[]::new),
+                    handlers.values().toArray(Handler[]::new), pathVariableNames);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.apache.catalina.mapper;
+
+import org.apache.catalina.Handler;
+import org.apache.coyote.Request;
+
+/**
+ * 경로 패턴 하나에 등록한 메서드별 핸들러. {@link Mapper} 가 만들며 바뀌지 않는다.
+ */
+public final class Route {
+
+    private final String pattern;
+    private final String[] methods;
+    private final Handler[] handlers;
+    private final String[] pathVariableNames;
+    private final Handler headHandler;
+    private final String allow;
+
+    Route(final String pattern, final String[] methods, final Handler[] handlers, final String[] pathVariableNames) {
+        this.pattern = pattern;
+        this.methods = methods;
+        this.handlers = handlers;
+        this.pathVariableNames = pathVariableNames;
+        this.headHandler = findHandler("HEAD") != null ? findHandler("HEAD") : findHandler("GET");
+        this.allow = buildAllow();
+    }
+
+    private Handler findHandler(final String method) {
+        for (int i = 0; i < methods.length; i++) {
+            if (methods[i].equals(method)) {
+                return handlers[i];
+            }
+        }
+        return null;
+    }
+
+    private String buildAllow() {
+        final var allow = new StringBuilder();
+        for (final String method : methods) {
+            if (!allow.isEmpty()) {
+                allow.append(", ");
+            }
+            allow.append(method);
+        }
+        if (findHandler("HEAD") == null && findHandler("GET") != null) {
+            allow.append(", HEAD");
+        }
+        return allow.toString();
+    }
+
+    /**
+     * HEAD 를 따로 등록하지 않았다면 GET 핸들러를 쓴다. 본문은 프로세서가 보내지 않는다.
+     *
+     * @return 요청 메서드의 핸들러. 없으면 {@code null}
+     */
+    public Handler getHandler(final Request request) {
+        if (request.isMethod("HEAD")) {
+            return headHandler;
+        }
+        for (int i = 0; i < methods.length; i++) {
+            if (request.isMethod(methods[i])) {
+                return handlers[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 405 응답의 Allow 헤더 값.
+     */
+    public String getAllow() {
+        return allow;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    String[] getPathVariableNames() {
+        return pathVariableNames;
+    }
+}
@@ -0,0 +1,624 @@
+package org.apache.catalina.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+/**
+ * 세션을 파일 두 개에 저장한다.
+ * <ul>
+ * <li>{@code sessions.log}: 저장과 삭제를 끝에 덧붙이기만 하는 로그. 같은 세션을 다시 저장하면 이전 레코드는 쓰레기가 된다.</li>
+ * <li>{@code sessions.idx}: 세션 ID 해시로 최신 레코드의 위치를 찾는 오픈 어드레싱 해시 테이블. 메모리에 매핑해 쓴다.</li>
+ * </ul>
+ * 정상 종료했다면 다시 열 때 인덱스를 매핑하기만 하므로 세션 수와 상관없이 바로 열린다.
+ * 인덱스가 정상 종료 표시 없이 남았거나 로그와 세대가 다르면 로그를 처음부터 읽어 다시 만든다.
+ * 쓰레기가 쌓이면 {@link #compact(Predicate)} 로 살아 있는 레코드만 새 로그에 옮긴다.
+ * <p>
+ * 로그는 운영체제 페이지 캐시까지만 쓰고 닫을 때 디스크에 내린다. 프로세스가 죽어도 남지만, 운영체제가 죽으면 마지막 쓰기는 잃을 수 있다.
+ */
+public class FileStore implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(FileStore.class);
+
+    static final String LOG_FILE = "sessions.log";
+    static final String INDEX_FILE = "sessions.idx";
+
+    private static final int LOG_MAGIC = 0x5345534C;
+    private static final int INDEX_MAGIC = 0x53455349;
+    private static final int VERSION = 1;
+    private static final int LOG_HEADER_SIZE = 16;
+
+    private static final byte SAVE = 1;
+    private static final byte REMOVE = 2;
+    // length(4) type(1) idLength(2) ... crc(4)
+    private static final int RECORD_OVERHEAD = 11;
+
+    private static final int INDEX_HEADER_SIZE = 64;
+    private static final int CLEAN_OFFSET = 8;
+    private static final int GENERATION_OFFSET = 12;
+    private static final int CAPACITY_OFFSET = 20;
+    private static final int USED_OFFSET = 24;
+    private static final int COUNT_OFFSET = 28;
+    private static final int LIVE_BYTES_OFFSET = 32;
+    private static final int LOG_SIZE_OFFSET = 40;
+    // hash(8) offset(8) length(4)
+    private static final int SLOT_SIZE = 20;
+    private static final long EMPTY = 0;
+    private static final long TOMBSTONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final long DEFAULT_MIN_COMPACTION_SIZE = 1024 * 1024;
+
+    private final Path directory;
+    private final Path logPath;
+    private final Path indexPath;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private FileChannel logChannel;
+    private MappedByteBuffer index;
+    private long generation;
+    private int capacity;
+    private int used;
+    private int count;
+    private long liveBytes;
+    private long logSize;
+    private long minCompactionSize = DEFAULT_MIN_COMPACTION_SIZE;
+
+    public FileStore(final Path directory) {
+        this.directory = directory;
+        this.logPath = directory.resolve(LOG_FILE);
+        this.indexPath = directory.resolve(INDEX_FILE);
+    }
+
+    public void open() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (logChannel != null) {
+                return;
+            }
+            Files.createDirectories(directory);
+            logChannel = FileChannel.open(logPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (logChannel.size() == 0) {
+                generation = ThreadLocalRandom.current().nextLong();
+                writeLogHeader(logChannel, generation);
+                logSize = LOG_HEADER_SIZE;
+                createIndex(INITIAL_CAPACITY);
+            } else {
+                generation = readLogHeader();
+                logSize = logChannel.size();
+                if (!openIndex()) {
+                    log.info("Rebuilding session index from {}", logPath);
+                    rebuildIndex();
+                }
+            }
+            // 닫기 전에 죽으면 다음에 열 때 인덱스를 다시 만든다.
+            index.putInt(CLEAN_OFFSET, 0);
+            index.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isOpen() {
+        return logChannel != null;
+    }
+
+    private void writeLogHeader(final FileChannel channel, final long generation) throws IOException {
+        final var header = ByteBuffer.allocate(LOG_HEADER_SIZE)
+                .putInt(LOG_MAGIC)
+                .putInt(VERSION)
+                .putLong(generation)
+                .flip();
+        writeFully(channel, header, 0);
+    }
+
+    private long readLogHeader() throws IOException {
+        final var header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+        readFully(logChannel, header, 0);
+        if (header.getInt(0) != LOG_MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Invalid session log: " + logPath);
+        }
+        return header.getLong(8);
+    }
+
+    /**
+     * @return 정상 종료한 인덱스가 로그와 맞으면 {@code true}
+     */
+    private boolean openIndex() throws IOException {
+        if (!Files.isRegularFile(indexPath) || Files.size(indexPath) < INDEX_HEADER_SIZE) {
+            return false;
+        }
+        final MappedByteBuffer mapped = map(indexPath, Files.size(indexPath));
+        final int storedCapacity = mapped.getInt(CAPACITY_OFFSET);
+        if (mapped.getInt(0) != INDEX_MAGIC
+                || mapped.getInt(4) != VERSION
+                || mapped.getInt(CLEAN_OFFSET) != 1
+                || mapped.getLong(GENERATION_OFFSET) != generation
+                || mapped.getLong(LOG_SIZE_OFFSET) != logSize
+                || storedCapacity <= 0
+                || Integer.bitCount(storedCapacity) != 1
+                || mapped.capacity() != INDEX_HEADER_SIZE + (long) storedCapacity * SLOT_SIZE) {
+            return false;
+        }
+        index = mapped;
+        capacity = storedCapacity;
+        used = mapped.getInt(USED_OFFSET);
+        count = mapped.getInt(COUNT_OFFSET);
+        liveBytes = mapped.getLong(LIVE_BYTES_OFFSET);
+        return true;
+    }
+
+    /**
+     * 로그를 처음부터 읽어 인덱스를 만든다. 끝에 덜 쓰인 레코드가 있으면 잘라 낸다.
+     */
+    private void rebuildIndex() throws IOException {
+        createIndex(INITIAL_CAPACITY);
+        long offset = LOG_HEADER_SIZE;
+        final var crc = new CRC32C();
+        try (final var channel = FileChannel.open(logPath, StandardOpenOption.READ);
+             final var in = new DataInputStream(new BufferedInputStream(
+                     Channels.newInputStream(channel.position(LOG_HEADER_SIZE)), 64 * 1024))) {
+            while (offset < logSize) {
+                final int bodyLength;
+                final byte[] body;
+                try {
+                    bodyLength = in.readInt();
+                    if (bodyLength < RECORD_OVERHEAD - 8 || offset + bodyLength + 8 > logSize) {
+                        break;
+                    }
+                    body = in.readNBytes(bodyLength);
+                    crc.reset();
+                    crc.update(body);
+                    if (body.length != bodyLength || in.readInt() != (int) crc.getValue()) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                final int recordLength = bodyLength + 8;
+                final long hash = hash(readId(ByteBuffer.wrap(body)));
+                if (body[0] == SAVE) {
+                    put(hash, offset, recordLength);
+                } else {
+                    delete(hash);
+                }
+                offset += recordLength;
+            }
+        }
+        if (offset < logSize) {
+            log.warn("Truncating session log {} at {} of {} bytes", logPath, offset, logSize);
+            logChannel.truncate(offset);
+            logSize = offset;
+        }
+    }
+
+    /**
+     * 새 인덱스 파일을 만들어 매핑한다. 다 만든 뒤 이름을 바꾸므로 이전 인덱스는 그때까지 그대로 남는다.
+     */
+    private void createIndex(final int newCapacity) throws IOException {
+        final Path tempPath = directory.resolve(INDEX_FILE + ".tmp");
+        Files.deleteIfExists(tempPath);
+        final MappedByteBuffer mapped = map(tempPath, INDEX_HEADER_SIZE + (long) newCapacity * SLOT_SIZE);
+        mapped.putInt(0, INDEX_MAGIC);
+        mapped.putInt(4, VERSION);
+        mapped.putLong(GENERATION_OFFSET, generation);
+        mapped.putInt(CAPACITY_OFFSET, newCapacity);
+        Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index = mapped;
+        capacity = newCapacity;
+        used = 0;
+        count = 0;
+        liveBytes = 0;
+    }
+
+    private MappedByteBuffer map(final Path path, final long size) throws IOException {
+        // 매핑은 채널을 닫아도 남는다.
+        try (final var channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * 세션을 로그 끝에 덧붙이고 인덱스가 새 레코드를 가리키게 한다.
+     */
+    public void save(final String id, final byte[] data) throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            final ByteBuffer record = encodeRecord(SAVE, id, data);
+            final int recordLength = record.remaining();
+            final long offset = logSize;
+            writeFully(logChannel, record, offset);
+            logSize += recordLength;
+            put(hash(id), offset, recordLength);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return 저장된 세션이 없다면 {@code null}
+     * @throws IOException 레코드가 깨진 경우
+     */
+    public byte[] load(final String id) throws IOException {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            final int slot = find(hash(id));
+            if (slot < 0) {
+                return null;
+            }
+            final long offset = index.getLong(slotPosition(slot) + 8);
+            final int recordLength = index.getInt(slotPosition(slot) + 16);
+            final var record = ByteBuffer.allocate(recordLength);
+            readFully(logChannel, record, offset);
+            final var body = checkRecord(record, offset);
+            // 해시가 겹친 다른 세션이라면 없는 것으로 본다.
+            if (!id.equals(readId(body))) {
+                return null;
+            }
+            final byte[] data = new byte[body.remaining()];
+            body.get(data);
+            return data;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 저장된 세션이 있을 때만 삭제 레코드를 덧붙인다. 인덱스 없이 로그만으로 다시 만들 때 되살아나지 않게 하려는 것이다.
+     */
+    public void remove(final String id) throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            final long hash = hash(id);
+            if (find(hash) < 0) {
+                return;
+            }
+            final ByteBuffer record = encodeRecord(REMOVE, id, new byte[0]);
+            final int recordLength = record.remaining();
+            writeFully(logChannel, record, logSize);
+            logSize += recordLength;
+            delete(hash);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 쓰레기가 살아 있는 레코드보다 많고 로그가 {@code minCompactionSize} 보다 크면 압축할 때가 됐다.
+     */
+    public boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            return logChannel != null
+                    && logSize > minCompactionSize
+                    && logSize - LOG_HEADER_SIZE - liveBytes > liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 살아 있는 레코드 가운데 {@code keep} 을 통과한 것만 새 로그로 옮기고 인덱스도 새로 만든다.
+     * 새 로그와 인덱스는 새 세대 번호를 가지므로, 두 파일의 이름을 바꾸는 사이에 죽으면 다음에 열 때 인덱스를 다시 만든다.
+     * 압축하는 동안에는 저장과 조회가 기다린다.
+     */
+    public void compact(final Predicate<byte[]> keep) throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            final long before = logSize;
+            final Path compactPath = directory.resolve(LOG_FILE + ".compact");
+            final long newGeneration = ThreadLocalRandom.current().nextLong();
+            final MappedByteBuffer oldIndex = index;
+            final int oldCapacity = capacity;
+            final int oldUsed = used;
+            final int oldCount = count;
+            final long oldLiveBytes = liveBytes;
+            final long oldGeneration = generation;
+
+            generation = newGeneration;
+            long offset = LOG_HEADER_SIZE;
+            try {
+                createIndex(capacityFor(count));
+                try (final var channel = FileChannel.open(compactPath, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                     final var out = new DataOutputStream(new BufferedOutputStream(
+                             Channels.newOutputStream(channel.position(LOG_HEADER_SIZE)), 64 * 1024))) {
+                    writeLogHeader(channel, newGeneration);
+                    for (int slot = 0; slot < oldCapacity; slot++) {
+                        final int position = slotPosition(slot);
+                        final long recordOffset = oldIndex.getLong(position + 8);
+                        if (recordOffset == EMPTY || recordOffset == TOMBSTONE) {
+                            continue;
+                        }
+                        final int recordLength = oldIndex.getInt(position + 16);
+                        final var record = ByteBuffer.allocate(recordLength);
+                        readFully(logChannel, record, recordOffset);
+                        final var body = checkRecord(record, recordOffset);
+                        readId(body);
+                        final byte[] data = new byte[body.remaining()];
+                        body.get(data);
+                        if (!keep.test(data)) {
+                            continue;
+                        }
+                        out.write(record.array());
+                        put(oldIndex.getLong(position), offset, recordLength);
+                        offset += recordLength;
+                    }
+                    out.flush();
+                    channel.force(true);
+                }
+                Files.move(compactPath, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                logChannel.close();
+                logChannel = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                logSize = offset;
+            } catch (IOException | RuntimeException e) {
+                // 디스크의 인덱스는 세대가 달라졌으므로 다음에 열 때 이전 로그로 다시 만든다.
+                index = oldIndex;
+                capacity = oldCapacity;
+                used = oldUsed;
+                count = oldCount;
+                liveBytes = oldLiveBytes;
+                generation = oldGeneration;
+                Files.deleteIfExists(compactPath);
+                throw e;
+            }
+            log.info("Session store compacted. before={}, after={}, sessions={}", before, logSize, count);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (logChannel == null) {
+                return;
+            }
+            logChannel.force(true);
+            logChannel.close();
+            logChannel = null;
+            index.putInt(USED_OFFSET, used);
+            index.putInt(COUNT_OFFSET, count);
+            index.putLong(LIVE_BYTES_OFFSET, liveBytes);
+            index.putLong(LOG_SIZE_OFFSET, logSize);
+            index.putInt(CLEAN_OFFSET, 1);
+            index.force();
+            index = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void checkOpen() {
+        if (logChannel == null) {
+            throw new IllegalStateException("Session store is not open: " + directory);
+        }
+    }
+
+    private ByteBuffer encodeRecord(final byte type, final String id, final byte[] data) {
+        final byte[] idBytes = id.getBytes(StandardCharsets.ISO_8859_1);
+        if (idBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Session id too long");
+        }
+        final int bodyLength = 3 + idBytes.length + data.length;
+        final var record = ByteBuffer.allocate(bodyLength + 8);
+        record.putInt(bodyLength)
+                .put(type)
+                .putShort((short) idBytes.length)
+                .put(idBytes)
+                .put(data);
+        final var crc = new CRC32C();
+        crc.update(record.array(), 4, bodyLength);
+        return record.putInt((int) crc.getValue()).flip();
+    }
+
+    /**
+     * 길이와 CRC 를 확인하고, 종류 바로 뒤(ID 앞)에 위치한 본문을 돌려준다.
+     */
+    private ByteBuffer checkRecord(final ByteBuffer record, final long offset) throws IOException {
+        final int bodyLength = record.getInt(0);
+        final var crc = new CRC32C();
+        crc.update(record.array(), 4, record.capacity() - 8);
+        if (bodyLength != record.capacity() - 8
+                || record.get(4) != SAVE
+                || record.getInt(record.capacity() - 4) != (int) crc.getValue()) {
+            throw new IOException("Corrupt session record at " + offset + " in " + logPath);
+        }
+        return record.slice(4, bodyLength);
+    }
+
+    /**
+     * 본문에서 종류를 건너뛰고 ID 를 읽는다. 버퍼 위치는 ID 바로 뒤(데이터 시작)로 옮겨진다.
+     */
+    private String readId(final ByteBuffer body) {
+        body.position(1);
+        final int idLength = body.getShort();
+        final String id = new String(body.array(), body.arrayOffset() + body.position(), idLength,
+                StandardCharsets.ISO_8859_1);
+        body.position(body.position() + idLength);
+        return id;
+    }
+
+    /**
+     * 세션 ID 는 128비트 난수라 64비트 해시가 겹칠 일은 사실상 없다. 그래서 해시가 같으면 같은 세션으로 보고,
+     * 읽을 때만 ID 를 확인한다.
+     */
+    private static long hash(final String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static int capacityFor(final int entries) {
+        // 다시 만든 직후에는 1/4 만 차게 한다.
+        final long wanted = Math.max(INITIAL_CAPACITY, (long) entries * 4);
+        if (wanted > 1 << 30) {
+            throw new IllegalStateException("Too many sessions in store");
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+
+    private int slotPosition(final int slot) {
+        return INDEX_HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private int firstSlot(final long hash) {
+        return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+    }
+
+    private int find(final long hash) {
+        for (int slot = firstSlot(hash); ; slot = (slot + 1) & (capacity - 1)) {
+            final int position = slotPosition(slot);
+            final long offset = index.getLong(position + 8);
+            if (offset == EMPTY) {
+                return -1;
+            }
+            if (offset != TOMBSTONE && index.getLong(position) == hash) {
+                return slot;
+            }
+        }
+    }
+
+    private void put(final long hash, final long offset, final int recordLength) throws IOException {
+        int tombstone = -1;
+        for (int slot = firstSlot(hash); ; slot = (slot + 1) & (capacity - 1)) {
+            final int position = slotPosition(slot);
+            final long current = index.getLong(position + 8);
+            if (current == TOMBSTONE) {
+                if (tombstone < 0) {
+                    tombstone = slot;
+                }
+                continue;
+            }
+            if (current == EMPTY) {
+                if (tombstone < 0) {
+                    used++;
+                }
+                writeSlot(tombstone < 0 ? slot : tombstone, hash, offset, recordLength);
+                count++;
+                break;
+            }
+            if (index.getLong(position) == hash) {
+                liveBytes -= index.getInt(position + 16);
+                writeSlot(slot, hash, offset, recordLength);
+                liveBytes += recordLength;
+                return;
+            }
+        }
+        liveBytes += recordLength;
+        // 묘비도 탐색 길이를 늘리므로 빈 칸이 절반 밑으로 내려가면 새로 만든다.
+        if (used * 2 > capacity) {
+            resizeIndex();
+        }
+    }
+
+    private void writeSlot(final int slot, final long hash, final long offset, final int recordLength) {
+        final int position = slotPosition(slot);
+        index.putLong(position, hash);
+        index.putLong(position + 8, offset);
+        index.putInt(position + 16, recordLength);
+    }
+
+    private void delete(final long hash) {
+        final int slot = find(hash);
+        if (slot < 0) {
+            return;
+        }
+        final int position = slotPosition(slot);
+        liveBytes -= index.getInt(position + 16);
+        index.putLong(position + 8, TOMBSTONE);
+        count--;
+    }
+
+    private void resizeIndex() throws IOException {
+        final MappedByteBuffer oldIndex = index;
+        final int oldCapacity = capacity;
+        createIndex(capacityFor(count));
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            final int position = slotPosition(slot);
+            final long offset = oldIndex.getLong(position + 8);
+            if (offset != EMPTY && offset != TOMBSTONE) {
+                put(oldIndex.getLong(position), offset, oldIndex.getInt(position + 16));
+            }
+        }
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of session log at " + position);
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    public long getLogSize() {
+        lock.readLock().lock();
+        try {
+            return logSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 저장된 세션 수. 만료됐지만 아직 압축하지 않은 세션도 센다.
+     */
+    public int getCount() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getMinCompactionSize() {
+        return minCompactionSize;
+    }
+
+    /**
+     * 로그가 이 크기(byte)보다 작으면 쓰레기가 많아도 압축하지 않는다.
+     */
+    public void setMinCompactionSize(final long minCompactionSize) {
+        this.minCompactionSize = minCompactionSize;
+    }
+}
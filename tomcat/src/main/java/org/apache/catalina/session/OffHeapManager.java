@@ -0,0 +1,645 @@
+package org.apache.catalina.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.apache.catalina.Manager;
+import org.apache.catalina.util.SessionIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * 세션을 힙 밖에 두는 {@link Manager}. 세션이 수백만 개일 때 GC 가 훑어야 할 객체 수를 줄이려는 것이다.
+ * <p>
+ * 세션 레코드({@link SessionCodec} 형식)는 {@link SlabAllocator} 가 나눠 준 다이렉트 메모리 블록에 둔다.
+ * 힙에는 세션 ID(128비트)와 블록 주소만 담은 {@code long[]} 해시 테이블이 남는다. 배열 안에는 참조가 없으므로
+ * 세션이 늘어도 GC 가 따라갈 객체는 늘지 않는다. 테이블은 64개 세그먼트로 나눠 세그먼트마다 잠근다.
+ * <p>
+ * {@link #findSession(String)} 는 레코드를 풀지 않고 ID 만 담은 핸들을 돌려준다. 속성은 읽을 때마다 레코드에서 하나씩 찾아 풀고,
+ * 바꿀 때는 레코드를 다시 인코딩해 쓴다. 그래서 속성 값은 {@link SessionCodec} 이 저장할 수 있는 타입만 받는다.
+ * <p>
+ * 만료는 타이밍 휠 대신 백그라운드 스레드가 테이블을 1초에 1/60 씩 훑어 처리한다. 휠은 세션마다 힙에 타이머 객체를 두어야 하기 때문이다.
+ * 그래서 만료가 최대 1분 늦을 수 있지만, 조회할 때도 만료 시각을 확인하므로 만료된 세션을 돌려주지는 않는다.
+ */
+public class OffHeapManager implements Manager {
+
+    private static final Logger log = LoggerFactory.getLogger(OffHeapManager.class);
+
+    private static final int DEFAULT_MAX_INACTIVE_INTERVAL = 30 * 60;
+    private static final long DEFAULT_MAX_MEMORY = 1024L * 1024 * 1024;
+    private static final int SEGMENT_SHIFT = 6;
+    private static final long BACKGROUND_INTERVAL_MILLIS = 1000L;
+    private static final long BACKGROUND_TERMINATION_TIMEOUT_SECONDS = 10;
+    private static final int SWEEP_TICKS = 60;
+    private static final int SWEEP_BATCH = 1024;
+    private static final int SESSION_ID_LENGTH = 32;
+
+    // 블록 = lastAccessedTime(8) dataLength(4) data
+    // 접근 시각은 읽기 잠금만 잡고 바꾸므로 8바이트 정렬된 블록 맨 앞에 따로 둔다. data 안의 값은 쓰지 않는다.
+    private static final int LAST_ACCESSED_TIME = 0;
+    private static final int DATA_LENGTH = 8;
+    private static final int DATA = 12;
+
+    private final SlabAllocator allocator;
+    private final Segment[] segments = new Segment[1 << SEGMENT_SHIFT];
+    private final SessionIdGenerator sessionIdGenerator = new SessionIdGenerator();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+
+    private volatile int maxInactiveInterval = DEFAULT_MAX_INACTIVE_INTERVAL;
+    private ScheduledExecutorService backgroundExecutor;
+
+    public OffHeapManager() {
+        this(DEFAULT_MAX_MEMORY);
+    }
+
+    /**
+     * @param maxMemory 세션 레코드에 쓸 다이렉트 메모리 한도(byte). JVM 의 {@code -XX:MaxDirectMemorySize} 도 이만큼은 되어야 한다.
+     */
+    public OffHeapManager(final long maxMemory) {
+        this.allocator = new SlabAllocator(maxMemory);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    public synchronized void start() {
+        if (backgroundExecutor != null) {
+            return;
+        }
+        backgroundExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "session-expirer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        backgroundExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                backgroundProcess();
+            } catch (RuntimeException e) {
+                log.error("Session background process failed", e);
+            }
+        }, BACKGROUND_INTERVAL_MILLIS, BACKGROUND_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (backgroundExecutor == null) {
+            return;
+        }
+        backgroundExecutor.shutdown();
+        try {
+            if (!backgroundExecutor.awaitTermination(BACKGROUND_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                backgroundExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            backgroundExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        backgroundExecutor = null;
+    }
+
+    /**
+     * 새 ID 로 세션을 만들어 등록한다.
+     *
+     * @throws IllegalStateException 메모리 한도에 닿은 경우
+     */
+    public HttpSession createSession() {
+        final long now = System.currentTimeMillis();
+        final byte[] data = SessionCodec.encode(now, now, maxInactiveInterval, true, Map.of());
+        while (true) {
+            final String id = sessionIdGenerator.generateSessionId();
+            final long high = parseHex(id, 0);
+            final long low = parseHex(id, 16);
+            if (insert(high, low, data, now, false)) {
+                createdCount.increment();
+                return new OffHeapSession(this, id, high, low);
+            }
+        }
+    }
+
+    /**
+     * 다른 매니저의 세션을 복사해 등록한다. 같은 ID 가 있으면 바꾼다.
+     *
+     * @throws IllegalArgumentException ID 가 32자리 16진수가 아니거나 저장할 수 없는 속성이 있는 경우
+     */
+    @Override
+    public void add(final HttpSession session) {
+        final String id = session.getId();
+        if (!isValidId(id)) {
+            throw new IllegalArgumentException("Unsupported session id: " + id);
+        }
+        final Map<String, Object> attributes = new LinkedHashMap<>();
+        for (final String name : Collections.list(session.getAttributeNames())) {
+            final Object value = session.getAttribute(name);
+            checkSupported(value);
+            attributes.put(name, value);
+        }
+        final long lastAccessedTime = session.getLastAccessedTime();
+        final byte[] data = SessionCodec.encode(session.getCreationTime(), lastAccessedTime,
+                session.getMaxInactiveInterval(), session.isNew(), attributes);
+        insert(parseHex(id, 0), parseHex(id, 16), data, lastAccessedTime, true);
+    }
+
+    @Override
+    public HttpSession findSession(final String id) {
+        if (!isValidId(id)) {
+            return null;
+        }
+        final long high = parseHex(id, 0);
+        final long low = parseHex(id, 16);
+        final Segment segment = segmentFor(high);
+        final boolean expired;
+        final long stamp = segment.lock.readLock();
+        try {
+            final long address = segment.get(high, low);
+            if (address == Segment.EMPTY) {
+                return null;
+            }
+            expired = isExpired(address, System.currentTimeMillis());
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+        if (expired) {
+            expire(high, low);
+            return null;
+        }
+        return new OffHeapSession(this, id, high, low);
+    }
+
+    @Override
+    public void remove(final HttpSession session) {
+        final String id = session.getId();
+        if (isValidId(id)) {
+            remove(parseHex(id, 0), parseHex(id, 16));
+        }
+    }
+
+    private boolean insert(final long high,
+                           final long low,
+                           final byte[] data,
+                           final long lastAccessedTime,
+                           final boolean replace) {
+        final long address = writeRecord(data, lastAccessedTime);
+        final Segment segment = segmentFor(high);
+        final long stamp = segment.lock.writeLock();
+        try {
+            final int slot = segment.find(high, low);
+            if (slot < 0) {
+                segment.insert(high, low, address);
+                return true;
+            }
+            if (!replace) {
+                freeRecord(address);
+                return false;
+            }
+            freeRecord(segment.addressAt(slot));
+            segment.setAddress(slot, address);
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return 세션이 있었다면 {@code true}
+     */
+    boolean remove(final long high, final long low) {
+        final Segment segment = segmentFor(high);
+        final long stamp = segment.lock.writeLock();
+        try {
+            final int slot = segment.find(high, low);
+            if (slot < 0) {
+                return false;
+            }
+            freeRecord(segment.addressAt(slot));
+            segment.removeAt(slot);
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 잠금을 다시 잡은 뒤에도 만료됐을 때만 지운다. 그 사이 다른 요청이 접근했을 수 있다.
+     */
+    private void expire(final long high, final long low) {
+        final Segment segment = segmentFor(high);
+        final long stamp = segment.lock.writeLock();
+        try {
+            final int slot = segment.find(high, low);
+            if (slot < 0 || !isExpired(segment.addressAt(slot), System.currentTimeMillis())) {
+                return;
+            }
+            freeRecord(segment.addressAt(slot));
+            segment.removeAt(slot);
+            expiredCount.increment();
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 백그라운드 스레드가 1초마다 부른다.
+     */
+    public void backgroundProcess() {
+        processExpires(System.currentTimeMillis());
+    }
+
+    /**
+     * 세그먼트마다 테이블의 1/60 을 훑어 {@code now} 에 만료된 세션을 지운다. 요청이 오래 기다리지 않도록 잠금은 조금씩 나눠 잡는다.
+     */
+    public void processExpires(final long now) {
+        for (final Segment segment : segments) {
+            int remaining = -1;
+            while (remaining != 0) {
+                final long stamp = segment.lock.writeLock();
+                try {
+                    if (remaining < 0) {
+                        remaining = Math.min(segment.capacity,
+                                Math.max(SWEEP_BATCH, Math.ceilDiv(segment.capacity, SWEEP_TICKS)));
+                    }
+                    final int batch = Math.min(remaining, SWEEP_BATCH);
+                    for (int i = 0; i < batch; i++) {
+                        final int slot = segment.nextSweepSlot();
+                        final long address = segment.addressAt(slot);
+                        if (address != Segment.EMPTY && address != Segment.TOMBSTONE && isExpired(address, now)) {
+                            freeRecord(address);
+                            segment.removeAt(slot);
+                            expiredCount.increment();
+                        }
+                    }
+                    remaining -= batch;
+                } finally {
+                    segment.lock.unlockWrite(stamp);
+                }
+            }
+        }
+    }
+
+    private boolean isExpired(final long address, final long now) {
+        final int interval = allocator.getInt(address, DATA + SessionCodec.MAX_INACTIVE_INTERVAL_OFFSET);
+        return interval > 0 && allocator.getLongOpaque(address, LAST_ACCESSED_TIME) + interval * 1000L <= now;
+    }
+
+    private long writeRecord(final byte[] data, final long lastAccessedTime) {
+        final long address = allocator.allocate(DATA + data.length);
+        writeData(address, data);
+        allocator.putLongOpaque(address, LAST_ACCESSED_TIME, lastAccessedTime);
+        return address;
+    }
+
+    private void writeData(final long address, final byte[] data) {
+        allocator.putInt(address, DATA_LENGTH, data.length);
+        allocator.put(address, DATA, data);
+    }
+
+    private byte[] readData(final long address) {
+        final byte[] data = new byte[allocator.getInt(address, DATA_LENGTH)];
+        allocator.get(address, DATA, data);
+        return data;
+    }
+
+    private void freeRecord(final long address) {
+        allocator.free(address, DATA + allocator.getInt(address, DATA_LENGTH));
+    }
+
+    /**
+     * 읽기 잠금을 잡고 레코드를 읽는다.
+     *
+     * @throws IllegalStateException 세션이 무효화된 경우
+     */
+    private <T> T read(final long high, final long low, final LongFunction<T> reader) {
+        final Segment segment = segmentFor(high);
+        final long stamp = segment.lock.readLock();
+        try {
+            final long address = segment.get(high, low);
+            if (address == Segment.EMPTY) {
+                throw new IllegalStateException("Session already invalidated");
+            }
+            return reader.apply(address);
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 쓰기 잠금을 잡고 속성을 풀어 바꾼 뒤 다시 인코딩한다. 같은 크기 등급에 들어가면 제자리에 쓴다.
+     */
+    private void update(final long high, final long low, final Consumer<Map<String, Object>> mutation) {
+        final Segment segment = segmentFor(high);
+        final long stamp = segment.lock.writeLock();
+        try {
+            final int slot = segment.find(high, low);
+            if (slot < 0) {
+                throw new IllegalStateException("Session already invalidated");
+            }
+            final long address = segment.addressAt(slot);
+            final byte[] data = readData(address);
+            final Map<String, Object> attributes = SessionCodec.decodeAttributes(data);
+            mutation.accept(attributes);
+            final var header = ByteBuffer.wrap(data);
+            final long lastAccessedTime = allocator.getLongOpaque(address, LAST_ACCESSED_TIME);
+            final byte[] updated = SessionCodec.encode(header.getLong(SessionCodec.CREATION_TIME_OFFSET),
+                    lastAccessedTime,
+                    header.getInt(SessionCodec.MAX_INACTIVE_INTERVAL_OFFSET),
+                    header.get(SessionCodec.IS_NEW_OFFSET) != 0,
+                    attributes);
+            if (SlabAllocator.blockSize(DATA + updated.length) == SlabAllocator.blockSize(DATA + data.length)) {
+                writeData(address, updated);
+                return;
+            }
+            segment.setAddress(slot, writeRecord(updated, lastAccessedTime));
+            freeRecord(address);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    long getCreationTime(final long high, final long low) {
+        return read(high, low, address -> allocator.getLong(address, DATA + SessionCodec.CREATION_TIME_OFFSET));
+    }
+
+    long getLastAccessedTime(final long high, final long low) {
+        return read(high, low, address -> allocator.getLongOpaque(address, LAST_ACCESSED_TIME));
+    }
+
+    int getMaxInactiveInterval(final long high, final long low) {
+        return read(high, low, address -> allocator.getInt(address, DATA + SessionCodec.MAX_INACTIVE_INTERVAL_OFFSET));
+    }
+
+    boolean isNew(final long high, final long low) {
+        return read(high, low, address -> allocator.getByte(address, DATA + SessionCodec.IS_NEW_OFFSET) != 0);
+    }
+
+    Object getAttribute(final long high, final long low, final String name) {
+        final byte[] data = read(high, low, this::readData);
+        try {
+            return SessionCodec.readAttribute(data, name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    Set<String> getAttributeNames(final long high, final long low) {
+        final byte[] data = read(high, low, this::readData);
+        try {
+            return SessionCodec.decodeAttributes(data).keySet();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void setAttribute(final long high, final long low, final String name, final Object value) {
+        checkSupported(value);
+        update(high, low, attributes -> attributes.put(name, value));
+    }
+
+    void removeAttribute(final long high, final long low, final String name) {
+        update(high, low, attributes -> attributes.remove(name));
+    }
+
+    /**
+     * 무효화된 세션이면 아무것도 하지 않는다.
+     */
+    void access(final long high, final long low) {
+        final Segment segment = segmentFor(high);
+        final long stamp = segment.lock.readLock();
+        try {
+            final long address = segment.get(high, low);
+            if (address != Segment.EMPTY) {
+                allocator.putLongOpaque(address, LAST_ACCESSED_TIME, System.currentTimeMillis());
+                allocator.putByte(address, DATA + SessionCodec.IS_NEW_OFFSET, (byte) 0);
+            }
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    void setMaxInactiveInterval(final long high, final long low, final int interval) {
+        final Segment segment = segmentFor(high);
+        final long stamp = segment.lock.writeLock();
+        try {
+            final long address = segment.get(high, low);
+            if (address == Segment.EMPTY) {
+                throw new IllegalStateException("Session already invalidated");
+            }
+            allocator.putInt(address, DATA + SessionCodec.MAX_INACTIVE_INTERVAL_OFFSET, interval);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    private static void checkSupported(final Object value) {
+        if (value != null && !SessionCodec.isSupported(value)) {
+            throw new IllegalArgumentException("Unsupported session attribute type: " + value.getClass().getName());
+        }
+    }
+
+    private Segment segmentFor(final long high) {
+        return segments[(int) ((high * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - SEGMENT_SHIFT))];
+    }
+
+    /**
+     * 생성기가 만드는 소문자 16진수만 받는다. 대소문자만 다른 ID 가 같은 세션을 찾지 않게 한다.
+     */
+    private static boolean isValidId(final String id) {
+        if (id == null || id.length() != SESSION_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < SESSION_ID_LENGTH; i++) {
+            if (hexDigit(id.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(final String id, final int start) {
+        long value = 0;
+        for (int i = start; i < start + 16; i++) {
+            value = value << 4 | hexDigit(id.charAt(i));
+        }
+        return value;
+    }
+
+    private static int hexDigit(final char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    public int getMaxInactiveInterval() {
+        return maxInactiveInterval;
+    }
+
+    /**
+     * 새로 만드는 세션의 최대 비활성 시간(초). 0 이하이면 만료되지 않는다.
+     */
+    public void setMaxInactiveInterval(final int maxInactiveInterval) {
+        this.maxInactiveInterval = maxInactiveInterval;
+    }
+
+    /**
+     * 잠금 없이 세므로 다른 스레드가 세션을 만들거나 지우는 중이면 조금 어긋날 수 있다.
+     */
+    public int getActiveSessions() {
+        int count = 0;
+        for (final Segment segment : segments) {
+            count += segment.size;
+        }
+        return count;
+    }
+
+    public long getSessionCounter() {
+        return createdCount.sum();
+    }
+
+    public long getExpiredSessions() {
+        return expiredCount.sum();
+    }
+
+    /**
+     * 잡아 둔 다이렉트 메모리(byte).
+     */
+    public long getReservedMemory() {
+        return allocator.getReservedBytes();
+    }
+
+    /**
+     * 세션 레코드 블록이 차지한 다이렉트 메모리(byte).
+     */
+    public long getUsedMemory() {
+        return allocator.getUsedBytes();
+    }
+
+    /**
+     * 힙에 있는 인덱스 테이블의 크기(byte).
+     */
+    public long getIndexMemory() {
+        long bytes = 0;
+        for (final Segment segment : segments) {
+            bytes += (long) segment.capacity * Segment.SLOT_LONGS * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * 세션 ID 두 long 과 블록 주소를 한 칸에 담는 오픈 어드레싱 해시 테이블. 잠금은 부르는 쪽이 잡는다.
+     */
+    private static final class Segment {
+
+        static final long EMPTY = 0;
+        static final long TOMBSTONE = -1;
+        static final int SLOT_LONGS = 3;
+        private static final int INITIAL_CAPACITY = 64;
+
+        final StampedLock lock = new StampedLock();
+        private long[] table = new long[INITIAL_CAPACITY * SLOT_LONGS];
+        private int capacity = INITIAL_CAPACITY;
+        private volatile int size;
+        private int used;
+        private int sweepSlot;
+
+        long get(final long high, final long low) {
+            final int slot = find(high, low);
+            return slot < 0 ? EMPTY : addressAt(slot);
+        }
+
+        int find(final long high, final long low) {
+            final int mask = capacity - 1;
+            for (int slot = firstSlot(high, low, mask); ; slot = (slot + 1) & mask) {
+                final int index = slot * SLOT_LONGS;
+                final long address = table[index + 2];
+                if (address == EMPTY) {
+                    return -1;
+                }
+                if (address != TOMBSTONE && table[index] == high && table[index + 1] == low) {
+                    return slot;
+                }
+            }
+        }
+
+        /**
+         * 없는 ID 라는 것을 확인한 뒤에 부른다.
+         */
+        void insert(final long high, final long low, final long address) {
+            // 묘비까지 3/4 를 넘으면 탐색이 길어지므로 새로 만든다.
+            if ((used + 1) * 4L > capacity * 3L) {
+                rehash(size + 1);
+            }
+            final int mask = capacity - 1;
+            int slot = firstSlot(high, low, mask);
+            while (table[slot * SLOT_LONGS + 2] != EMPTY && table[slot * SLOT_LONGS + 2] != TOMBSTONE) {
+                slot = (slot + 1) & mask;
+            }
+            final int index = slot * SLOT_LONGS;
+            if (table[index + 2] == EMPTY) {
+                used++;
+            }
+            table[index] = high;
+            table[index + 1] = low;
+            table[index + 2] = address;
+            size++;
+        }
+
+        long addressAt(final int slot) {
+            return table[slot * SLOT_LONGS + 2];
+        }
+
+        void setAddress(final int slot, final long address) {
+            table[slot * SLOT_LONGS + 2] = address;
+        }
+
+        void removeAt(final int slot) {
+            table[slot * SLOT_LONGS + 2] = TOMBSTONE;
+            size--;
+        }
+
+        int nextSweepSlot() {
+            final int slot = sweepSlot & (capacity - 1);
+            sweepSlot = slot + 1;
+            return slot;
+        }
+
+        private void rehash(final int entries) {
+            int newCapacity = capacity;
+            while (entries * 2L > newCapacity) {
+                newCapacity <<= 1;
+            }
+            final long[] oldTable = table;
+            table = new long[newCapacity * SLOT_LONGS];
+            capacity = newCapacity;
+            used = 0;
+            size = 0;
+            for (int index = 0; index < oldTable.length; index += SLOT_LONGS) {
+                final long address = oldTable[index + 2];
+                if (address != EMPTY && address != TOMBSTONE) {
+                    insert(oldTable[index], oldTable[index + 1], address);
+                }
+            }
+        }
+
+        private static int firstSlot(final long high, final long low, final int mask) {
+            final long hash = high ^ low * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ hash >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.apache.catalina.session;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionContext;
+
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * {@link OffHeapManager} 가 돌려주는 세션 핸들. ID 만 들고 있고, 모든 값은 부를 때마다 힙 밖의 레코드에서 읽는다.
+ * 같은 세션을 가리키는 핸들은 여러 개일 수 있으므로 ID 로 비교한다.
+ */
+public final class OffHeapSession implements HttpSession {
+
+    private final OffHeapManager manager;
+    private final String id;
+    private final long high;
+    private final long low;
+
+    OffHeapSession(final OffHeapManager manager, final String id, final long high, final long low) {
+        this.manager = manager;
+        this.id = id;
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * 요청이 이 세션을 쓸 때 부른다.
+     */
+    public void access() {
+        manager.access(high, low);
+    }
+
+    @Override
+    public long getCreationTime() {
+        return manager.getCreationTime(high, low);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public long getLastAccessedTime() {
+        return manager.getLastAccessedTime(high, low);
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    public void setMaxInactiveInterval(final int interval) {
+        manager.setMaxInactiveInterval(high, low, interval);
+    }
+
+    @Override
+    public int getMaxInactiveInterval() {
+        return manager.getMaxInactiveInterval(high, low);
+    }
+
+    @Override
+    @Deprecated
+    public HttpSessionContext getSessionContext() {
+        return null;
+    }
+
+    @Override
+    public Object getAttribute(final String name) {
+        if (name == null) {
+            return null;
+        }
+        return manager.getAttribute(high, low, name);
+    }
+
+    @Override
+    @Deprecated
+    public Object getValue(final String name) {
+        return getAttribute(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(manager.getAttributeNames(high, low));
+    }
+
+    @Override
+    @Deprecated
+    public String[] getValueNames() {
+        return manager.getAttributeNames(high, low).toArray(String[]::new);
+    }
+
+    /**
+     * 값이 {@code null} 이면 속성을 지운다.
+     *
+     * @throws IllegalArgumentException 힙 밖에 저장할 수 없는 타입인 경우
+     */
+    @Override
+    public void setAttribute(final String name, final Object value) {
+        if (name == null) {
+            throw new IllegalArgumentException("Attribute name must not be null");
+        }
+        if (value == null) {
+            removeAttribute(name);
+            return;
+        }
+        manager.setAttribute(high, low, name, value);
+    }
+
+    @Override
+    @Deprecated
+    public void putValue(final String name, final Object value) {
+        setAttribute(name, value);
+    }
+
+    @Override
+    public void removeAttribute(final String name) {
+        if (name != null) {
+            manager.removeAttribute(high, low, name);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void removeValue(final String name) {
+        removeAttribute(name);
+    }
+
+    @Override
+    public void invalidate() {
+        if (!manager.remove(high, low)) {
+            throw new IllegalStateException("Session already invalidated");
+        }
+    }
+
+    @Override
+    public boolean isNew() {
+        return manager.isNew(high, low);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof OffHeapSession other && id.equals(other.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+}
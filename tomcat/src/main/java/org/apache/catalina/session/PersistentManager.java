@@ -0,0 +1,199 @@
+package org.apache.catalina.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 세션을 {@link FileStore} 에 저장해 재시작한 뒤에도 이어 쓰게 하는 {@link StandardManager}.
+ * <p>
+ * 바뀐 세션은 바로 쓰지 않고 모아 두었다가 백그라운드 스레드가 1초마다 로그에 덧붙인다. 접근 시각만 바뀐 세션은
+ * 마지막으로 저장한 뒤 1분이 지났을 때만 다시 저장한다. 멈출 때는 바뀐 세션과 함께 저장한 뒤 접근한 세션도 모두 저장해,
+ * 다시 시작했을 때 접근 시각이 뒤로 밀려 일찍 만료되지 않게 한다.
+ * <p>
+ * 속성 값은 {@link SessionCodec} 이 저장할 수 있는 타입만 받는다. 다른 타입은 {@code setAttribute} 에서 거절한다.
+ * <p>
+ * 시작할 때 세션을 읽어 들이지 않는다. 메모리에 없는 세션은 {@link #findSession(String)} 가 처음 찾을 때 저장소에서 읽는다.
+ * 그래서 다시 찾지 않는 세션은 메모리에 올라오지 않고, 압축할 때 만료됐으면 버린다.
+ */
+public class PersistentManager extends StandardManager {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistentManager.class);
+
+    private static final long ACCESS_PERSIST_INTERVAL_MILLIS = 60_000L;
+    private static final long DEFAULT_COMPACTION_INTERVAL_MILLIS = 60 * 60 * 1000L;
+
+    private final FileStore store;
+    private final Set<StandardSession> dirtySessions = ConcurrentHashMap.newKeySet();
+    private long compactionInterval = DEFAULT_COMPACTION_INTERVAL_MILLIS;
+    private volatile long lastCompaction;
+
+    public PersistentManager(final Path directory) {
+        this.store = new FileStore(directory);
+    }
+
+    @Override
+    public synchronized void start() {
+        try {
+            store.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lastCompaction = System.currentTimeMillis();
+        super.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        if (!store.isOpen()) {
+            return;
+        }
+        for (final StandardSession session : getSessionsInternal()) {
+            if (session.getLastAccessedTimeInternal() > session.getPersistedAccessTime()) {
+                dirtySessions.add(session);
+            }
+        }
+        persistDirtySessions();
+        try {
+            store.close();
+        } catch (IOException e) {
+            log.error("Failed to close session store", e);
+        }
+    }
+
+    /**
+     * 메모리에 없으면 저장소에서 읽는다. 저장소에서 읽은 세션이 이미 만료됐다면 지운다.
+     */
+    @Override
+    public HttpSession findSession(final String id) throws IOException {
+        final HttpSession session = super.findSession(id);
+        if (session != null || id == null) {
+            return session;
+        }
+        final byte[] data = store.load(id);
+        if (data == null) {
+            return null;
+        }
+        final StandardSession loaded = SessionCodec.decode(this, id, data);
+        if (loaded.isExpired(System.currentTimeMillis())) {
+            // 등록하지 않은 세션이라 remove 가 저장소를 건드리지 않으므로 직접 지운다.
+            expire(loaded);
+            removeFromStore(id);
+            return null;
+        }
+        final StandardSession existing = addIfAbsent(loaded);
+        return existing == null ? loaded : existing;
+    }
+
+    /**
+     * 등록된 세션을 뺐을 때만 저장소에서도 지운다. 같은 ID 로 먼저 등록된 세션에 밀려난 사본이 만료되어도
+     * 살아 있는 세션의 레코드는 남는다.
+     */
+    @Override
+    public void remove(final HttpSession session) {
+        dirtySessions.remove(session);
+        if (removeInternal(session)) {
+            removeFromStore(session.getId());
+        }
+    }
+
+    private void removeFromStore(final String id) {
+        if (!store.isOpen()) {
+            return;
+        }
+        try {
+            store.remove(id);
+        } catch (IOException e) {
+            log.warn("Failed to remove session {} from store", id, e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException 저장할 수 없는 타입인 경우
+     */
+    @Override
+    void checkAttribute(final Object value) {
+        if (!SessionCodec.isSupported(value)) {
+            throw new IllegalArgumentException("Unsupported session attribute type: " + value.getClass().getName());
+        }
+    }
+
+    @Override
+    void sessionChanged(final StandardSession session) {
+        dirtySessions.add(session);
+    }
+
+    @Override
+    void sessionAccessed(final StandardSession session) {
+        if (session.getLastAccessedTimeInternal() - session.getPersistedAccessTime() >= ACCESS_PERSIST_INTERVAL_MILLIS) {
+            dirtySessions.add(session);
+        }
+    }
+
+    @Override
+    public void backgroundProcess() {
+        super.backgroundProcess();
+        persistDirtySessions();
+        final long now = System.currentTimeMillis();
+        if (store.needsCompaction() || now - lastCompaction >= compactionInterval) {
+            compact(now);
+        }
+    }
+
+    private void persistDirtySessions() {
+        for (final var iterator = dirtySessions.iterator(); iterator.hasNext(); ) {
+            final StandardSession session = iterator.next();
+            // 저장하는 동안 다시 바뀌면 다음 번에 저장하도록 먼저 뺀다.
+            iterator.remove();
+            if (!session.isValidInternal()) {
+                continue;
+            }
+            final long accessedTime = session.getLastAccessedTimeInternal();
+            try {
+                store.save(session.getId(), SessionCodec.encode(session));
+                session.setPersistedAccessTime(accessedTime);
+                // 저장하는 사이에 무효화됐다면 되살아나지 않게 다시 지운다.
+                if (!session.isValidInternal()) {
+                    store.remove(session.getId());
+                }
+            } catch (IOException e) {
+                log.warn("Failed to persist session {}", session.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * 저장소에서 만료된 세션과 쓰레기 레코드를 치운다. 백그라운드 스레드가 쓰레기가 많거나 {@code compactionInterval} 이
+     * 지났을 때 부른다.
+     */
+    public void compact(final long now) {
+        lastCompaction = now;
+        try {
+            store.compact(data -> !SessionCodec.isExpired(data, now));
+        } catch (IOException e) {
+            log.error("Failed to compact session store", e);
+        }
+    }
+
+    public FileStore getStore() {
+        return store;
+    }
+
+    public long getCompactionInterval() {
+        return compactionInterval;
+    }
+
+    /**
+     * 쓰레기가 적어도 이 간격(ms)마다 한 번은 압축해 다시 찾지 않은 채 만료된 세션을 치운다.
+     */
+    public void setCompactionInterval(final long compactionInterval) {
+        this.compactionInterval = compactionInterval;
+    }
+}
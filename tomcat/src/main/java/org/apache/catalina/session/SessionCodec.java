@@ -0,0 +1,223 @@
+package org.apache.catalina.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 세션을 Java 직렬화 없이 바이트 배열로 바꾼다.
+ * <p>
+ * 앞쪽은 고정 길이라 {@link #isExpired(byte[], long)} 는 세션을 되살리지 않고 만료 여부를 알 수 있다.
+ * <pre>
+ * version(1) creationTime(8) lastAccessedTime(8) maxInactiveInterval(4) isNew(1) attributeCount(4)
+ * [name(UTF) tag(1) value]...
+ * </pre>
+ * 속성 값은 문자열, 숫자, 불리언, 바이트 배열만 저장한다. 세션을 저장하는 매니저는 그 밖의 타입을 넣을 때 거절하므로,
+ * 여기까지 온 다른 타입은 경고를 남기고 건너뛴다.
+ */
+final class SessionCodec {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionCodec.class);
+
+    private static final byte VERSION = 1;
+    static final int CREATION_TIME_OFFSET = 1;
+    static final int LAST_ACCESSED_TIME_OFFSET = 9;
+    static final int MAX_INACTIVE_INTERVAL_OFFSET = 17;
+    static final int IS_NEW_OFFSET = 21;
+    private static final int ATTRIBUTE_COUNT_OFFSET = 22;
+
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte BYTES = 6;
+
+    private SessionCodec() {
+    }
+
+    static byte[] encode(final StandardSession session) {
+        return encode(session.getCreationTimeInternal(), session.getLastAccessedTimeInternal(),
+                session.getMaxInactiveInterval(), session.isNewInternal(), session.getAttributesInternal());
+    }
+
+    static byte[] encode(final long creationTime,
+                         final long lastAccessedTime,
+                         final int maxInactiveInterval,
+                         final boolean isNew,
+                         final Map<String, Object> sessionAttributes) {
+        final var attributes = new ArrayList<Map.Entry<String, Object>>();
+        for (final var attribute : sessionAttributes.entrySet()) {
+            if (!isSupported(attribute.getValue())) {
+                log.warn("Session attribute {} of type {} is not persisted",
+                        attribute.getKey(), attribute.getValue().getClass().getName());
+                continue;
+            }
+            attributes.add(attribute);
+        }
+        final var bytes = new ByteArrayOutputStream(64);
+        try (final var out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(creationTime);
+            out.writeLong(lastAccessedTime);
+            out.writeInt(maxInactiveInterval);
+            out.writeBoolean(isNew);
+            out.writeInt(attributes.size());
+            for (final var attribute : attributes) {
+                out.writeUTF(attribute.getKey());
+                writeValue(out, attribute.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static boolean isSupported(final Object value) {
+        return tagOf(value) != 0;
+    }
+
+    private static byte tagOf(final Object value) {
+        if (value instanceof String) {
+            return STRING;
+        }
+        if (value instanceof Integer) {
+            return INTEGER;
+        }
+        if (value instanceof Long) {
+            return LONG;
+        }
+        if (value instanceof Boolean) {
+            return BOOLEAN;
+        }
+        if (value instanceof Double) {
+            return DOUBLE;
+        }
+        if (value instanceof byte[]) {
+            return BYTES;
+        }
+        return 0;
+    }
+
+    private static void writeValue(final DataOutputStream out, final Object value) throws IOException {
+        final byte tag = tagOf(value);
+        out.writeByte(tag);
+        switch (tag) {
+            case STRING -> writeBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+            case INTEGER -> out.writeInt((Integer) value);
+            case LONG -> out.writeLong((Long) value);
+            case BOOLEAN -> out.writeBoolean((Boolean) value);
+            case DOUBLE -> out.writeDouble((Double) value);
+            default -> writeBytes(out, (byte[]) value);
+        }
+    }
+
+    private static void writeBytes(final DataOutputStream out, final byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * @throws IOException 형식이 맞지 않는 경우
+     */
+    static StandardSession decode(final StandardManager manager, final String id, final byte[] data) throws IOException {
+        final var in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readByte() != VERSION) {
+            throw new IOException("Unsupported session format: " + id);
+        }
+        final var session = new StandardSession(manager, id, in.readLong(), in.readLong(), in.readInt(),
+                in.readBoolean());
+        readAttributes(in, session.getAttributesInternal());
+        return session;
+    }
+
+    /**
+     * 고정 길이 앞부분을 건너뛰고 속성만 읽는다.
+     */
+    static Map<String, Object> decodeAttributes(final byte[] data) throws IOException {
+        final var in = new DataInputStream(new ByteArrayInputStream(data, ATTRIBUTE_COUNT_OFFSET,
+                data.length - ATTRIBUTE_COUNT_OFFSET));
+        final Map<String, Object> attributes = new LinkedHashMap<>();
+        readAttributes(in, attributes);
+        return attributes;
+    }
+
+    private static void readAttributes(final DataInputStream in, final Map<String, Object> attributes) throws IOException {
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            attributes.put(in.readUTF(), readValue(in));
+        }
+    }
+
+    /**
+     * 속성 하나만 찾아 읽는다. 앞선 속성의 값은 만들지 않고 건너뛴다.
+     *
+     * @return 없으면 {@code null}
+     */
+    static Object readAttribute(final byte[] data, final String name) throws IOException {
+        final var in = new DataInputStream(new ByteArrayInputStream(data, ATTRIBUTE_COUNT_OFFSET,
+                data.length - ATTRIBUTE_COUNT_OFFSET));
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            if (in.readUTF().equals(name)) {
+                return readValue(in);
+            }
+            skipValue(in);
+        }
+        return null;
+    }
+
+    private static void skipValue(final DataInputStream in) throws IOException {
+        final byte tag = in.readByte();
+        final int length = switch (tag) {
+            case STRING, BYTES -> in.readInt();
+            case INTEGER -> Integer.BYTES;
+            case LONG, DOUBLE -> Long.BYTES;
+            case BOOLEAN -> 1;
+            default -> throw new IOException("Unknown session attribute tag: " + tag);
+        };
+        in.skipNBytes(length);
+    }
+
+    private static Object readValue(final DataInputStream in) throws IOException {
+        final byte tag = in.readByte();
+        return switch (tag) {
+            case STRING -> new String(readBytes(in), StandardCharsets.UTF_8);
+            case INTEGER -> in.readInt();
+            case LONG -> in.readLong();
+            case BOOLEAN -> in.readBoolean();
+            case DOUBLE -> in.readDouble();
+            case BYTES -> readBytes(in);
+            default -> throw new IOException("Unknown session attribute tag: " + tag);
+        };
+    }
+
+    private static byte[] readBytes(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid session attribute length: " + length);
+        }
+        return in.readNBytes(length);
+    }
+
+    /**
+     * 세션을 되살리지 않고 {@code now} 에 만료됐는지 확인한다.
+     */
+    static boolean isExpired(final byte[] data, final long now) {
+        final var buffer = ByteBuffer.wrap(data);
+        final int maxInactiveInterval = buffer.getInt(MAX_INACTIVE_INTERVAL_OFFSET);
+        return maxInactiveInterval > 0
+                && buffer.getLong(LAST_ACCESSED_TIME_OFFSET) + maxInactiveInterval * 1000L <= now;
+    }
+}
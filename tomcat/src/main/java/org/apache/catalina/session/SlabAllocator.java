@@ -0,0 +1,202 @@
+package org.apache.catalina.session;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 힙 밖(다이렉트 메모리)에 세션 레코드를 둘 블록 할당기.
+ * <p>
+ * 1MB 페이지를 필요할 때 하나씩 잡아 크기 등급(64B, 128B, ... 1MB) 하나에 통째로 준다. 해제한 블록은 등급별 빈 목록에
+ * 넣는데, 다음 빈 블록의 주소를 블록 안에 적어 두므로 힙에는 아무것도 남지 않는다.
+ * 주소는 {@code 페이지 번호 << 20 | 페이지 안 위치} 이며, 0번 페이지는 쓰지 않으므로 0 은 "없음" 을 뜻한다.
+ * <p>
+ * 블록에 쓰고 읽는 쪽은 블록이 해제되지 않도록 스스로 동기화해야 한다.
+ */
+final class SlabAllocator {
+
+    static final int PAGE_SIZE = 1 << 20;
+
+    private static final int PAGE_SHIFT = 20;
+    private static final int MIN_BLOCK_SHIFT = 6;
+    private static final long NONE = 0;
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.BIG_ENDIAN);
+
+    private final ByteBuffer[] pages;
+    private final SizeClass[] sizeClasses = new SizeClass[PAGE_SHIFT - MIN_BLOCK_SHIFT + 1];
+    private final ReentrantLock pageLock = new ReentrantLock();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private volatile int pageCount = 1;
+
+    /**
+     * @param maxMemory 잡을 수 있는 다이렉트 메모리(byte). 페이지 크기 단위로 내림한다.
+     */
+    SlabAllocator(final long maxMemory) {
+        final long maxPages = maxMemory / PAGE_SIZE;
+        if (maxPages < 1 || maxPages >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid off-heap memory size: " + maxMemory);
+        }
+        this.pages = new ByteBuffer[(int) maxPages + 1];
+        for (int i = 0; i < sizeClasses.length; i++) {
+            sizeClasses[i] = new SizeClass(1 << (i + MIN_BLOCK_SHIFT));
+        }
+    }
+
+    /**
+     * @return {@code size} 바이트 이상인 블록의 주소
+     * @throws IllegalStateException 메모리 한도에 닿은 경우
+     */
+    long allocate(final int size) {
+        final long address = sizeClasses[sizeClassOf(size)].allocate();
+        usedBytes.addAndGet(blockSize(size));
+        return address;
+    }
+
+    /**
+     * @param size 할당할 때 요청한 크기. 같은 등급으로 돌려준다.
+     */
+    void free(final long address, final int size) {
+        sizeClasses[sizeClassOf(size)].free(address);
+        usedBytes.addAndGet(-blockSize(size));
+    }
+
+    static int blockSize(final int size) {
+        return 1 << (sizeClassOf(size) + MIN_BLOCK_SHIFT);
+    }
+
+    private static int sizeClassOf(final int size) {
+        if (size <= 0 || size > PAGE_SIZE) {
+            throw new IllegalArgumentException("Invalid off-heap block size: " + size);
+        }
+        final int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+        return Math.max(shift, MIN_BLOCK_SHIFT) - MIN_BLOCK_SHIFT;
+    }
+
+    private int newPage() {
+        pageLock.lock();
+        try {
+            final int page = pageCount;
+            if (page == pages.length) {
+                throw new IllegalStateException("Off-heap session memory exhausted");
+            }
+            // long 을 원자적으로 읽고 쓰려면 8바이트 정렬이 필요하다.
+            pages[page] = ByteBuffer.allocateDirect(PAGE_SIZE + Long.BYTES).alignedSlice(Long.BYTES);
+            pageCount = page + 1;
+            return page;
+        } finally {
+            pageLock.unlock();
+        }
+    }
+
+    private ByteBuffer page(final long address) {
+        return pages[(int) (address >>> PAGE_SHIFT)];
+    }
+
+    private static int offset(final long address, final int offset) {
+        return (int) (address & (PAGE_SIZE - 1)) + offset;
+    }
+
+    long getLong(final long address, final int offset) {
+        return page(address).getLong(offset(address, offset));
+    }
+
+    void putLong(final long address, final int offset, final long value) {
+        page(address).putLong(offset(address, offset), value);
+    }
+
+    /**
+     * 다른 스레드가 동시에 쓰더라도 찢어지지 않은 값을 읽는다. {@code address + offset} 이 8의 배수여야 한다.
+     */
+    long getLongOpaque(final long address, final int offset) {
+        return (long) LONG_VIEW.getOpaque(page(address), offset(address, offset));
+    }
+
+    void putLongOpaque(final long address, final int offset, final long value) {
+        LONG_VIEW.setOpaque(page(address), offset(address, offset), value);
+    }
+
+    int getInt(final long address, final int offset) {
+        return page(address).getInt(offset(address, offset));
+    }
+
+    void putInt(final long address, final int offset, final int value) {
+        page(address).putInt(offset(address, offset), value);
+    }
+
+    byte getByte(final long address, final int offset) {
+        return page(address).get(offset(address, offset));
+    }
+
+    void putByte(final long address, final int offset, final byte value) {
+        page(address).put(offset(address, offset), value);
+    }
+
+    void get(final long address, final int offset, final byte[] bytes) {
+        page(address).get(offset(address, offset), bytes);
+    }
+
+    void put(final long address, final int offset, final byte[] bytes) {
+        page(address).put(offset(address, offset), bytes);
+    }
+
+    /**
+     * 잡아 둔 다이렉트 메모리(byte).
+     */
+    long getReservedBytes() {
+        return (long) (pageCount - 1) * PAGE_SIZE;
+    }
+
+    /**
+     * 블록으로 나눠 준 메모리(byte).
+     */
+    long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    private final class SizeClass {
+
+        private final int blockSize;
+        private final ReentrantLock lock = new ReentrantLock();
+        private long freeHead = NONE;
+        private long next = NONE;
+        private long limit = NONE;
+
+        private SizeClass(final int blockSize) {
+            this.blockSize = blockSize;
+        }
+
+        long allocate() {
+            lock.lock();
+            try {
+                if (freeHead != NONE) {
+                    final long address = freeHead;
+                    freeHead = getLong(address, 0);
+                    return address;
+                }
+                if (next == limit) {
+                    next = (long) newPage() << PAGE_SHIFT;
+                    limit = next + PAGE_SIZE;
+                }
+                final long address = next;
+                next += blockSize;
+                return address;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void free(final long address) {
+            lock.lock();
+            try {
+                putLong(address, 0, freeHead);
+                freeHead = address;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
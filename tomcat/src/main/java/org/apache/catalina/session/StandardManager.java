@@ -0,0 +1,229 @@
+package org.apache.catalina.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.apache.catalina.Manager;
+import org.apache.catalina.util.SessionIdGenerator;
+import org.apache.tomcat.util.collections.TimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 세션을 메모리에 두는 {@link Manager}.
+ * <p>
+ * 세션은 {@link ConcurrentHashMap} 에 두어 {@link #findSession(String)} 가 잠금 없이 조회한다.
+ * 만료는 백그라운드 스레드가 1초마다 타이밍 휠을 돌려 처리하므로 세션 수와 상관없이 지나간 틱의 세션만 확인한다.
+ * 휠은 틱 단위로 늦게 만료할 수 있으므로, 조회할 때도 만료 시각을 확인해 만료된 세션은 돌려주지 않는다.
+ */
+public class StandardManager implements Manager {
+
+    private static final Logger log = LoggerFactory.getLogger(StandardManager.class);
+
+    private static final int DEFAULT_MAX_INACTIVE_INTERVAL = 30 * 60;
+    private static final long EXPIRY_TICK_MILLIS = 1000L;
+    private static final int TICKS_PER_WHEEL = 1024;
+    private static final long BACKGROUND_TERMINATION_TIMEOUT_SECONDS = 10;
+
+    private final Map<String, StandardSession> sessions = new ConcurrentHashMap<>();
+    private final SessionIdGenerator sessionIdGenerator = new SessionIdGenerator();
+    private final TimingWheel<StandardSession> expiryWheel = new TimingWheel<>(EXPIRY_TICK_MILLIS, TICKS_PER_WHEEL,
+            System.currentTimeMillis(), StandardSession::getExpiryTime);
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+
+    private volatile int maxInactiveInterval = DEFAULT_MAX_INACTIVE_INTERVAL;
+    private ScheduledExecutorService backgroundExecutor;
+
+    public synchronized void start() {
+        if (backgroundExecutor != null) {
+            return;
+        }
+        backgroundExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "session-expirer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        backgroundExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                backgroundProcess();
+            } catch (RuntimeException e) {
+                log.error("Session background process failed", e);
+            }
+        }, EXPIRY_TICK_MILLIS, EXPIRY_TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (backgroundExecutor == null) {
+            return;
+        }
+        // 파일 채널은 인터럽트되면 닫히므로 하던 일을 마칠 때까지 기다린다.
+        backgroundExecutor.shutdown();
+        try {
+            if (!backgroundExecutor.awaitTermination(BACKGROUND_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                backgroundExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            backgroundExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        backgroundExecutor = null;
+    }
+
+    /**
+     * 새 ID 로 세션을 만들어 등록한다.
+     */
+    public StandardSession createSession() {
+        final long now = System.currentTimeMillis();
+        StandardSession session;
+        do {
+            session = new StandardSession(this, sessionIdGenerator.generateSessionId(), now);
+        } while (sessions.putIfAbsent(session.getId(), session) != null);
+        schedule(session);
+        createdCount.increment();
+        sessionChanged(session);
+        return session;
+    }
+
+    /**
+     * @throws IllegalArgumentException 이 매니저가 만든 세션이 아닌 경우
+     */
+    @Override
+    public void add(final HttpSession session) {
+        if (!(session instanceof StandardSession standardSession)) {
+            throw new IllegalArgumentException("Unsupported session type: " + session.getClass().getName());
+        }
+        sessions.put(standardSession.getId(), standardSession);
+        schedule(standardSession);
+    }
+
+    /**
+     * 같은 ID 의 세션이 없을 때만 등록한다.
+     *
+     * @return 이미 있던 세션. 새로 등록했다면 {@code null}
+     */
+    StandardSession addIfAbsent(final StandardSession session) {
+        final StandardSession existing = sessions.putIfAbsent(session.getId(), session);
+        if (existing == null) {
+            schedule(session);
+        }
+        return existing;
+    }
+
+    @Override
+    public HttpSession findSession(final String id) throws IOException {
+        if (id == null) {
+            return null;
+        }
+        final StandardSession session = sessions.get(id);
+        if (session == null) {
+            return null;
+        }
+        if (session.isExpired(System.currentTimeMillis())) {
+            expire(session);
+            return null;
+        }
+        return session;
+    }
+
+    @Override
+    public void remove(final HttpSession session) {
+        removeInternal(session);
+    }
+
+    /**
+     * @return 등록된 세션이 바로 이 세션이라 뺐다면 {@code true}. 같은 ID 의 다른 세션은 건드리지 않는다.
+     */
+    boolean removeInternal(final HttpSession session) {
+        return sessions.remove(session.getId(), session);
+    }
+
+    Iterable<StandardSession> getSessionsInternal() {
+        return sessions.values();
+    }
+
+    /**
+     * 세션의 만료 타이머를 등록한다. 이전 타이머가 있으면 취소한다.
+     */
+    void schedule(final StandardSession session) {
+        final var previous = session.getTimeout();
+        if (previous != null) {
+            previous.cancel();
+        }
+        final long expiryTime = session.getExpiryTime();
+        session.setTimeout(expiryTime < 0 ? null : expiryWheel.schedule(session, expiryTime));
+    }
+
+    void expire(final StandardSession session) {
+        if (session.expire()) {
+            expiredCount.increment();
+        }
+    }
+
+    /**
+     * 세션에 넣을 속성 값을 확인한다. 세션을 저장하는 매니저가 저장할 수 없는 타입을 거절하도록 재정의한다.
+     *
+     * @throws IllegalArgumentException 이 매니저가 다룰 수 없는 타입인 경우
+     */
+    void checkAttribute(final Object value) {
+    }
+
+    /**
+     * 세션이 만들어졌거나 속성이 바뀌었다. 세션을 저장하는 매니저가 재정의한다.
+     */
+    void sessionChanged(final StandardSession session) {
+    }
+
+    /**
+     * 요청이 세션에 접근했다. 세션을 저장하는 매니저가 재정의한다.
+     */
+    void sessionAccessed(final StandardSession session) {
+    }
+
+    /**
+     * {@code now} 까지 만료된 세션을 정리한다. 백그라운드 스레드가 주기적으로 부른다.
+     */
+    public void processExpires(final long now) {
+        expiryWheel.advance(now, this::expire);
+    }
+
+    /**
+     * 백그라운드 스레드가 1초마다 부른다.
+     */
+    public void backgroundProcess() {
+        processExpires(System.currentTimeMillis());
+    }
+
+    public int getMaxInactiveInterval() {
+        return maxInactiveInterval;
+    }
+
+    /**
+     * 새로 만드는 세션의 최대 비활성 시간(초). 0 이하이면 만료되지 않는다.
+     */
+    public void setMaxInactiveInterval(final int maxInactiveInterval) {
+        this.maxInactiveInterval = maxInactiveInterval;
+    }
+
+    public SessionIdGenerator getSessionIdGenerator() {
+        return sessionIdGenerator;
+    }
+
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    public long getSessionCounter() {
+        return createdCount.sum();
+    }
+
+    public long getExpiredSessions() {
+        return expiredCount.sum();
+    }
+}
@@ -0,0 +1,270 @@
+package org.apache.catalina.session;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionContext;
+import org.apache.tomcat.util.collections.TimingWheel;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link StandardManager} 가 메모리에 두는 세션.
+ * <p>
+ * 접근할 때는 마지막 접근 시각만 바꾼다. 만료 타이머는 다시 등록하지 않고, 타이밍 휠이 버킷을 확인할 때
+ * {@link #getExpiryTime()} 으로 만료 시각을 다시 계산한다.
+ */
+public class StandardSession implements HttpSession {
+
+    private final StandardManager manager;
+    private final String id;
+    private final long creationTime;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final AtomicBoolean valid = new AtomicBoolean(true);
+    private volatile long lastAccessedTime;
+    private volatile int maxInactiveInterval;
+    private volatile boolean isNew = true;
+    private volatile TimingWheel.Timeout<StandardSession> timeout;
+    private volatile long persistedAccessTime;
+
+    StandardSession(final StandardManager manager, final String id, final long creationTime) {
+        this(manager, id, creationTime, creationTime, manager.getMaxInactiveInterval(), true);
+    }
+
+    /**
+     * 저장해 둔 세션을 되살릴 때 쓴다.
+     */
+    StandardSession(final StandardManager manager,
+                    final String id,
+                    final long creationTime,
+                    final long lastAccessedTime,
+                    final int maxInactiveInterval,
+                    final boolean isNew) {
+        this.manager = manager;
+        this.id = id;
+        this.creationTime = creationTime;
+        this.lastAccessedTime = lastAccessedTime;
+        this.maxInactiveInterval = maxInactiveInterval;
+        this.isNew = isNew;
+        this.persistedAccessTime = lastAccessedTime;
+    }
+
+    /**
+     * 요청이 이 세션을 쓸 때 부른다. 클라이언트가 세션을 알고 있으므로 더 이상 새 세션이 아니다.
+     */
+    public void access() {
+        lastAccessedTime = System.currentTimeMillis();
+        isNew = false;
+        manager.sessionAccessed(this);
+    }
+
+    public boolean isValid() {
+        return valid.get() && !isExpired(System.currentTimeMillis());
+    }
+
+    boolean isExpired(final long now) {
+        final long expiryTime = getExpiryTime();
+        return expiryTime >= 0 && expiryTime <= now;
+    }
+
+    /**
+     * @return 만료 시각(ms). 이미 무효화됐거나 만료되지 않는 세션이면 -1
+     */
+    long getExpiryTime() {
+        final int interval = maxInactiveInterval;
+        if (interval <= 0 || !valid.get()) {
+            return -1;
+        }
+        return lastAccessedTime + interval * 1000L;
+    }
+
+    /**
+     * 세션을 무효화하고 매니저에서 뺀다.
+     *
+     * @return 이 호출이 세션을 무효화했다면 {@code true}. 이미 무효화된 세션이면 {@code false}
+     */
+    boolean expire() {
+        if (!valid.compareAndSet(true, false)) {
+            return false;
+        }
+        final var current = timeout;
+        if (current != null) {
+            current.cancel();
+        }
+        manager.remove(this);
+        attributes.clear();
+        return true;
+    }
+
+    boolean isValidInternal() {
+        return valid.get();
+    }
+
+    long getCreationTimeInternal() {
+        return creationTime;
+    }
+
+    long getLastAccessedTimeInternal() {
+        return lastAccessedTime;
+    }
+
+    boolean isNewInternal() {
+        return isNew;
+    }
+
+    /**
+     * 검사 없이 속성을 그대로 돌려준다. 저장하거나 되살릴 때만 쓴다.
+     */
+    Map<String, Object> getAttributesInternal() {
+        return attributes;
+    }
+
+    long getPersistedAccessTime() {
+        return persistedAccessTime;
+    }
+
+    void setPersistedAccessTime(final long persistedAccessTime) {
+        this.persistedAccessTime = persistedAccessTime;
+    }
+
+    TimingWheel.Timeout<StandardSession> getTimeout() {
+        return timeout;
+    }
+
+    void setTimeout(final TimingWheel.Timeout<StandardSession> timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public long getCreationTime() {
+        checkValid();
+        return creationTime;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public long getLastAccessedTime() {
+        checkValid();
+        return lastAccessedTime;
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    /**
+     * 만료 시각을 앞당길 수도 있으므로 타이머를 다시 등록한다.
+     *
+     * @param interval 초 단위. 0 이하이면 만료되지 않는다.
+     */
+    @Override
+    public void setMaxInactiveInterval(final int interval) {
+        this.maxInactiveInterval = interval;
+        manager.schedule(this);
+        manager.sessionChanged(this);
+    }
+
+    @Override
+    public int getMaxInactiveInterval() {
+        return maxInactiveInterval;
+    }
+
+    @Override
+    @Deprecated
+    public HttpSessionContext getSessionContext() {
+        return null;
+    }
+
+    @Override
+    public Object getAttribute(final String name) {
+        checkValid();
+        if (name == null) {
+            return null;
+        }
+        return attributes.get(name);
+    }
+
+    @Override
+    @Deprecated
+    public Object getValue(final String name) {
+        return getAttribute(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        checkValid();
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    @Deprecated
+    public String[] getValueNames() {
+        checkValid();
+        return attributes.keySet().toArray(String[]::new);
+    }
+
+    /**
+     * 값이 {@code null} 이면 속성을 지운다.
+     */
+    @Override
+    public void setAttribute(final String name, final Object value) {
+        if (name == null) {
+            throw new IllegalArgumentException("Attribute name must not be null");
+        }
+        checkValid();
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            manager.checkAttribute(value);
+            attributes.put(name, value);
+        }
+        manager.sessionChanged(this);
+    }
+
+    @Override
+    @Deprecated
+    public void putValue(final String name, final Object value) {
+        setAttribute(name, value);
+    }
+
+    @Override
+    public void removeAttribute(final String name) {
+        checkValid();
+        if (name != null && attributes.remove(name) != null) {
+            manager.sessionChanged(this);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void removeValue(final String name) {
+        removeAttribute(name);
+    }
+
+    @Override
+    public void invalidate() {
+        if (!expire()) {
+            throw new IllegalStateException("Session already invalidated");
+        }
+    }
+
+    @Override
+    public boolean isNew() {
+        checkValid();
+        return isNew;
+    }
+
+    private void checkValid() {
+        if (!valid.get()) {
+            throw new IllegalStateException("Session already invalidated");
+        }
+    }
+}
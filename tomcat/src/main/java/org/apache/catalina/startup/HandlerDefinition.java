@@ -0,0 +1,9 @@
+package org.apache.catalina.startup;
+
+/**
+ * 색인이나 클래스패스 탐색으로 찾은 라우트 하나.
+ *
+ * @param className {@link Class#forName(String)} 에 넘길 바이너리 이름
+ */
+public record HandlerDefinition(String method, String pattern, String className) {
+}
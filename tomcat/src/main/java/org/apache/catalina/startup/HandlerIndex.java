@@ -0,0 +1,83 @@
+package org.apache.catalina.startup;
+
+import org.apache.catalina.Handler;
+import org.apache.catalina.mapper.Mapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 컴파일할 때 만든 핸들러 색인을 읽어 {@link Mapper} 에 등록한다.
+ * <p>
+ * 색인은 {@code META-INF/catalina/handlers.idx} 에 {@code 메서드 경로 클래스} 를 한 줄에 하나씩 적은 텍스트다.
+ * {@code #} 으로 시작하는 줄은 건너뛴다. jar 마다 색인이 있을 수 있으므로 찾은 색인을 모두 읽는다.
+ */
+public final class HandlerIndex {
+
+    public static final String RESOURCE = "META-INF/catalina/handlers.idx";
+
+    /**
+     * @return 찾은 라우트. 클래스패스에 색인이 하나도 없으면 {@code null}
+     * @throws IOException 색인을 읽지 못했거나 형식이 잘못된 경우
+     */
+    public static List<HandlerDefinition> load(final ClassLoader classLoader) throws IOException {
+        final List<URL> resources = Collections.list(classLoader.getResources(RESOURCE));
+        if (resources.isEmpty()) {
+            return null;
+        }
+        final List<HandlerDefinition> definitions = new ArrayList<>();
+        for (final URL resource : resources) {
+            try (final var reader = new BufferedReader(
+                    new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.strip();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    final String[] fields = line.split(" ");
+                    if (fields.length != 3) {
+                        throw new IOException("Invalid handler index entry in " + resource + ": " + line);
+                    }
+                    definitions.add(new HandlerDefinition(fields[0], fields[1], fields[2]));
+                }
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * 클래스마다 인스턴스를 하나 만들어 등록한다. 여러 라우트에 붙은 클래스도 인스턴스는 하나다.
+     *
+     * @throws IllegalStateException 클래스를 찾거나 만들 수 없는 경우
+     */
+    public static void register(final Mapper mapper, final List<HandlerDefinition> definitions,
+                                final ClassLoader classLoader) {
+        final Map<String, Handler> handlers = new HashMap<>();
+        for (final HandlerDefinition definition : definitions) {
+            final Handler handler = handlers.computeIfAbsent(definition.className(),
+                    className -> newHandler(className, classLoader));
+            mapper.addRoute(definition.method(), definition.pattern(), handler);
+        }
+    }
+
+    private static Handler newHandler(final String className, final ClassLoader classLoader) {
+        try {
+            final Class<?> type = Class.forName(className, true, classLoader);
+            return (Handler) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("Failed to create handler: " + className, e);
+        }
+    }
+
+    private HandlerIndex() {
+    }
+}
@@ -0,0 +1,39 @@
+package org.apache.catalina.startup;
+
+import org.apache.catalina.annotation.RequestMapping;
+import org.reflections.Reflections;
+import org.reflections.scanners.Scanners;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 색인이 없을 때 클래스패스에서 {@link RequestMapping} 이 붙은 클래스를 찾는다.
+ * 패키지 아래 클래스 파일을 모두 열어 보므로 클래스가 많을수록 시작이 느려진다.
+ */
+public final class HandlerScanner {
+
+    public static List<HandlerDefinition> scan(final String basePackage, final ClassLoader classLoader) {
+        final var reflections = new Reflections(new ConfigurationBuilder()
+                .forPackage(basePackage, classLoader)
+                .addClassLoaders(classLoader)
+                .filterInputsBy(new FilterBuilder().includePackage(basePackage))
+                .setScanners(Scanners.TypesAnnotated));
+        final List<HandlerDefinition> definitions = new ArrayList<>();
+        final List<Class<?>> types = new ArrayList<>(reflections.getTypesAnnotatedWith(RequestMapping.class, true));
+        types.sort(Comparator.comparing(Class::getName));
+        for (final Class<?> type : types) {
+            final RequestMapping mapping = type.getAnnotation(RequestMapping.class);
+            for (final String method : mapping.method()) {
+                definitions.add(new HandlerDefinition(method, mapping.value(), type.getName()));
+            }
+        }
+        return definitions;
+    }
+
+    private HandlerScanner() {
+    }
+}
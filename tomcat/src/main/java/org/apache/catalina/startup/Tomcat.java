@@ -1,17 +1,50 @@
 package org.apache.catalina.startup;
 
 import org.apache.catalina.connector.Connector;
+import org.apache.catalina.mapper.Mapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 public class Tomcat {
 
     private static final Logger log = LoggerFactory.getLogger(Tomcat.class);
 
+    private final Connector connector;
+    private String scanPackage;
+
+    public Tomcat() {
+        this(new Connector());
+    }
+
+    public Tomcat(final Connector connector) {
+        this.connector = connector;
+    }
+
+    public Connector getConnector() {
+        return connector;
+    }
+
+    /**
+     * 핸들러를 등록한다. 시작하기 전에 등록해야 한다.
+     */
+    public Mapper getMapper() {
+        return connector.getProtocol().getMapper();
+    }
+
+    /**
+     * 핸들러 색인이 없을 때 {@link org.apache.catalina.annotation.RequestMapping} 핸들러를 찾을 패키지.
+     * 정하지 않으면 색인이 없을 때 핸들러를 찾지 않는다.
+     */
+    public void setScanPackage(final String scanPackage) {
+        this.scanPackage = scanPackage;
+    }
+
     public void start() {
-        var connector = new Connector();
+        loadHandlers();
         connector.start();
 
         try {
@@ -24,4 +57,29 @@ public class Tomcat {
             connector.stop();
         }
     }
+
+    /**
+     * 컴파일할 때 만든 색인으로 핸들러를 등록한다. 색인이 없을 때만 클래스패스를 훑는다.
+     */
+    private void loadHandlers() {
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final List<HandlerDefinition> definitions;
+        try {
+            definitions = HandlerIndex.load(classLoader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (definitions != null) {
+            HandlerIndex.register(getMapper(), definitions, classLoader);
+            log.info("Registered {} routes from {}", definitions.size(), HandlerIndex.RESOURCE);
+            return;
+        }
+        if (scanPackage == null) {
+            return;
+        }
+        log.warn("No {} on the classpath. Scanning {} for handlers", HandlerIndex.RESOURCE, scanPackage);
+        final List<HandlerDefinition> scanned = HandlerScanner.scan(scanPackage, classLoader);
+        HandlerIndex.register(getMapper(), scanned, classLoader);
+        log.info("Registered {} routes by scanning {}", scanned.size(), scanPackage);
+    }
 }
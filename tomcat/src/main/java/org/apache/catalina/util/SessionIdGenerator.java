@@ -0,0 +1,66 @@
+package org.apache.catalina.util;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 세션 ID 생성기.
+ * <p>
+ * {@link SecureRandom} 은 인스턴스마다 잠금을 걸므로 하나를 여러 스레드가 나눠 쓰면 경합한다.
+ * 인스턴스를 풀에 두고 꺼내 쓰며, 풀이 비어 있으면 새로 만든다. 그래서 인스턴스는 동시에 ID 를 만드는 스레드 수만큼만 생긴다.
+ * 가상 스레드마다 인스턴스가 생기는 ThreadLocal 은 쓰지 않는다.
+ * 리눅스 기본값인 NativePRNG 는 인스턴스끼리 잠금을 공유하므로 DRBG 를 쓴다.
+ */
+public class SessionIdGenerator {
+
+    private static final int DEFAULT_SESSION_ID_LENGTH = 16;
+    private static final String ALGORITHM = "DRBG";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Queue<SecureRandom> randoms = new ConcurrentLinkedQueue<>();
+    private int sessionIdLength = DEFAULT_SESSION_ID_LENGTH;
+
+    /**
+     * @return {@code sessionIdLength} 바이트의 난수를 소문자 16진수로 쓴 문자열
+     */
+    public String generateSessionId() {
+        final byte[] bytes = new byte[sessionIdLength];
+        SecureRandom random = randoms.poll();
+        if (random == null) {
+            random = createSecureRandom();
+        }
+        random.nextBytes(bytes);
+        randoms.offer(random);
+
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private SecureRandom createSecureRandom() {
+        try {
+            return SecureRandom.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    public int getSessionIdLength() {
+        return sessionIdLength;
+    }
+
+    /**
+     * 세션 ID 를 만들 난수 바이트 수. 문자열 길이는 이 값의 두 배가 된다.
+     */
+    public void setSessionIdLength(final int sessionIdLength) {
+        if (sessionIdLength < 8) {
+            throw new IllegalArgumentException("Session id length must be at least 8 bytes");
+        }
+        this.sessionIdLength = sessionIdLength;
+    }
+}
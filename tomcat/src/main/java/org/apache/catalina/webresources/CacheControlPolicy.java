@@ -0,0 +1,56 @@
+package org.apache.catalina.webresources;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 정적 리소스 응답에 붙일 Cache-Control 규칙 표. 추가한 순서대로 비교해 처음 맞는 규칙을 쓴다.
+ */
+public class CacheControlPolicy {
+
+    /**
+     * 내용 해시가 들어간 URL 접두사. 이 아래 리소스는 내용이 바뀌면 URL 도 바뀌므로 다시 확인할 필요가 없다.
+     */
+    public static final String VERSIONED_PREFIX = "/resources/";
+
+    private static final long ONE_YEAR_SECONDS = 365L * 24 * 60 * 60;
+    private static final long ONE_DAY_SECONDS = 24L * 60 * 60;
+
+    private final List<CacheControlRule> rules = new CopyOnWriteArrayList<>();
+
+    /**
+     * 버전이 붙은 리소스는 1년 동안 다시 확인하지 않고, HTML 은 매번 ETag 로 확인하며, 이미지와 글꼴은 하루 동안 캐시한다.
+     */
+    public static CacheControlPolicy defaults() {
+        final var policy = new CacheControlPolicy();
+        policy.addRule(CacheControlRule.prefix(VERSIONED_PREFIX,
+                "public, max-age=" + ONE_YEAR_SECONDS + ", immutable", ONE_YEAR_SECONDS));
+        policy.addRule(CacheControlRule.mimeType("text/html", "no-cache, private", -1));
+        for (final String extension : List.of("png", "jpg", "jpeg", "gif", "ico", "svg", "woff", "woff2")) {
+            policy.addRule(CacheControlRule.extension(extension,
+                    "public, max-age=" + ONE_DAY_SECONDS, ONE_DAY_SECONDS));
+        }
+        return policy;
+    }
+
+    public void addRule(final CacheControlRule rule) {
+        rules.add(rule);
+    }
+
+    public void clear() {
+        rules.clear();
+    }
+
+    /**
+     * @param path 요청 경로
+     * @return 맞는 규칙이 없으면 {@code null}
+     */
+    public CacheControlRule findRule(final String path, final String contentType) {
+        for (final CacheControlRule rule : rules) {
+            if (rule.matches(path, contentType)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,95 @@
+package org.apache.catalina.webresources;
+
+import org.apache.coyote.http11.Http11OutputBuffer;
+import org.apache.tomcat.util.http.FastHttpDateFormat;
+
+import java.util.Locale;
+
+/**
+ * 경로 접두사, 확장자, MIME 타입 가운데 하나로 리소스를 고르고 Cache-Control, Expires 헤더를 정한다.
+ * <p>
+ * 헤더는 미리 인코딩해 둔다. Expires 는 현재 시각에 따라 바뀌므로 1초에 한 번만 다시 만든다.
+ */
+public final class CacheControlRule {
+
+    private enum Type { PREFIX, EXTENSION, MIME_TYPE }
+
+    private final Type type;
+    private final String pattern;
+    private final String cacheControl;
+    private final long expiresSeconds;
+    private final byte[] cacheControlHeader;
+    private volatile EncodedHeaders encodedHeaders = new EncodedHeaders(Long.MIN_VALUE, null);
+
+    private CacheControlRule(final Type type,
+                             final String pattern,
+                             final String cacheControl,
+                             final long expiresSeconds) {
+        this.type = type;
+        this.pattern = type == Type.PREFIX ? pattern : pattern.toLowerCase(Locale.ROOT);
+        this.cacheControl = cacheControl;
+        this.expiresSeconds = expiresSeconds;
+        this.cacheControlHeader = Http11OutputBuffer.encodeHeaders("Cache-Control", cacheControl);
+    }
+
+    /**
+     * @param expiresSeconds 지금부터 이 시간(초) 뒤를 Expires 로 보낸다. 음수면 Expires 를 보내지 않는다.
+     */
+    public static CacheControlRule prefix(final String prefix, final String cacheControl, final long expiresSeconds) {
+        return new CacheControlRule(Type.PREFIX, prefix, cacheControl, expiresSeconds);
+    }
+
+    /**
+     * @param extension 점을 뺀 확장자. 예: {@code css}
+     */
+    public static CacheControlRule extension(final String extension,
+                                             final String cacheControl,
+                                             final long expiresSeconds) {
+        return new CacheControlRule(Type.EXTENSION, "." + extension, cacheControl, expiresSeconds);
+    }
+
+    /**
+     * @param mimeType 매개변수를 뺀 MIME 타입. 예: {@code text/html}
+     */
+    public static CacheControlRule mimeType(final String mimeType,
+                                            final String cacheControl,
+                                            final long expiresSeconds) {
+        return new CacheControlRule(Type.MIME_TYPE, mimeType, cacheControl, expiresSeconds);
+    }
+
+    boolean matches(final String path, final String contentType) {
+        return switch (type) {
+            case PREFIX -> path.startsWith(pattern);
+            case EXTENSION -> path.regionMatches(true, path.length() - pattern.length(), pattern, 0, pattern.length());
+            case MIME_TYPE -> contentType != null
+                    && contentType.regionMatches(true, 0, pattern, 0, pattern.length())
+                    && (contentType.length() == pattern.length() || contentType.charAt(pattern.length()) == ';');
+        };
+    }
+
+    /**
+     * @param now 현재 시각(ms)
+     * @return 인코딩한 Cache-Control, Expires 헤더
+     */
+    public byte[] getHeaders(final long now) {
+        if (expiresSeconds < 0) {
+            return cacheControlHeader;
+        }
+        final long second = now / 1000;
+        EncodedHeaders current = encodedHeaders;
+        if (current.second != second) {
+            final String expires = FastHttpDateFormat.formatDate(second * 1000 + expiresSeconds * 1000);
+            current = new EncodedHeaders(second,
+                    Http11OutputBuffer.encodeHeaders("Cache-Control", cacheControl, "Expires", expires));
+            encodedHeaders = current;
+        }
+        return current.headers;
+    }
+
+    public String getCacheControl() {
+        return cacheControl;
+    }
+
+    private record EncodedHeaders(long second, byte[] headers) {
+    }
+}
@@ -0,0 +1,26 @@
+package org.apache.catalina.webresources;
+
+/**
+ * 정적 리소스 캐시 통계 스냅샷. 자주 쓰는 리소스가 캐시 용량 안에 들어오는지 확인할 때 사용한다.
+ */
+public record CacheStats(long hitCount,
+                         long missCount,
+                         long evictionCount,
+                         int entryCount,
+                         long size,
+                         long maxSize) {
+
+    public double hitRatio() {
+        final long lookups = hitCount + missCount;
+        if (lookups == 0) {
+            return 0;
+        }
+        return (double) hitCount / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d, misses=%d (%.1f%% hit), evictions=%d, entries=%d, size=%d/%d bytes",
+                hitCount, missCount, hitRatio() * 100, evictionCount, entryCount, size, maxSize);
+    }
+}
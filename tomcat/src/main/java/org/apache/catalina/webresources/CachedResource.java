@@ -0,0 +1,237 @@
+package org.apache.catalina.webresources;
+
+import org.apache.coyote.CompressionConfig;
+import org.apache.coyote.http11.Http11OutputBuffer;
+import org.apache.tomcat.util.http.FastHttpDateFormat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 캐시에 올라간 정적 리소스. 파일 내용과 함께 Content-Type, Content-Length, ETag, Last-Modified 헤더를
+ * 미리 인코딩해 두어 요청마다 다시 만들지 않고 그대로 쓸 수 있다. ETag 는 내용의 해시라 리소스 버전마다 한 번만 계산한다.
+ * <p>
+ * 큰 파일은 내용을 힙에 올리지 않고({@link #getContent()} 가 {@code null}) 메타데이터만 캐시하며,
+ * 본문은 파일에서 소켓으로 바로 보낸다.
+ * <p>
+ * 압축할 만한 리소스는 gzip 으로 한 번 압축한 사본을 원본 옆에 두고, 사본을 보낼 때 쓸 헤더도 미리 인코딩해 둔다.
+ */
+public class CachedResource {
+
+    private final String path;
+    private final Path file;
+    private final byte[] content;
+    private final long contentLength;
+    private final String contentType;
+    private final long lastModified;
+    private final String etag;
+    private final byte[] entityHeaders;
+    private final byte[] notModifiedHeaders;
+    private final byte[] gzipContent;
+    private final String gzipEtag;
+    private final byte[] gzipEntityHeaders;
+    private final byte[] gzipNotModifiedHeaders;
+    private volatile long lastAccess;
+    private volatile long nextCheck;
+
+    public CachedResource(final String path,
+                          final Path file,
+                          final byte[] content,
+                          final long lastModified) {
+        this(path, file, content, content.length, null, ETags.of(content), lastModified);
+    }
+
+    /**
+     * @param content 힙에 올리지 않는 리소스라면 {@code null}
+     * @param gzipContent 미리 압축한 사본. 없다면 {@code null}
+     * @param etag 원본 내용으로 만든 강한 ETag
+     */
+    public CachedResource(final String path,
+                          final Path file,
+                          final byte[] content,
+                          final long contentLength,
+                          final byte[] gzipContent,
+                          final String etag,
+                          final long lastModified) {
+        this.path = path;
+        this.file = file;
+        this.content = content;
+        this.contentLength = contentLength;
+        this.contentType = MimeTypes.getMimeType(path);
+        this.lastModified = lastModified;
+        this.etag = etag;
+        this.gzipContent = gzipContent;
+        // 같은 URL 이 Accept-Encoding 에 따라 다르게 응답되므로 사본이 있으면 두 응답 모두 Vary 를 보낸다.
+        final String vary = gzipContent == null ? null : "Accept-Encoding";
+        this.entityHeaders = encodeHeaders(contentType, contentLength, null, etag, vary, true);
+        this.notModifiedHeaders = encodeHeaders(null, -1, null, etag, vary, false);
+        if (gzipContent == null) {
+            this.gzipEtag = null;
+            this.gzipEntityHeaders = null;
+            this.gzipNotModifiedHeaders = null;
+            return;
+        }
+        this.gzipEtag = ETags.withEncoding(etag, CompressionConfig.GZIP);
+        this.gzipEntityHeaders = encodeHeaders(contentType, gzipContent.length, CompressionConfig.GZIP, gzipEtag, vary,
+                false);
+        this.gzipNotModifiedHeaders = encodeHeaders(null, -1, null, gzipEtag, vary, false);
+    }
+
+    /**
+     * 값이 {@code null} 이거나 음수인 헤더는 빼고 인코딩한다. 304 응답은 본문에 딸린 헤더 없이 검증자만 보낸다.
+     */
+    private byte[] encodeHeaders(final String contentType,
+                                 final long contentLength,
+                                 final String contentEncoding,
+                                 final String etag,
+                                 final String vary,
+                                 final boolean acceptRanges) {
+        final var headers = new ArrayList<String>();
+        addHeader(headers, "Content-Type", contentType);
+        addHeader(headers, "Content-Length", contentLength < 0 ? null : String.valueOf(contentLength));
+        addHeader(headers, "Content-Encoding", contentEncoding);
+        // Range 는 압축하지 않은 원본에만 받으므로 원본 응답에서만 알린다.
+        addHeader(headers, "Accept-Ranges", acceptRanges ? "bytes" : null);
+        addHeader(headers, "ETag", etag);
+        addHeader(headers, "Last-Modified", lastModified <= 0 ? null : FastHttpDateFormat.formatDate(lastModified));
+        addHeader(headers, "Vary", vary);
+        return Http11OutputBuffer.encodeHeaders(headers.toArray(String[]::new));
+    }
+
+    private void addHeader(final List<String> headers, final String name, final String value) {
+        if (value != null) {
+            headers.add(name);
+            headers.add(value);
+        }
+    }
+
+    /**
+     * If-None-Match 값이 이 리소스의 어느 표현과든 맞는지 확인한다.
+     */
+    public boolean matchesETag(final String ifNoneMatch) {
+        return ETags.matches(ifNoneMatch, etag, gzipEtag);
+    }
+
+    /**
+     * /resources/{version}/ 경로에 쓰는 버전. ETag 와 같은 내용 해시에서 따옴표만 뺀 값이다.
+     */
+    public String getVersion() {
+        return etag.substring(1, etag.length() - 1);
+    }
+
+    /**
+     * 요청 경로의 버전이 지금 내용의 해시와 같은지 확인한다. 할당 없이 ETag 와 바로 비교한다.
+     */
+    public boolean matchesVersion(final String version) {
+        return etag.length() == version.length() + 2 && etag.regionMatches(1, version, 0, version.length());
+    }
+
+    /**
+     * If-Modified-Since 시각 이후에 바뀌었는지 확인한다. HTTP 날짜는 초 단위이므로 밀리초는 버린다.
+     */
+    public boolean isModifiedSince(final long since) {
+        return lastModified <= 0 || lastModified / 1000 > since / 1000;
+    }
+
+    /**
+     * 파일이 바뀌었는지 확인한다. 클래스패스의 jar 안에 있는 리소스는 바뀌지 않는다고 본다.
+     */
+    boolean isModified() {
+        if (file == null) {
+            return false;
+        }
+        try {
+            return !Files.isRegularFile(file) || Files.getLastModifiedTime(file).toMillis() != lastModified;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void touch(final long now) {
+        this.lastAccess = now;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    long getNextCheck() {
+        return nextCheck;
+    }
+
+    void setNextCheck(final long nextCheck) {
+        this.nextCheck = nextCheck;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * 캐시 용량 계산에 쓰는 힙 사용량. 원본과 압축한 사본 가운데 힙에 올린 것만 센다.
+     */
+    public long getHeapSize() {
+        long size = 0;
+        if (content != null) {
+            size += content.length;
+        }
+        if (gzipContent != null) {
+            size += gzipContent.length;
+        }
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public String getETag() {
+        return etag;
+    }
+
+    public byte[] getEntityHeaders() {
+        return entityHeaders;
+    }
+
+    /**
+     * 304 응답에 쓸 헤더. Content-Type, Content-Length 없이 ETag, Last-Modified 만 담는다.
+     */
+    public byte[] getNotModifiedHeaders() {
+        return notModifiedHeaders;
+    }
+
+    /**
+     * @return 미리 압축한 사본이 없다면 {@code null}
+     */
+    public byte[] getGzipContent() {
+        return gzipContent;
+    }
+
+    public byte[] getGzipEntityHeaders() {
+        return gzipEntityHeaders;
+    }
+
+    public byte[] getGzipNotModifiedHeaders() {
+        return gzipNotModifiedHeaders;
+    }
+}
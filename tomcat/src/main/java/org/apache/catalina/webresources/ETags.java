@@ -0,0 +1,82 @@
+package org.apache.catalina.webresources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 리소스 내용의 SHA-256 해시로 강한 ETag 를 만든다. 내용이 같으면 서버가 다시 떠도 같은 값이 나온다.
+ */
+final class ETags {
+
+    private static final int TAG_BYTES = 16;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    static String of(final byte[] content) {
+        final MessageDigest digest = newDigest();
+        digest.update(content);
+        return toETag(digest);
+    }
+
+    static String of(final Path file) throws IOException {
+        final MessageDigest digest = newDigest();
+        final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        try (final var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return toETag(digest);
+    }
+
+    /**
+     * 같은 내용을 다른 인코딩으로 보낼 때 쓰는 ETag. 바이트가 다르므로 강한 ETag 도 달라야 한다.
+     */
+    static String withEncoding(final String etag, final String encoding) {
+        return etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+    }
+
+    /**
+     * If-None-Match 값이 주어진 ETag 중 하나와 맞는지 약한 비교로 확인한다.
+     */
+    static boolean matches(final String ifNoneMatch, final String... etags) {
+        if (ifNoneMatch.trim().equals("*")) {
+            return true;
+        }
+        for (final String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            for (final String etag : etags) {
+                if (etag != null && etag.equals(tag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toETag(final MessageDigest digest) {
+        final byte[] hash = Arrays.copyOf(digest.digest(), TAG_BYTES);
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+    }
+
+    private ETags() {}
+}
@@ -0,0 +1,35 @@
+package org.apache.catalina.webresources;
+
+import java.util.Map;
+
+public final class MimeTypes {
+
+    private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+
+    private static final Map<String, String> MIME_TYPES = Map.ofEntries(
+            Map.entry("html", "text/html;charset=utf-8"),
+            Map.entry("htm", "text/html;charset=utf-8"),
+            Map.entry("css", "text/css;charset=utf-8"),
+            Map.entry("js", "text/javascript;charset=utf-8"),
+            Map.entry("json", "application/json"),
+            Map.entry("txt", "text/plain;charset=utf-8"),
+            Map.entry("svg", "image/svg+xml"),
+            Map.entry("png", "image/png"),
+            Map.entry("jpg", "image/jpeg"),
+            Map.entry("jpeg", "image/jpeg"),
+            Map.entry("gif", "image/gif"),
+            Map.entry("ico", "image/x-icon"),
+            Map.entry("woff", "font/woff"),
+            Map.entry("woff2", "font/woff2")
+    );
+
+    public static String getMimeType(final String path) {
+        final int dot = path.lastIndexOf('.');
+        if (dot < 0 || dot < path.lastIndexOf('/')) {
+            return DEFAULT_MIME_TYPE;
+        }
+        return MIME_TYPES.getOrDefault(path.substring(dot + 1).toLowerCase(), DEFAULT_MIME_TYPE);
+    }
+
+    private MimeTypes() {}
+}
@@ -0,0 +1,140 @@
+package org.apache.catalina.webresources;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 바이트 용량이 정해진 정적 리소스 캐시.
+ * <p>
+ * 조회는 잠금 없이 {@link ConcurrentHashMap} 에서 하고, 용량을 넘으면 가장 오래 쓰이지 않은 리소스부터
+ * 용량의 95% 까지 비운다(LRU). 리소스가 바뀌었는지는 매 요청이 아니라 {@code ttl} 마다 한 번 확인한다.
+ */
+public class ResourceCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceCache.class);
+
+    private static final long DEFAULT_MAX_SIZE = 10L * 1024 * 1024;
+    private static final long DEFAULT_TTL_MILLIS = 5_000L;
+    private static final int OBJECT_MAX_SIZE_FACTOR = 20;
+    private static final int EVICTION_TARGET_PERCENT = 95;
+
+    private final Map<String, CachedResource> resources = new ConcurrentHashMap<>();
+    private final AtomicLong size = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private long maxSize = DEFAULT_MAX_SIZE;
+    private long objectMaxSize = DEFAULT_MAX_SIZE / OBJECT_MAX_SIZE_FACTOR;
+    private long ttl = DEFAULT_TTL_MILLIS;
+
+    /**
+     * @param loader 캐시에 없을 때 리소스를 읽는다. 리소스가 없으면 {@code null} 을 반환한다.
+     */
+    public CachedResource get(final String path, final Function<String, CachedResource> loader) {
+        final long now = System.currentTimeMillis();
+        final CachedResource cached = resources.get(path);
+        if (cached != null && isValid(cached, now)) {
+            hitCount.increment();
+            cached.touch(now);
+            return cached;
+        }
+        missCount.increment();
+        final CachedResource loaded = loader.apply(path);
+        if (loaded == null || loaded.getHeapSize() > objectMaxSize) {
+            return loaded;
+        }
+        loaded.touch(now);
+        loaded.setNextCheck(now + ttl);
+        final CachedResource existing = resources.putIfAbsent(path, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        if (size.addAndGet(loaded.getHeapSize()) > maxSize) {
+            evict();
+        }
+        return loaded;
+    }
+
+    private boolean isValid(final CachedResource cached, final long now) {
+        if (now < cached.getNextCheck()) {
+            return true;
+        }
+        if (!cached.isModified()) {
+            cached.setNextCheck(now + ttl);
+            return true;
+        }
+        if (resources.remove(cached.getPath(), cached)) {
+            size.addAndGet(-cached.getHeapSize());
+        }
+        return false;
+    }
+
+    private void evict() {
+        // 다른 스레드가 이미 비우고 있다면 기다리지 않는다.
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            final long target = maxSize * EVICTION_TARGET_PERCENT / 100;
+            final List<CachedResource> candidates = new ArrayList<>(resources.values());
+            candidates.sort(Comparator.comparingLong(CachedResource::getLastAccess));
+            for (final CachedResource candidate : candidates) {
+                if (size.get() <= target) {
+                    break;
+                }
+                if (resources.remove(candidate.getPath(), candidate)) {
+                    size.addAndGet(-candidate.getHeapSize());
+                    evictionCount.increment();
+                }
+            }
+            log.debug("Static resource cache evicted. {}", getStats());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(),
+                resources.size(), size.get(), maxSize);
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 캐시에 올릴 수 있는 전체 바이트 수. 리소스 하나의 최대 크기는 이 값의 1/20 이 된다.
+     */
+    public void setMaxSize(final long maxSize) {
+        this.maxSize = maxSize;
+        this.objectMaxSize = maxSize / OBJECT_MAX_SIZE_FACTOR;
+    }
+
+    public long getObjectMaxSize() {
+        return objectMaxSize;
+    }
+
+    public void setObjectMaxSize(final long objectMaxSize) {
+        this.objectMaxSize = Math.min(objectMaxSize, maxSize);
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(final long ttl) {
+        this.ttl = ttl;
+    }
+}
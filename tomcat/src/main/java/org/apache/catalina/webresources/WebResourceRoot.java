@@ -0,0 +1,157 @@
+package org.apache.catalina.webresources;
+
+import org.apache.coyote.CompressionConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 클래스패스의 정적 리소스 디렉터리(기본값 static)에서 요청 경로에 맞는 파일을 찾는다.
+ * 읽은 파일은 {@link ResourceCache} 에 올려 두고 다음 요청부터는 디스크를 읽지 않는다.
+ * 압축할 만한 파일은 읽을 때 gzip 사본을 함께 만들어 둔다.
+ */
+public class WebResourceRoot {
+
+    private static final String DEFAULT_BASE = "static";
+    private static final long DEFAULT_SENDFILE_SIZE = 48 * 1024;
+
+    private final String base;
+    private final CompressionConfig compressionConfig;
+    private final ResourceCache cache = new ResourceCache();
+    private CacheControlPolicy cacheControlPolicy = CacheControlPolicy.defaults();
+    private long sendfileSize = DEFAULT_SENDFILE_SIZE;
+
+    public WebResourceRoot() {
+        this(DEFAULT_BASE);
+    }
+
+    public WebResourceRoot(final String base) {
+        this(base, new CompressionConfig());
+    }
+
+    public WebResourceRoot(final CompressionConfig compressionConfig) {
+        this(DEFAULT_BASE, compressionConfig);
+    }
+
+    public WebResourceRoot(final String base, final CompressionConfig compressionConfig) {
+        this.base = base;
+        this.compressionConfig = compressionConfig;
+    }
+
+    /**
+     * @param path / 로 시작하는 요청 경로
+     * @return 파일이 없거나 경로가 잘못되었다면 {@code null}
+     */
+    public CachedResource getResource(final String path) {
+        if (!isValidPath(path)) {
+            return null;
+        }
+        return cache.get(path, this::load);
+    }
+
+    private boolean isValidPath(final String path) {
+        if (path == null || !path.startsWith("/") || path.endsWith("/") || path.indexOf('\\') >= 0) {
+            return false;
+        }
+        for (final String segment : path.split("/")) {
+            if (segment.equals("..")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private CachedResource load(final String path) {
+        final URL url = getClass().getClassLoader().getResource(base + path);
+        if (url == null) {
+            return null;
+        }
+        try {
+            if ("file".equals(url.getProtocol())) {
+                return loadFile(path, Path.of(url.toURI()));
+            }
+            return loadUrl(path, url);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CachedResource loadFile(final String path, final Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        final long lastModified = Files.getLastModifiedTime(file).toMillis();
+        final long size = Files.size(file);
+        final boolean useSendfile = sendfileSize >= 0 && size > sendfileSize;
+        if (useSendfile && !shouldPrecompress(path, size)) {
+            return new CachedResource(path, file, null, size, null, ETags.of(file), lastModified);
+        }
+        final byte[] content = Files.readAllBytes(file);
+        final byte[] gzipContent = precompress(path, content);
+        return new CachedResource(path, file, useSendfile ? null : content, size, gzipContent, ETags.of(content),
+                lastModified);
+    }
+
+    private CachedResource loadUrl(final String path, final URL url) throws IOException {
+        final URLConnection connection = url.openConnection();
+        try (final InputStream inputStream = connection.getInputStream()) {
+            final byte[] content = inputStream.readAllBytes();
+            return new CachedResource(path, null, content, content.length, precompress(path, content),
+                    ETags.of(content), connection.getLastModified());
+        }
+    }
+
+    /**
+     * 캐시에 한 번에 올릴 수 있는 크기를 넘는 파일은 압축해도 캐시에 남지 않으므로 압축하지 않는다.
+     */
+    private boolean shouldPrecompress(final String path, final long size) {
+        return size <= cache.getObjectMaxSize()
+                && compressionConfig.isCompressible(MimeTypes.getMimeType(path), size);
+    }
+
+    private byte[] precompress(final String path, final byte[] content) {
+        if (!shouldPrecompress(path, content.length)) {
+            return null;
+        }
+        final byte[] compressed = compressionConfig.compress(CompressionConfig.GZIP, content);
+        if (compressed.length >= content.length) {
+            return null;
+        }
+        return compressed;
+    }
+
+    public CompressionConfig getCompressionConfig() {
+        return compressionConfig;
+    }
+
+    public CacheControlPolicy getCacheControlPolicy() {
+        return cacheControlPolicy;
+    }
+
+    public void setCacheControlPolicy(final CacheControlPolicy cacheControlPolicy) {
+        this.cacheControlPolicy = cacheControlPolicy;
+    }
+
+    public ResourceCache getCache() {
+        return cache;
+    }
+
+    public long getSendfileSize() {
+        return sendfileSize;
+    }
+
+    /**
+     * 이 크기(byte)보다 큰 파일은 힙 캐시에 올리지 않고 파일에서 소켓으로 바로 보낸다. 음수면 끈다.
+     */
+    public void setSendfileSize(final long sendfileSize) {
+        this.sendfileSize = sendfileSize;
+    }
+}
@@ -0,0 +1,12 @@
+package org.apache.coyote;
+
+import java.io.IOException;
+
+/**
+ * 프로토콜 처리기(coyote)와 요청을 실제로 처리하는 컨테이너(catalina)를 잇는다.
+ * 프로세서는 요청을 파싱한 뒤 어댑터에게 응답을 채우게 하고, 채워진 응답을 프로토콜에 맞게 쓴다.
+ */
+public interface Adapter {
+
+    void service(Request request, Response response) throws IOException;
+}
@@ -0,0 +1,23 @@
+package org.apache.coyote;
+
+import java.io.IOException;
+
+/**
+ * 요청 본문을 읽다가 클라이언트 잘못을 발견했을 때 던진다. 프로세서는 아직 응답을 보내지 않았다면
+ * {@link #getStatus()} 로 응답하고 연결을 닫는다.
+ */
+public class BadRequestException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public BadRequestException(final int status, final String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
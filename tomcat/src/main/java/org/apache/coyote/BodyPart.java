@@ -0,0 +1,32 @@
+package org.apache.coyote;
+
+import java.nio.file.Path;
+
+/**
+ * 응답 본문의 한 조각. 힙의 바이트 구간이거나 파일의 구간이며, 프로세서는 조각을 순서대로 보낸다.
+ */
+public sealed interface BodyPart {
+
+    long count();
+
+    /**
+     * 배열을 복사하지 않고 {@code bytes[offset, offset + length)} 를 보낸다.
+     */
+    record Bytes(byte[] bytes, int offset, int length) implements BodyPart {
+
+        public Bytes(final byte[] bytes) {
+            this(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public long count() {
+            return length;
+        }
+    }
+
+    /**
+     * 파일의 {@code [position, position + count)} 를 힙에 읽지 않고 소켓으로 보낸다.
+     */
+    record FileRegion(Path file, long position, long count) implements BodyPart {
+    }
+}
@@ -0,0 +1,201 @@
+package org.apache.coyote;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 응답 압축 설정. Accept-Encoding 을 보고 gzip, deflate 중 하나를 고르고, 압축할 MIME 타입과
+ * 최소 크기, 압축 레벨을 정한다. 정적 리소스의 미리 압축한 사본과 동적 응답 압축이 같은 설정을 쓴다.
+ */
+public class CompressionConfig {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final int DEFAULT_MIN_SIZE = 2048;
+    private static final Set<String> DEFAULT_MIME_TYPES = Set.of(
+            "text/html", "text/xml", "text/plain", "text/css", "text/javascript",
+            "application/javascript", "application/json", "application/xml", "image/svg+xml");
+
+    private boolean enabled = true;
+    private int minSize = DEFAULT_MIN_SIZE;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    private Set<String> compressibleMimeTypes = DEFAULT_MIME_TYPES;
+
+    /**
+     * 클라이언트가 받을 수 있는 인코딩 중 하나를 고른다. gzip 을 deflate 보다 먼저 고른다.
+     *
+     * @return 압축하지 않아야 하면 {@code null}
+     */
+    public String negotiate(final Request request) {
+        if (!enabled) {
+            return null;
+        }
+        final String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return null;
+        }
+        // -1 은 목록에 없다는 뜻이다. 목록에 없으면 * 의 품질 값을 따른다.
+        double gzip = -1;
+        double deflate = -1;
+        double any = 0;
+        for (final String element : acceptEncoding.split(",")) {
+            final int semicolon = element.indexOf(';');
+            final String coding = (semicolon < 0 ? element : element.substring(0, semicolon)).trim();
+            final double quality = semicolon < 0 ? 1 : parseQuality(element.substring(semicolon + 1));
+            if (coding.equalsIgnoreCase(GZIP) || coding.equalsIgnoreCase("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equalsIgnoreCase(DEFLATE)) {
+                deflate = quality;
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (deflate < 0) {
+            deflate = any;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        if (deflate > 0) {
+            return DEFLATE;
+        }
+        return null;
+    }
+
+    private double parseQuality(final String parameter) {
+        final String trimmed = parameter.trim();
+        if (!trimmed.startsWith("q=")) {
+            return 1;
+        }
+        try {
+            return Double.parseDouble(trimmed.substring(2).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 이 타입과 길이의 본문을 압축할 가치가 있는지 확인한다.
+     */
+    public boolean isCompressible(final String contentType, final long contentLength) {
+        if (!enabled || contentType == null || contentLength < minSize) {
+            return false;
+        }
+        final int semicolon = contentType.indexOf(';');
+        final String mimeType = semicolon < 0 ? contentType : contentType.substring(0, semicolon);
+        return compressibleMimeTypes.contains(mimeType.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 주어진 인코딩으로 압축해 {@code out} 에 쓰는 스트림을 연다. 닫아야 압축이 끝난다.
+     */
+    public DeflaterOutputStream createOutputStream(final String encoding, final OutputStream out) throws IOException {
+        return createOutputStream(encoding, out, false);
+    }
+
+    /**
+     * @param syncFlush {@code true} 면 {@code flush()} 할 때 지금까지 쓴 내용을 압축해 내보낸다. 스트리밍 응답에 쓴다.
+     */
+    public DeflaterOutputStream createOutputStream(final String encoding,
+                                                   final OutputStream out,
+                                                   final boolean syncFlush) throws IOException {
+        if (GZIP.equals(encoding)) {
+            return new LeveledGZIPOutputStream(out, level, syncFlush);
+        }
+        return new LeveledDeflaterOutputStream(out, level, syncFlush);
+    }
+
+    public byte[] compress(final String encoding, final byte[] content) {
+        final var out = new ByteArrayOutputStream(Math.max(content.length / 4, 64));
+        try (final var compressor = createOutputStream(encoding, out)) {
+            compressor.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * 이 크기(byte)보다 작은 본문은 압축하지 않는다.
+     */
+    public void setMinSize(final int minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * {@link Deflater} 압축 레벨. 0(압축 안 함)부터 9(최대 압축)까지이며 -1 이면 기본값(6)이다.
+     */
+    public void setLevel(final int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.level = level;
+    }
+
+    public Set<String> getCompressibleMimeTypes() {
+        return compressibleMimeTypes;
+    }
+
+    public void setCompressibleMimeTypes(final String... mimeTypes) {
+        final var normalized = new HashSet<String>();
+        for (final String mimeType : mimeTypes) {
+            normalized.add(mimeType.trim().toLowerCase(Locale.ROOT));
+        }
+        this.compressibleMimeTypes = Set.copyOf(normalized);
+    }
+
+    private static final class LeveledGZIPOutputStream extends GZIPOutputStream {
+
+        LeveledGZIPOutputStream(final OutputStream out, final int level, final boolean syncFlush) throws IOException {
+            super(out, syncFlush);
+            def.setLevel(level);
+        }
+    }
+
+    /**
+     * 직접 만든 {@link Deflater} 는 스트림이 닫아 주지 않으므로 닫을 때 네이티브 메모리를 놓는다.
+     */
+    private static final class LeveledDeflaterOutputStream extends DeflaterOutputStream {
+
+        LeveledDeflaterOutputStream(final OutputStream out, final int level, final boolean syncFlush) {
+            super(out, new Deflater(level), syncFlush);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
+        }
+    }
+}
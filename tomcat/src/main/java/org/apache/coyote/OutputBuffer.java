@@ -0,0 +1,16 @@
+package org.apache.coyote;
+
+import java.io.IOException;
+
+/**
+ * {@link ResponseOutputStream} 이 본문을 넘기는 곳. 프로세서가 구현하며, 처음 쓸 때 상태 줄과 헤더를 먼저 보낸다.
+ */
+public interface OutputBuffer {
+
+    void doWrite(byte[] bytes, int offset, int length) throws IOException;
+
+    /**
+     * 지금까지 넘긴 본문을 클라이언트에 보낸다.
+     */
+    void flush() throws IOException;
+}
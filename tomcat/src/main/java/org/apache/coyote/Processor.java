@@ -16,6 +16,9 @@
  */
 package org.apache.coyote;
 
+import org.apache.tomcat.util.net.SocketState;
+import org.apache.tomcat.util.net.SocketWrapperBase;
+
 import java.net.Socket;
 
 /**
@@ -23,10 +26,26 @@ import java.net.Socket;
  */
 public interface Processor {
 
+    /**
+     * Process a blocking connection until it is closed.
+     */
+    void process(Socket socket);
+
     /**
      * Process a connection. This is called whenever an event occurs (e.g. more
      * data arrives) that allows processing to continue for a connection that is
      * not currently being processed.
+     *
+     * @param socketWrapper The connection to process
+     *
+     * @return The state the caller should put the socket in when this method
+     *         returns
      */
-    void process(Socket socket);
+    SocketState process(SocketWrapperBase<?> socketWrapper);
+
+    /**
+     * Return the buffers borrowed for the connection. Called when the
+     * connection is closed while the processor is not processing it.
+     */
+    void release();
 }
@@ -0,0 +1,338 @@
+package org.apache.coyote;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 파싱된 HTTP 요청.
+ * <p>
+ * 파서는 요청 라인과 헤더를 문자열로 만들지 않고 입력 버퍼 안의 위치(offset)만 기록한다.
+ * 문자열은 핸들러가 요청할 때 처음 한 번만 만든다. 연결 하나에서 재사용되므로 요청을 마칠 때마다
+ * {@link #recycle()} 한다.
+ */
+public final class Request {
+
+    private static final int INITIAL_HEADER_COUNT = 16;
+    private static final String[] NO_PATH_VARIABLES = {};
+
+    private byte[] buffer;
+
+    private int methodStart;
+    private int methodEnd;
+    private int uriStart;
+    private int uriEnd;
+    private int protocolStart;
+    private int protocolEnd;
+
+    private int headerCount;
+    private int[] headerNameStarts = new int[INITIAL_HEADER_COUNT];
+    private int[] headerNameEnds = new int[INITIAL_HEADER_COUNT];
+    private int[] headerValueStarts = new int[INITIAL_HEADER_COUNT];
+    private int[] headerValueEnds = new int[INITIAL_HEADER_COUNT];
+
+    private String[] pathVariableNames = NO_PATH_VARIABLES;
+    private int[] pathVariableStarts = new int[4];
+    private int[] pathVariableEnds = new int[4];
+
+    private String method;
+    private String requestURI;
+    private String protocol;
+    private InputStream inputStream;
+
+    public void setBuffer(final byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    public void setMethod(final int start, final int end) {
+        this.methodStart = start;
+        this.methodEnd = end;
+    }
+
+    public void setRequestURI(final int start, final int end) {
+        this.uriStart = start;
+        this.uriEnd = end;
+    }
+
+    public void setProtocol(final int start, final int end) {
+        this.protocolStart = start;
+        this.protocolEnd = end;
+    }
+
+    public void addHeader(final int nameStart, final int nameEnd, final int valueStart, final int valueEnd) {
+        if (headerCount == headerNameStarts.length) {
+            final int newLength = headerCount * 2;
+            headerNameStarts = Arrays.copyOf(headerNameStarts, newLength);
+            headerNameEnds = Arrays.copyOf(headerNameEnds, newLength);
+            headerValueStarts = Arrays.copyOf(headerValueStarts, newLength);
+            headerValueEnds = Arrays.copyOf(headerValueEnds, newLength);
+        }
+        headerNameStarts[headerCount] = nameStart;
+        headerNameEnds[headerCount] = nameEnd;
+        headerValueStarts[headerCount] = valueStart;
+        headerValueEnds[headerCount] = valueEnd;
+        headerCount++;
+    }
+
+    public String getMethod() {
+        if (method == null) {
+            method = toString(methodStart, methodEnd);
+        }
+        return method;
+    }
+
+    public boolean isMethod(final String expected) {
+        return equals(methodStart, methodEnd, expected, false);
+    }
+
+    public String getRequestURI() {
+        if (requestURI == null) {
+            requestURI = toString(uriStart, uriEnd);
+        }
+        return requestURI;
+    }
+
+    /**
+     * 요청 라인과 헤더가 들어 있는 버퍼. {@link #getRequestURIStart()} 같은 위치는 이 버퍼 기준이다.
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int getRequestURIStart() {
+        return uriStart;
+    }
+
+    public int getRequestURIEnd() {
+        return uriEnd;
+    }
+
+    public String getProtocol() {
+        if (protocol == null) {
+            protocol = toString(protocolStart, protocolEnd);
+        }
+        return protocol;
+    }
+
+    public boolean isProtocol(final String expected) {
+        return equals(protocolStart, protocolEnd, expected, false);
+    }
+
+    /**
+     * 라우터가 매칭을 마친 뒤 경로 변수 이름을 정한다. 값은 그 전에 {@link #setPathVariable(int, int, int)} 로 채운다.
+     */
+    public void setPathVariableNames(final String[] names) {
+        if (names.length > pathVariableStarts.length) {
+            pathVariableStarts = Arrays.copyOf(pathVariableStarts, names.length);
+            pathVariableEnds = Arrays.copyOf(pathVariableEnds, names.length);
+        }
+        this.pathVariableNames = names;
+    }
+
+    /**
+     * 경로 변수 값의 위치. 매칭 도중 되돌아가면 같은 자리를 다시 쓴다.
+     */
+    public void setPathVariable(final int index, final int start, final int end) {
+        if (index >= pathVariableStarts.length) {
+            pathVariableStarts = Arrays.copyOf(pathVariableStarts, index * 2);
+            pathVariableEnds = Arrays.copyOf(pathVariableEnds, index * 2);
+        }
+        pathVariableStarts[index] = start;
+        pathVariableEnds[index] = end;
+    }
+
+    /**
+     * @return 라우트의 {@code {name}} 자리에 온 경로 조각. 퍼센트 인코딩은 풀지 않는다. 없으면 {@code null}
+     */
+    public String getPathVariable(final String name) {
+        for (int i = 0; i < pathVariableNames.length; i++) {
+            if (pathVariableNames[i].equals(name)) {
+                return toString(pathVariableStarts[i], pathVariableEnds[i]);
+            }
+        }
+        return null;
+    }
+
+    public int getHeaderCount() {
+        return headerCount;
+    }
+
+    public String getHeaderName(final int index) {
+        return toString(headerNameStarts[index], headerNameEnds[index]);
+    }
+
+    public String getHeaderValue(final int index) {
+        return toString(headerValueStarts[index], headerValueEnds[index]);
+    }
+
+    /**
+     * @return 이름이 같은 첫 번째 헤더의 값. 없으면 {@code null}
+     */
+    public String getHeader(final String name) {
+        final int index = findHeader(name);
+        if (index < 0) {
+            return null;
+        }
+        return getHeaderValue(index);
+    }
+
+    /**
+     * 쉼표로 구분된 헤더 값에 토큰이 있는지 문자열을 만들지 않고 확인한다. (예: Connection: keep-alive)
+     */
+    public boolean hasHeaderToken(final String name, final String token) {
+        for (int i = 0; i < headerCount; i++) {
+            if (!equals(headerNameStarts[i], headerNameEnds[i], name, true)) {
+                continue;
+            }
+            int tokenStart = headerValueStarts[i];
+            final int valueEnd = headerValueEnds[i];
+            while (tokenStart < valueEnd) {
+                int tokenEnd = tokenStart;
+                while (tokenEnd < valueEnd && buffer[tokenEnd] != ',') {
+                    tokenEnd++;
+                }
+                if (equals(trimStart(tokenStart, tokenEnd), trimEnd(tokenStart, tokenEnd), token, true)) {
+                    return true;
+                }
+                tokenStart = tokenEnd + 1;
+            }
+        }
+        return false;
+    }
+
+    public boolean containsHeader(final String name) {
+        return findHeader(name) >= 0;
+    }
+
+    /**
+     * 요청 본문. Content-Length 나 청크 인코딩에 맞춰 본문 끝에서 -1 을 돌려주며, 읽는 만큼만 소켓에서 가져온다.
+     * 핸들러가 다 읽지 않은 본문은 프로세서가 버린다.
+     */
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    public void setInputStream(final InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Content-Length 헤더가 여러 개이거나 값이 쉼표로 나열되어 있다면 모두 같은 값일 때만 받는다.
+     * 다른 값이 섞여 있으면 앞단 프록시와 본문의 끝을 다르게 볼 수 있다(RFC 9112 6.3).
+     *
+     * @return Content-Length 헤더 값. 없으면 -1
+     * @throws IllegalArgumentException 숫자가 아니거나 값이 서로 다른 경우
+     */
+    public long getContentLength() {
+        long contentLength = -1;
+        for (int i = 0; i < headerCount; i++) {
+            if (!equals(headerNameStarts[i], headerNameEnds[i], "Content-Length", true)) {
+                continue;
+            }
+            int elementStart = headerValueStarts[i];
+            final int valueEnd = headerValueEnds[i];
+            do {
+                int elementEnd = elementStart;
+                while (elementEnd < valueEnd && buffer[elementEnd] != ',') {
+                    elementEnd++;
+                }
+                final long value = parseContentLength(trimStart(elementStart, elementEnd),
+                        trimEnd(elementStart, elementEnd));
+                if (contentLength >= 0 && contentLength != value) {
+                    throw new IllegalArgumentException("Conflicting Content-Length");
+                }
+                contentLength = value;
+                elementStart = elementEnd + 1;
+            } while (elementStart <= valueEnd);
+        }
+        return contentLength;
+    }
+
+    private long parseContentLength(final int start, final int end) {
+        if (start == end) {
+            throw new IllegalArgumentException("Invalid Content-Length");
+        }
+        long contentLength = 0;
+        for (int i = start; i < end; i++) {
+            final int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9 || contentLength > (Long.MAX_VALUE - digit) / 10) {
+                throw new IllegalArgumentException("Invalid Content-Length");
+            }
+            contentLength = contentLength * 10 + digit;
+        }
+        return contentLength;
+    }
+
+    /**
+     * @return 이름이 같은 헤더 줄의 수
+     */
+    public int getHeaderCount(final String name) {
+        int count = 0;
+        for (int i = 0; i < headerCount; i++) {
+            if (equals(headerNameStarts[i], headerNameEnds[i], name, true)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int findHeader(final String name) {
+        for (int i = 0; i < headerCount; i++) {
+            if (equals(headerNameStarts[i], headerNameEnds[i], name, true)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int trimStart(int start, final int end) {
+        while (start < end && (buffer[start] == ' ' || buffer[start] == '\t')) {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(final int start, int end) {
+        while (end > start && (buffer[end - 1] == ' ' || buffer[end - 1] == '\t')) {
+            end--;
+        }
+        return end;
+    }
+
+    private boolean equals(final int start, final int end, final String expected, final boolean ignoreCase) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            final char actual = (char) (buffer[start + i] & 0xFF);
+            final char wanted = expected.charAt(i);
+            if (actual == wanted) {
+                continue;
+            }
+            if (!ignoreCase || toLowerCase(actual) != toLowerCase(wanted)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerCase(final char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        return c;
+    }
+
+    private String toString(final int start, final int end) {
+        return new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    public void recycle() {
+        headerCount = 0;
+        method = null;
+        requestURI = null;
+        protocol = null;
+        inputStream = null;
+        pathVariableNames = NO_PATH_VARIABLES;
+    }
+}
@@ -0,0 +1,236 @@
+package org.apache.coyote;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 어댑터가 채우고 프로세서가 쓰는 HTTP 응답. 연결 하나에서 재사용되므로 요청을 마칠 때마다
+ * {@link #recycle()} 한다.
+ */
+public final class Response {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private int status = 200;
+    private String contentType;
+    private long contentLength = -1;
+    private byte[] entityHeaders;
+    private byte[] cacheHeaders;
+    private final List<String> headerNames = new ArrayList<>();
+    private final List<String> headerValues = new ArrayList<>();
+    private byte[] body;
+    private Path bodyFile;
+    private long bodyFilePosition;
+    private final List<BodyPart> bodyParts = new ArrayList<>();
+    private final int defaultBufferSize;
+    private int bufferSize;
+    private OutputBuffer outputBuffer;
+    private ResponseOutputStream outputStream;
+    private boolean usingOutputStream;
+    private boolean committed;
+
+    public Response() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param defaultBufferSize {@link #getOutputStream()} 가 커밋하기 전에 모아 두는 기본 크기
+     */
+    public Response(final int defaultBufferSize) {
+        this.defaultBufferSize = defaultBufferSize;
+        this.bufferSize = defaultBufferSize;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(final int status) {
+        this.status = status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(final String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(final long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Content-Type, Content-Length 처럼 본문에 딸린 헤더를 미리 인코딩해 둔 바이트.
+     * 설정하면 프로세서는 contentType, contentLength 를 다시 인코딩하지 않고 이 바이트를 그대로 쓴다.
+     */
+    public byte[] getEntityHeaders() {
+        return entityHeaders;
+    }
+
+    public void setEntityHeaders(final byte[] entityHeaders) {
+        this.entityHeaders = entityHeaders;
+    }
+
+    /**
+     * Cache-Control, Expires 처럼 미리 인코딩해 둔 캐시 헤더. 프로세서는 그대로 쓴다.
+     */
+    public byte[] getCacheHeaders() {
+        return cacheHeaders;
+    }
+
+    public void setCacheHeaders(final byte[] cacheHeaders) {
+        this.cacheHeaders = cacheHeaders;
+    }
+
+    public void addHeader(final String name, final String value) {
+        headerNames.add(name);
+        headerValues.add(value);
+    }
+
+    public int getHeaderCount() {
+        return headerNames.size();
+    }
+
+    public String getHeaderName(final int index) {
+        return headerNames.get(index);
+    }
+
+    public String getHeaderValue(final int index) {
+        return headerValues.get(index);
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * 본문을 설정한다. 배열을 복사하지 않으므로 공유하는 배열을 넘겨도 된다.
+     */
+    public void setBody(final byte[] body) {
+        this.body = body;
+        this.contentLength = body.length;
+    }
+
+    public Path getBodyFile() {
+        return bodyFile;
+    }
+
+    public long getBodyFilePosition() {
+        return bodyFilePosition;
+    }
+
+    /**
+     * 파일의 일부를 본문으로 보낸다. 프로세서는 파일을 힙에 읽지 않고 소켓으로 바로 보낸다.
+     */
+    public void setBodyFile(final Path bodyFile, final long position, final long count) {
+        this.bodyFile = bodyFile;
+        this.bodyFilePosition = position;
+        this.contentLength = count;
+    }
+
+    public List<BodyPart> getBodyParts() {
+        return bodyParts;
+    }
+
+    /**
+     * 본문 조각을 이어 붙인다. 여러 구간을 한 응답으로 보낼 때 쓰며, Content-Length 는 조각 길이의 합이 된다.
+     */
+    public void addBodyPart(final BodyPart part) {
+        if (bodyParts.isEmpty()) {
+            contentLength = 0;
+        }
+        bodyParts.add(part);
+        contentLength += part.count();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 스트림으로 쓴 본문을 이 크기까지 모았다가 보낸다. {@link #getOutputStream()} 전에 정해야 한다.
+     */
+    public void setBufferSize(final int bufferSize) {
+        if (usingOutputStream) {
+            throw new IllegalStateException("Output stream already in use");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * 본문을 나눠 쓸 스트림. Content-Length 를 정하지 않고 버퍼보다 많이 쓰면 청크로 보낸다.
+     */
+    public ResponseOutputStream getOutputStream() {
+        if (outputStream == null) {
+            outputStream = new ResponseOutputStream(this, bufferSize);
+        } else if (!usingOutputStream) {
+            outputStream.recycle(bufferSize);
+        }
+        usingOutputStream = true;
+        return outputStream;
+    }
+
+    public boolean isUsingOutputStream() {
+        return usingOutputStream;
+    }
+
+    /**
+     * 커밋하지 않은 스트림 본문을 일반 본문으로 옮겨, 길이를 아는 응답으로 보낼 수 있게 한다.
+     */
+    public void closeOutputStream() {
+        if (!usingOutputStream || committed) {
+            return;
+        }
+        setBody(outputStream.toByteArray());
+        outputStream.close();
+    }
+
+    public OutputBuffer getOutputBuffer() {
+        return outputBuffer;
+    }
+
+    /**
+     * 프로세서가 연결마다 한 번 설정한다. {@link #recycle()} 해도 지우지 않는다.
+     */
+    public void setOutputBuffer(final OutputBuffer outputBuffer) {
+        this.outputBuffer = outputBuffer;
+    }
+
+    /**
+     * 상태 줄과 헤더를 이미 보냈는지. 커밋한 뒤에는 상태와 헤더를 바꿔도 보내지지 않는다.
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public void setCommitted(final boolean committed) {
+        this.committed = committed;
+    }
+
+    public void recycle() {
+        status = 200;
+        contentType = null;
+        contentLength = -1;
+        entityHeaders = null;
+        cacheHeaders = null;
+        headerNames.clear();
+        headerValues.clear();
+        body = null;
+        bodyFile = null;
+        bodyFilePosition = 0;
+        bodyParts.clear();
+        bufferSize = defaultBufferSize;
+        if (outputStream != null) {
+            outputStream.close();
+        }
+        usingOutputStream = false;
+        committed = false;
+    }
+}
@@ -0,0 +1,94 @@
+package org.apache.coyote;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * 어댑터가 본문을 나눠 쓰는 스트림. 버퍼가 찰 때까지는 아무것도 보내지 않으므로, 본문이 버퍼보다 작으면
+ * 프로세서가 전체 길이를 알고 Content-Length 로 보낸다. 버퍼가 넘치거나 {@link #flush()} 하면 응답을 커밋하고
+ * 길이를 모르는 본문은 청크로 보낸다.
+ */
+public final class ResponseOutputStream extends OutputStream {
+
+    private final Response response;
+    private byte[] buffer;
+    private int count;
+    private boolean closed;
+
+    ResponseOutputStream(final Response response, final int bufferSize) {
+        this.response = response;
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        ensureOpen();
+        if (length > buffer.length - count) {
+            flushBuffer();
+            if (length > buffer.length) {
+                // 버퍼보다 큰 데이터는 복사하지 않고 바로 넘긴다.
+                response.getOutputBuffer().doWrite(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        flushBuffer();
+        response.getOutputBuffer().flush();
+    }
+
+    /**
+     * 응답은 프로세서가 마무리하므로 더 쓰지 못하게만 막는다.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * 모아 둔 본문을 넘긴다. 아직 커밋하지 않았다면 이때 커밋한다.
+     */
+    public void flushBuffer() throws IOException {
+        if (count == 0 && response.isCommitted()) {
+            return;
+        }
+        response.getOutputBuffer().doWrite(buffer, 0, count);
+        count = 0;
+    }
+
+    /**
+     * 커밋하지 않은 응답의 본문 전체. 버퍼에 다 들어간 본문은 프로세서가 일반 응답처럼 길이를 붙여 보낸다.
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    void recycle(final int bufferSize) {
+        if (buffer.length != bufferSize) {
+            buffer = new byte[bufferSize];
+        }
+        count = 0;
+        closed = false;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
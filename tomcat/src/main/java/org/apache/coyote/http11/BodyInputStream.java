@@ -0,0 +1,70 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 요청 본문을 소켓에서 필요한 만큼만 읽는 스트림. 본문 끝에서 -1 을 돌려주며, 다음 요청의 바이트는 읽지 않는다.
+ * 연결 하나에서 재사용한다.
+ */
+abstract class BodyInputStream extends InputStream {
+
+    private static final int SWALLOW_BUFFER_SIZE = 4 * 1024;
+
+    protected final Http11InputBuffer inputBuffer;
+    protected long maxSize = -1;
+    protected long readBytes;
+    private final byte[] single = new byte[1];
+    private byte[] swallowBuffer;
+
+    BodyInputStream(final Http11InputBuffer inputBuffer) {
+        this.inputBuffer = inputBuffer;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (read(single, 0, 1) < 0) {
+            return -1;
+        }
+        return single[0] & 0xFF;
+    }
+
+    abstract boolean isFinished();
+
+    /**
+     * 본문을 다 읽으려면 소켓을 더 읽어야 하는지. 이미 버퍼에 다 들어왔다면 {@code false}.
+     */
+    abstract boolean needsSocketRead();
+
+    /**
+     * 핸들러가 읽지 않은 본문을 버려 다음 요청의 시작으로 간다.
+     *
+     * @param limit 이보다 많이 남았다면 버리지 않고 멈춘다. 음수면 제한하지 않는다.
+     * @return 본문 끝까지 버렸다면 {@code true}. {@code false} 면 연결을 닫아야 한다.
+     */
+    boolean swallow(final long limit) throws IOException {
+        if (isFinished()) {
+            return true;
+        }
+        if (swallowBuffer == null) {
+            swallowBuffer = new byte[SWALLOW_BUFFER_SIZE];
+        }
+        long swallowed = 0;
+        while (!isFinished()) {
+            final int read = read(swallowBuffer, 0, swallowBuffer.length);
+            if (read < 0) {
+                break;
+            }
+            swallowed += read;
+            if (limit >= 0 && swallowed > limit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void recycle(final long maxSize) {
+        this.maxSize = maxSize;
+        this.readBytes = 0;
+    }
+}
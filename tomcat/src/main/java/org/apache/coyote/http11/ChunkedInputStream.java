@@ -0,0 +1,139 @@
+package org.apache.coyote.http11;
+
+import org.apache.coyote.BadRequestException;
+
+import java.io.IOException;
+
+/**
+ * Transfer-Encoding: chunked 본문을 풀어 읽는 스트림. 청크 크기 줄의 확장과 트레일러는 읽고 버린다.
+ * 본문 전체 크기가 최대 크기를 넘으면 413 으로 응답하도록 {@link BadRequestException} 을 던진다.
+ */
+class ChunkedInputStream extends BodyInputStream {
+
+    private static final int MAX_LINE_SIZE = 4 * 1024;
+    private static final int MAX_TRAILER_SIZE = 8 * 1024;
+
+    private long chunkRemaining;
+    private boolean finished;
+
+    ChunkedInputStream(final Http11InputBuffer inputBuffer) {
+        super(inputBuffer);
+    }
+
+    @Override
+    void recycle(final long maxSize) {
+        super.recycle(maxSize);
+        this.chunkRemaining = 0;
+        this.finished = false;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (finished) {
+            return -1;
+        }
+        if (length == 0) {
+            return 0;
+        }
+        if (chunkRemaining == 0) {
+            chunkRemaining = readChunkSize();
+            if (chunkRemaining == 0) {
+                skipTrailer();
+                finished = true;
+                return -1;
+            }
+            if (maxSize >= 0 && readBytes + chunkRemaining > maxSize) {
+                throw new BadRequestException(413, "Request body too large");
+            }
+        }
+        final int read = inputBuffer.doRead(bytes, offset, (int) Math.min(length, chunkRemaining));
+        chunkRemaining -= read;
+        readBytes += read;
+        if (chunkRemaining == 0) {
+            expectCrlf();
+        }
+        return read;
+    }
+
+    @Override
+    public int available() {
+        if (finished) {
+            return 0;
+        }
+        return (int) Math.min(chunkRemaining, inputBuffer.available());
+    }
+
+    @Override
+    boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    boolean needsSocketRead() {
+        // 마지막 청크가 어디서 끝나는지 미리 알 수 없으므로 다 읽기 전에는 더 읽어야 한다고 본다.
+        return !finished;
+    }
+
+    /**
+     * 청크 크기 줄({@code 1a;name=value\r\n})을 읽는다. 확장은 버린다.
+     */
+    private long readChunkSize() throws IOException {
+        long size = 0;
+        int digits = 0;
+        boolean extension = false;
+        for (int count = 0; count < MAX_LINE_SIZE; count++) {
+            final int b = inputBuffer.readByte();
+            if (b == '\r') {
+                if (inputBuffer.readByte() != '\n' || digits == 0) {
+                    break;
+                }
+                return size;
+            }
+            if (extension) {
+                continue;
+            }
+            if (b == ';' || b == ' ' || b == '\t') {
+                extension = digits > 0;
+                if (!extension) {
+                    break;
+                }
+                continue;
+            }
+            final int digit = Character.digit(b, 16);
+            if (digit < 0 || digits == 15) {
+                break;
+            }
+            size = size * 16 + digit;
+            digits++;
+        }
+        throw new BadRequestException(400, "Invalid chunk header");
+    }
+
+    private void expectCrlf() throws IOException {
+        if (inputBuffer.readByte() != '\r' || inputBuffer.readByte() != '\n') {
+            throw new BadRequestException(400, "Invalid chunk terminator");
+        }
+    }
+
+    /**
+     * 트레일러 필드를 빈 줄까지 읽고 버린다.
+     */
+    private void skipTrailer() throws IOException {
+        int lineLength = 0;
+        for (int count = 0; count < MAX_TRAILER_SIZE; count++) {
+            final int b = inputBuffer.readByte();
+            if (b == '\r') {
+                if (inputBuffer.readByte() != '\n') {
+                    break;
+                }
+                if (lineLength == 0) {
+                    return;
+                }
+                lineLength = 0;
+                continue;
+            }
+            lineLength++;
+        }
+        throw new BadRequestException(400, "Invalid chunk trailer");
+    }
+}
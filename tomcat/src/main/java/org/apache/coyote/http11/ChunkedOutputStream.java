@@ -0,0 +1,88 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 쓰는 내용을 Transfer-Encoding: chunked 청크로 감싸 {@link Http11OutputBuffer} 에 쓴다.
+ * 닫으면 마지막 청크를 쓰지만 소켓은 닫지 않는다.
+ * <p>
+ * 청크 크기 줄은 재사용하는 배열에 16진수로 바로 쓴다. {@link #write(int)} 로 들어온 바이트는 모아 두었다가
+ * 다음 배열 쓰기나 {@link #flush()}, {@link #close()} 때 한 청크로 보낸다.
+ */
+class ChunkedOutputStream extends OutputStream {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.ISO_8859_1);
+    private static final int PENDING_BUFFER_SIZE = 512;
+
+    private final Http11OutputBuffer outputBuffer;
+    // int 길이는 16진수 8자리를 넘지 않는다.
+    private final byte[] chunkHeader = new byte[Integer.BYTES * 2 + CRLF.length];
+    private byte[] pending;
+    private int pendingCount;
+    private boolean closed;
+
+    ChunkedOutputStream(final Http11OutputBuffer outputBuffer) {
+        this.outputBuffer = outputBuffer;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (pending == null) {
+            pending = new byte[PENDING_BUFFER_SIZE];
+        } else if (pendingCount == pending.length) {
+            writePending();
+        }
+        pending[pendingCount++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        // 길이가 0 인 청크는 본문의 끝을 뜻하므로 보내지 않는다.
+        if (length == 0) {
+            return;
+        }
+        writePending();
+        writeChunk(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writePending();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        writePending();
+        outputBuffer.write(LAST_CHUNK);
+    }
+
+    private void writePending() throws IOException {
+        if (pendingCount == 0) {
+            return;
+        }
+        writeChunk(pending, 0, pendingCount);
+        pendingCount = 0;
+    }
+
+    private void writeChunk(final byte[] bytes, final int offset, final int length) throws IOException {
+        int start = chunkHeader.length - CRLF.length;
+        chunkHeader[start] = '\r';
+        chunkHeader[start + 1] = '\n';
+        int remaining = length;
+        do {
+            chunkHeader[--start] = HEX_DIGITS[remaining & 0xf];
+            remaining >>>= 4;
+        } while (remaining != 0);
+        outputBuffer.write(chunkHeader, start, chunkHeader.length - start);
+        outputBuffer.write(bytes, offset, length);
+        outputBuffer.write(CRLF);
+    }
+}
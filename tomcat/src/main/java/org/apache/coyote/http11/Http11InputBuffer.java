@@ -0,0 +1,177 @@
+package org.apache.coyote.http11;
+
+import org.apache.coyote.Request;
+import org.apache.tomcat.util.buf.ByteBufferPool;
+import org.apache.tomcat.util.buf.PooledByteBuffer;
+import org.apache.tomcat.util.net.SocketWrapperBase;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 소켓에서 읽은 바이트를 모아 {@link Http11Parser} 로 요청 헤더를 파싱한다.
+ * 한 번 읽을 때 다음 요청의 바이트까지 들어올 수 있으므로, 요청을 마쳐도 남은 바이트는 버리지 않고 다음 요청에 사용한다.
+ * <p>
+ * 본문은 {@link #doRead(byte[], int, int)} 로 조금씩 읽는다. 헤더 뒤쪽 공간만 다시 채우므로 본문을 읽는 동안에도
+ * {@link Request} 가 가리키는 헤더 바이트는 그대로 남는다.
+ * <p>
+ * 버퍼는 {@link #init(SocketWrapperBase)} 에서 풀에서 빌리고, 연결이 끝나거나 읽어 둔 바이트가 없을 때
+ * {@link #release()} 로 돌려준다. 다음 요청을 기다리는 연결은 버퍼를 들고 있지 않는다.
+ */
+public class Http11InputBuffer {
+
+    private static final int BODY_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * position 부터 limit 까지가 아직 처리하지 않은 바이트다.
+     * 요청은 항상 버퍼의 처음부터 시작하므로, 헤더를 다 읽기 전에 maxHttpHeaderSize 를 넘으면 헤더가 너무 큰 것이다.
+     * 그 뒤의 공간은 본문을 읽을 때 쓴다.
+     */
+    private ByteBuffer byteBuffer;
+    private PooledByteBuffer pooledBuffer;
+    private final ByteBufferPool bufferPool;
+    private final int maxHttpHeaderSize;
+    private final Http11Parser parser = new Http11Parser();
+    private SocketWrapperBase<?> socketWrapper;
+    private int bodyStart;
+    private boolean parsingHeader = true;
+
+    /**
+     * @param bufferPool 힙 버퍼 풀. 요청이 버퍼의 바이트 배열을 그대로 가리키므로 다이렉트 버퍼는 쓸 수 없다.
+     */
+    public Http11InputBuffer(final int maxHttpHeaderSize, final ByteBufferPool bufferPool) {
+        if (bufferPool.isDirect()) {
+            throw new IllegalArgumentException("Input buffer requires a heap buffer pool");
+        }
+        this.maxHttpHeaderSize = maxHttpHeaderSize;
+        this.bufferPool = bufferPool;
+    }
+
+    public void init(final SocketWrapperBase<?> socketWrapper) {
+        this.socketWrapper = socketWrapper;
+        if (pooledBuffer == null) {
+            pooledBuffer = bufferPool.acquire(maxHttpHeaderSize + BODY_BUFFER_SIZE);
+            byteBuffer = pooledBuffer.buffer();
+            byteBuffer.limit(0);
+        }
+    }
+
+    /**
+     * 버퍼를 풀에 돌려준다. 읽어 두고 처리하지 않은 바이트는 버려지므로 {@link #isIdle()} 일 때나 연결을 닫을 때만 부른다.
+     */
+    public void release() {
+        if (pooledBuffer == null) {
+            return;
+        }
+        pooledBuffer.release();
+        pooledBuffer = null;
+        byteBuffer = null;
+    }
+
+    /**
+     * 다음 요청의 바이트를 아직 하나도 읽지 않았는지. 이때는 버퍼를 돌려주어도 잃는 것이 없다.
+     */
+    public boolean isIdle() {
+        return byteBuffer == null || byteBuffer.limit() == 0;
+    }
+
+    /**
+     * 요청 헤더 끝(빈 줄)까지 읽었다면 요청을 채운다.
+     * 헤더가 나뉘어 도착하면 파싱한 곳까지 기억해 두었다가 다음 호출에서 이어서 파싱한다.
+     *
+     * @param read 이미 읽어 둔 바이트만으로 부족할 때 소켓에서 더 읽을지 여부
+     * @return 헤더가 아직 다 도착하지 않았고 지금 읽을 수 있는 데이터도 없다면 false
+     * @throws EOFException 클라이언트가 연결을 끊은 경우
+     * @throws IllegalArgumentException 헤더가 너무 크거나 형식이 잘못된 경우
+     */
+    public boolean parseRequest(final Request request, final boolean read) throws IOException {
+        request.setBuffer(byteBuffer.array());
+        while (!parser.parse(byteBuffer, request)) {
+            if (!read || !fill(false)) {
+                return false;
+            }
+        }
+        bodyStart = byteBuffer.position();
+        parsingHeader = false;
+        return true;
+    }
+
+    /**
+     * 현재 요청의 본문을 읽는다. 이미 읽어 둔 바이트를 먼저 주고, 없으면 소켓에서 읽을 때까지 기다린다.
+     * 호출하는 쪽은 본문 길이를 넘지 않게 {@code length} 를 정해야 한다. 넘기면 다음 요청의 바이트를 가져간다.
+     *
+     * @return 읽은 바이트 수
+     * @throws EOFException 본문을 다 읽기 전에 클라이언트가 연결을 끊은 경우
+     */
+    public int doRead(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (byteBuffer.remaining() == 0) {
+            if (length >= BODY_BUFFER_SIZE) {
+                // 큰 읽기는 버퍼를 거치지 않고 바로 받는다.
+                final int read = socketWrapper.read(true, ByteBuffer.wrap(bytes, offset, length));
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of request body");
+                }
+                return read;
+            }
+            fillBody();
+        }
+        final int read = Math.min(length, byteBuffer.remaining());
+        byteBuffer.get(bytes, offset, read);
+        return read;
+    }
+
+    /**
+     * 청크 크기 줄처럼 바이트 단위로 읽을 때 쓴다.
+     */
+    public int readByte() throws IOException {
+        if (byteBuffer.remaining() == 0) {
+            fillBody();
+        }
+        return byteBuffer.get() & 0xFF;
+    }
+
+    /**
+     * 본문을 다 읽은 뒤 다음 요청을 받을 준비를 한다. 남은 바이트는 다음 요청의 시작이다.
+     */
+    public void nextRequest() {
+        byteBuffer.compact().flip();
+        parser.reset();
+        parsingHeader = true;
+    }
+
+    /**
+     * 소켓에서 이미 읽어 두었지만 아직 처리하지 않은 바이트 수.
+     */
+    public int available() {
+        return byteBuffer.remaining();
+    }
+
+    /**
+     * 헤더 바로 뒤부터 다시 채운다. 헤더 바이트는 건드리지 않는다.
+     */
+    private void fillBody() throws IOException {
+        byteBuffer.limit(bodyStart).position(bodyStart);
+        while (!fill(true)) {
+            // 블로킹 읽기가 0 을 돌려주면 다시 읽는다.
+        }
+    }
+
+    private boolean fill(final boolean block) throws IOException {
+        // 헤더를 읽는 동안에는 maxHttpHeaderSize 까지만 채운다.
+        final int maxLimit = parsingHeader ? maxHttpHeaderSize : byteBuffer.capacity();
+        if (byteBuffer.limit() >= maxLimit) {
+            throw new IllegalArgumentException("Request header too large");
+        }
+        final int position = byteBuffer.position();
+        byteBuffer.position(byteBuffer.limit());
+        byteBuffer.limit(maxLimit);
+        final int read = socketWrapper.read(block, byteBuffer);
+        byteBuffer.limit(byteBuffer.position());
+        byteBuffer.position(position);
+        if (read < 0) {
+            throw new EOFException(parsingHeader ? null : "Unexpected end of request body");
+        }
+        return read > 0;
+    }
+}
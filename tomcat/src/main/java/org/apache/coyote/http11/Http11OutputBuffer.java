@@ -0,0 +1,311 @@
+package org.apache.coyote.http11;
+
+import org.apache.tomcat.util.buf.ByteBufferPool;
+import org.apache.tomcat.util.buf.PooledByteBuffer;
+import org.apache.tomcat.util.http.FastHttpDateFormat;
+import org.apache.tomcat.util.net.SocketWrapperBase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 응답 바이트를 모아 두었다가 한 번에 소켓에 쓴다.
+ * 파이프라이닝된 요청들의 응답을 하나의 쓰기로 묶어 보내기 위해 사용한다.
+ * <p>
+ * 상태 줄, 자주 쓰는 헤더 이름과 값은 미리 인코딩해 두고, 나머지 헤더도 문자열을 만들지 않고 버퍼에 바로 쓴다.
+ * <p>
+ * 버퍼는 {@link #init(SocketWrapperBase)} 에서 풀에서 빌린다. 소켓이 원하면 다이렉트 버퍼를 빌려 채널에 쓸 때 복사를 줄인다.
+ */
+public class Http11OutputBuffer {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final int MAX_STATUS = 599;
+    private static final byte[][] STATUS_LINES = new byte[MAX_STATUS + 1][];
+
+    public static final byte[] CONTENT_TYPE = encodeName("Content-Type");
+    public static final byte[] CONTENT_LENGTH = encodeName("Content-Length");
+    public static final byte[] CONNECTION_CLOSE = encodeHeader("Connection", "close");
+    public static final byte[] CONNECTION_KEEP_ALIVE = encodeHeader("Connection", "keep-alive");
+    public static final byte[] TRANSFER_ENCODING_CHUNKED = encodeHeader("Transfer-Encoding", "chunked");
+
+    /**
+     * 모든 연결이 함께 쓰는 Date 헤더. 초가 바뀐 뒤 처음 쓰는 스레드가 새로 만든다.
+     */
+    private static volatile DateHeader dateHeader = new DateHeader(-1, null);
+
+    static {
+        for (final int status : new int[]{200, 204, 206, 301, 302, 304, 400, 401, 403, 404, 405, 413, 416, 500,
+                503}) {
+            STATUS_LINES[status] = encodeStatusLine(status);
+        }
+    }
+
+    private final int outputBufferSize;
+    private final ByteBufferPool heapBufferPool;
+    private final ByteBufferPool directBufferPool;
+    private ByteBuffer byteBuffer;
+    private PooledByteBuffer pooledBuffer;
+    private SocketWrapperBase<?> socketWrapper;
+
+    public Http11OutputBuffer(final int outputBufferSize, final ByteBufferPool heapBufferPool,
+                              final ByteBufferPool directBufferPool) {
+        this.outputBufferSize = outputBufferSize;
+        this.heapBufferPool = heapBufferPool;
+        this.directBufferPool = directBufferPool;
+    }
+
+    public void init(final SocketWrapperBase<?> socketWrapper) {
+        this.socketWrapper = socketWrapper;
+        if (pooledBuffer == null) {
+            final ByteBufferPool pool = socketWrapper.prefersDirectBuffer() ? directBufferPool : heapBufferPool;
+            pooledBuffer = pool.acquire(outputBufferSize);
+            byteBuffer = pooledBuffer.buffer();
+        }
+    }
+
+    /**
+     * 버퍼를 풀에 돌려준다. 보내지 않은 응답은 버려지므로 {@link #isEmpty()} 일 때나 연결을 닫을 때만 부른다.
+     */
+    public void release() {
+        if (pooledBuffer == null) {
+            return;
+        }
+        pooledBuffer.release();
+        pooledBuffer = null;
+        byteBuffer = null;
+    }
+
+    /**
+     * 자주 쓰는 상태 줄은 미리 인코딩해 둔 바이트를 쓴다.
+     */
+    public void sendStatus(final int status) throws IOException {
+        final byte[] statusLine = status >= 0 && status <= MAX_STATUS ? STATUS_LINES[status] : null;
+        write(statusLine != null ? statusLine : encodeStatusLine(status));
+    }
+
+    /**
+     * 현재 시각의 Date 헤더를 쓴다. 인코딩은 초마다 한 번만 한다.
+     */
+    public void sendDate() throws IOException {
+        final long second = System.currentTimeMillis() / 1000;
+        DateHeader current = dateHeader;
+        if (current.second != second) {
+            current = new DateHeader(second, encodeHeader("Date", FastHttpDateFormat.formatDate(second * 1000)));
+            dateHeader = current;
+        }
+        write(current.bytes);
+    }
+
+    /**
+     * 이름과 값을 문자열이나 바이트 배열로 만들지 않고 버퍼에 바로 쓴다.
+     */
+    public void sendHeader(final String name, final String value) throws IOException {
+        if (!reserve(name.length() + value.length() + 4)) {
+            write(encodeHeader(name, value));
+            return;
+        }
+        putChars(name);
+        byteBuffer.put((byte) ':').put((byte) ' ');
+        putChars(value);
+        byteBuffer.put(CRLF);
+    }
+
+    /**
+     * @param encodedName {@link #CONTENT_TYPE} 처럼 {@code ": "} 까지 인코딩해 둔 헤더 이름
+     */
+    public void sendHeader(final byte[] encodedName, final String value) throws IOException {
+        if (!reserve(encodedName.length + value.length() + 2)) {
+            write(encodedName);
+            write(encodeValue(value));
+            write(CRLF);
+            return;
+        }
+        byteBuffer.put(encodedName);
+        putChars(value);
+        byteBuffer.put(CRLF);
+    }
+
+    /**
+     * 숫자 값을 문자열로 바꾸지 않고 쓴다. Content-Length 에 쓴다.
+     */
+    public void sendHeader(final byte[] encodedName, final long value) throws IOException {
+        final int digits = digits(value);
+        if (!reserve(encodedName.length + digits + 2)) {
+            write(encodedName);
+            write(encodeValue(String.valueOf(value)));
+            write(CRLF);
+            return;
+        }
+        byteBuffer.put(encodedName);
+        final int end = byteBuffer.position() + digits;
+        long remaining = value;
+        for (int i = end - 1; i >= byteBuffer.position(); i--) {
+            byteBuffer.put(i, (byte) ('0' + remaining % 10));
+            remaining /= 10;
+        }
+        byteBuffer.position(end);
+        byteBuffer.put(CRLF);
+    }
+
+    public void endHeaders() throws IOException {
+        write(CRLF);
+    }
+
+    /**
+     * 헤더 한 줄을 응답에 쓸 바이트로 인코딩한다. 바뀌지 않는 헤더는 미리 인코딩해 두고 {@link #write(byte[])} 로 쓴다.
+     */
+    public static byte[] encodeHeader(final String name, final String value) {
+        final byte[] bytes = new byte[name.length() + value.length() + 4];
+        int position = encode(name, bytes, 0);
+        bytes[position++] = ':';
+        bytes[position++] = ' ';
+        position = encode(value, bytes, position);
+        bytes[position++] = '\r';
+        bytes[position] = '\n';
+        return bytes;
+    }
+
+    /**
+     * @param namesAndValues 헤더 이름과 값을 번갈아 나열한다.
+     */
+    public static byte[] encodeHeaders(final String... namesAndValues) {
+        final var headers = new ByteArrayOutputStream();
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            headers.writeBytes(encodeHeader(namesAndValues[i], namesAndValues[i + 1]));
+        }
+        return headers.toByteArray();
+    }
+
+    private static byte[] encodeName(final String name) {
+        return (name + ": ").getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    public static byte[] encodeStatusLine(final int status) {
+        return ("HTTP/1.1 " + status + " " + reasonPhrase(status) + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] encodeValue(final String value) {
+        final byte[] bytes = new byte[value.length()];
+        encode(value, bytes, 0);
+        return bytes;
+    }
+
+    private static int encode(final String value, final byte[] bytes, int position) {
+        for (int i = 0; i < value.length(); i++) {
+            bytes[position++] = toByte(value.charAt(i));
+        }
+        return position;
+    }
+
+    /**
+     * ISO-8859-1 로 쓸 수 없는 글자는 ? 로, 줄바꿈 같은 제어 문자는 공백으로 바꿔 헤더가 나뉘지 않게 한다.
+     */
+    private static byte toByte(final char c) {
+        if (c > 0xFF) {
+            return '?';
+        }
+        if ((c < 0x20 && c != '\t') || c == 0x7F) {
+            return ' ';
+        }
+        return (byte) c;
+    }
+
+    private void putChars(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            byteBuffer.put(toByte(value.charAt(i)));
+        }
+    }
+
+    private static int digits(final long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative header value: " + value);
+        }
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * @return 버퍼에 {@code length} 바이트를 쓸 자리가 있는지. 모자라면 먼저 비운다. 버퍼보다 크면 false
+     */
+    private boolean reserve(final int length) throws IOException {
+        if (length > byteBuffer.remaining()) {
+            flushBuffer();
+        }
+        return length <= byteBuffer.remaining();
+    }
+
+    private static String reasonPhrase(final int status) {
+        return switch (status) {
+            case 200 -> "OK";
+            case 204 -> "No Content";
+            case 206 -> "Partial Content";
+            case 301 -> "Moved Permanently";
+            case 302 -> "Found";
+            case 304 -> "Not Modified";
+            case 400 -> "Bad Request";
+            case 401 -> "Unauthorized";
+            case 403 -> "Forbidden";
+            case 404 -> "Not Found";
+            case 405 -> "Method Not Allowed";
+            case 413 -> "Content Too Large";
+            case 416 -> "Range Not Satisfiable";
+            case 500 -> "Internal Server Error";
+            case 503 -> "Service Unavailable";
+            default -> "Unknown";
+        };
+    }
+
+    public void write(final byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (length > byteBuffer.remaining()) {
+            flushBuffer();
+        }
+        if (length > byteBuffer.capacity()) {
+            // 버퍼보다 큰 데이터는 복사하지 않고 바로 쓴다.
+            socketWrapper.write(ByteBuffer.wrap(bytes, offset, length));
+            return;
+        }
+        byteBuffer.put(bytes, offset, length);
+    }
+
+    /**
+     * 모아 둔 응답 바이트를 먼저 보낸 뒤 파일을 힙에 복사하지 않고 소켓으로 보낸다.
+     */
+    public void sendFile(final FileChannel file, final long position, final long count) throws IOException {
+        flushBuffer();
+        socketWrapper.sendFile(file, position, count);
+    }
+
+    /**
+     * 모아 둔 응답을 소켓에 보낸다.
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        socketWrapper.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (byteBuffer.position() == 0) {
+            return;
+        }
+        byteBuffer.flip();
+        socketWrapper.write(byteBuffer);
+        byteBuffer.clear();
+    }
+
+    public boolean isEmpty() {
+        return byteBuffer == null || byteBuffer.position() == 0;
+    }
+
+    private record DateHeader(long second, byte[] bytes) {
+    }
+}
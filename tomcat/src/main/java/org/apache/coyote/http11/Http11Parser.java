@@ -0,0 +1,215 @@
+package org.apache.coyote.http11;
+
+import org.apache.coyote.Request;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 요청 라인과 헤더를 한 바이트씩 읽는 상태 기계 파서.
+ * <p>
+ * 바이트가 어떤 크기로 나뉘어 도착하든 멈춘 곳에서 이어서 파싱한다. 문자열을 만들지 않고
+ * 메서드, URI, 버전과 헤더 이름/값의 위치만 {@link Request} 에 기록하므로, 파싱하는 동안에는
+ * 버퍼가 앞으로 당겨지면 안 된다. 버퍼는 {@link ByteBuffer#hasArray() 힙 버퍼}여야 한다.
+ */
+public class Http11Parser {
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte SP = ' ';
+    private static final byte HT = '\t';
+    private static final byte COLON = ':';
+
+    private static final boolean[] TOKEN = new boolean[128];
+
+    static {
+        for (int c = '0'; c <= '9'; c++) {
+            TOKEN[c] = true;
+        }
+        for (int c = 'a'; c <= 'z'; c++) {
+            TOKEN[c] = true;
+            TOKEN[c - ('a' - 'A')] = true;
+        }
+        for (final char c : "!#$%&'*+-.^_`|~".toCharArray()) {
+            TOKEN[c] = true;
+        }
+    }
+
+    private enum State {
+        START,
+        METHOD,
+        BEFORE_URI,
+        URI,
+        BEFORE_PROTOCOL,
+        PROTOCOL,
+        REQUEST_LINE_END,
+        REQUEST_LINE_LF,
+        HEADER_START,
+        HEADER_NAME,
+        HEADER_VALUE_START,
+        HEADER_VALUE,
+        HEADER_LF,
+        HEADERS_END_LF
+    }
+
+    private State state = State.START;
+    private int tokenStart;
+    private int headerNameStart;
+    private int headerNameEnd;
+    private int headerValueEnd;
+
+    /**
+     * 버퍼의 position 부터 limit 까지 파싱하고, 파싱한 만큼 position 을 옮긴다.
+     *
+     * @return 헤더 끝의 빈 줄까지 파싱했다면 true. 이때 position 은 본문의 시작을 가리킨다.
+     * @throws IllegalArgumentException 요청 형식이 잘못된 경우
+     */
+    public boolean parse(final ByteBuffer buffer, final Request request) {
+        final byte[] buf = buffer.array();
+        final int offset = buffer.arrayOffset();
+        final int limit = offset + buffer.limit();
+        int i = offset + buffer.position();
+        while (i < limit) {
+            final byte b = buf[i];
+            switch (state) {
+                case START -> {
+                    // RFC 9112: 요청 라인 앞의 빈 줄은 무시한다.
+                    if (b != CR && b != LF) {
+                        tokenStart = i;
+                        state = State.METHOD;
+                        continue;
+                    }
+                }
+                case METHOD -> {
+                    if (b == SP && i > tokenStart) {
+                        request.setMethod(tokenStart, i);
+                        state = State.BEFORE_URI;
+                    } else if (!isToken(b)) {
+                        throw new IllegalArgumentException("Invalid method");
+                    }
+                }
+                case BEFORE_URI -> {
+                    if (b != SP) {
+                        tokenStart = i;
+                        state = State.URI;
+                        continue;
+                    }
+                }
+                case URI -> {
+                    if (b == SP) {
+                        request.setRequestURI(tokenStart, i);
+                        state = State.BEFORE_PROTOCOL;
+                    } else if (!isVisible(b)) {
+                        throw new IllegalArgumentException("Invalid request target");
+                    }
+                }
+                case BEFORE_PROTOCOL -> {
+                    if (b != SP) {
+                        tokenStart = i;
+                        state = State.PROTOCOL;
+                        continue;
+                    }
+                }
+                case PROTOCOL -> {
+                    if (b == SP || b == CR || b == LF) {
+                        if (i == tokenStart) {
+                            throw new IllegalArgumentException("Missing protocol");
+                        }
+                        request.setProtocol(tokenStart, i);
+                        state = State.REQUEST_LINE_END;
+                        continue;
+                    }
+                    if (!isVisible(b)) {
+                        throw new IllegalArgumentException("Invalid protocol");
+                    }
+                }
+                case REQUEST_LINE_END -> {
+                    if (b == CR) {
+                        state = State.REQUEST_LINE_LF;
+                    } else if (b == LF) {
+                        state = State.HEADER_START;
+                    } else if (b != SP) {
+                        throw new IllegalArgumentException("Invalid request line");
+                    }
+                }
+                case REQUEST_LINE_LF, HEADER_LF -> {
+                    if (b != LF) {
+                        throw new IllegalArgumentException("Missing LF");
+                    }
+                    state = State.HEADER_START;
+                }
+                case HEADER_START -> {
+                    if (b == CR) {
+                        state = State.HEADERS_END_LF;
+                    } else if (b == LF) {
+                        return done(buffer, offset, i);
+                    } else if (b == SP || b == HT) {
+                        // RFC 9112: obs-fold 는 거절할 수 있다.
+                        throw new IllegalArgumentException("Obsolete line folding");
+                    } else {
+                        headerNameStart = i;
+                        state = State.HEADER_NAME;
+                        continue;
+                    }
+                }
+                case HEADER_NAME -> {
+                    if (b == COLON && i > headerNameStart) {
+                        headerNameEnd = i;
+                        state = State.HEADER_VALUE_START;
+                    } else if (!isToken(b)) {
+                        throw new IllegalArgumentException("Invalid header name");
+                    }
+                }
+                case HEADER_VALUE_START -> {
+                    if (b != SP && b != HT) {
+                        tokenStart = i;
+                        headerValueEnd = i;
+                        state = State.HEADER_VALUE;
+                        continue;
+                    }
+                }
+                case HEADER_VALUE -> {
+                    if (b == CR || b == LF) {
+                        request.addHeader(headerNameStart, headerNameEnd, tokenStart, headerValueEnd);
+                        state = b == CR ? State.HEADER_LF : State.HEADER_START;
+                    } else if (b != SP && b != HT) {
+                        if ((b >= 0 && b < SP) || b == 0x7F) {
+                            throw new IllegalArgumentException("Invalid header value");
+                        }
+                        headerValueEnd = i + 1;
+                    }
+                }
+                case HEADERS_END_LF -> {
+                    if (b != LF) {
+                        throw new IllegalArgumentException("Missing LF");
+                    }
+                    return done(buffer, offset, i);
+                }
+            }
+            i++;
+        }
+        buffer.position(limit - offset);
+        return false;
+    }
+
+    private boolean done(final ByteBuffer buffer, final int offset, final int lf) {
+        buffer.position(lf + 1 - offset);
+        state = State.START;
+        return true;
+    }
+
+    /**
+     * 다음 요청을 처음부터 파싱하도록 상태를 되돌린다.
+     */
+    public void reset() {
+        state = State.START;
+    }
+
+    private static boolean isToken(final byte b) {
+        return b > 0 && TOKEN[b];
+    }
+
+    private static boolean isVisible(final byte b) {
+        // 0x80 이상(음수)은 obs-text 로 허용한다.
+        return b < 0 || (b > SP && b != 0x7F);
+    }
+}
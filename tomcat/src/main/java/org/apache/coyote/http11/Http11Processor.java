@@ -1,21 +1,66 @@
 package org.apache.coyote.http11;
 
 import camp.nextstep.exception.UncheckedServletException;
+import org.apache.coyote.BadRequestException;
+import org.apache.coyote.BodyPart;
+import org.apache.coyote.CompressionConfig;
+import org.apache.coyote.OutputBuffer;
 import org.apache.coyote.Processor;
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+import org.apache.tomcat.util.net.JioSocketWrapper;
+import org.apache.tomcat.util.net.SocketState;
+import org.apache.tomcat.util.net.SocketWrapperBase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class Http11Processor implements Runnable, Processor {
 
     private static final Logger log = LoggerFactory.getLogger(Http11Processor.class);
 
+    private static final String HTTP_1_0 = "HTTP/1.0";
+
+    private final Http11Protocol protocol;
     private final Socket connection;
+    private final Http11InputBuffer inputBuffer;
+    private final Http11OutputBuffer outputBuffer;
+    private final Request request = new Request();
+    private final Response response;
+    private int handledRequests = 0;
+    private boolean keepAlive;
+    private boolean chunked;
+    private OutputStream bodyStream;
+    private final IdentityInputStream identityInputStream;
+    private final ChunkedInputStream chunkedInputStream;
+    private BodyInputStream requestBody;
 
     public Http11Processor(final Socket connection) {
+        this(new Http11Protocol(), connection);
+    }
+
+    public Http11Processor(final Http11Protocol protocol) {
+        this(protocol, null);
+    }
+
+    public Http11Processor(final Http11Protocol protocol, final Socket connection) {
+        this.protocol = protocol;
         this.connection = connection;
+        this.inputBuffer = new Http11InputBuffer(protocol.getMaxHttpHeaderSize(), protocol.getBufferPool(false));
+        this.outputBuffer = new Http11OutputBuffer(protocol.getOutputBufferSize(), protocol.getBufferPool(false),
+                protocol.getBufferPool(true));
+        this.identityInputStream = new IdentityInputStream(inputBuffer);
+        this.chunkedInputStream = new ChunkedInputStream(inputBuffer);
+        this.response = new Response(protocol.getResponseBufferSize());
+        this.response.setOutputBuffer(new StreamingOutputBuffer());
     }
 
     @Override
@@ -26,22 +71,388 @@ public class Http11Processor implements Runnable, Processor {
 
     @Override
     public void process(final Socket connection) {
-        try (final var inputStream = connection.getInputStream();
-             final var outputStream = connection.getOutputStream()) {
+        final var socketWrapper = new JioSocketWrapper(connection);
+        try {
+            process(socketWrapper);
+        } finally {
+            socketWrapper.close();
+        }
+    }
 
-            final var responseBody = "Hello world!";
+    /**
+     * 연결을 닫거나, 다음 요청을 기다리는데 읽어 둔 바이트가 없다면 버퍼를 풀에 돌려준다.
+     * 그래서 keep-alive 로 쉬고 있는 연결은 버퍼를 들고 있지 않는다.
+     */
+    @Override
+    public SocketState process(final SocketWrapperBase<?> socketWrapper) {
+        inputBuffer.init(socketWrapper);
+        outputBuffer.init(socketWrapper);
+        SocketState state = SocketState.CLOSED;
+        try {
+            state = processRequests(socketWrapper);
+            return state;
+        } finally {
+            if (state == SocketState.CLOSED || (inputBuffer.isIdle() && outputBuffer.isEmpty())) {
+                release();
+            }
+        }
+    }
 
-            final var response = String.join("\r\n",
-                    "HTTP/1.1 200 OK ",
-                    "Content-Type: text/html;charset=utf-8 ",
-                    "Content-Length: " + responseBody.getBytes().length + " ",
-                    "",
-                    responseBody);
+    @Override
+    public void release() {
+        inputBuffer.release();
+        outputBuffer.release();
+    }
 
-            outputStream.write(response.getBytes());
-            outputStream.flush();
+    private SocketState processRequests(final SocketWrapperBase<?> socketWrapper) {
+        try {
+            while (true) {
+                if (!parseRequest()) {
+                    // 요청이 아직 다 도착하지 않았다. 엔드포인트가 다음 데이터를 기다렸다가 다시 호출한다.
+                    return SocketState.OPEN;
+                }
+                keepAlive = isKeepAlive();
+                prepareRequestBody();
+                service();
+                if (!keepAlive) {
+                    outputBuffer.flush();
+                    return SocketState.CLOSED;
+                }
+                inputBuffer.nextRequest();
+                request.recycle();
+                socketWrapper.setReadTimeout(protocol.getKeepAliveTimeout());
+            }
+        } catch (EOFException e) {
+            log.debug("Connection closed by client");
+        } catch (SocketTimeoutException e) {
+            log.debug("Keep-alive timeout, closing connection");
+        } catch (IllegalArgumentException e) {
+            log.debug("Bad request: {}", e.getMessage());
+            writeError(400);
+        } catch (BadRequestException e) {
+            log.debug("Bad request body: {}", e.getMessage());
+            writeError(e.getStatus());
         } catch (IOException | UncheckedServletException e) {
             log.error(e.getMessage(), e);
         }
+        return SocketState.CLOSED;
+    }
+
+    /**
+     * 파이프라이닝으로 이미 도착한 요청이 있으면 응답을 보내지 않고 이어서 처리한다.
+     * 더 읽어야 할 때만 모아 둔 응답을 한 번에 보낸 뒤 소켓을 읽는다.
+     */
+    private boolean parseRequest() throws IOException {
+        if (inputBuffer.parseRequest(request, false)) {
+            return true;
+        }
+        outputBuffer.flush();
+        return inputBuffer.parseRequest(request, true);
+    }
+
+    /**
+     * HTTP/1.1 은 Connection: close 가 없으면, HTTP/1.0 은 Connection: keep-alive 가 있을 때만 연결을 유지한다.
+     */
+    private boolean isKeepAlive() {
+        handledRequests++;
+        final int maxKeepAliveRequests = protocol.getMaxKeepAliveRequests();
+        if (maxKeepAliveRequests > 0 && handledRequests >= maxKeepAliveRequests) {
+            return false;
+        }
+        if (request.isProtocol(HTTP_1_0)) {
+            return request.hasHeaderToken("Connection", "keep-alive");
+        }
+        return !request.hasHeaderToken("Connection", "close");
+    }
+
+    /**
+     * 본문 길이를 정하는 헤더를 보고 본문 스트림을 고른다. Transfer-Encoding 이 있으면 Content-Length 는 무시한다.
+     *
+     * @throws IllegalArgumentException 청크가 아닌 전송 코딩, 여러 개의 Transfer-Encoding, 서로 다른 Content-Length 인 경우
+     */
+    private void prepareRequestBody() {
+        final String transferEncoding = request.getHeader("Transfer-Encoding");
+        if (transferEncoding == null) {
+            identityInputStream.setContentLength(Math.max(request.getContentLength(), 0));
+            requestBody = identityInputStream;
+        } else {
+            // 여러 줄로 나뉘었거나 쉼표로 나열된 전송 코딩은 앞단 프록시와 다르게 해석될 수 있으므로 받지 않는다.
+            if (request.getHeaderCount("Transfer-Encoding") > 1) {
+                throw new IllegalArgumentException("Multiple Transfer-Encoding headers");
+            }
+            if (!transferEncoding.trim().equalsIgnoreCase("chunked")) {
+                throw new IllegalArgumentException("Unsupported Transfer-Encoding");
+            }
+            if (request.containsHeader("Content-Length")) {
+                // 두 헤더가 함께 오면 앞단 프록시와 본문의 끝을 다르게 볼 수 있으므로 이 요청을 끝으로 연결을 닫는다.
+                keepAlive = false;
+            }
+            chunkedInputStream.recycle(protocol.getMaxPostSize());
+            requestBody = chunkedInputStream;
+        }
+        request.setInputStream(requestBody);
+    }
+
+    private void service() throws IOException {
+        chunked = false;
+        final long maxPostSize = protocol.getMaxPostSize();
+        if (maxPostSize >= 0 && request.getContentLength() > maxPostSize && requestBody == identityInputStream) {
+            // 본문을 읽지도 버리지도 않고 응답한 뒤 연결을 닫는다.
+            keepAlive = false;
+            response.setStatus(413);
+            prepareResponse();
+            response.recycle();
+            return;
+        }
+        try {
+            protocol.getAdapter().service(request, response);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage(), e);
+            if (response.isCommitted()) {
+                // 이미 본문 일부를 보냈으므로 500 을 보낼 수 없다. 연결을 끊어 응답이 잘렸음을 알린다.
+                keepAlive = false;
+                bodyStream = null;
+                response.recycle();
+                return;
+            }
+            response.recycle();
+            response.setStatus(500);
+        }
+        swallowRequestBody();
+        if (response.isCommitted()) {
+            finishStreaming();
+            response.recycle();
+            return;
+        }
+        response.closeOutputStream();
+        compressResponse();
+        prepareResponse();
+        if (!request.isMethod("HEAD")) {
+            writeBody();
+        }
+        response.recycle();
+    }
+
+    /**
+     * 핸들러가 읽지 않은 본문을 버려 다음 요청의 시작을 찾는다. 너무 많이 남았다면 버리지 않고 연결을 닫는다.
+     * 본문을 더 받아야 한다면 먼저 모아 둔 응답을 보내, 응답을 기다리는 클라이언트와 서로 기다리지 않게 한다.
+     */
+    private void swallowRequestBody() throws IOException {
+        if (!keepAlive || requestBody.isFinished()) {
+            return;
+        }
+        if (requestBody.needsSocketRead()) {
+            outputBuffer.flush();
+        }
+        try {
+            if (!requestBody.swallow(protocol.getMaxSwallowSize())) {
+                keepAlive = false;
+            }
+        } catch (BadRequestException e) {
+            // 핸들러가 읽지 않은 본문이 잘못되었을 뿐이므로 응답은 그대로 보내고 연결만 닫는다.
+            log.debug("Bad request body: {}", e.getMessage());
+            keepAlive = false;
+        }
+    }
+
+    /**
+     * 스트림 응답의 남은 본문을 보내고, 압축 스트림과 청크를 닫아 본문의 끝을 알린다.
+     */
+    private void finishStreaming() throws IOException {
+        response.getOutputStream().flushBuffer();
+        bodyStream.close();
+        bodyStream = null;
+    }
+
+    /**
+     * 스트림 응답을 처음 보낼 때 상태 줄과 헤더를 쓴다. 길이를 모르면 HTTP/1.1 은 청크로 보내고,
+     * 청크를 모르는 HTTP/1.0 은 연결을 닫아 본문의 끝을 알린다.
+     */
+    private void commit() throws IOException {
+        final CompressionConfig compressionConfig = protocol.getCompressionConfig();
+        final long knownLength = response.getContentLength() < 0 ? Long.MAX_VALUE : response.getContentLength();
+        String encoding = null;
+        if (response.getEntityHeaders() == null && compressionConfig.isCompressible(response.getContentType(), knownLength)) {
+            response.addHeader("Vary", "Accept-Encoding");
+            encoding = compressionConfig.negotiate(request);
+        }
+        if (encoding != null) {
+            response.addHeader("Content-Encoding", encoding);
+            response.setContentLength(-1);
+        }
+        chunked = response.getContentLength() < 0 && response.getEntityHeaders() == null;
+        if (chunked && request.isProtocol(HTTP_1_0)) {
+            chunked = false;
+            keepAlive = false;
+        }
+        prepareResponse();
+        response.setCommitted(true);
+
+        if (request.isMethod("HEAD")) {
+            bodyStream = OutputStream.nullOutputStream();
+            return;
+        }
+        OutputStream stream = chunked ? new ChunkedOutputStream(outputBuffer) : new IdentityOutputStream();
+        if (encoding != null) {
+            stream = compressionConfig.createOutputStream(encoding, stream, true);
+        }
+        bodyStream = stream;
+    }
+
+    /**
+     * 어댑터가 채운 동적 본문을 압축한다. 헤더를 미리 인코딩해 둔 응답은 어댑터가 이미 인코딩을 골랐으므로 건드리지 않는다.
+     */
+    private void compressResponse() {
+        final byte[] body = response.getBody();
+        final CompressionConfig compressionConfig = protocol.getCompressionConfig();
+        if (body == null || response.getEntityHeaders() != null
+                || !compressionConfig.isCompressible(response.getContentType(), body.length)) {
+            return;
+        }
+        response.addHeader("Vary", "Accept-Encoding");
+        final String encoding = compressionConfig.negotiate(request);
+        if (encoding == null) {
+            return;
+        }
+        response.setBody(compressionConfig.compress(encoding, body));
+        response.addHeader("Content-Encoding", encoding);
+    }
+
+    private void writeBody() throws IOException {
+        if (response.getBody() != null) {
+            outputBuffer.write(response.getBody());
+            return;
+        }
+        if (response.getBodyFile() != null) {
+            try (final var file = FileChannel.open(response.getBodyFile(), StandardOpenOption.READ)) {
+                outputBuffer.sendFile(file, response.getBodyFilePosition(), response.getContentLength());
+            }
+            return;
+        }
+        if (!response.getBodyParts().isEmpty()) {
+            writeBodyParts();
+        }
+    }
+
+    private void writeBodyParts() throws IOException {
+        Path openedPath = null;
+        FileChannel file = null;
+        try {
+            for (final BodyPart part : response.getBodyParts()) {
+                switch (part) {
+                    case BodyPart.Bytes bytes -> outputBuffer.write(bytes.bytes(), bytes.offset(), bytes.length());
+                    case BodyPart.FileRegion region -> {
+                        // 같은 파일의 여러 구간을 보낼 때는 파일을 한 번만 연다.
+                        if (!region.file().equals(openedPath)) {
+                            if (file != null) {
+                                file.close();
+                            }
+                            file = FileChannel.open(region.file(), StandardOpenOption.READ);
+                            openedPath = region.file();
+                        }
+                        outputBuffer.sendFile(file, region.position(), region.count());
+                    }
+                }
+            }
+        } finally {
+            if (file != null) {
+                file.close();
+            }
+        }
+    }
+
+    private void prepareResponse() throws IOException {
+        final int status = response.getStatus();
+        outputBuffer.sendStatus(status);
+        outputBuffer.sendDate();
+        if (response.getEntityHeaders() != null) {
+            outputBuffer.write(response.getEntityHeaders());
+        } else {
+            writeEntityHeaders(status);
+        }
+        if (response.getCacheHeaders() != null) {
+            outputBuffer.write(response.getCacheHeaders());
+        }
+        for (int i = 0; i < response.getHeaderCount(); i++) {
+            outputBuffer.sendHeader(response.getHeaderName(i), response.getHeaderValue(i));
+        }
+        // 기본 동작과 다를 때만 Connection 헤더를 보낸다.
+        if (!keepAlive) {
+            outputBuffer.write(Http11OutputBuffer.CONNECTION_CLOSE);
+        } else if (request.isProtocol(HTTP_1_0)) {
+            outputBuffer.write(Http11OutputBuffer.CONNECTION_KEEP_ALIVE);
+        }
+        outputBuffer.endHeaders();
+    }
+
+    private void writeEntityHeaders(final int status) throws IOException {
+        if (response.getContentType() != null) {
+            outputBuffer.sendHeader(Http11OutputBuffer.CONTENT_TYPE, response.getContentType());
+        }
+        if (status == 204 || status == 304) {
+            return;
+        }
+        if (chunked) {
+            outputBuffer.write(Http11OutputBuffer.TRANSFER_ENCODING_CHUNKED);
+            return;
+        }
+        if (response.isUsingOutputStream() && response.getContentLength() < 0) {
+            // HTTP/1.0 스트림 응답은 길이 없이 보내고 연결을 닫는다.
+            return;
+        }
+        // 본문이 없더라도 keep-alive 연결에서 응답의 끝을 알 수 있도록 길이를 보낸다.
+        outputBuffer.sendHeader(Http11OutputBuffer.CONTENT_LENGTH, Math.max(response.getContentLength(), 0));
+    }
+
+    private void writeError(final int status) {
+        if (response.isCommitted()) {
+            return;
+        }
+        try {
+            response.recycle();
+            response.setStatus(status);
+            keepAlive = false;
+            chunked = false;
+            prepareResponse();
+            outputBuffer.flush();
+        } catch (IOException e) {
+            log.debug(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@link org.apache.coyote.ResponseOutputStream} 이 넘긴 본문을 받아 처음 한 번 커밋한 뒤 본문 스트림에 쓴다.
+     */
+    private final class StreamingOutputBuffer implements OutputBuffer {
+
+        @Override
+        public void doWrite(final byte[] bytes, final int offset, final int length) throws IOException {
+            if (!response.isCommitted()) {
+                commit();
+            }
+            bodyStream.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!response.isCommitted()) {
+                commit();
+            }
+            bodyStream.flush();
+            outputBuffer.flush();
+        }
+    }
+
+    private final class IdentityOutputStream extends OutputStream {
+
+        @Override
+        public void write(final int b) throws IOException {
+            outputBuffer.write(new byte[]{(byte) b});
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            outputBuffer.write(bytes, offset, length);
+        }
     }
 }
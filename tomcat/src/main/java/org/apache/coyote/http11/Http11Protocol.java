@@ -0,0 +1,204 @@
+package org.apache.coyote.http11;
+
+import org.apache.catalina.connector.CoyoteAdapter;
+import org.apache.catalina.mapper.Mapper;
+import org.apache.catalina.webresources.WebResourceRoot;
+import org.apache.coyote.Adapter;
+import org.apache.coyote.CompressionConfig;
+import org.apache.tomcat.util.buf.ByteBufferPool;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * 한 커넥터의 모든 {@link Http11Processor} 가 공유하는 HTTP/1.1 설정.
+ */
+public class Http11Protocol {
+
+    private static final int DEFAULT_MAX_HTTP_HEADER_SIZE = 8 * 1024;
+    private static final int DEFAULT_KEEP_ALIVE_TIMEOUT = 20_000;
+    private static final int DEFAULT_MAX_KEEP_ALIVE_REQUESTS = 100;
+    private static final int DEFAULT_OUTPUT_BUFFER_SIZE = 8 * 1024;
+    private static final int DEFAULT_RESPONSE_BUFFER_SIZE = 8 * 1024;
+    private static final long DEFAULT_MAX_POST_SIZE = 2 * 1024 * 1024;
+    private static final long DEFAULT_MAX_SWALLOW_SIZE = 2 * 1024 * 1024;
+    private static final long DEFAULT_BUFFER_POOL_MAX_MEMORY = 64L * 1024 * 1024;
+    private static final int DEFAULT_RETRY_AFTER = 1;
+
+    private int maxHttpHeaderSize = DEFAULT_MAX_HTTP_HEADER_SIZE;
+    private int keepAliveTimeout = DEFAULT_KEEP_ALIVE_TIMEOUT;
+    private int maxKeepAliveRequests = DEFAULT_MAX_KEEP_ALIVE_REQUESTS;
+    private int outputBufferSize = DEFAULT_OUTPUT_BUFFER_SIZE;
+    private int responseBufferSize = DEFAULT_RESPONSE_BUFFER_SIZE;
+    private long maxPostSize = DEFAULT_MAX_POST_SIZE;
+    private long maxSwallowSize = DEFAULT_MAX_SWALLOW_SIZE;
+    private int retryAfter = DEFAULT_RETRY_AFTER;
+    private byte[] overloadResponse = encodeOverloadResponse(DEFAULT_RETRY_AFTER);
+    private final CompressionConfig compressionConfig = new CompressionConfig();
+    private final Mapper mapper = new Mapper();
+    private final ByteBufferPool heapBufferPool = new ByteBufferPool(false, DEFAULT_BUFFER_POOL_MAX_MEMORY);
+    private final ByteBufferPool directBufferPool = new ByteBufferPool(true, DEFAULT_BUFFER_POOL_MAX_MEMORY);
+    private Adapter adapter = new CoyoteAdapter(new WebResourceRoot(compressionConfig), mapper);
+
+    public Adapter getAdapter() {
+        return adapter;
+    }
+
+    public void setAdapter(final Adapter adapter) {
+        this.adapter = adapter;
+    }
+
+    /**
+     * 기본 어댑터가 정적 리소스보다 먼저 찾는 라우트. 어댑터를 바꾸면 쓰이지 않는다.
+     */
+    public Mapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * 동적 응답 압축 설정. 기본 어댑터의 정적 리소스도 같은 설정으로 미리 압축한다.
+     */
+    public CompressionConfig getCompressionConfig() {
+        return compressionConfig;
+    }
+
+    public int getMaxHttpHeaderSize() {
+        return maxHttpHeaderSize;
+    }
+
+    public void setMaxHttpHeaderSize(final int maxHttpHeaderSize) {
+        this.maxHttpHeaderSize = maxHttpHeaderSize;
+    }
+
+    public int getKeepAliveTimeout() {
+        return keepAliveTimeout;
+    }
+
+    /**
+     * 응답을 보낸 뒤 같은 연결로 다음 요청이 오기를 기다리는 시간(ms). 0 이하면 제한하지 않는다.
+     */
+    public void setKeepAliveTimeout(final int keepAliveTimeout) {
+        this.keepAliveTimeout = keepAliveTimeout;
+    }
+
+    public int getMaxKeepAliveRequests() {
+        return maxKeepAliveRequests;
+    }
+
+    /**
+     * 연결 하나로 처리할 최대 요청 수. 1 이면 keep-alive 를 끄고, 0 이하면 제한하지 않는다.
+     */
+    public void setMaxKeepAliveRequests(final int maxKeepAliveRequests) {
+        this.maxKeepAliveRequests = maxKeepAliveRequests;
+    }
+
+    public int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    /**
+     * 소켓에 쓰기 전에 응답을 모아 두는 버퍼 크기.
+     */
+    public void setOutputBufferSize(final int outputBufferSize) {
+        this.outputBufferSize = outputBufferSize;
+    }
+
+    public int getResponseBufferSize() {
+        return responseBufferSize;
+    }
+
+    /**
+     * 어댑터가 응답 스트림으로 쓴 본문을 커밋 전에 모아 두는 기본 크기. 본문이 이보다 작으면 Content-Length 로,
+     * 크면 청크로 보낸다. 응답마다 {@link org.apache.coyote.Response#setBufferSize(int)} 로 바꿀 수 있다.
+     */
+    public void setResponseBufferSize(final int responseBufferSize) {
+        this.responseBufferSize = responseBufferSize;
+    }
+
+    public long getMaxPostSize() {
+        return maxPostSize;
+    }
+
+    /**
+     * 요청 본문의 최대 크기(byte). Content-Length 가 이보다 크면 본문을 읽지 않고 413 으로 응답하고,
+     * 청크 본문은 읽는 도중 넘으면 413 으로 응답한다. 음수면 제한하지 않는다.
+     */
+    public void setMaxPostSize(final long maxPostSize) {
+        this.maxPostSize = maxPostSize;
+    }
+
+    public long getMaxSwallowSize() {
+        return maxSwallowSize;
+    }
+
+    /**
+     * 핸들러가 읽지 않은 본문을 다음 요청을 위해 버릴 최대 크기(byte). 더 남았다면 버리지 않고 연결을 닫는다.
+     * 음수면 제한하지 않는다.
+     */
+    public void setMaxSwallowSize(final long maxSwallowSize) {
+        this.maxSwallowSize = maxSwallowSize;
+    }
+
+    /**
+     * 프로세서가 연결마다 빌려 쓰는 읽기, 쓰기 버퍼의 풀.
+     *
+     * @param direct 다이렉트 버퍼 풀을 고를지 여부
+     */
+    public ByteBufferPool getBufferPool(final boolean direct) {
+        return direct ? directBufferPool : heapBufferPool;
+    }
+
+    public long getBufferPoolMaxMemory() {
+        return heapBufferPool.getMaxMemory();
+    }
+
+    /**
+     * 힙, 다이렉트 버퍼 풀이 각각 만들어 둘 수 있는 버퍼 크기의 합(byte). 넘으면 풀에 넣지 않는 버퍼를 만든다.
+     */
+    public void setBufferPoolMaxMemory(final long bufferPoolMaxMemory) {
+        heapBufferPool.setMaxMemory(bufferPoolMaxMemory);
+        directBufferPool.setMaxMemory(bufferPoolMaxMemory);
+    }
+
+    public boolean isBufferLeakDetection() {
+        return heapBufferPool.isLeakDetection();
+    }
+
+    /**
+     * 돌려주지 않은 채 GC 된 버퍼를 빌린 위치와 함께 로그로 남긴다. 빌릴 때마다 스택을 기록하므로 문제를 찾을 때만 켠다.
+     */
+    public void setBufferLeakDetection(final boolean bufferLeakDetection) {
+        heapBufferPool.setLeakDetection(bufferLeakDetection);
+        directBufferPool.setLeakDetection(bufferLeakDetection);
+    }
+
+    public int getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * 과부하로 거절할 때 다시 시도하라고 알려 줄 시간(초).
+     */
+    public void setRetryAfter(final int retryAfter) {
+        if (retryAfter < 0) {
+            throw new IllegalArgumentException("Invalid Retry-After: " + retryAfter);
+        }
+        this.retryAfter = retryAfter;
+        this.overloadResponse = encodeOverloadResponse(retryAfter);
+    }
+
+    /**
+     * 과부하로 거절한 연결에 요청을 읽지 않고 보내는 503 응답. 연결마다 만들지 않도록 미리 인코딩해 둔다.
+     */
+    public byte[] getOverloadResponse() {
+        return overloadResponse;
+    }
+
+    private static byte[] encodeOverloadResponse(final int retryAfter) {
+        final var response = new ByteArrayOutputStream();
+        response.writeBytes(Http11OutputBuffer.encodeStatusLine(503));
+        response.writeBytes(Http11OutputBuffer.encodeHeaders("Retry-After", String.valueOf(retryAfter),
+                "Content-Length", "0", "Connection", "close"));
+        response.writeBytes(new byte[]{'\r', '\n'});
+        return response.toByteArray();
+    }
+}
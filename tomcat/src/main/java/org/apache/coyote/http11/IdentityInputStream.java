@@ -0,0 +1,61 @@
+package org.apache.coyote.http11;
+
+import java.io.IOException;
+
+/**
+ * Content-Length 만큼만 읽는 본문 스트림. 최대 크기는 프로세서가 본문을 읽기 전에 Content-Length 로 확인한다.
+ */
+class IdentityInputStream extends BodyInputStream {
+
+    private long remaining;
+
+    IdentityInputStream(final Http11InputBuffer inputBuffer) {
+        super(inputBuffer);
+    }
+
+    /**
+     * @param contentLength 본문 길이. 본문이 없으면 0
+     */
+    void setContentLength(final long contentLength) {
+        recycle(-1);
+        this.remaining = contentLength;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (remaining == 0) {
+            return -1;
+        }
+        if (length == 0) {
+            return 0;
+        }
+        final int read = inputBuffer.doRead(bytes, offset, (int) Math.min(length, remaining));
+        remaining -= read;
+        readBytes += read;
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(remaining, inputBuffer.available());
+    }
+
+    @Override
+    boolean isFinished() {
+        return remaining == 0;
+    }
+
+    @Override
+    boolean needsSocketRead() {
+        return remaining > inputBuffer.available();
+    }
+
+    @Override
+    boolean swallow(final long limit) throws IOException {
+        // 남은 길이를 알고 있으므로 한도를 넘으면 읽지 않고 바로 포기한다.
+        if (limit >= 0 && remaining > limit) {
+            return false;
+        }
+        return super.swallow(limit);
+    }
+}
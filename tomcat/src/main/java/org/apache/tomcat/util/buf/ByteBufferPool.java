@@ -0,0 +1,261 @@
+package org.apache.tomcat.util.buf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 연결마다 쓰는 I/O 버퍼를 돌려 쓰는 풀. 힙 버퍼와 다이렉트 버퍼는 풀을 따로 만든다.
+ * <p>
+ * 크기는 1KB 부터 1MB 까지 2의 거듭제곱 등급으로 나누고, 빈 버퍼는 등급별 목록에 둔다. 목록은 스레드 id 로 고른
+ * 줄(stripe)에 나누어 두어 여러 스레드가 한 잠금을 두고 다투지 않게 한다. 스레드마다 목록을 두면 연결이 끝난 스레드나
+ * 가상 스레드에 버퍼가 묶이므로 그렇게 하지 않는다. 제 줄이 비었다면 다른 줄의 버퍼를 가져온다.
+ * <p>
+ * 풀이 만든 버퍼(빌려준 것과 쉬고 있는 것)의 합은 {@code maxMemory} 를 넘지 않는다. 넘게 되면 풀에 넣지 않을 버퍼를
+ * 새로 만들어 준다. 1MB 보다 큰 요청도 마찬가지다.
+ * <p>
+ * 누수 감지를 켜면 빌린 곳을 기록해 두었다가, 돌려주지 않은 채 GC 된 버퍼를 그 위치와 함께 로그로 남긴다.
+ * 빌린 곳을 기록하는 비용이 크므로 문제를 찾을 때만 켠다.
+ */
+public class ByteBufferPool {
+
+    private static final Logger log = LoggerFactory.getLogger(ByteBufferPool.class);
+
+    public static final int MAX_POOLED_SIZE = 1 << 20;
+
+    private static final int MIN_SHIFT = 10;
+    private static final int SIZE_CLASSES = Integer.numberOfTrailingZeros(MAX_POOLED_SIZE) - MIN_SHIFT + 1;
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final boolean direct;
+    private final Stripe[] stripes;
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final LongAdder unpooledCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private volatile long maxMemory;
+    private volatile boolean leakDetection;
+
+    /**
+     * @param direct 다이렉트 버퍼를 만들지 여부
+     * @param maxMemory 풀이 만들어 둘 수 있는 버퍼 크기의 합(byte)
+     */
+    public ByteBufferPool(final boolean direct, final long maxMemory) {
+        this.direct = direct;
+        this.maxMemory = maxMemory;
+        final int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * @return 위치가 0 이고 용량이 {@code size} 인 빈 버퍼. 다 쓰면 {@link PooledByteBuffer#release()} 로 돌려준다.
+     */
+    public PooledByteBuffer acquire(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid buffer size: " + size);
+        }
+        if (size > MAX_POOLED_SIZE) {
+            return track(unpooled(size));
+        }
+        final int sizeClass = sizeClassOf(size);
+        ByteBuffer buffer = poll(sizeClass);
+        if (buffer == null) {
+            final int capacity = 1 << (sizeClass + MIN_SHIFT);
+            if (!reserve(capacity)) {
+                return track(unpooled(size));
+            }
+            buffer = allocate(capacity);
+        }
+        return track(new PooledByteBuffer(this, buffer, size, sizeClass));
+    }
+
+    private PooledByteBuffer unpooled(final int size) {
+        unpooledCount.increment();
+        return new PooledByteBuffer(this, allocate(size), size, -1);
+    }
+
+    private PooledByteBuffer track(final PooledByteBuffer pooled) {
+        if (leakDetection) {
+            final var leak = new Leak(this, pooled.getPooledCapacity(),
+                    new Throwable("Buffer of " + pooled.buffer().capacity() + " bytes acquired here"));
+            leak.cleanable = CLEANER.register(pooled, leak);
+            pooled.setLeak(leak);
+        }
+        return pooled;
+    }
+
+    private ByteBuffer allocate(final int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private boolean reserve(final int capacity) {
+        while (true) {
+            final long allocated = allocatedBytes.get();
+            if (allocated + capacity > maxMemory) {
+                return false;
+            }
+            if (allocatedBytes.compareAndSet(allocated, allocated + capacity)) {
+                return true;
+            }
+        }
+    }
+
+    private ByteBuffer poll(final int sizeClass) {
+        final int home = homeStripe();
+        for (int i = 0; i < stripes.length; i++) {
+            final ByteBuffer buffer = stripes[(home + i) & (stripes.length - 1)].poll(sizeClass);
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        return null;
+    }
+
+    void release(final ByteBuffer buffer, final int sizeClass) {
+        if (sizeClass < 0) {
+            return;
+        }
+        if (allocatedBytes.get() > maxMemory) {
+            // 한도를 줄였다면 남는 만큼 버린다.
+            allocatedBytes.addAndGet(-buffer.capacity());
+            return;
+        }
+        buffer.clear();
+        stripes[homeStripe()].offer(sizeClass, buffer);
+    }
+
+    private void leaked(final int pooledCapacity, final Throwable acquiredAt) {
+        leakCount.increment();
+        allocatedBytes.addAndGet(-pooledCapacity);
+        log.error("ByteBuffer was garbage collected without being released", acquiredAt);
+    }
+
+    private int homeStripe() {
+        return (int) Thread.currentThread().threadId() & (stripes.length - 1);
+    }
+
+    private static int sizeClassOf(final int size) {
+        final int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+        return Math.max(shift, MIN_SHIFT) - MIN_SHIFT;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * 줄인 만큼은 버퍼가 돌아올 때 버린다.
+     */
+    public void setMaxMemory(final long maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+
+    public boolean isLeakDetection() {
+        return leakDetection;
+    }
+
+    /**
+     * 켠 뒤에 빌린 버퍼부터 추적한다.
+     */
+    public void setLeakDetection(final boolean leakDetection) {
+        this.leakDetection = leakDetection;
+    }
+
+    /**
+     * 풀이 만든 버퍼 크기의 합(byte). 빌려준 것과 쉬고 있는 것을 모두 센다.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    /**
+     * 한도를 넘었거나 너무 커서 풀 밖에서 만든 버퍼 수.
+     */
+    public long getUnpooledCount() {
+        return unpooledCount.sum();
+    }
+
+    /**
+     * 누수 감지를 켠 뒤 돌려받지 못하고 GC 된 버퍼 수.
+     */
+    public long getLeakCount() {
+        return leakCount.sum();
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<ByteBuffer>[] free = newFreeLists();
+
+        @SuppressWarnings("unchecked")
+        private static ArrayDeque<ByteBuffer>[] newFreeLists() {
+            // 제네릭 배열은 만들 수 없으므로 와일드카드 배열을 만든 뒤 원소를 모두 여기서 채운다.
+            final var free = (ArrayDeque<ByteBuffer>[]) new ArrayDeque<?>[SIZE_CLASSES];
+            for (int i = 0; i < free.length; i++) {
+                free[i] = new ArrayDeque<>();
+            }
+            return free;
+        }
+
+        private ByteBuffer poll(final int sizeClass) {
+            lock.lock();
+            try {
+                return free[sizeClass].pollFirst();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void offer(final int sizeClass, final ByteBuffer buffer) {
+            lock.lock();
+            try {
+                // 방금 쓴 버퍼를 먼저 다시 빌려주어 캐시에 남아 있을 때 쓰게 한다.
+                free[sizeClass].offerFirst(buffer);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 빌린 버퍼가 GC 될 때 돌려받았는지 확인한다. 버퍼를 참조하면 GC 되지 않으므로 크기와 위치만 가진다.
+     */
+    static final class Leak implements Runnable {
+
+        private final ByteBufferPool pool;
+        private final int pooledCapacity;
+        private final Throwable acquiredAt;
+        private volatile boolean released;
+        private Cleaner.Cleanable cleanable;
+
+        private Leak(final ByteBufferPool pool, final int pooledCapacity, final Throwable acquiredAt) {
+            this.pool = pool;
+            this.pooledCapacity = pooledCapacity;
+            this.acquiredAt = acquiredAt;
+        }
+
+        void release() {
+            released = true;
+            cleanable.clean();
+        }
+
+        @Override
+        public void run() {
+            if (!released) {
+                pool.leaked(pooledCapacity, acquiredAt);
+            }
+        }
+    }
+}
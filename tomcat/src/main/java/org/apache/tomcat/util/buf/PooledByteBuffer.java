@@ -0,0 +1,51 @@
+package org.apache.tomcat.util.buf;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ByteBufferPool} 에서 빌린 버퍼. 다 쓰면 {@link #release()} 로 돌려주고, 그 뒤로는 버퍼를 쓰지 않는다.
+ * 빌린 스레드와 돌려주는 스레드가 달라도 되지만, 한 번에 한 스레드만 쓴다.
+ */
+public final class PooledByteBuffer {
+
+    private final ByteBufferPool pool;
+    private final ByteBuffer pooled;
+    private final ByteBuffer buffer;
+    private final int sizeClass;
+    private ByteBufferPool.Leak leak;
+    private boolean released;
+
+    PooledByteBuffer(final ByteBufferPool pool, final ByteBuffer pooled, final int size, final int sizeClass) {
+        this.pool = pool;
+        this.pooled = pooled;
+        // 등급 크기가 요청보다 크면 요청한 만큼만 보이게 잘라 준다.
+        this.buffer = pooled.capacity() == size ? pooled : pooled.slice(0, size);
+        this.sizeClass = sizeClass;
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @throws IllegalStateException 이미 돌려준 경우
+     */
+    public void release() {
+        if (released) {
+            throw new IllegalStateException("Buffer already released");
+        }
+        released = true;
+        if (leak != null) {
+            leak.release();
+        }
+        pool.release(pooled, sizeClass);
+    }
+
+    int getPooledCapacity() {
+        return sizeClass < 0 ? 0 : pooled.capacity();
+    }
+
+    void setLeak(final ByteBufferPool.Leak leak) {
+        this.leak = leak;
+    }
+}
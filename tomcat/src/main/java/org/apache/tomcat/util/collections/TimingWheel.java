@@ -0,0 +1,151 @@
+package org.apache.tomcat.util.collections;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * 해시 타이밍 휠. 만료 시각을 틱 단위로 나눠 버킷에 넣어 두고, 시간이 지나면 지나간 틱의 버킷만 확인한다.
+ * 전체 항목을 훑지 않고 만료된 항목을 찾는다.
+ * <p>
+ * 만료 시각은 등록할 때가 아니라 버킷을 확인할 때 항목에게 다시 묻는다. 그 사이 만료 시각이 늦춰졌다면
+ * 새 시각의 버킷으로 옮기기만 하므로, 항목을 쓸 때마다 다시 등록하지 않아도 된다. 휠 한 바퀴보다 먼 시각도 같은 방식으로 처리한다.
+ * <p>
+ * 등록은 어느 스레드에서나 할 수 있고, {@link #advance(long, Consumer)} 는 한 번에 한 스레드만 실행한다.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Timeout<T>>[] buckets;
+    private final ToLongFunction<T> deadline;
+    private final ReentrantLock advanceLock = new ReentrantLock();
+    private volatile long currentTick;
+
+    /**
+     * @param ticksPerWheel 버킷 수. 2의 거듭제곱으로 올림한다.
+     * @param deadline 항목의 만료 시각(ms). 더 이상 지켜볼 필요가 없는 항목이면 음수를 돌려준다.
+     */
+    public TimingWheel(final long tickMillis,
+                       final int ticksPerWheel,
+                       final long now,
+                       final ToLongFunction<T> deadline) {
+        if (tickMillis <= 0 || ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("Invalid timing wheel size");
+        }
+        final int size = ticksPerWheel == 1 ? 1 : Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = newBuckets(size);
+        this.deadline = deadline;
+        this.currentTick = Math.floorDiv(now, tickMillis);
+    }
+
+    private static <E> ConcurrentLinkedQueue<E>[] newBuckets(final int size) {
+        // 제네릭 배열은 만들 수 없으므로 와일드카드 배열을 만들어 원소 타입으로 바꾼다. 원소는 모두 여기서 채운다.
+        @SuppressWarnings("unchecked")
+        final var buckets = (ConcurrentLinkedQueue<E>[]) new ConcurrentLinkedQueue<?>[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        return buckets;
+    }
+
+    /**
+     * 항목을 만료 시각의 버킷에 넣는다. 만료 시각을 앞당길 때는 이전 {@link Timeout} 을 취소하고 다시 등록한다.
+     */
+    public Timeout<T> schedule(final T item, final long deadline) {
+        final var timeout = new Timeout<>(item);
+        add(timeout, deadline);
+        return timeout;
+    }
+
+    private void add(final Timeout<T> timeout, final long deadline) {
+        // 이미 지나간 틱의 버킷에 넣으면 한 바퀴 뒤에야 확인하므로 다음 틱으로 미룬다.
+        final long tick = Math.max(Math.ceilDiv(deadline, tickMillis), currentTick + 1);
+        buckets[(int) (tick & mask)].offer(timeout);
+    }
+
+    /**
+     * {@code now} 까지 지나간 틱의 버킷을 확인해 만료된 항목을 {@code expirer} 에 넘긴다.
+     * 다른 스레드가 이미 실행 중이면 기다리지 않고 돌아간다.
+     *
+     * @param expirer 만료 시각이 지난 항목을 받는다. 이 메서드를 부른 스레드에서 실행된다.
+     */
+    public void advance(final long now, final Consumer<T> expirer) {
+        if (!advanceLock.tryLock()) {
+            return;
+        }
+        try {
+            final long nowTick = Math.floorDiv(now, tickMillis);
+            // 한 바퀴 넘게 밀렸다면 모든 버킷을 한 번씩만 확인하면 된다.
+            for (long tick = Math.max(currentTick + 1, nowTick - mask); tick <= nowTick; tick++) {
+                currentTick = tick;
+                expireBucket(buckets[(int) (tick & mask)], now, expirer);
+            }
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+
+    private void expireBucket(final ConcurrentLinkedQueue<Timeout<T>> bucket, final long now, final Consumer<T> expirer) {
+        // 같은 버킷으로 다시 넣는 항목을 이번에 또 꺼내지 않도록 먼저 모두 꺼낸다.
+        final var timeouts = new ArrayList<Timeout<T>>();
+        Timeout<T> timeout;
+        while ((timeout = bucket.poll()) != null) {
+            timeouts.add(timeout);
+        }
+        for (final Timeout<T> candidate : timeouts) {
+            if (candidate.isCancelled()) {
+                continue;
+            }
+            final long expiresAt = deadline.applyAsLong(candidate.item);
+            if (expiresAt < 0) {
+                continue;
+            }
+            if (expiresAt <= now) {
+                expirer.accept(candidate.item);
+            } else {
+                add(candidate, expiresAt);
+            }
+        }
+    }
+
+    /**
+     * 아직 확인하지 않은 항목 수. 버킷을 모두 세므로 모니터링에만 쓴다.
+     */
+    public int size() {
+        int size = 0;
+        for (final var bucket : buckets) {
+            size += bucket.size();
+        }
+        return size;
+    }
+
+    public static final class Timeout<T> {
+
+        private final T item;
+        private volatile boolean cancelled;
+
+        private Timeout(final T item) {
+            this.item = item;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * 버킷에서 바로 빼지 않고, 버킷을 확인할 때 버린다.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.apache.tomcat.util.http;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * HTTP 날짜(IMF-fixdate, 예: {@code Sun, 06 Nov 1994 08:49:37 GMT})를 만들고 읽는다.
+ * 읽을 때는 RFC 850, asctime 형식도 받는다.
+ */
+public final class FastHttpDateFormat {
+
+    private static final DateTimeFormatter IMF_FIXDATE =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+    private static final List<DateTimeFormatter> PARSERS = List.of(
+            IMF_FIXDATE,
+            // RFC 850 의 두 자리 연도는 1970 년부터 100 년 안으로 읽는다.
+            new DateTimeFormatterBuilder()
+                    .appendPattern("EEEE, dd-MMM-")
+                    .appendValueReduced(ChronoField.YEAR, 2, 2, 1970)
+                    .appendPattern(" HH:mm:ss 'GMT'")
+                    .toFormatter(Locale.US)
+                    .withZone(ZoneOffset.UTC),
+            DateTimeFormatter.ofPattern("EEE MMM ppd HH:mm:ss yyyy", Locale.US).withZone(ZoneOffset.UTC));
+
+    public static String formatDate(final long millis) {
+        return IMF_FIXDATE.format(Instant.ofEpochMilli(millis));
+    }
+
+    /**
+     * @return 읽을 수 없는 값이면 -1
+     */
+    public static long parseDate(final String value) {
+        if (value == null) {
+            return -1;
+        }
+        for (final DateTimeFormatter parser : PARSERS) {
+            try {
+                return ZonedDateTime.parse(value.trim(), parser).toInstant().toEpochMilli();
+            } catch (DateTimeParseException ignored) {
+                // 다음 형식으로 읽어 본다.
+            }
+        }
+        return -1;
+    }
+
+    private FastHttpDateFormat() {}
+}
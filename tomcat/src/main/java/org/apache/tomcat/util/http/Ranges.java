@@ -0,0 +1,118 @@
+package org.apache.tomcat.util.http;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Range 요청 헤더({@code bytes=0-99, 200-, -50})를 읽어 실제로 보낼 바이트 구간을 구한다.
+ * <p>
+ * 구간은 시작 위치 순으로 정렬하고 겹치거나 맞닿은 구간은 하나로 합친다. 요청한 구간 길이의 합이 리소스보다 길면
+ * {@code bytes=0-,0-,...} 처럼 작은 요청으로 큰 응답을 만들게 하는 것이므로 Range 를 무시한다(RFC 9110 14.2).
+ */
+public final class Ranges {
+
+    private static final String BYTES_UNIT = "bytes=";
+    private static final int MAX_RANGES = 16;
+
+    /**
+     * @param start 첫 바이트 위치
+     * @param end 마지막 바이트 위치(포함)
+     */
+    public record ByteRange(long start, long end) {
+
+        public long length() {
+            return end - start + 1;
+        }
+    }
+
+    /**
+     * @param length 리소스 전체 길이
+     * @return 형식이 틀렸거나, 구간이 너무 많거나, 겹친 구간이 리소스보다 길어 무시해야 하면 {@code null}.
+     *         만족할 수 있는 구간이 없으면 빈 목록
+     */
+    public static List<ByteRange> parse(final String header, final long length) {
+        if (header == null || !header.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+        final String[] specs = header.substring(BYTES_UNIT.length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        final var ranges = new ArrayList<ByteRange>(specs.length);
+        for (final String spec : specs) {
+            final String trimmed = spec.trim();
+            final int dash = trimmed.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            final long first = parseLong(trimmed.substring(0, dash));
+            final long last = parseLong(trimmed.substring(dash + 1));
+            if (dash == 0) {
+                // -n 은 마지막 n 바이트다.
+                if (last < 0) {
+                    return null;
+                }
+                if (last > 0 && length > 0) {
+                    ranges.add(new ByteRange(Math.max(length - last, 0), length - 1));
+                }
+                continue;
+            }
+            if (first < 0 || (dash < trimmed.length() - 1 && (last < 0 || last < first))) {
+                return null;
+            }
+            if (first < length) {
+                final long end = last < 0 ? length - 1 : Math.min(last, length - 1);
+                ranges.add(new ByteRange(first, end));
+            }
+        }
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+        long requested = 0;
+        for (final ByteRange range : ranges) {
+            requested += range.length();
+        }
+        if (requested > length) {
+            return null;
+        }
+        return coalesce(ranges);
+    }
+
+    /**
+     * 시작 위치 순으로 정렬하고 겹치거나 맞닿은 구간을 합친다.
+     */
+    private static List<ByteRange> coalesce(final List<ByteRange> ranges) {
+        ranges.sort(Comparator.comparingLong(ByteRange::start));
+        final var merged = new ArrayList<ByteRange>(ranges.size());
+        ByteRange current = ranges.get(0);
+        for (int i = 1; i < ranges.size(); i++) {
+            final ByteRange next = ranges.get(i);
+            if (next.start() <= current.end() + 1) {
+                current = new ByteRange(current.start(), Math.max(current.end(), next.end()));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    private static long parseLong(final String value) {
+        if (value.isEmpty()) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < '0' || c > '9' || result > (Long.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private Ranges() {}
+}
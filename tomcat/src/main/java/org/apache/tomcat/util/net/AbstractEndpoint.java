@@ -0,0 +1,270 @@
+package org.apache.tomcat.util.net;
+
+import org.apache.tomcat.util.threads.CoDelPolicy;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 포트를 열고 연결을 받아 워커 스레드의 {@link Handler} 에게 넘기는 엔드포인트의 공통 부분.
+ * <p>
+ * 과부하일 때는 연결을 큐에 쌓아 두지 않고 미리 인코딩한 응답({@link #setOverloadResponse(byte[])})으로 바로 거절한다.
+ * 연결 수가 maxConnections 를 넘었을 때, 워커 스레드 풀이 가득 찼을 때, 그리고 {@link CoDelPolicy} 가 큐 대기 시간이
+ * 너무 길다고 판단했을 때다.
+ *
+ * @param <S> 엔드포인트가 다루는 소켓의 타입
+ */
+public abstract class AbstractEndpoint<S> {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractEndpoint.class);
+
+    /**
+     * 연결을 처리하는 쪽. 엔드포인트는 I/O 만 담당하고 프로토콜 처리는 핸들러에게 맡긴다.
+     */
+    public interface Handler {
+
+        SocketState process(SocketWrapperBase<?> socketWrapper);
+
+        /**
+         * 연결을 닫기 전에 부른다. 연결에 붙여 둔 프로세서가 빌린 버퍼 등을 돌려준다.
+         */
+        default void release(final SocketWrapperBase<?> socketWrapper) {
+        }
+    }
+
+    private final int port;
+    private final int acceptCount;
+    private final Executor executor;
+    private final Handler handler;
+    private int connectionTimeout = 20_000;
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final LongAdder rejectedCount = new LongAdder();
+    private volatile int maxConnections = -1;
+    private volatile byte[] overloadResponse;
+    private volatile CoDelPolicy queueDelayPolicy;
+    private int acceptorThreadCount = 1;
+    private boolean reusePort = false;
+    protected volatile boolean running = false;
+
+    protected AbstractEndpoint(final int port, final int acceptCount, final Executor executor, final Handler handler) {
+        this.port = port;
+        this.acceptCount = acceptCount;
+        this.executor = executor;
+        this.handler = handler;
+    }
+
+    public abstract void bind() throws IOException;
+
+    public abstract void start();
+
+    public abstract void stop();
+
+    public abstract int getLocalPort();
+
+    /**
+     * {@link #bind()} 로 연 리슨 소켓 수. SO_REUSEPORT 로 나눠 받는다면 억셉터 수와 같다.
+     */
+    public abstract int getListenSocketCount();
+
+    /**
+     * 새로 받은 연결을 센다.
+     *
+     * @return 연결 수가 maxConnections 를 넘어 거절했다면 false
+     */
+    protected boolean admit(final SocketWrapperBase<S> socketWrapper) {
+        final int count = connectionCount.incrementAndGet();
+        final int max = maxConnections;
+        if (max > 0 && count > max) {
+            log.debug("Connection rejected, {} connections exceed maxConnections {}", count, max);
+            reject(socketWrapper);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 연결 처리를 워커 스레드에게 맡긴다. 큐 대기 시간 정책이 있다면 워커가 꺼낼 때 대기 시간을 보고 거절할 수 있다.
+     *
+     * @return 워커 스레드 풀이 가득 차 거절되었다면 false. 이때 호출한 쪽에서 {@link #reject(SocketWrapperBase)} 한다.
+     */
+    protected boolean processSocket(final SocketWrapperBase<S> socketWrapper) {
+        final Runnable socketProcessor = createSocketProcessor(socketWrapper);
+        final CoDelPolicy policy = queueDelayPolicy;
+        try {
+            if (policy == null) {
+                executor.execute(socketProcessor);
+                return true;
+            }
+            final long queuedAt = System.nanoTime();
+            executor.execute(() -> {
+                if (policy.shouldShed(System.nanoTime() - queuedAt)) {
+                    reject(socketWrapper);
+                    return;
+                }
+                socketProcessor.run();
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // 스레드와 대기 큐가 모두 가득 찼다면 더 기다리게 하지 않고 연결을 바로 끊는다.
+            if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+                log.warn("Connection rejected, thread pool is exhausted. {}", threadPoolExecutor.getStats());
+            } else {
+                log.warn("Connection rejected. {}", e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 요청을 읽지 않고 미리 인코딩한 과부하 응답을 보낸 뒤 닫는다.
+     * 응답 뒤에 FIN 을 먼저 보내고 이미 도착한 요청 바이트를 읽어 버려, 닫을 때 RST 로 응답이 지워지지 않게 한다.
+     */
+    protected void reject(final SocketWrapperBase<S> socketWrapper) {
+        rejectedCount.increment();
+        final byte[] response = overloadResponse;
+        try {
+            if (response != null) {
+                socketWrapper.write(ByteBuffer.wrap(response));
+                socketWrapper.flush();
+                socketWrapper.shutdownOutput();
+                socketWrapper.discardInput();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to send overload response: {}", e.getMessage());
+        } finally {
+            closeSocket(socketWrapper);
+        }
+    }
+
+    /**
+     * 핸들러가 연결에 붙여 둔 자원을 돌려받고 연결을 닫는다. 여러 번 불러도 한 번만 닫는다.
+     */
+    protected void closeSocket(final SocketWrapperBase<S> socketWrapper) {
+        if (!socketWrapper.markClosing()) {
+            return;
+        }
+        try {
+            handler.release(socketWrapper);
+        } finally {
+            socketWrapper.close();
+            connectionCount.decrementAndGet();
+        }
+    }
+
+    protected abstract Runnable createSocketProcessor(SocketWrapperBase<S> socketWrapper);
+
+    /**
+     * 리슨 소켓을 몇 개 열지 정한다. SO_REUSEPORT 를 쓰면 억셉터마다 같은 포트에 소켓을 하나씩 열어 커널이 새 연결을
+     * 나눠 주고, 아니면 모든 억셉터가 소켓 하나에서 번갈아 받는다.
+     *
+     * @param supportedOptions 리슨 소켓이 지원하는 옵션
+     */
+    protected int getListenerCount(final Set<SocketOption<?>> supportedOptions) {
+        if (!reusePort || acceptorThreadCount == 1) {
+            return 1;
+        }
+        if (!supportedOptions.contains(StandardSocketOptions.SO_REUSEPORT)) {
+            log.warn("SO_REUSEPORT is not supported, {} acceptors share one listen socket", acceptorThreadCount);
+            return 1;
+        }
+        return acceptorThreadCount;
+    }
+
+    protected Handler getHandler() {
+        return handler;
+    }
+
+    protected int getPort() {
+        return port;
+    }
+
+    protected int getAcceptCount() {
+        return acceptCount;
+    }
+
+    public int getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(final int connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public int getAcceptorThreadCount() {
+        return acceptorThreadCount;
+    }
+
+    /**
+     * 연결을 받는 스레드 수. 재배포 뒤처럼 연결이 한꺼번에 몰릴 때 한 스레드가 병목이 되지 않게 늘린다.
+     */
+    public void setAcceptorThreadCount(final int acceptorThreadCount) {
+        if (acceptorThreadCount < 1) {
+            throw new IllegalArgumentException("Invalid acceptor thread count: " + acceptorThreadCount);
+        }
+        this.acceptorThreadCount = acceptorThreadCount;
+    }
+
+    public boolean isReusePort() {
+        return reusePort;
+    }
+
+    /**
+     * 억셉터마다 SO_REUSEPORT 로 같은 포트에 리슨 소켓을 따로 연다. {@link #bind()} 전에 정한다.
+     */
+    public void setReusePort(final boolean reusePort) {
+        this.reusePort = reusePort;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * 동시에 열어 둘 연결 수. 넘으면 새 연결은 과부하 응답으로 거절한다. 0 이하면 제한하지 않는다.
+     */
+    public void setMaxConnections(final int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * 과부하로 거절한 연결에 보낼 응답 바이트. 없으면 보내지 않고 닫는다.
+     */
+    public void setOverloadResponse(final byte[] overloadResponse) {
+        this.overloadResponse = overloadResponse;
+    }
+
+    /**
+     * 워커 스레드 풀의 큐 대기 시간으로 연결을 거절하는 정책. 없으면 대기 시간을 보지 않는다.
+     */
+    public void setQueueDelayPolicy(final CoDelPolicy queueDelayPolicy) {
+        this.queueDelayPolicy = queueDelayPolicy;
+    }
+
+    /**
+     * 지금 열려 있는 연결 수.
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * 과부하로 거절한 연결 수.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+}
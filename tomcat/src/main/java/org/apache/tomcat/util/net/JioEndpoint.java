@@ -0,0 +1,124 @@
+package org.apache.tomcat.util.net;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.util.concurrent.Executor;
+
+/**
+ * 연결마다 워커 스레드 하나가 블로킹 {@link Socket} 을 읽고 쓰는 엔드포인트.
+ */
+public class JioEndpoint extends AbstractEndpoint<Socket> {
+
+    private static final Logger log = LoggerFactory.getLogger(JioEndpoint.class);
+
+    private ServerSocket[] serverSockets;
+
+    public JioEndpoint(final int port, final int acceptCount, final Executor executor, final Handler handler) {
+        super(port, acceptCount, executor, handler);
+    }
+
+    /**
+     * 리슨 소켓 중 하나라도 묶지 못하면 앞서 연 소켓을 모두 닫고 던진다.
+     */
+    @Override
+    public void bind() throws IOException {
+        final var first = new ServerSocket();
+        serverSockets = new ServerSocket[getListenerCount(first.supportedOptions())];
+        serverSockets[0] = first;
+        try {
+            bind(first, getPort());
+            // 포트를 0 으로 주었다면 처음 소켓이 받은 포트에 나머지를 묶는다.
+            for (int i = 1; i < serverSockets.length; i++) {
+                serverSockets[i] = new ServerSocket();
+                bind(serverSockets[i], first.getLocalPort());
+            }
+        } catch (IOException | RuntimeException e) {
+            closeServerSockets();
+            serverSockets = null;
+            throw e;
+        }
+    }
+
+    private void bind(final ServerSocket serverSocket, final int port) throws IOException {
+        if (serverSockets.length > 1) {
+            serverSocket.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+        }
+        serverSocket.bind(new InetSocketAddress(port), getAcceptCount());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < getAcceptorThreadCount(); i++) {
+            final ServerSocket serverSocket = serverSockets[i % serverSockets.length];
+            final var thread = new Thread(() -> accept(serverSocket), "http-jio-acceptor-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void accept(final ServerSocket serverSocket) {
+        // 클라이언트가 연결될때까지 대기한다.
+        while (running) {
+            try {
+                final Socket socket = serverSocket.accept();
+                final var socketWrapper = new JioSocketWrapper(socket);
+                socketWrapper.setReadTimeout(getConnectionTimeout());
+                if (admit(socketWrapper) && !processSocket(socketWrapper)) {
+                    reject(socketWrapper);
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.error(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected Runnable createSocketProcessor(final SocketWrapperBase<Socket> socketWrapper) {
+        return () -> {
+            // 블로킹 소켓은 프로세서가 연결이 끝날 때까지 붙잡고 있으므로 돌아오면 항상 닫는다.
+            getHandler().process(socketWrapper);
+            closeSocket(socketWrapper);
+        };
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        closeServerSockets();
+    }
+
+    private void closeServerSockets() {
+        if (serverSockets == null) {
+            return;
+        }
+        for (final ServerSocket serverSocket : serverSockets) {
+            if (serverSocket == null) {
+                continue;
+            }
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public int getLocalPort() {
+        return serverSockets[0].getLocalPort();
+    }
+
+    @Override
+    public int getListenSocketCount() {
+        return serverSockets == null ? 0 : serverSockets.length;
+    }
+}
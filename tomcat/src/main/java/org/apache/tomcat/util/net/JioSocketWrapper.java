@@ -0,0 +1,150 @@
+package org.apache.tomcat.util.net;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class JioSocketWrapper extends SocketWrapperBase<Socket> {
+
+    private static final Logger log = LoggerFactory.getLogger(JioSocketWrapper.class);
+
+    private static final long MAP_CHUNK_SIZE = 4L * 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private InputStream inputStream;
+    private OutputStream outputStream;
+    private int appliedReadTimeout = -1;
+    private byte[] copyBuffer;
+
+    public JioSocketWrapper(final Socket socket) {
+        super(socket);
+    }
+
+    @Override
+    public int read(final boolean block, final ByteBuffer to) throws IOException {
+        applyReadTimeout();
+        final int read;
+        if (to.hasArray()) {
+            read = inputStream().read(to.array(), to.arrayOffset() + to.position(), to.remaining());
+            if (read > 0) {
+                to.position(to.position() + read);
+            }
+        } else {
+            final var bytes = new byte[to.remaining()];
+            read = inputStream().read(bytes);
+            if (read > 0) {
+                to.put(bytes, 0, read);
+            }
+        }
+        if (read > 0) {
+            access();
+        }
+        return read;
+    }
+
+    private void applyReadTimeout() throws IOException {
+        final int readTimeout = Math.max(getReadTimeout(), 0);
+        if (readTimeout != appliedReadTimeout) {
+            getSocket().setSoTimeout(readTimeout);
+            appliedReadTimeout = readTimeout;
+        }
+    }
+
+    @Override
+    public void write(final ByteBuffer from) throws IOException {
+        if (from.hasArray()) {
+            outputStream().write(from.array(), from.arrayOffset() + from.position(), from.remaining());
+            from.position(from.limit());
+        } else {
+            final var bytes = new byte[from.remaining()];
+            from.get(bytes);
+            outputStream().write(bytes);
+        }
+    }
+
+    /**
+     * 블로킹 소켓 스트림은 채널이 없어 sendfile 을 쓸 수 없다.
+     * 대신 파일을 메모리에 매핑해 읽기 버퍼를 거치지 않고 청크 단위로 소켓에 복사한다.
+     */
+    @Override
+    public void sendFile(final FileChannel file, final long position, final long count) throws IOException {
+        if (copyBuffer == null) {
+            copyBuffer = new byte[COPY_BUFFER_SIZE];
+        }
+        long offset = 0;
+        while (offset < count) {
+            final long mapSize = Math.min(MAP_CHUNK_SIZE, count - offset);
+            // 파일 끝을 넘는 매핑을 건드리면 SIGBUS 로 InternalError 가 나므로 매핑하기 전에 크기를 본다.
+            if (position + offset + mapSize > file.size()) {
+                throw new EOFException("File truncated while sending, " + (count - offset) + " bytes missing");
+            }
+            final MappedByteBuffer mapped = file.map(FileChannel.MapMode.READ_ONLY, position + offset, mapSize);
+            while (mapped.hasRemaining()) {
+                final int length = Math.min(copyBuffer.length, mapped.remaining());
+                mapped.get(copyBuffer, 0, length);
+                outputStream().write(copyBuffer, 0, length);
+            }
+            offset += mapSize;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        outputStream().flush();
+    }
+
+    private InputStream inputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = getSocket().getInputStream();
+        }
+        return inputStream;
+    }
+
+    private OutputStream outputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = getSocket().getOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public void shutdownOutput() throws IOException {
+        getSocket().shutdownOutput();
+    }
+
+    @Override
+    public void discardInput() throws IOException {
+        final InputStream in = inputStream();
+        int available;
+        while ((available = in.available()) > 0) {
+            in.skipNBytes(available);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            getSocket().close();
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return getSocket().isClosed();
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return String.valueOf(getSocket().getInetAddress());
+    }
+}
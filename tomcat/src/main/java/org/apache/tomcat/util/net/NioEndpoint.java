@@ -0,0 +1,283 @@
+package org.apache.tomcat.util.net;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link Selector} 기반의 이벤트 루프(폴러)가 연결을 지켜보다가 읽을 데이터가 도착하면
+ * 그때만 워커 스레드에게 넘기는 엔드포인트. 처리할 데이터가 없는 연결은 스레드를 차지하지 않는다.
+ */
+public class NioEndpoint extends AbstractEndpoint<SocketChannel> {
+
+    private static final Logger log = LoggerFactory.getLogger(NioEndpoint.class);
+
+    private static final long SELECTOR_TIMEOUT_MILLIS = 1_000L;
+
+    private final NioSelectorPool selectorPool = new NioSelectorPool();
+    private int pollerThreadCount = Runtime.getRuntime().availableProcessors();
+    private ServerSocketChannel[] serverSocketChannels;
+    private Poller[] pollers;
+
+    public NioEndpoint(final int port, final int acceptCount, final Executor executor, final Handler handler) {
+        super(port, acceptCount, executor, handler);
+    }
+
+    /**
+     * 리슨 소켓 중 하나라도 묶지 못하면 앞서 연 소켓을 모두 닫고 던진다.
+     */
+    @Override
+    public void bind() throws IOException {
+        final var first = ServerSocketChannel.open();
+        serverSocketChannels = new ServerSocketChannel[getListenerCount(first.supportedOptions())];
+        serverSocketChannels[0] = first;
+        try {
+            bind(first, getPort());
+            // 포트를 0 으로 주었다면 처음 소켓이 받은 포트에 나머지를 묶는다.
+            for (int i = 1; i < serverSocketChannels.length; i++) {
+                serverSocketChannels[i] = ServerSocketChannel.open();
+                bind(serverSocketChannels[i], first.socket().getLocalPort());
+            }
+        } catch (IOException | RuntimeException e) {
+            closeServerSocketChannels();
+            serverSocketChannels = null;
+            throw e;
+        }
+    }
+
+    private void bind(final ServerSocketChannel serverSocketChannel, final int port) throws IOException {
+        if (serverSocketChannels.length > 1) {
+            serverSocketChannel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+        }
+        serverSocketChannel.bind(new InetSocketAddress(port), getAcceptCount());
+        // 연결 수락은 전용 스레드가 블로킹으로 기다린다.
+        serverSocketChannel.configureBlocking(true);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        pollers = new Poller[pollerThreadCount];
+        for (int i = 0; i < pollerThreadCount; i++) {
+            pollers[i] = new Poller();
+            final var pollerThread = new Thread(pollers[i], "http-nio-poller-" + i);
+            pollerThread.setDaemon(true);
+            pollerThread.start();
+        }
+        for (int i = 0; i < getAcceptorThreadCount(); i++) {
+            final ServerSocketChannel serverSocketChannel = serverSocketChannels[i % serverSocketChannels.length];
+            final int firstPoller = i;
+            final var acceptorThread = new Thread(() -> accept(serverSocketChannel, firstPoller),
+                    "http-nio-acceptor-" + i);
+            acceptorThread.setDaemon(true);
+            acceptorThread.start();
+        }
+    }
+
+    /**
+     * @param firstPoller 억셉터마다 다른 폴러부터 나눠 주어 처음 연결이 한 폴러에 몰리지 않게 한다.
+     */
+    private void accept(final ServerSocketChannel serverSocketChannel, final int firstPoller) {
+        int next = firstPoller;
+        while (running) {
+            try {
+                final SocketChannel socket = serverSocketChannel.accept();
+                socket.configureBlocking(false);
+                socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                final Poller poller = pollers[Math.floorMod(next++, pollers.length)];
+                final var socketWrapper = new NioSocketWrapper(socket, poller, selectorPool);
+                socketWrapper.setReadTimeout(getConnectionTimeout());
+                socketWrapper.setWriteTimeout(getConnectionTimeout());
+                if (admit(socketWrapper)) {
+                    poller.register(socketWrapper);
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.error(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected Runnable createSocketProcessor(final SocketWrapperBase<SocketChannel> socketWrapper) {
+        return () -> {
+            final SocketState state = getHandler().process(socketWrapper);
+            if (state == SocketState.OPEN && running) {
+                // 다음 데이터가 도착하면 다시 깨우도록 폴러에게 돌려준다.
+                ((NioSocketWrapper) socketWrapper).getPoller().register((NioSocketWrapper) socketWrapper);
+                return;
+            }
+            closeSocket(socketWrapper);
+        };
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        closeServerSocketChannels();
+        if (pollers != null) {
+            for (final Poller poller : pollers) {
+                poller.wakeup();
+            }
+        }
+        selectorPool.close();
+    }
+
+    private void closeServerSocketChannels() {
+        if (serverSocketChannels == null) {
+            return;
+        }
+        for (final ServerSocketChannel serverSocketChannel : serverSocketChannels) {
+            if (serverSocketChannel == null) {
+                continue;
+            }
+            try {
+                serverSocketChannel.close();
+            } catch (IOException e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public int getLocalPort() {
+        return serverSocketChannels[0].socket().getLocalPort();
+    }
+
+    @Override
+    public int getListenSocketCount() {
+        return serverSocketChannels == null ? 0 : serverSocketChannels.length;
+    }
+
+    public int getPollerThreadCount() {
+        return pollerThreadCount;
+    }
+
+    public void setPollerThreadCount(final int pollerThreadCount) {
+        this.pollerThreadCount = pollerThreadCount;
+    }
+
+    /**
+     * 셀렉터 하나를 돌리는 이벤트 루프. 읽을 수 있게 된 연결을 워커에게 넘기고,
+     * 워커가 돌려준 연결은 다시 읽기 이벤트를 기다리도록 등록한다.
+     */
+    public class Poller implements Runnable {
+
+        private final Selector selector;
+        private final Queue<NioSocketWrapper> events = new ConcurrentLinkedQueue<>();
+        private long nextTimeoutCheck = System.currentTimeMillis() + SELECTOR_TIMEOUT_MILLIS;
+
+        Poller() {
+            try {
+                this.selector = Selector.open();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * 셀렉터 등록은 폴러 스레드에서만 하도록 큐에 넣고 깨운다.
+         */
+        public void register(final NioSocketWrapper socketWrapper) {
+            socketWrapper.access();
+            events.offer(socketWrapper);
+            selector.wakeup();
+        }
+
+        void wakeup() {
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    registerEvents();
+                    selector.select(SELECTOR_TIMEOUT_MILLIS);
+                    dispatchSelectedKeys();
+                    closeTimedOutSockets();
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                log.error(e.getMessage(), e);
+            } finally {
+                closeAll();
+            }
+        }
+
+        private void registerEvents() {
+            NioSocketWrapper socketWrapper;
+            while ((socketWrapper = events.poll()) != null) {
+                final SocketChannel channel = socketWrapper.getSocket();
+                try {
+                    final SelectionKey key = channel.keyFor(selector);
+                    if (key == null) {
+                        channel.register(selector, SelectionKey.OP_READ, socketWrapper);
+                    } else {
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    closeSocket(socketWrapper);
+                }
+            }
+        }
+
+        private void dispatchSelectedKeys() {
+            final Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext()) {
+                final SelectionKey key = iterator.next();
+                iterator.remove();
+                final var socketWrapper = (NioSocketWrapper) key.attachment();
+                if (!key.isValid()) {
+                    closeSocket(socketWrapper);
+                    continue;
+                }
+                // 워커가 처리하는 동안에는 같은 연결로 이벤트가 또 발생하지 않도록 관심 이벤트를 끈다.
+                key.interestOps(0);
+                if (!processSocket(socketWrapper)) {
+                    reject(socketWrapper);
+                }
+            }
+        }
+
+        private void closeTimedOutSockets() {
+            final long now = System.currentTimeMillis();
+            if (now < nextTimeoutCheck) {
+                return;
+            }
+            nextTimeoutCheck = now + SELECTOR_TIMEOUT_MILLIS;
+            for (final SelectionKey key : selector.keys()) {
+                final var socketWrapper = (NioSocketWrapper) key.attachment();
+                final boolean waitingForRead = key.isValid() && key.interestOps() == SelectionKey.OP_READ;
+                final int timeout = socketWrapper.getReadTimeout();
+                if (waitingForRead && timeout > 0 && now - socketWrapper.getLastAccess() > timeout) {
+                    closeSocket(socketWrapper);
+                }
+            }
+        }
+
+        private void closeAll() {
+            // 워커가 아직 처리 중인 연결도 있으므로 프로세서의 버퍼는 돌려받지 않고 닫기만 한다.
+            for (final SelectionKey key : selector.keys()) {
+                ((NioSocketWrapper) key.attachment()).close();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+    }
+}
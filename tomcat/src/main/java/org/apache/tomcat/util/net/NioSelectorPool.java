@@ -0,0 +1,56 @@
+package org.apache.tomcat.util.net;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 워커 스레드가 논블로킹 채널을 블로킹처럼 읽고 쓸 때 사용하는 임시 셀렉터 풀.
+ * 폴러의 셀렉터는 건드리지 않고, 채널을 임시 셀렉터에 잠깐 등록해 읽기/쓰기 가능해질 때까지 기다린다.
+ * 가상 스레드마다 셀렉터가 생기지 않도록 ThreadLocal 대신 공유 큐를 사용한다.
+ */
+public class NioSelectorPool {
+
+    private final Queue<Selector> selectors = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @return 타임아웃 전에 채널이 준비되었다면 true
+     */
+    public boolean await(final SelectableChannel channel, final int interestOps, final int timeoutMillis)
+            throws IOException {
+        final Selector selector = borrow();
+        SelectionKey key = null;
+        try {
+            key = channel.register(selector, interestOps);
+            return selector.select(Math.max(timeoutMillis, 0)) > 0;
+        } finally {
+            if (key != null) {
+                key.cancel();
+                selector.selectNow();
+            }
+            selectors.offer(selector);
+        }
+    }
+
+    private Selector borrow() throws IOException {
+        final Selector selector = selectors.poll();
+        if (selector != null) {
+            return selector;
+        }
+        return Selector.open();
+    }
+
+    public void close() {
+        Selector selector;
+        while ((selector = selectors.poll()) != null) {
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // 종료 중이므로 무시한다.
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.apache.tomcat.util.net;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+public class NioSocketWrapper extends SocketWrapperBase<SocketChannel> {
+
+    private static final Logger log = LoggerFactory.getLogger(NioSocketWrapper.class);
+
+    private static final int DISCARD_BUFFER_SIZE = 1024;
+
+    private final NioEndpoint.Poller poller;
+    private final NioSelectorPool selectorPool;
+
+    public NioSocketWrapper(final SocketChannel socket,
+                            final NioEndpoint.Poller poller,
+                            final NioSelectorPool selectorPool) {
+        super(socket);
+        this.poller = poller;
+        this.selectorPool = selectorPool;
+    }
+
+    public NioEndpoint.Poller getPoller() {
+        return poller;
+    }
+
+    @Override
+    public int read(final boolean block, final ByteBuffer to) throws IOException {
+        int read = getSocket().read(to);
+        while (read == 0 && block) {
+            if (!selectorPool.await(getSocket(), SelectionKey.OP_READ, getReadTimeout())) {
+                throw new SocketTimeoutException("Read timed out");
+            }
+            read = getSocket().read(to);
+        }
+        if (read > 0) {
+            access();
+        }
+        return read;
+    }
+
+    @Override
+    public void write(final ByteBuffer from) throws IOException {
+        while (from.hasRemaining()) {
+            if (getSocket().write(from) > 0) {
+                continue;
+            }
+            // 소켓 송신 버퍼가 가득 찼다면 쓸 수 있게 될 때까지 기다린다.
+            if (!selectorPool.await(getSocket(), SelectionKey.OP_WRITE, getWriteTimeout())) {
+                throw new SocketTimeoutException("Write timed out");
+            }
+        }
+    }
+
+    /**
+     * {@link FileChannel#transferTo} 로 커널 안에서 파일을 소켓으로 보낸다(sendfile).
+     */
+    @Override
+    public void sendFile(final FileChannel file, final long position, final long count) throws IOException {
+        long sent = 0;
+        while (sent < count) {
+            final long transferred = file.transferTo(position + sent, count - sent, getSocket());
+            if (transferred > 0) {
+                sent += transferred;
+                continue;
+            }
+            // 파일 끝을 지나면 소켓이 쓸 수 있어도 계속 0 을 돌려주므로, 기다리기 전에 파일이 줄었는지 본다.
+            if (position + sent >= file.size()) {
+                throw new EOFException("File truncated while sending, " + (count - sent) + " bytes missing");
+            }
+            if (!selectorPool.await(getSocket(), SelectionKey.OP_WRITE, getWriteTimeout())) {
+                throw new SocketTimeoutException("Write timed out");
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        // 채널에 직접 쓰므로 비울 버퍼가 없다.
+    }
+
+    @Override
+    public void shutdownOutput() throws IOException {
+        getSocket().shutdownOutput();
+    }
+
+    /**
+     * 논블로킹 채널이므로 더 읽을 것이 없으면 바로 돌아온다.
+     */
+    @Override
+    public void discardInput() throws IOException {
+        final var discard = ByteBuffer.allocate(DISCARD_BUFFER_SIZE);
+        while (getSocket().read(discard) > 0) {
+            discard.clear();
+        }
+    }
+
+    /**
+     * 채널은 힙 버퍼를 쓸 때 JDK 안의 임시 다이렉트 버퍼로 한 번 더 복사한다.
+     */
+    @Override
+    public boolean prefersDirectBuffer() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        try {
+            getSocket().close();
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !getSocket().isOpen();
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        try {
+            return String.valueOf(getSocket().getRemoteAddress());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.apache.tomcat.util.net;
+
+/**
+ * 프로세서가 연결을 처리한 뒤 엔드포인트에게 알려주는 연결 상태.
+ */
+public enum SocketState {
+
+    /**
+     * 연결을 유지한 채 다음 데이터가 도착하기를 기다린다.
+     */
+    OPEN,
+
+    /**
+     * 연결을 닫는다.
+     */
+    CLOSED
+}
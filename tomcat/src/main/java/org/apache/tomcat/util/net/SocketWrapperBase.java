@@ -0,0 +1,115 @@
+package org.apache.tomcat.util.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 엔드포인트의 소켓 종류(블로킹 {@link java.net.Socket}, 논블로킹 {@link java.nio.channels.SocketChannel})와
+ * 상관없이 프로세서가 같은 방식으로 읽고 쓸 수 있도록 감싼다.
+ *
+ * @param <E> 감싸고 있는 소켓의 타입
+ */
+public abstract class SocketWrapperBase<E> {
+
+    private final E socket;
+    private final AtomicBoolean closing = new AtomicBoolean();
+    private volatile Object currentProcessor;
+    private volatile long lastAccess = System.currentTimeMillis();
+    private volatile int readTimeout = -1;
+    private volatile int writeTimeout = -1;
+
+    protected SocketWrapperBase(final E socket) {
+        this.socket = socket;
+    }
+
+    public E getSocket() {
+        return socket;
+    }
+
+    /**
+     * 소켓에서 읽어 버퍼를 채운다.
+     *
+     * @param block 읽을 데이터가 없을 때 도착할 때까지 기다릴지 여부. 블로킹 소켓은 항상 기다린다.
+     * @param to 읽은 데이터를 담을 버퍼
+     * @return 읽은 바이트 수. 논블로킹으로 읽을 데이터가 없으면 0, 연결이 끊어졌다면 -1
+     * @throws java.net.SocketTimeoutException 읽기 타임아웃이 지난 경우
+     */
+    public abstract int read(boolean block, ByteBuffer to) throws IOException;
+
+    /**
+     * 버퍼의 남은 데이터를 모두 쓸 때까지 기다린다.
+     */
+    public abstract void write(ByteBuffer from) throws IOException;
+
+    public abstract void flush() throws IOException;
+
+    /**
+     * 파일의 일부를 힙에 복사하지 않고 소켓으로 보낸다. 다 보낼 때까지 기다린다.
+     */
+    public abstract void sendFile(FileChannel file, long position, long count) throws IOException;
+
+    public abstract void close();
+
+    /**
+     * 응답을 다 보냈음(FIN)을 먼저 알린다. 읽기는 계속할 수 있다.
+     */
+    public abstract void shutdownOutput() throws IOException;
+
+    /**
+     * 이미 도착한 바이트를 기다리지 않고 읽어 버린다. 읽지 않은 바이트를 남긴 채 닫으면 RST 가 나가
+     * 클라이언트가 먼저 받은 응답까지 잃을 수 있다.
+     */
+    public abstract void discardInput() throws IOException;
+
+    /**
+     * @return 처음 부를 때만 true. 엔드포인트가 연결 하나를 한 번만 정리하도록 쓴다.
+     */
+    public boolean markClosing() {
+        return closing.compareAndSet(false, true);
+    }
+
+    /**
+     * 이 소켓에 쓸 버퍼를 다이렉트 버퍼로 만들지 여부. 힙 버퍼로 읽고 쓰면 복사가 한 번 더 생기는 소켓이 true 를 돌려준다.
+     */
+    public boolean prefersDirectBuffer() {
+        return false;
+    }
+
+    public abstract boolean isClosed();
+
+    public abstract String getRemoteAddr();
+
+    public Object getCurrentProcessor() {
+        return currentProcessor;
+    }
+
+    public void setCurrentProcessor(final Object currentProcessor) {
+        this.currentProcessor = currentProcessor;
+    }
+
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    public void access() {
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(final int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public int getWriteTimeout() {
+        return writeTimeout;
+    }
+
+    public void setWriteTimeout(final int writeTimeout) {
+        this.writeTimeout = writeTimeout;
+    }
+}
@@ -0,0 +1,85 @@
+package org.apache.tomcat.util.threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 작업이 워커 스레드 풀의 큐에서 기다린 시간을 보고 과부하를 알아채는 CoDel 방식의 정책.
+ * <p>
+ * 인터벌마다 가장 짧았던 대기 시간을 본다. 가장 짧은 대기마저 목표를 넘었다면 잠깐 몰린 것이 아니라 큐가 계속 밀려 있는
+ * 것이므로, 다음 인터벌 동안은 목표보다 오래 기다린 작업을 버린다. 밀려 있지 않을 때는 인터벌보다 오래 기다린 작업만 버린다.
+ * 버린 작업에는 바로 실패를 알려 주므로, 살아남은 작업의 대기 시간은 목표 근처에 묶인다.
+ */
+public class CoDelPolicy {
+
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final AtomicLong minDelay = new AtomicLong(Long.MAX_VALUE);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder shedCount = new LongAdder();
+    private volatile long intervalEnd;
+    private volatile boolean overloaded;
+
+    public CoDelPolicy(final long target, final long interval, final TimeUnit unit) {
+        if (target <= 0 || interval < target) {
+            throw new IllegalArgumentException("Invalid queue delay target: " + target + ", interval: " + interval);
+        }
+        this.targetNanos = unit.toNanos(target);
+        this.intervalNanos = unit.toNanos(interval);
+        this.intervalEnd = System.nanoTime() + intervalNanos;
+    }
+
+    /**
+     * @param queueDelayNanos 작업이 큐에서 기다린 시간
+     * @return 작업을 처리하지 않고 버려야 하면 true
+     */
+    public boolean shouldShed(final long queueDelayNanos) {
+        return shouldShed(queueDelayNanos, System.nanoTime());
+    }
+
+    /**
+     * @param now 작업을 꺼낸 시각({@link System#nanoTime()})
+     */
+    public boolean shouldShed(final long queueDelayNanos, final long now) {
+        if (now - intervalEnd >= 0) {
+            nextInterval(now);
+        }
+        minDelay.accumulateAndGet(queueDelayNanos, Math::min);
+        final boolean shed = queueDelayNanos > (overloaded ? targetNanos : intervalNanos);
+        if (shed) {
+            shedCount.increment();
+        }
+        return shed;
+    }
+
+    private void nextInterval(final long now) {
+        // 인터벌을 넘기는 일은 한 스레드만 하면 된다.
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            if (now - intervalEnd < 0) {
+                return;
+            }
+            // 인터벌 동안 작업이 없었다면 최솟값은 MAX_VALUE 로 남지만, 밀려 있던 것은 아니다.
+            final long min = minDelay.getAndSet(Long.MAX_VALUE);
+            overloaded = min != Long.MAX_VALUE && min > targetNanos;
+            intervalEnd = now + intervalNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 지난 인터벌 내내 대기 시간이 목표를 넘었는지.
+     */
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    public long getShedCount() {
+        return shedCount.sum();
+    }
+}
@@ -0,0 +1,39 @@
+package org.apache.tomcat.util.threads;
+
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 작업 큐. {@link java.util.concurrent.ThreadPoolExecutor} 는 큐가 가득 차야만 core 이상으로 스레드를 늘리기 때문에,
+ * 놀고 있는 스레드가 없으면 큐에 넣기 전에 먼저 스레드를 maxThreads 까지 늘리도록 offer 를 조정한다.
+ */
+public class TaskQueue extends LinkedBlockingQueue<Runnable> {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient volatile ThreadPoolExecutor parent;
+
+    public TaskQueue(final int capacity) {
+        super(capacity);
+    }
+
+    public void setParent(final ThreadPoolExecutor parent) {
+        this.parent = parent;
+    }
+
+    @Override
+    public boolean offer(final Runnable runnable) {
+        if (parent == null) {
+            return super.offer(runnable);
+        }
+        final int poolSize = parent.getPoolSize();
+        if (poolSize >= parent.getMaximumPoolSize()) {
+            return super.offer(runnable);
+        }
+        // 놀고 있는 스레드가 있다면 큐에 넣어 바로 가져가게 한다.
+        if (parent.getSubmittedCount() <= poolSize) {
+            return super.offer(runnable);
+        }
+        // false 를 반환하면 executor 가 새 스레드를 만든다.
+        return false;
+    }
+}
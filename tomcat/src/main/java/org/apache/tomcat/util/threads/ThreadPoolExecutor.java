@@ -0,0 +1,77 @@
+package org.apache.tomcat.util.threads;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 스레드 수와 대기 큐의 크기가 모두 제한된 스레드 풀.
+ * 스레드가 maxThreads 까지 늘어난 뒤에만 큐에 쌓고, 큐마저 가득 차면 {@link RejectedExecutionException} 을 던진다.
+ */
+public class ThreadPoolExecutor extends java.util.concurrent.ThreadPoolExecutor {
+
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private final AtomicInteger submittedCount = new AtomicInteger(0);
+    private final LongAdder rejectedCount = new LongAdder();
+    private final int queueCapacity;
+
+    /**
+     * 큐를 풀에 연결하고 core 스레드를 미리 띄운 풀을 만든다.
+     * 생성자에서 {@code this} 를 큐에 넘기지 않도록, 다 만든 뒤에 연결한다.
+     */
+    public static ThreadPoolExecutor create(final int minSpareThreads,
+                                            final int maxThreads,
+                                            final int maxQueueSize,
+                                            final ThreadFactory threadFactory) {
+        final var taskQueue = new TaskQueue(maxQueueSize);
+        final var executor = new ThreadPoolExecutor(minSpareThreads, maxThreads, taskQueue, threadFactory, maxQueueSize);
+        taskQueue.setParent(executor);
+        executor.prestartAllCoreThreads();
+        return executor;
+    }
+
+    private ThreadPoolExecutor(final int minSpareThreads,
+                               final int maxThreads,
+                               final TaskQueue taskQueue,
+                               final ThreadFactory threadFactory,
+                               final int queueCapacity) {
+        super(minSpareThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, taskQueue, threadFactory);
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        submittedCount.incrementAndGet();
+        try {
+            super.execute(command);
+        } catch (RejectedExecutionException e) {
+            submittedCount.decrementAndGet();
+            rejectedCount.increment();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void afterExecute(final Runnable runnable, final Throwable throwable) {
+        submittedCount.decrementAndGet();
+    }
+
+    public int getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    public ThreadPoolStats getStats() {
+        return new ThreadPoolStats(
+                getPoolSize(),
+                getActiveCount(),
+                getLargestPoolSize(),
+                getMaximumPoolSize(),
+                getQueue().size(),
+                queueCapacity,
+                getCompletedTaskCount(),
+                rejectedCount.sum());
+    }
+}
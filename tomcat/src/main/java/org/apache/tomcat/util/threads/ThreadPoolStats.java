@@ -0,0 +1,25 @@
+package org.apache.tomcat.util.threads;
+
+/**
+ * 스레드 풀 사용률 스냅샷. 풀 크기를 정할 때 참고한다.
+ */
+public record ThreadPoolStats(int poolSize,
+                              int activeCount,
+                              int largestPoolSize,
+                              int maxThreads,
+                              int queueSize,
+                              int queueCapacity,
+                              long completedTaskCount,
+                              long rejectedCount) {
+
+    public double utilization() {
+        return (double) activeCount / maxThreads;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d/%d (%.0f%%), pool=%d, largest=%d, queue=%d/%d, completed=%d, rejected=%d",
+                activeCount, maxThreads, utilization() * 100, poolSize, largestPoolSize,
+                queueSize, queueCapacity, completedTaskCount, rejectedCount);
+    }
+}
@@ -0,0 +1,144 @@
+package org.apache.catalina.annotation;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * {@code @RequestMapping} 이 붙은 핸들러를 모아 {@code META-INF/catalina/handlers.idx} 를 만든다.
+ * 형식은 {@code org.apache.catalina.startup.HandlerIndex} 가 읽는 {@code 메서드 경로 클래스} 줄이다.
+ * <p>
+ * 런타임 클래스에 의존하지 않도록 애너테이션과 {@code Handler} 는 이름으로만 찾는다.
+ * 등록할 수 없는 클래스는 컴파일 오류로 알린다.
+ */
+@SupportedAnnotationTypes(HandlerIndexProcessor.REQUEST_MAPPING)
+public class HandlerIndexProcessor extends AbstractProcessor {
+
+    static final String REQUEST_MAPPING = "org.apache.catalina.annotation.RequestMapping";
+    private static final String HANDLER = "org.apache.catalina.Handler";
+    private static final String RESOURCE = "META-INF/catalina/handlers.idx";
+
+    private final TreeSet<String> entries = new TreeSet<>();
+    private final List<Element> originatingElements = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        final TypeElement annotation = processingEnv.getElementUtils().getTypeElement(REQUEST_MAPPING);
+        if (annotation == null) {
+            return false;
+        }
+        for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element instanceof TypeElement type && isValid(type)) {
+                addEntries(type);
+            }
+        }
+        return true;
+    }
+
+    private boolean isValid(final TypeElement type) {
+        final var messager = processingEnv.getMessager();
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)
+                || !type.getModifiers().contains(Modifier.PUBLIC)
+                || (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC))) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "@RequestMapping requires a public concrete top-level or static nested class", type);
+            return false;
+        }
+        final TypeElement handler = processingEnv.getElementUtils().getTypeElement(HANDLER);
+        if (handler == null || !processingEnv.getTypeUtils().isAssignable(type.asType(), handler.asType())) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@RequestMapping class must implement " + HANDLER, type);
+            return false;
+        }
+        final boolean hasDefaultConstructor = ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .anyMatch(constructor -> constructor.getParameters().isEmpty()
+                        && constructor.getModifiers().contains(Modifier.PUBLIC));
+        if (!hasDefaultConstructor) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "@RequestMapping class requires a public no-arg constructor", type);
+            return false;
+        }
+        return true;
+    }
+
+    private void addEntries(final TypeElement type) {
+        final String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String path = null;
+        List<String> methods = List.of("GET");
+        for (final AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName()
+                    .contentEquals(REQUEST_MAPPING)) {
+                continue;
+            }
+            for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                    : mirror.getElementValues().entrySet()) {
+                final String name = value.getKey().getSimpleName().toString();
+                if (name.equals("value")) {
+                    path = (String) value.getValue().getValue();
+                } else if (name.equals("method")) {
+                    @SuppressWarnings("unchecked")
+                    final var list = (List<? extends AnnotationValue>) value.getValue().getValue();
+                    methods = list.stream().map(method -> (String) method.getValue()).toList();
+                }
+            }
+        }
+        if (path == null || !path.startsWith("/") || path.indexOf(' ') >= 0) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Invalid @RequestMapping path: " + path, type);
+            return;
+        }
+        for (final String method : methods) {
+            entries.add(method + " " + path + " " + className);
+        }
+        originatingElements.add(type);
+    }
+
+    private void writeIndex() {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            final var resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    RESOURCE, originatingElements.toArray(Element[]::new));
+            try (final Writer writer = new OutputStreamWriter(resource.openOutputStream(),
+                    StandardCharsets.UTF_8)) {
+                writer.write("# Generated by " + HandlerIndexProcessor.class.getName() + "\n");
+                for (final String entry : entries) {
+                    writer.write(entry);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + RESOURCE + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package nextstep.camp.nextstep.db;
+
+import camp.nextstep.db.UserStore;
+import camp.nextstep.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversSavedUsersFromLog() throws IOException {
+        // given
+        final var store = UserStore.open(directory);
+        store.save(new User(1L, "gugu", "password", "hkkang@woowahan.com"));
+        store.save(new User("brown", "secret", "brown@woowahan.com"));
+        store.close();
+
+        // when
+        final var restarted = UserStore.open(directory);
+        final var gugu = restarted.findByAccount("gugu").orElseThrow();
+        final var brown = restarted.findByAccount("brown").orElseThrow();
+        restarted.close();
+
+        // then
+        assertThat(gugu.getId()).isEqualTo(1L);
+        assertThat(gugu.checkPassword("password")).isTrue();
+        assertThat(brown.getId()).isNull();
+        assertThat(brown.getEmail()).isEqualTo("brown@woowahan.com");
+    }
+
+    @Test
+    void recoversFromSnapshotAndLogTail() throws IOException {
+        // given
+        final var store = UserStore.open(directory, 10);
+        for (int i = 0; i < 25; i++) {
+            store.save(new User("user" + i, "password", i + "@woowahan.com"));
+        }
+        store.save(new User("user0", "changed", "0@woowahan.com"));
+        store.snapshot();
+        store.save(new User("user1", "changed", "1@woowahan.com"));
+        store.close();
+
+        // when
+        final var restarted = UserStore.open(directory, 10);
+        final int size = restarted.size();
+        final var user0 = restarted.findByAccount("user0").orElseThrow();
+        final var user1 = restarted.findByAccount("user1").orElseThrow();
+        restarted.close();
+
+        // then
+        assertThat(size).isEqualTo(25);
+        assertThat(user0.checkPassword("changed")).isTrue();
+        assertThat(user1.checkPassword("changed")).isTrue();
+        assertThat(segments()).hasSizeLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void truncatesTornTailOfLastSegment() throws IOException {
+        // given
+        final var store = UserStore.open(directory);
+        store.save(new User("gugu", "password", "hkkang@woowahan.com"));
+        store.close();
+        final Path segment = segments()[0];
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        // when
+        final var restarted = UserStore.open(directory);
+        restarted.save(new User("brown", "secret", "brown@woowahan.com"));
+        restarted.close();
+        final var again = UserStore.open(directory);
+        final int size = again.size();
+        again.close();
+
+        // then
+        assertThat(size).isEqualTo(2);
+    }
+
+    @Test
+    void failsFastWhenDirectoryIsAlreadyOpen() throws IOException {
+        // given
+        final var store = UserStore.open(directory);
+
+        // when & then
+        assertThatThrownBy(() -> UserStore.open(directory))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("already open");
+        store.close();
+        final var reopened = UserStore.open(directory);
+        reopened.close();
+    }
+
+    private Path[] segments() throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log"))
+                    .sorted()
+                    .toArray(Path[]::new);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package nextstep.camp.nextstep.db;
+
+import camp.nextstep.db.WriteAheadLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeSucceedsWhenRotationFailsAfterSync() throws IOException {
+        // given
+        final List<String> applied = new CopyOnWriteArrayList<>();
+        final var writeAheadLog = new WriteAheadLog<String>(directory, value -> value.getBytes(StandardCharsets.UTF_8),
+                applied::addAll, segment -> {}, 1);
+        writeAheadLog.open(0, data -> {});
+        // 열려 있는 세그먼트는 그대로 쓸 수 있지만 다음 세그먼트는 만들 수 없게 한다.
+        try (final Stream<Path> files = Files.list(directory)) {
+            for (final Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+
+        // when
+        writeAheadLog.append("gugu");
+
+        // then
+        assertThat(applied).containsExactly("gugu");
+        assertThatThrownBy(() -> writeAheadLog.append("brown")).isInstanceOf(IOException.class);
+        writeAheadLog.close();
+    }
+
+    @Test
+    void rotationListenerFailureDoesNotFailWrites() throws IOException {
+        // given
+        final List<String> applied = new CopyOnWriteArrayList<>();
+        final var writeAheadLog = new WriteAheadLog<String>(directory, value -> value.getBytes(StandardCharsets.UTF_8),
+                applied::addAll, segment -> {
+                    throw new IllegalStateException("snapshot rejected");
+                }, 1);
+        writeAheadLog.open(0, data -> {});
+
+        // when
+        writeAheadLog.append("gugu");
+        writeAheadLog.append("brown");
+        writeAheadLog.close();
+
+        // then
+        assertThat(applied).containsExactly("gugu", "brown");
+    }
+}
@@ -0,0 +1,106 @@
+package nextstep.org.apache.catalina.connector;
+
+import org.apache.catalina.connector.Connector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConnectorTest {
+
+    private static final byte[] REQUEST = "GET /thread HTTP/1.1\r\nHost: localhost\r\n\r\n"
+            .getBytes(StandardCharsets.ISO_8859_1);
+
+    private final List<Socket> sockets = new ArrayList<>();
+    private Connector connector;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (final Socket socket : sockets) {
+            socket.close();
+        }
+        if (connector != null) {
+            connector.stop();
+        }
+    }
+
+    @Test
+    void servesKeepAliveConnectionsBeyondMaxThreadsOnVirtualThreads() throws IOException {
+        // given
+        connector = new Connector(freePort(), 100);
+        connector.setUseVirtualThreads(true);
+        // 가상 스레드 모드에서는 쓰지 않는 설정이다. 플랫폼 풀이었다면 세 번째 연결부터 기다린다.
+        connector.setMaxThreads(2);
+        connector.getProtocol().getMapper().get("/thread", (request, response) -> {
+            response.setContentType("text/plain;charset=utf-8");
+            response.setBody(("virtual=" + Thread.currentThread().isVirtual()).getBytes(StandardCharsets.UTF_8));
+        });
+        connector.start();
+        for (int i = 0; i < 10; i++) {
+            final var socket = new Socket("localhost", connector.getLocalPort());
+            socket.setSoTimeout(5_000);
+            sockets.add(socket);
+            socket.getOutputStream().write(REQUEST);
+            assertThat(readResponse(socket.getInputStream())).endsWith("virtual=true");
+        }
+
+        // when
+        final List<String> responses = new ArrayList<>();
+        for (final Socket socket : sockets) {
+            socket.getOutputStream().write(REQUEST);
+            responses.add(readResponse(socket.getInputStream()));
+        }
+
+        // then
+        assertThat(responses).hasSize(10).allSatisfy(response -> assertThat(response)
+                .startsWith("HTTP/1.1 200 OK\r\n")
+                .endsWith("virtual=true"));
+        assertThat(connector.getConnectionCount()).isEqualTo(10);
+    }
+
+    @Test
+    void shutsDownWorkerThreadsWhenBindFails() throws IOException {
+        try (final var occupied = new ServerSocket(freePort())) {
+            // given
+            final var failing = new Connector(occupied.getLocalPort(), 100);
+
+            // when & then
+            assertThatThrownBy(failing::start).isInstanceOf(UncheckedIOException.class);
+            assertThat(Thread.getAllStackTraces().keySet())
+                    .noneMatch(thread -> thread.getName().startsWith("http-exec-") && thread.isAlive());
+            assertThatCode(failing::stop).doesNotThrowAnyException();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (final var serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+    }
+
+    private static String readResponse(final InputStream input) throws IOException {
+        final var head = new StringBuilder();
+        while (!head.toString().endsWith("\r\n\r\n")) {
+            final int read = input.read();
+            if (read < 0) {
+                break;
+            }
+            head.append((char) read);
+        }
+        final String response = head.toString();
+        final int start = response.indexOf("Content-Length: ") + "Content-Length: ".length();
+        final int length = Integer.parseInt(response.substring(start, response.indexOf("\r\n", start)));
+        return response + new String(input.readNBytes(length), StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,108 @@
+package nextstep.org.apache.catalina.mapper;
+
+import org.apache.catalina.Handler;
+import org.apache.catalina.mapper.Mapper;
+import org.apache.coyote.Request;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MapperTest {
+
+    private static final Handler LOGIN = (request, response) -> {};
+    private static final Handler LOGIN_FORM = (request, response) -> {};
+    private static final Handler USER = (request, response) -> {};
+    private static final Handler NEW_USER = (request, response) -> {};
+    private static final Handler USER_POSTS = (request, response) -> {};
+    private static final Handler STATIC = (request, response) -> {};
+
+    private final Mapper mapper = new Mapper()
+            .get("/login", LOGIN_FORM)
+            .post("/login", LOGIN)
+            .get("/users/new", NEW_USER)
+            .get("/users/{id}", USER)
+            .get("/users/{id}/posts/{postId}", USER_POSTS)
+            .get("/static/*", STATIC);
+
+    @Test
+    void dispatchesExactPathByMethod() {
+        // given
+        final var get = request("GET", "/login?next=/");
+        final var post = request("POST", "/login");
+        final var delete = request("DELETE", "/login");
+
+        // when
+        final var getRoute = mapper.map(get);
+        final var deleteRoute = mapper.map(delete);
+
+        // then
+        assertThat(getRoute.getHandler(get)).isSameAs(LOGIN_FORM);
+        assertThat(mapper.map(post).getHandler(post)).isSameAs(LOGIN);
+        assertThat(deleteRoute.getHandler(delete)).isNull();
+        assertThat(deleteRoute.getAllow()).isEqualTo("GET, POST, HEAD");
+        assertThat(mapper.map(request("GET", "/logins"))).isNull();
+    }
+
+    @Test
+    void fillsPathVariables() {
+        // given
+        final var request = request("GET", "/users/42/posts/7");
+
+        // when
+        final var route = mapper.map(request);
+
+        // then
+        assertThat(route.getHandler(request)).isSameAs(USER_POSTS);
+        assertThat(request.getPathVariable("id")).isEqualTo("42");
+        assertThat(request.getPathVariable("postId")).isEqualTo("7");
+    }
+
+    @Test
+    void fallsBackFromLiteralToVariable() {
+        // given
+        final var literal = request("GET", "/users/new");
+        final var variable = request("GET", "/users/newbie");
+
+        // when
+        final var literalRoute = mapper.map(literal);
+        final var variableRoute = mapper.map(variable);
+
+        // then
+        assertThat(literalRoute.getHandler(literal)).isSameAs(NEW_USER);
+        assertThat(variableRoute.getHandler(variable)).isSameAs(USER);
+        assertThat(variable.getPathVariable("id")).isEqualTo("newbie");
+        assertThat(mapper.map(request("GET", "/users/"))).isNull();
+    }
+
+    @Test
+    void matchesPrefix() {
+        // given
+        final var nested = request("HEAD", "/static/css/styles.css");
+
+        // when
+        final var route = mapper.map(nested);
+
+        // then
+        assertThat(route.getHandler(nested)).isSameAs(STATIC);
+        assertThat(mapper.map(request("GET", "/static")).getPattern()).isEqualTo("/static/*");
+        assertThat(mapper.map(request("GET", "/staticfile"))).isNull();
+    }
+
+    @Test
+    void rejectsConflictingPathVariables() {
+        assertThatThrownBy(() -> mapper.get("/users/{name}/profile", USER))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Request request(final String method, final String uri) {
+        final byte[] line = (method + " " + uri).getBytes(StandardCharsets.ISO_8859_1);
+        final var request = new Request();
+        request.setBuffer(line);
+        request.setMethod(0, method.length());
+        request.setRequestURI(method.length() + 1, line.length);
+        return request;
+    }
+}
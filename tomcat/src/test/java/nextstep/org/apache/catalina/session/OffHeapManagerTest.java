@@ -0,0 +1,108 @@
+package nextstep.org.apache.catalina.session;
+
+import org.apache.catalina.session.OffHeapManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffHeapManagerTest {
+
+    @Test
+    void storesAttributesOffHeap() {
+        // given
+        final var manager = new OffHeapManager(16 * 1024 * 1024);
+        final var session = manager.createSession();
+
+        // when
+        session.setAttribute("account", "gugu");
+        session.setAttribute("visits", 3);
+        session.setAttribute("profile", "x".repeat(1000));
+        session.removeAttribute("visits");
+
+        // then
+        final var found = manager.findSession(session.getId());
+        assertThat(found).isEqualTo(session);
+        assertThat(found.getAttribute("account")).isEqualTo("gugu");
+        assertThat(found.getAttribute("profile")).isEqualTo("x".repeat(1000));
+        assertThat(found.getAttribute("visits")).isNull();
+        assertThat(Collections.list(found.getAttributeNames())).containsExactly("account", "profile");
+        assertThat(manager.getUsedMemory()).isEqualTo(2048);
+    }
+
+    @Test
+    void invalidateFreesMemory() {
+        // given
+        final var manager = new OffHeapManager(16 * 1024 * 1024);
+        final var session = manager.createSession();
+
+        // when
+        session.invalidate();
+
+        // then
+        assertThat(manager.findSession(session.getId())).isNull();
+        assertThat(manager.getActiveSessions()).isZero();
+        assertThat(manager.getUsedMemory()).isZero();
+        assertThatThrownBy(() -> session.getAttribute("account"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void expiresIdleSessions() {
+        // given
+        final var manager = new OffHeapManager(16 * 1024 * 1024);
+        final var idle = manager.createSession();
+        final var eternal = manager.createSession();
+        eternal.setMaxInactiveInterval(0);
+
+        // when
+        manager.processExpires(System.currentTimeMillis() + 31 * 60 * 1000L);
+
+        // then
+        assertThat(manager.findSession(idle.getId())).isNull();
+        assertThat(manager.findSession(eternal.getId())).isNotNull();
+        assertThat(manager.getExpiredSessions()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsAttributesThatCannotBeEncoded() {
+        // given
+        final var manager = new OffHeapManager(16 * 1024 * 1024);
+        final var session = manager.createSession();
+
+        // when, then
+        assertThatThrownBy(() -> session.setAttribute("user", new Object()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ignoresMalformedIds() {
+        // given
+        final var manager = new OffHeapManager(16 * 1024 * 1024);
+
+        // when, then
+        assertThat(manager.findSession("not-a-session-id")).isNull();
+        assertThat(manager.findSession(null)).isNull();
+    }
+
+    @Test
+    void rejectsIdsThatDifferOnlyInLetterCase() {
+        // given
+        final var manager = new OffHeapManager(16 * 1024 * 1024);
+        String id = manager.createSession().getId();
+        while (id.equals(id.toUpperCase(Locale.ROOT))) {
+            id = manager.createSession().getId();
+        }
+
+        // when
+        final var found = manager.findSession(id.toUpperCase(Locale.ROOT));
+
+        // then
+        assertThat(id).matches("[0-9a-f]{32}");
+        assertThat(found).isNull();
+        assertThat(manager.findSession(id)).isNotNull();
+    }
+}
@@ -0,0 +1,169 @@
+package nextstep.org.apache.catalina.session;
+
+import org.apache.catalina.session.PersistentManager;
+import org.apache.catalina.session.StandardSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersistentManagerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresSessionLazilyAfterRestart() throws IOException {
+        // given
+        final var manager = new PersistentManager(directory);
+        manager.start();
+        final var session = manager.createSession();
+        session.setAttribute("account", "gugu");
+        session.setAttribute("visits", 3);
+        session.setAttribute("token", new byte[]{1, 2, 3});
+        manager.stop();
+
+        // when
+        final var restarted = new PersistentManager(directory);
+        restarted.start();
+        final int activeBeforeFind = restarted.getActiveSessions();
+        final var restored = restarted.findSession(session.getId());
+        restarted.stop();
+
+        // then
+        assertThat(activeBeforeFind).isZero();
+        assertThat(restored.getAttribute("account")).isEqualTo("gugu");
+        assertThat(restored.getAttribute("visits")).isEqualTo(3);
+        assertThat(restored.getAttribute("token")).isEqualTo(new byte[]{1, 2, 3});
+        assertThat(restored.getCreationTime()).isEqualTo(session.getCreationTime());
+    }
+
+    @Test
+    void invalidatedSessionIsNotRestored() throws IOException {
+        // given
+        final var manager = new PersistentManager(directory);
+        manager.start();
+        final var session = manager.createSession();
+        manager.backgroundProcess();
+
+        // when
+        session.invalidate();
+        manager.stop();
+
+        // then
+        final var restarted = new PersistentManager(directory);
+        restarted.start();
+        assertThat(restarted.findSession(session.getId())).isNull();
+        restarted.stop();
+    }
+
+    @Test
+    void rebuildsIndexWhenNotClosedCleanly() throws IOException {
+        // given
+        final var crashed = new PersistentManager(directory);
+        crashed.start();
+        final var session = crashed.createSession();
+        session.setAttribute("account", "gugu");
+        crashed.backgroundProcess();
+
+        // when
+        final var restarted = new PersistentManager(directory);
+        restarted.start();
+
+        // then
+        assertThat(restarted.findSession(session.getId()).getAttribute("account")).isEqualTo("gugu");
+        restarted.stop();
+    }
+
+    @Test
+    void compactionDropsOverwrittenAndExpiredRecords() throws IOException {
+        // given
+        final var manager = new PersistentManager(directory);
+        manager.start();
+        final var kept = manager.createSession();
+        for (int i = 0; i < 100; i++) {
+            kept.setAttribute("count", i);
+            manager.backgroundProcess();
+        }
+        final var idle = manager.createSession();
+        idle.setMaxInactiveInterval(60);
+        manager.backgroundProcess();
+        final long before = manager.getStore().getLogSize();
+
+        // when
+        manager.compact(System.currentTimeMillis() + 61_000);
+
+        // then
+        assertThat(manager.getStore().getLogSize()).isLessThan(before / 10);
+        assertThat(manager.getStore().getCount()).isEqualTo(1);
+        manager.stop();
+        final var restarted = new PersistentManager(directory);
+        restarted.start();
+        assertThat(restarted.findSession(kept.getId()).getAttribute("count")).isEqualTo(99);
+        restarted.stop();
+    }
+
+    @Test
+    void rejectsAttributeTypeThatCannotBePersisted() {
+        // given
+        final var manager = new PersistentManager(directory);
+        manager.start();
+        final var session = manager.createSession();
+
+        // when & then
+        assertThatThrownBy(() -> session.setAttribute("user", new Object()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("java.lang.Object");
+        assertThat(session.getAttribute("user")).isNull();
+        manager.stop();
+    }
+
+    @Test
+    void persistsAccessTimeOnStop() throws Exception {
+        // given
+        final var manager = new PersistentManager(directory);
+        manager.start();
+        final var session = manager.createSession();
+        manager.backgroundProcess();
+        Thread.sleep(10);
+        session.access();
+
+        // when
+        manager.stop();
+
+        // then
+        final var restarted = new PersistentManager(directory);
+        restarted.start();
+        assertThat(restarted.findSession(session.getId()).getLastAccessedTime())
+                .isEqualTo(session.getLastAccessedTime())
+                .isGreaterThan(session.getCreationTime());
+        restarted.stop();
+    }
+
+    @Test
+    void removingStaleCopyKeepsLiveSessionInStore() throws IOException {
+        // given
+        final var manager = new PersistentManager(directory);
+        manager.start();
+        final StandardSession stale = manager.createSession();
+        stale.setAttribute("account", "gugu");
+        manager.stop();
+        final var restarted = new PersistentManager(directory);
+        restarted.start();
+        restarted.findSession(stale.getId());
+
+        // when
+        restarted.remove(stale);
+        restarted.stop();
+
+        // then
+        final var again = new PersistentManager(directory);
+        again.start();
+        assertThat(again.findSession(stale.getId()).getAttribute("account")).isEqualTo("gugu");
+        again.stop();
+    }
+}
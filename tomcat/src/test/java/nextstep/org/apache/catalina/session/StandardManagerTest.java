@@ -0,0 +1,82 @@
+package nextstep.org.apache.catalina.session;
+
+import org.apache.catalina.session.StandardManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StandardManagerTest {
+
+    @Test
+    void findsCreatedSession() throws IOException {
+        // given
+        final var manager = new StandardManager();
+        final var session = manager.createSession();
+        session.setAttribute("user", "gugu");
+
+        // when
+        final var found = manager.findSession(session.getId());
+
+        // then
+        assertThat(found).isSameAs(session);
+        assertThat(found.getAttribute("user")).isEqualTo("gugu");
+        assertThat(session.getId()).hasSize(32);
+    }
+
+    @Test
+    void invalidatedSessionIsRemoved() throws IOException {
+        // given
+        final var manager = new StandardManager();
+        final var session = manager.createSession();
+
+        // when
+        session.invalidate();
+
+        // then
+        assertThat(manager.findSession(session.getId())).isNull();
+        assertThat(manager.getActiveSessions()).isZero();
+        assertThatThrownBy(() -> session.getAttribute("user"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void expiresIdleSessions() {
+        // given
+        final var manager = new StandardManager();
+        final var idle = manager.createSession();
+        final var eternal = manager.createSession();
+        eternal.setMaxInactiveInterval(0);
+
+        // when
+        manager.processExpires(System.currentTimeMillis() + 31 * 60 * 1000L);
+
+        // then
+        assertThat(idle.isValid()).isFalse();
+        assertThat(eternal.isValid()).isTrue();
+        assertThat(manager.getActiveSessions()).isEqualTo(1);
+        assertThat(manager.getExpiredSessions()).isEqualTo(1);
+    }
+
+    @Test
+    void reschedulesWhenMaxInactiveIntervalChanges() {
+        // given
+        final var manager = new StandardManager();
+        final var session = manager.createSession();
+        final long now = System.currentTimeMillis();
+        session.setMaxInactiveInterval(60);
+
+        // when
+        session.setMaxInactiveInterval(120);
+        manager.processExpires(now + 61_000);
+        final boolean validAfterFirstDeadline = session.isValid();
+        manager.processExpires(now + 121_000);
+
+        // then
+        assertThat(validAfterFirstDeadline).isTrue();
+        assertThat(session.isValid()).isFalse();
+        assertThat(manager.getExpiredSessions()).isEqualTo(1);
+    }
+}
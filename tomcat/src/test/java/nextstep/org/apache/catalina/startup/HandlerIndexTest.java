@@ -0,0 +1,78 @@
+package nextstep.org.apache.catalina.startup;
+
+import org.apache.catalina.Handler;
+import org.apache.catalina.annotation.RequestMapping;
+import org.apache.catalina.mapper.Mapper;
+import org.apache.catalina.startup.HandlerDefinition;
+import org.apache.catalina.startup.HandlerIndex;
+import org.apache.catalina.startup.HandlerScanner;
+import org.apache.coyote.Request;
+import org.apache.coyote.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HandlerIndexTest {
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+
+    @Test
+    void indexGeneratedAtCompileTimeMatchesClasspathScan() throws IOException {
+        // when
+        final var indexed = HandlerIndex.load(classLoader).stream()
+                .filter(definition -> definition.className().startsWith(getClass().getPackageName()))
+                .toList();
+        final var scanned = HandlerScanner.scan(getClass().getPackageName(), classLoader);
+
+        // then
+        assertThat(indexed).containsExactlyInAnyOrder(
+                new HandlerDefinition("GET", "/login", LoginHandler.class.getName()),
+                new HandlerDefinition("POST", "/login", LoginHandler.class.getName()),
+                new HandlerDefinition("GET", "/users/{id}", UserHandler.class.getName()));
+        assertThat(scanned).containsExactlyInAnyOrderElementsOf(indexed);
+    }
+
+    @Test
+    void registersOneInstancePerHandlerClass() throws IOException {
+        // given
+        final var mapper = new Mapper();
+        final var get = request("GET", "/login");
+        final var post = request("POST", "/login");
+
+        // when
+        HandlerIndex.register(mapper, HandlerIndex.load(classLoader), classLoader);
+        final Handler getHandler = mapper.map(get).getHandler(get);
+        final Handler postHandler = mapper.map(post).getHandler(post);
+
+        // then
+        assertThat(getHandler).isInstanceOf(LoginHandler.class).isSameAs(postHandler);
+    }
+
+    private static Request request(final String method, final String uri) {
+        final byte[] line = (method + " " + uri).getBytes(StandardCharsets.ISO_8859_1);
+        final var request = new Request();
+        request.setBuffer(line);
+        request.setMethod(0, method.length());
+        request.setRequestURI(method.length() + 1, line.length);
+        return request;
+    }
+
+    @RequestMapping(value = "/login", method = {"GET", "POST"})
+    public static class LoginHandler implements Handler {
+
+        @Override
+        public void handle(final Request request, final Response response) {
+        }
+    }
+
+    @RequestMapping("/users/{id}")
+    public static class UserHandler implements Handler {
+
+        @Override
+        public void handle(final Request request, final Response response) {
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package nextstep.org.apache.catalina.webresources;
+
+import org.apache.catalina.webresources.CacheControlPolicy;
+import org.apache.catalina.webresources.CacheControlRule;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheControlPolicyTest {
+
+    private final CacheControlPolicy policy = CacheControlPolicy.defaults();
+
+    @Test
+    void firstMatchingRuleWins() {
+        assertThat(policy.findRule("/resources/v1/index.html", "text/html;charset=utf-8").getCacheControl())
+                .isEqualTo("public, max-age=31536000, immutable");
+        assertThat(policy.findRule("/index.html", "text/html;charset=utf-8").getCacheControl())
+                .isEqualTo("no-cache, private");
+        assertThat(policy.findRule("/assets/img/error-404-monochrome.SVG", "image/svg+xml").getCacheControl())
+                .isEqualTo("public, max-age=86400");
+        assertThat(policy.findRule("/js/scripts.js", "text/javascript;charset=utf-8")).isNull();
+    }
+
+    @Test
+    void mimeTypeIgnoresParameters() {
+        // given
+        policy.clear();
+        policy.addRule(CacheControlRule.mimeType("text/css", "max-age=60", -1));
+
+        // then
+        assertThat(policy.findRule("/a.css", "text/css;charset=utf-8")).isNotNull();
+        assertThat(policy.findRule("/a.css", "text/csv")).isNull();
+    }
+
+    @Test
+    void expiresIsReencodedOncePerSecond() {
+        // given
+        final var rule = CacheControlRule.prefix("/", "max-age=10", 10);
+
+        // when
+        final byte[] first = rule.getHeaders(784111777000L);
+        final byte[] sameSecond = rule.getHeaders(784111777999L);
+
+        // then
+        assertThat(sameSecond).isSameAs(first);
+        assertThat(new String(first, StandardCharsets.ISO_8859_1))
+                .contains("Expires: Sun, 06 Nov 1994 08:49:47 GMT");
+    }
+}
@@ -0,0 +1,55 @@
+package nextstep.org.apache.catalina.webresources;
+
+import org.apache.catalina.webresources.CachedResource;
+import org.apache.catalina.webresources.ResourceCache;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceCacheTest {
+
+    @Test
+    void countsHitsAndMisses() {
+        // given
+        final var cache = new ResourceCache();
+
+        // when
+        cache.get("/index.html", this::load);
+        cache.get("/index.html", this::load);
+        cache.get("/missing.html", path -> null);
+
+        // then
+        final var stats = cache.getStats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(2);
+        assertThat(stats.entryCount()).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(100);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenOverBudget() throws InterruptedException {
+        // given
+        final var cache = new ResourceCache();
+        cache.setMaxSize(250);
+        cache.setObjectMaxSize(100);
+        cache.get("/a.html", this::load);
+        Thread.sleep(2);
+        cache.get("/b.html", this::load);
+        Thread.sleep(2);
+        cache.get("/a.html", this::load);
+
+        // when
+        cache.get("/c.html", this::load);
+
+        // then
+        final var stats = cache.getStats();
+        assertThat(stats.evictionCount()).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(200);
+        cache.get("/a.html", this::load);
+        assertThat(cache.getStats().hitCount()).isEqualTo(2);
+    }
+
+    private CachedResource load(final String path) {
+        return new CachedResource(path, null, new byte[100], 0L);
+    }
+}
@@ -0,0 +1,57 @@
+package nextstep.org.apache.coyote;
+
+import org.apache.coyote.CompressionConfig;
+import org.apache.coyote.Request;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressionConfigTest {
+
+    private final CompressionConfig config = new CompressionConfig();
+
+    @Test
+    void negotiatesByQuality() {
+        assertThat(config.negotiate(request("gzip, deflate, br"))).isEqualTo("gzip");
+        assertThat(config.negotiate(request("gzip;q=0.5, deflate"))).isEqualTo("deflate");
+        assertThat(config.negotiate(request("gzip;q=0, *"))).isEqualTo("deflate");
+        assertThat(config.negotiate(request("identity"))).isNull();
+        assertThat(config.negotiate(request(null))).isNull();
+    }
+
+    @Test
+    void compressesOnlyAllowedTypesAboveMinSize() {
+        assertThat(config.isCompressible("text/css;charset=utf-8", 4096)).isTrue();
+        assertThat(config.isCompressible("text/css;charset=utf-8", 100)).isFalse();
+        assertThat(config.isCompressible("image/png", 4096)).isFalse();
+    }
+
+    @Test
+    void deflateRoundTrip() throws IOException {
+        // given
+        config.setLevel(9);
+        final byte[] content = "hello ".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+        // when
+        final byte[] compressed = config.compress(CompressionConfig.DEFLATE, content);
+
+        // then
+        assertThat(compressed.length).isLessThan(content.length);
+        assertThat(new InflaterInputStream(new ByteArrayInputStream(compressed)).readAllBytes()).isEqualTo(content);
+    }
+
+    private Request request(final String acceptEncoding) {
+        final String head = acceptEncoding == null ? "" : "Accept-Encoding: " + acceptEncoding;
+        final var request = new Request();
+        request.setBuffer(head.getBytes(StandardCharsets.US_ASCII));
+        if (acceptEncoding != null) {
+            request.addHeader(0, 15, 17, head.length());
+        }
+        return request;
+    }
+}
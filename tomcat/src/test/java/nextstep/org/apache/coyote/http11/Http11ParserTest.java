@@ -0,0 +1,79 @@
+package nextstep.org.apache.coyote.http11;
+
+import org.apache.coyote.Request;
+import org.apache.coyote.http11.Http11Parser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Http11ParserTest {
+
+    private static final String HTTP_REQUEST = String.join("\r\n",
+            "GET /index.html HTTP/1.1 ",
+            "Host: localhost:8080 ",
+            "Connection: Upgrade, keep-alive",
+            "Accept:text/html",
+            "",
+            "body");
+
+    @Test
+    void parse() {
+        // given
+        final var buffer = ByteBuffer.wrap(HTTP_REQUEST.getBytes(StandardCharsets.ISO_8859_1));
+        final var request = new Request();
+        request.setBuffer(buffer.array());
+
+        // when
+        final boolean done = new Http11Parser().parse(buffer, request);
+
+        // then
+        assertThat(done).isTrue();
+        assertThat(request.getMethod()).isEqualTo("GET");
+        assertThat(request.getRequestURI()).isEqualTo("/index.html");
+        assertThat(request.getProtocol()).isEqualTo("HTTP/1.1");
+        assertThat(request.getHeaderCount()).isEqualTo(3);
+        assertThat(request.getHeader("host")).isEqualTo("localhost:8080");
+        assertThat(request.getHeader("Accept")).isEqualTo("text/html");
+        assertThat(request.hasHeaderToken("Connection", "keep-alive")).isTrue();
+        assertThat(request.hasHeaderToken("Connection", "close")).isFalse();
+        assertThat(buffer.position()).isEqualTo(HTTP_REQUEST.indexOf("body"));
+    }
+
+    @Test
+    void parseInChunksOfOneByte() {
+        // given
+        final byte[] bytes = HTTP_REQUEST.getBytes(StandardCharsets.ISO_8859_1);
+        final var buffer = ByteBuffer.wrap(bytes);
+        final var request = new Request();
+        request.setBuffer(bytes);
+        final var parser = new Http11Parser();
+
+        // when
+        boolean done = false;
+        for (int limit = 1; !done && limit <= bytes.length; limit++) {
+            buffer.limit(limit);
+            done = parser.parse(buffer, request);
+        }
+
+        // then
+        assertThat(done).isTrue();
+        assertThat(request.getRequestURI()).isEqualTo("/index.html");
+        assertThat(request.getHeader("Connection")).isEqualTo("Upgrade, keep-alive");
+    }
+
+    @Test
+    void invalidHeaderName() {
+        // given
+        final var buffer = ByteBuffer.wrap("GET / HTTP/1.1\r\nBad Name: value\r\n\r\n".getBytes());
+        final var request = new Request();
+        request.setBuffer(buffer.array());
+
+        // when & then
+        assertThatThrownBy(() -> new Http11Parser().parse(buffer, request))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
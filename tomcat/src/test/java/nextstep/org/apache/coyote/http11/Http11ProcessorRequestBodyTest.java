@@ -0,0 +1,259 @@
+package nextstep.org.apache.coyote.http11;
+
+import org.apache.coyote.http11.Http11Processor;
+import org.apache.coyote.http11.Http11Protocol;
+import org.junit.jupiter.api.Test;
+import support.StubSocket;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Http11ProcessorRequestBodyTest {
+
+    @Test
+    void readsContentLengthBody() {
+        // given
+        final var socket = new StubSocket(String.join("\r\n",
+                "POST /echo HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Content-Length: 11 ",
+                "",
+                "hello worldGET /echo HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Connection: close ",
+                "",
+                ""));
+        final var processor = new Http11Processor(echoProtocol(), socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output())
+                .contains("Content-Length: 11\r\n\r\nhello world")
+                .endsWith("Content-Length: 0\r\nConnection: close\r\n\r\n");
+    }
+
+    @Test
+    void decodesChunkedBody() {
+        // given
+        final var socket = new StubSocket(String.join("\r\n",
+                "POST /echo HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Transfer-Encoding: chunked ",
+                "",
+                "5;name=value",
+                "hello",
+                "6",
+                " world",
+                "0",
+                "Trailer-Field: ignored",
+                "",
+                "GET /echo HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Connection: close ",
+                "",
+                ""));
+        final var processor = new Http11Processor(echoProtocol(), socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output())
+                .contains("Content-Length: 11\r\n\r\nhello world")
+                .endsWith("Content-Length: 0\r\nConnection: close\r\n\r\n");
+    }
+
+    @Test
+    void swallowsUnreadBody() {
+        // given
+        final var socket = new StubSocket(String.join("\r\n",
+                "POST / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Transfer-Encoding: chunked ",
+                "",
+                "3",
+                "abc",
+                "0",
+                "",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Connection: close ",
+                "",
+                ""));
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output().split("HTTP/1.1 200 OK", -1)).hasSize(3);
+    }
+
+    @Test
+    void rejectsContentLengthOverLimitWithoutReading() {
+        // given
+        final var protocol = echoProtocol();
+        protocol.setMaxPostSize(10);
+        final var socket = new StubSocket(String.join("\r\n",
+                "POST /echo HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Content-Length: 11 ",
+                "",
+                "hello world"));
+        final var processor = new Http11Processor(protocol, socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output())
+                .startsWith("HTTP/1.1 413 Content Too Large\r\n")
+                .contains("Connection: close\r\n")
+                .doesNotContain("hello");
+    }
+
+    @Test
+    void rejectsChunkedBodyOverLimitWhileReading() {
+        // given
+        final var protocol = echoProtocol();
+        protocol.setMaxPostSize(8);
+        final var socket = new StubSocket(String.join("\r\n",
+                "POST /echo HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Transfer-Encoding: chunked ",
+                "",
+                "5",
+                "hello",
+                "6",
+                " world",
+                "0",
+                "",
+                ""));
+        final var processor = new Http11Processor(protocol, socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).startsWith("HTTP/1.1 413 Content Too Large\r\n");
+    }
+
+    @Test
+    void rejectsUnknownTransferEncoding() {
+        // given
+        final var socket = new StubSocket(String.join("\r\n",
+                "POST /echo HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Transfer-Encoding: gzip, chunked ",
+                "",
+                ""));
+        final var processor = new Http11Processor(echoProtocol(), socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).startsWith("HTTP/1.1 400 Bad Request\r\n");
+    }
+
+    @Test
+    void rejectsConflictingContentLengthHeaders() {
+        // given
+        final var socket = new StubSocket(String.join("\r\n",
+                "POST /echo HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Content-Length: 5 ",
+                "Content-Length: 100 ",
+                "",
+                "helloGET /echo HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                ""));
+        final var processor = new Http11Processor(echoProtocol(), socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output())
+                .startsWith("HTTP/1.1 400 Bad Request\r\n")
+                .contains("Connection: close\r\n")
+                .doesNotContain("HTTP/1.1 200");
+    }
+
+    @Test
+    void rejectsConflictingContentLengthList() {
+        // given
+        final var socket = new StubSocket(String.join("\r\n",
+                "POST /echo HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Content-Length: 5, 100 ",
+                "",
+                "hello"));
+        final var processor = new Http11Processor(echoProtocol(), socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).startsWith("HTTP/1.1 400 Bad Request\r\n");
+    }
+
+    @Test
+    void acceptsRepeatedIdenticalContentLength() {
+        // given
+        final var socket = new StubSocket(String.join("\r\n",
+                "POST /echo HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Content-Length: 5 ",
+                "Content-Length: 5, 5 ",
+                "Connection: close ",
+                "",
+                "hello"));
+        final var processor = new Http11Processor(echoProtocol(), socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).startsWith("HTTP/1.1 200 OK\r\n").endsWith("\r\n\r\nhello");
+    }
+
+    @Test
+    void rejectsMultipleTransferEncodingHeaders() {
+        // given
+        final var socket = new StubSocket(String.join("\r\n",
+                "POST /echo HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Transfer-Encoding: chunked ",
+                "Transfer-Encoding: identity ",
+                "",
+                "5",
+                "hello",
+                "0",
+                "",
+                ""));
+        final var processor = new Http11Processor(echoProtocol(), socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output())
+                .startsWith("HTTP/1.1 400 Bad Request\r\n")
+                .doesNotContain("HTTP/1.1 200");
+    }
+
+    private Http11Protocol echoProtocol() {
+        final var protocol = new Http11Protocol();
+        protocol.setAdapter((request, response) -> {
+            response.setContentType("text/plain");
+            response.setBody(new String(request.getInputStream().readAllBytes(), StandardCharsets.ISO_8859_1)
+                    .getBytes(StandardCharsets.ISO_8859_1));
+        });
+        return protocol;
+    }
+}
@@ -0,0 +1,127 @@
+package nextstep.org.apache.coyote.http11;
+
+import org.apache.coyote.Adapter;
+import org.apache.coyote.http11.Http11Processor;
+import org.apache.coyote.http11.Http11Protocol;
+import org.junit.jupiter.api.Test;
+import support.StubSocket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Http11ProcessorStreamingTest {
+
+    private static final String BODY = "0123456789".repeat(100);
+
+    @Test
+    void bufferedBodyIsSentWithContentLength() {
+        // given
+        final var socket = new StubSocket();
+        final var processor = new Http11Processor(protocol(2048, "text/plain"), socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output())
+                .contains("Content-Length: 1000\r\n")
+                .doesNotContain("Transfer-Encoding")
+                .endsWith("\r\n\r\n" + BODY);
+    }
+
+    @Test
+    void overflowingBodyIsChunked() {
+        // given
+        final var socket = new StubSocket(String.join("\r\n",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Connection: close ",
+                "",
+                ""));
+        final var processor = new Http11Processor(protocol(256, "text/plain"), socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String output = socket.output();
+        final String first = output.substring(0, output.lastIndexOf("HTTP/1.1 200"));
+        assertThat(first).contains("Transfer-Encoding: chunked\r\n").doesNotContain("Content-Length");
+        assertThat(dechunk(first.substring(first.indexOf("\r\n\r\n") + 4))).isEqualTo(BODY);
+        assertThat(output.substring(output.lastIndexOf("HTTP/1.1 200"))).contains("Connection: close\r\n");
+    }
+
+    @Test
+    void http10StreamIsDelimitedByClose() {
+        // given
+        final var socket = new StubSocket("GET / HTTP/1.0\r\nConnection: keep-alive\r\n\r\n");
+        final var processor = new Http11Processor(protocol(256, "text/plain"), socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output())
+                .contains("Connection: close\r\n")
+                .doesNotContain("Content-Length", "Transfer-Encoding")
+                .endsWith("\r\n\r\n" + BODY);
+    }
+
+    @Test
+    void compressibleStreamIsGzippedInChunks() throws IOException {
+        // given
+        final var socket = new StubSocket("GET / HTTP/1.1\r\nAccept-Encoding: gzip\r\nConnection: close\r\n\r\n");
+        final var processor = new Http11Processor(protocol(256, "text/html;charset=utf-8"), socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String output = new String(socket.outputBytes(), StandardCharsets.ISO_8859_1);
+        assertThat(output).contains("Transfer-Encoding: chunked\r\n", "Content-Encoding: gzip\r\n");
+        final byte[] gzip = dechunk(output.substring(output.indexOf("\r\n\r\n") + 4))
+                .getBytes(StandardCharsets.ISO_8859_1);
+        assertThat(new String(new GZIPInputStream(new ByteArrayInputStream(gzip)).readAllBytes(),
+                StandardCharsets.ISO_8859_1)).isEqualTo(BODY.repeat(3));
+    }
+
+    private Http11Protocol protocol(final int responseBufferSize, final String contentType) {
+        final var protocol = new Http11Protocol();
+        protocol.setResponseBufferSize(responseBufferSize);
+        final Adapter adapter = (request, response) -> {
+            response.setContentType(contentType);
+            final var out = response.getOutputStream();
+            final int repeat = contentType.startsWith("text/html") ? 3 : 1;
+            for (int i = 0; i < repeat; i++) {
+                for (final byte b : BODY.getBytes(StandardCharsets.ISO_8859_1)) {
+                    out.write(b);
+                }
+            }
+        };
+        protocol.setAdapter(adapter);
+        return protocol;
+    }
+
+    private String dechunk(final String chunked) {
+        final var body = new ByteArrayOutputStream();
+        int position = 0;
+        while (true) {
+            final int lineEnd = chunked.indexOf("\r\n", position);
+            final int size = Integer.parseInt(chunked.substring(position, lineEnd), 16);
+            if (size == 0) {
+                assertThat(chunked.substring(lineEnd)).isEqualTo("\r\n\r\n");
+                return body.toString(StandardCharsets.ISO_8859_1);
+            }
+            body.write(chunked.substring(lineEnd + 2, lineEnd + 2 + size).getBytes(StandardCharsets.ISO_8859_1), 0, size);
+            position = lineEnd + 2 + size + 2;
+        }
+    }
+}
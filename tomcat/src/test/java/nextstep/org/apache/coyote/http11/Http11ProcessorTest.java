@@ -1,13 +1,21 @@
 package nextstep.org.apache.coyote.http11;
 
 import support.StubSocket;
+import org.apache.catalina.connector.CoyoteAdapter;
+import org.apache.catalina.webresources.WebResourceRoot;
 import org.apache.coyote.http11.Http11Processor;
+import org.apache.coyote.http11.Http11Protocol;
+import org.apache.tomcat.util.http.FastHttpDateFormat;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -24,9 +32,9 @@ class Http11ProcessorTest {
 
         // then
         var expected = String.join("\r\n",
-                "HTTP/1.1 200 OK ",
-                "Content-Type: text/html;charset=utf-8 ",
-                "Content-Length: 12 ",
+                "HTTP/1.1 200 OK",
+                "Content-Type: text/html;charset=utf-8",
+                "Content-Length: 12",
                 "",
                 "Hello world!");
 
@@ -51,13 +59,465 @@ class Http11ProcessorTest {
 
         // then
         final URL resource = getClass().getClassLoader().getResource("static/index.html");
+        final var cached = new WebResourceRoot().getResource("/index.html");
         var expected = String.join("\r\n",
-            "HTTP/1.1 200 OK ",
-            "Content-Type: text/html;charset=utf-8 ",
-            "Content-Length: 5564 ", // 운영체제 환경에 따라 다른 값이 나올 수 있음. 자신의 개발 환경에 맞춰 수정할 것.
+            "HTTP/1.1 200 OK",
+            "Content-Type: text/html;charset=utf-8",
+            "Content-Length: 5564", // 운영체제 환경에 따라 다른 값이 나올 수 있음. 자신의 개발 환경에 맞춰 수정할 것.
+            "Accept-Ranges: bytes",
+            "ETag: " + cached.getETag(),
+            "Last-Modified: " + FastHttpDateFormat.formatDate(cached.getLastModified()),
+            "Vary: Accept-Encoding",
+            "Cache-Control: no-cache, private",
             "",
             new String(Files.readAllBytes(new File(resource.getFile()).toPath())));
 
         assertThat(socket.output()).isEqualTo(expected);
     }
+
+    @Test
+    void keepAlive() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        var expected = String.join("\r\n",
+                "HTTP/1.1 200 OK",
+                "Content-Type: text/html;charset=utf-8",
+                "Content-Length: 12",
+                "",
+                "Hello world!HTTP/1.1 200 OK",
+                "Content-Type: text/html;charset=utf-8",
+                "Content-Length: 12",
+                "Connection: close",
+                "",
+                "Hello world!");
+
+        assertThat(socket.output()).isEqualTo(expected);
+    }
+
+    @Test
+    void indexFromFile() throws IOException {
+        // given
+        final String httpRequest= String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var resources = new WebResourceRoot();
+        resources.setSendfileSize(0);
+        resources.getCompressionConfig().setEnabled(false);
+        final var protocol = new Http11Protocol();
+        protocol.setAdapter(new CoyoteAdapter(resources));
+        final var socket = new StubSocket(httpRequest);
+        final var processor = new Http11Processor(protocol, socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final URL resource = getClass().getClassLoader().getResource("static/index.html");
+        final byte[] content = Files.readAllBytes(new File(resource.getFile()).toPath());
+        assertThat(resources.getCache().getStats().size()).isZero();
+        assertThat(socket.output()).endsWith("\r\n\r\n" + new String(content));
+    }
+
+    @Test
+    void indexGzip() throws IOException {
+        // given
+        final String httpRequest= String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Accept-Encoding: deflate;q=0.5, gzip ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final byte[] output = socket.outputBytes();
+        final String head = new String(output, StandardCharsets.ISO_8859_1);
+        final int bodyStart = head.indexOf("\r\n\r\n") + 4;
+        final byte[] body = Arrays.copyOfRange(output, bodyStart, output.length);
+        final URL resource = getClass().getClassLoader().getResource("static/index.html");
+        assertThat(head.substring(0, bodyStart)).contains("Content-Encoding: gzip\r\n", "Vary: Accept-Encoding\r\n");
+        assertThat(new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes())
+                .isEqualTo(Files.readAllBytes(new File(resource.getFile()).toPath()));
+    }
+
+    @Test
+    void notModifiedIfNoneMatch() {
+        // given
+        final String etag = new WebResourceRoot().getResource("/index.html").getETag();
+        final String httpRequest= String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "If-None-Match: \"other\", " + etag,
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output())
+                .startsWith("HTTP/1.1 304 Not Modified\r\n")
+                .contains("ETag: " + etag + "\r\n")
+                .doesNotContain("Content-Length")
+                .endsWith("\r\n\r\n");
+    }
+
+    @Test
+    void modifiedSince() {
+        // given
+        final long lastModified = new WebResourceRoot().getResource("/index.html").getLastModified();
+        final String httpRequest= String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "If-Modified-Since: " + FastHttpDateFormat.formatDate(lastModified - 1000),
+                "",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "If-Modified-Since: " + FastHttpDateFormat.formatDate(lastModified),
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String output = socket.output();
+        assertThat(output).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(output.substring(output.lastIndexOf("HTTP/1.1"))).startsWith("HTTP/1.1 304 Not Modified\r\n");
+    }
+
+    @Test
+    void versionedResourceIsImmutable() {
+        // given
+        final String version = new WebResourceRoot().getResource("/css/styles.css").getVersion();
+        final String httpRequest= String.join("\r\n",
+                "GET /resources/" + version + "/css/styles.css HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output())
+                .startsWith("HTTP/1.1 200 OK\r\n")
+                .contains("Content-Type: text/css;charset=utf-8\r\n")
+                .contains("Cache-Control: public, max-age=31536000, immutable\r\n")
+                .contains("Expires: ");
+    }
+
+    @Test
+    void versionedResourceWithStaleVersionIsNotFound() {
+        // given
+        final String httpRequest= String.join("\r\n",
+                "GET /resources/0a1b2c/css/styles.css HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output())
+                .startsWith("HTTP/1.1 404 Not Found\r\n")
+                .doesNotContain("immutable");
+    }
+
+    @Test
+    void singleRange() throws IOException {
+        // given
+        final String httpRequest= String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Range: bytes=10-19 ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String content = new String(readIndex(), StandardCharsets.ISO_8859_1);
+        assertThat(new String(socket.outputBytes(), StandardCharsets.ISO_8859_1))
+                .startsWith("HTTP/1.1 206 Partial Content\r\n")
+                .contains("Content-Length: 10\r\n", "Content-Range: bytes 10-19/5564\r\n")
+                .endsWith("\r\n\r\n" + content.substring(10, 20));
+    }
+
+    @Test
+    void multipleRangesFromFile() throws IOException {
+        // given
+        final String httpRequest= String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Range: bytes=0-4, -5 ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var resources = new WebResourceRoot();
+        resources.setSendfileSize(0);
+        final var protocol = new Http11Protocol();
+        protocol.setAdapter(new CoyoteAdapter(resources));
+        final var socket = new StubSocket(httpRequest);
+        final var processor = new Http11Processor(protocol, socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String content = new String(readIndex(), StandardCharsets.ISO_8859_1);
+        final String body = String.join("\r\n",
+                "--CATALINA_MIME_BOUNDARY",
+                "Content-Type: text/html;charset=utf-8",
+                "Content-Range: bytes 0-4/5564",
+                "",
+                content.substring(0, 5),
+                "--CATALINA_MIME_BOUNDARY",
+                "Content-Type: text/html;charset=utf-8",
+                "Content-Range: bytes 5559-5563/5564",
+                "",
+                content.substring(5559),
+                "--CATALINA_MIME_BOUNDARY--",
+                "");
+        assertThat(new String(socket.outputBytes(), StandardCharsets.ISO_8859_1))
+                .startsWith("HTTP/1.1 206 Partial Content\r\n")
+                .contains("Content-Type: multipart/byteranges; boundary=CATALINA_MIME_BOUNDARY\r\n")
+                .contains("Content-Length: " + body.length() + "\r\n")
+                .endsWith("\r\n\r\n" + body);
+    }
+
+    @Test
+    void rangeIgnoredWhenIfRangeDoesNotMatch() {
+        // given
+        final String httpRequest= String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Range: bytes=0-4 ",
+                "If-Range: \"stale\" ",
+                "",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Range: bytes=9999- ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String output = socket.output();
+        assertThat(output).startsWith("HTTP/1.1 200 OK\r\n");
+        assertThat(output.substring(output.lastIndexOf("HTTP/1.1")))
+                .startsWith("HTTP/1.1 416 Range Not Satisfiable\r\n")
+                .contains("Content-Range: bytes */5564\r\n");
+    }
+
+    @Test
+    void overlappingRangesLongerThanResourceAreServedInFull() {
+        // given
+        final String httpRequest= String.join("\r\n",
+                "GET /index.html HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "Range: bytes=" + "0-,".repeat(15) + "0- ",
+                "Connection: close ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output())
+                .startsWith("HTTP/1.1 200 OK\r\n")
+                .contains("Content-Length: 5564\r\n")
+                .doesNotContain("multipart/byteranges");
+    }
+
+    private byte[] readIndex() throws IOException {
+        final URL resource = getClass().getClassLoader().getResource("static/index.html");
+        return Files.readAllBytes(new File(resource.getFile()).toPath());
+    }
+
+    @Test
+    void http10ClosesByDefault() {
+        // given
+        final String httpRequest = String.join("\r\n",
+                "GET / HTTP/1.0 ",
+                "",
+                "GET / HTTP/1.0 ",
+                "",
+                "");
+
+        final var socket = new StubSocket(httpRequest);
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        var expected = String.join("\r\n",
+                "HTTP/1.1 200 OK",
+                "Content-Type: text/html;charset=utf-8",
+                "Content-Length: 12",
+                "Connection: close",
+                "",
+                "Hello world!");
+
+        assertThat(socket.output()).isEqualTo(expected);
+    }
+
+    @Test
+    void maxKeepAliveRequests() {
+        // given
+        final var protocol = new Http11Protocol();
+        protocol.setMaxKeepAliveRequests(1);
+        final var socket = new StubSocket(String.join("\r\n",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                ""));
+        final var processor = new Http11Processor(protocol, socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        assertThat(socket.output()).containsOnlyOnce("HTTP/1.1 200 OK").contains("Connection: close\r\n");
+    }
+
+    @Test
+    void pipelining() {
+        // given
+        final String request = String.join("\r\n",
+                "GET / HTTP/1.1 ",
+                "Host: localhost:8080 ",
+                "",
+                "");
+        final var socket = new StubSocket(request.repeat(3));
+        final var processor = new Http11Processor(socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final var response = String.join("\r\n",
+                "HTTP/1.1 200 OK",
+                "Content-Type: text/html;charset=utf-8",
+                "Content-Length: 12",
+                "",
+                "Hello world!");
+        assertThat(socket.output()).isEqualTo(response.repeat(3));
+        assertThat(socket.writeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void sendsDateHeaderAfterStatusLine() {
+        // given
+        final var socket = new StubSocket();
+        final var processor = new Http11Processor(socket);
+        final long before = System.currentTimeMillis() / 1000 * 1000;
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String output = new String(socket.outputBytes(), StandardCharsets.ISO_8859_1);
+        assertThat(output).startsWith("HTTP/1.1 200 OK\r\nDate: ");
+        final String date = output.substring(output.indexOf("Date: ") + 6, output.indexOf("\r\n", output.indexOf("Date: ")));
+        assertThat(FastHttpDateFormat.parseDate(date)).isBetween(before, System.currentTimeMillis());
+    }
+
+    @Test
+    void replacesControlCharactersInHeaderValues() {
+        // given
+        final var socket = new StubSocket();
+        final var protocol = new Http11Protocol();
+        protocol.setAdapter((request, response) -> response.addHeader("X-Name", "a\r\nSet-Cookie: b\u00e9\u4e2d"));
+        final var processor = new Http11Processor(protocol, socket);
+
+        // when
+        processor.process(socket);
+
+        // then
+        final String output = new String(socket.outputBytes(), StandardCharsets.ISO_8859_1);
+        assertThat(output).contains("X-Name: a  Set-Cookie: b\u00e9?\r\n").doesNotContain("\r\nSet-Cookie");
+    }
+
+    @Test
+    void returnsBuffersToPoolWhenConnectionCloses() {
+        // given
+        final var protocol = new Http11Protocol();
+        final var bufferPool = protocol.getBufferPool(false);
+        final var firstSocket = new StubSocket();
+        new Http11Processor(protocol, firstSocket).process(firstSocket);
+        final long allocatedBytes = bufferPool.getAllocatedBytes();
+
+        // when
+        final var secondSocket = new StubSocket();
+        new Http11Processor(protocol, secondSocket).process(secondSocket);
+
+        // then
+        assertThat(allocatedBytes).isPositive();
+        assertThat(bufferPool.getAllocatedBytes()).isEqualTo(allocatedBytes);
+        assertThat(secondSocket.output()).startsWith("HTTP/1.1 200 OK\r\n");
+    }
 }
@@ -0,0 +1,91 @@
+package nextstep.org.apache.tomcat.util.buf;
+
+import org.apache.tomcat.util.buf.ByteBufferPool;
+import org.apache.tomcat.util.buf.PooledByteBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ByteBufferPoolTest {
+
+    @Test
+    void reusesReleasedBuffer() {
+        // given
+        final var pool = new ByteBufferPool(false, 1024 * 1024);
+        final PooledByteBuffer first = pool.acquire(16 * 1024);
+        first.buffer().put((byte) 1);
+        final var buffer = first.buffer();
+        first.release();
+
+        // when
+        final PooledByteBuffer second = pool.acquire(16 * 1024);
+
+        // then
+        assertThat(second.buffer()).isSameAs(buffer);
+        assertThat(second.buffer().position()).isZero();
+        assertThat(pool.getAllocatedBytes()).isEqualTo(16 * 1024);
+    }
+
+    @Test
+    void roundsUpToSizeClass() {
+        // given
+        final var pool = new ByteBufferPool(true, 1024 * 1024);
+
+        // when
+        final PooledByteBuffer pooled = pool.acquire(3_000);
+
+        // then
+        assertThat(pooled.buffer().capacity()).isEqualTo(3_000);
+        assertThat(pooled.buffer().isDirect()).isTrue();
+        assertThat(pool.getAllocatedBytes()).isEqualTo(4 * 1024);
+    }
+
+    @Test
+    void allocatesUnpooledBufferBeyondMaxMemory() {
+        // given
+        final var pool = new ByteBufferPool(false, 8 * 1024);
+        final PooledByteBuffer first = pool.acquire(8 * 1024);
+
+        // when
+        final PooledByteBuffer second = pool.acquire(8 * 1024);
+        second.release();
+        first.release();
+        pool.acquire(8 * 1024);
+
+        // then
+        assertThat(pool.getUnpooledCount()).isEqualTo(1);
+        assertThat(pool.getAllocatedBytes()).isEqualTo(8 * 1024);
+    }
+
+    @Test
+    void rejectsDoubleRelease() {
+        // given
+        final var pool = new ByteBufferPool(false, 1024 * 1024);
+        final PooledByteBuffer pooled = pool.acquire(1024);
+        pooled.release();
+
+        // when & then
+        assertThatThrownBy(pooled::release).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void reportsBufferNeverReleased() throws InterruptedException {
+        // given
+        final var pool = new ByteBufferPool(false, 1024 * 1024);
+        pool.setLeakDetection(true);
+        pool.acquire(1024).release();
+        pool.acquire(1024);
+
+        // when
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (pool.getLeakCount() == 0 && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        // then
+        assertThat(pool.getLeakCount()).isEqualTo(1);
+        assertThat(pool.getAllocatedBytes()).isZero();
+    }
+}
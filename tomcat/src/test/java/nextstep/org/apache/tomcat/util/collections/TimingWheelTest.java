@@ -0,0 +1,71 @@
+package nextstep.org.apache.tomcat.util.collections;
+
+import org.apache.tomcat.util.collections.TimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private final Map<String, Long> deadlines = new HashMap<>();
+    private final List<String> expired = new ArrayList<>();
+    private final TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0,
+            item -> deadlines.getOrDefault(item, -1L));
+
+    @Test
+    void expiresItemsWhenDeadlinePasses() {
+        // given
+        schedule("a", 250);
+        schedule("b", 2_000);
+
+        // when
+        wheel.advance(200, expired::add);
+        final var beforeDeadline = List.copyOf(expired);
+        wheel.advance(300, expired::add);
+
+        // then
+        assertThat(beforeDeadline).isEmpty();
+        assertThat(expired).containsExactly("a");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void movesItemWhoseDeadlineWasExtended() {
+        // given
+        schedule("a", 250);
+        deadlines.put("a", 1_250L);
+
+        // when
+        wheel.advance(1_000, expired::add);
+        final var beforeDeadline = List.copyOf(expired);
+        wheel.advance(1_300, expired::add);
+
+        // then
+        assertThat(beforeDeadline).isEmpty();
+        assertThat(expired).containsExactly("a");
+    }
+
+    @Test
+    void skipsCancelledItems() {
+        // given
+        final var timeout = schedule("a", 250);
+
+        // when
+        timeout.cancel();
+        wheel.advance(10_000, expired::add);
+
+        // then
+        assertThat(expired).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    private TimingWheel.Timeout<String> schedule(final String item, final long deadline) {
+        deadlines.put(item, deadline);
+        return wheel.schedule(item, deadline);
+    }
+}
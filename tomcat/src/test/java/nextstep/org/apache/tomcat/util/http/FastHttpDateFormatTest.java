@@ -0,0 +1,24 @@
+package nextstep.org.apache.tomcat.util.http;
+
+import org.apache.tomcat.util.http.FastHttpDateFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FastHttpDateFormatTest {
+
+    private static final long NOV_6_1994 = 784111777000L;
+
+    @Test
+    void formatsImfFixdate() {
+        assertThat(FastHttpDateFormat.formatDate(NOV_6_1994)).isEqualTo("Sun, 06 Nov 1994 08:49:37 GMT");
+    }
+
+    @Test
+    void parsesObsoleteFormats() {
+        assertThat(FastHttpDateFormat.parseDate("Sun, 06 Nov 1994 08:49:37 GMT")).isEqualTo(NOV_6_1994);
+        assertThat(FastHttpDateFormat.parseDate("Sunday, 06-Nov-94 08:49:37 GMT")).isEqualTo(NOV_6_1994);
+        assertThat(FastHttpDateFormat.parseDate("Sun Nov  6 08:49:37 1994")).isEqualTo(NOV_6_1994);
+        assertThat(FastHttpDateFormat.parseDate("yesterday")).isEqualTo(-1);
+    }
+}
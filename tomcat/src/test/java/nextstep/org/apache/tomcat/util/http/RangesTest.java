@@ -0,0 +1,53 @@
+package nextstep.org.apache.tomcat.util.http;
+
+import org.apache.tomcat.util.http.Ranges;
+import org.apache.tomcat.util.http.Ranges.ByteRange;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RangesTest {
+
+    @Test
+    void parsesAllForms() {
+        assertThat(Ranges.parse("bytes=0-99, 200-299, -50", 1000)).containsExactly(
+                new ByteRange(0, 99), new ByteRange(200, 299), new ByteRange(950, 999));
+        assertThat(Ranges.parse("bytes=200-", 1000)).containsExactly(new ByteRange(200, 999));
+    }
+
+    @Test
+    void clampsToLength() {
+        assertThat(Ranges.parse("bytes=90-200", 100)).containsExactly(new ByteRange(90, 99));
+        assertThat(Ranges.parse("bytes=-500", 100)).containsExactly(new ByteRange(0, 99));
+    }
+
+    @Test
+    void unsatisfiableRangesAreDropped() {
+        assertThat(Ranges.parse("bytes=100-, -0", 100)).isEmpty();
+    }
+
+    @Test
+    void invalidHeaderIsIgnored() {
+        assertThat(Ranges.parse("items=0-1", 100)).isNull();
+        assertThat(Ranges.parse("bytes=5-3", 100)).isNull();
+        assertThat(Ranges.parse("bytes=a-", 100)).isNull();
+        assertThat(Ranges.parse("bytes=" + "0-1,".repeat(17), 100)).isNull();
+    }
+
+    @Test
+    void sortsAndMergesOverlappingAndAdjacentRanges() {
+        assertThat(Ranges.parse("bytes=500-599, 0-99, 50-149, 150-199", 1000)).containsExactly(
+                new ByteRange(0, 199), new ByteRange(500, 599));
+    }
+
+    @Test
+    void mergesDuplicateRanges() {
+        assertThat(Ranges.parse("bytes=10-19, 10-19", 1000)).containsExactly(new ByteRange(10, 19));
+    }
+
+    @Test
+    void ignoresRangesLongerThanResource() {
+        assertThat(Ranges.parse("bytes=" + "0-,".repeat(15) + "0-", 1000)).isNull();
+        assertThat(Ranges.parse("bytes=0-599, 400-999", 1000)).isNull();
+    }
+}
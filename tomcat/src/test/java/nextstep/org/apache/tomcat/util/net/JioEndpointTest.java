@@ -0,0 +1,135 @@
+package nextstep.org.apache.tomcat.util.net;
+
+import org.apache.coyote.http11.Http11Protocol;
+import org.apache.tomcat.util.net.JioEndpoint;
+import org.apache.tomcat.util.net.SocketState;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JioEndpointTest {
+
+    @Test
+    void rejectsConnectionsBeyondMaxConnectionsWith503() throws Exception {
+        // given
+        final var accepted = new CountDownLatch(1);
+        final var finish = new CountDownLatch(1);
+        final var executor = Executors.newCachedThreadPool();
+        final var endpoint = new JioEndpoint(0, 10, executor, socketWrapper -> {
+            accepted.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return SocketState.CLOSED;
+        });
+        endpoint.setMaxConnections(1);
+        endpoint.setOverloadResponse(new Http11Protocol().getOverloadResponse());
+        endpoint.bind();
+        endpoint.start();
+
+        try (final var first = new Socket("localhost", endpoint.getLocalPort())) {
+            assertThat(first.isConnected()).isTrue();
+            assertThat(accepted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // when
+            final String response;
+            try (final var second = new Socket("localhost", endpoint.getLocalPort())) {
+                second.setSoTimeout(5_000);
+                second.getOutputStream().write("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes());
+                response = new String(second.getInputStream().readAllBytes(), StandardCharsets.ISO_8859_1);
+            }
+
+            // then
+            assertThat(response).isEqualTo(String.join("\r\n",
+                    "HTTP/1.1 503 Service Unavailable",
+                    "Retry-After: 1",
+                    "Content-Length: 0",
+                    "Connection: close",
+                    "",
+                    ""));
+            assertThat(endpoint.getRejectedCount()).isEqualTo(1);
+            // 응답 뒤에 FIN 을 먼저 보내므로 거절한 연결을 세지 않게 될 때까지 조금 기다린다.
+            final long deadline = System.currentTimeMillis() + 5_000;
+            while (endpoint.getConnectionCount() != 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(endpoint.getConnectionCount()).isEqualTo(1);
+        } finally {
+            finish.countDown();
+            endpoint.stop();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void acceptsOnEveryReusePortListener() throws Exception {
+        // given
+        final var served = new AtomicInteger();
+        final Set<String> acceptors = ConcurrentHashMap.newKeySet();
+        final var workers = Executors.newCachedThreadPool();
+        // 블로킹 엔드포인트는 억셉터 스레드가 바로 워커에게 넘기므로, 넘기는 스레드 이름이 곧 연결을 받은 억셉터다.
+        final Executor executor = command -> {
+            acceptors.add(Thread.currentThread().getName());
+            workers.execute(command);
+        };
+        final var endpoint = new JioEndpoint(0, 100, executor, socketWrapper -> {
+            served.incrementAndGet();
+            return SocketState.CLOSED;
+        });
+        endpoint.setAcceptorThreadCount(4);
+        endpoint.setReusePort(true);
+        endpoint.bind();
+        endpoint.start();
+
+        try {
+            // when
+            for (int i = 0; i < 32; i++) {
+                try (final var socket = new Socket("localhost", endpoint.getLocalPort())) {
+                    socket.setSoTimeout(5_000);
+                    assertThat(socket.getInputStream().read()).isEqualTo(-1);
+                }
+            }
+
+            // then
+            assertThat(served).hasValue(32);
+            assertThat(endpoint.getListenSocketCount()).isEqualTo(4);
+            // 억셉터마다 리슨 소켓이 따로 있으므로 둘 이상의 억셉터가 받았다면 커널이 연결을 나눠 준 것이다.
+            assertThat(acceptors).hasSizeGreaterThan(1).allMatch(name -> name.startsWith("http-jio-acceptor-"));
+        } finally {
+            endpoint.stop();
+            workers.shutdown();
+        }
+    }
+
+    @Test
+    void closesOpenedListenersWhenBindFails() throws Exception {
+        try (final var occupied = new ServerSocket(0)) {
+            // given
+            final var endpoint = new JioEndpoint(occupied.getLocalPort(), 100, Runnable::run,
+                    socketWrapper -> SocketState.CLOSED);
+            endpoint.setAcceptorThreadCount(4);
+            endpoint.setReusePort(true);
+
+            // when & then
+            assertThatThrownBy(endpoint::bind).isInstanceOf(IOException.class);
+            assertThat(endpoint.getListenSocketCount()).isZero();
+            assertThatCode(endpoint::stop).doesNotThrowAnyException();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package nextstep.org.apache.tomcat.util.net;
+
+import org.apache.coyote.Processor;
+import org.apache.coyote.http11.Http11Processor;
+import org.apache.coyote.http11.Http11Protocol;
+import org.apache.tomcat.util.net.AbstractEndpoint;
+import org.apache.tomcat.util.net.NioEndpoint;
+import org.apache.tomcat.util.net.SocketState;
+import org.apache.tomcat.util.net.SocketWrapperBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NioEndpointTest {
+
+    private static final String HELLO_RESPONSE_END = "\r\n\r\nHello world!";
+
+    private final Http11Protocol protocol = new Http11Protocol();
+    private final AtomicInteger dispatches = new AtomicInteger();
+    private ExecutorService executor;
+    private NioEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        protocol.setKeepAliveTimeout(300);
+        executor = Executors.newCachedThreadPool();
+        endpoint = new NioEndpoint(0, 100, executor, new ProcessorHandler());
+        endpoint.setPollerThreadCount(2);
+        endpoint.setConnectionTimeout(5_000);
+        endpoint.bind();
+        endpoint.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.stop();
+        executor.shutdown();
+    }
+
+    @Test
+    void resumesRequestHeadSplitAcrossReads() throws Exception {
+        try (final var socket = connect()) {
+            // given
+            socket.getOutputStream().write(bytes("GET / HTTP/1.1\r\nHo"));
+            socket.getOutputStream().flush();
+            Thread.sleep(200);
+
+            // when
+            socket.getOutputStream().write(bytes("st: localhost\r\nConnection: close\r\n\r\n"));
+            final String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.ISO_8859_1);
+
+            // then
+            assertThat(response).startsWith("HTTP/1.1 200 OK\r\n").endsWith(HELLO_RESPONSE_END);
+            assertThat(dispatches.get()).isGreaterThanOrEqualTo(2);
+        }
+    }
+
+    @Test
+    void keepsConnectionAliveUntilIdleTimeout() throws Exception {
+        try (final var socket = connect()) {
+            // given
+            final InputStream input = socket.getInputStream();
+            for (int i = 0; i < 2; i++) {
+                socket.getOutputStream().write(bytes("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n"));
+                assertThat(readResponse(input)).startsWith("HTTP/1.1 200 OK\r\n");
+            }
+            final long idleSince = System.currentTimeMillis();
+
+            // when
+            final int read = input.read();
+
+            // then
+            assertThat(read).isEqualTo(-1);
+            assertThat(System.currentTimeMillis() - idleSince).isGreaterThanOrEqualTo(300);
+        }
+        awaitConnectionCount(0);
+    }
+
+    @Test
+    void answersPipelinedRequestsInOrder() throws Exception {
+        try (final var socket = connect()) {
+            // given
+            final String pipelined = "GET / HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                    + "GET /missing HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                    + "GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+
+            // when
+            socket.getOutputStream().write(bytes(pipelined));
+            final String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.ISO_8859_1);
+
+            // then
+            final int first = response.indexOf("HTTP/1.1 200 OK\r\n");
+            final int second = response.indexOf("HTTP/1.1 404 Not Found\r\n");
+            final int third = response.lastIndexOf("HTTP/1.1 200 OK\r\n");
+            assertThat(first).isZero();
+            assertThat(second).isGreaterThan(first);
+            assertThat(third).isGreaterThan(second);
+            assertThat(response).endsWith(HELLO_RESPONSE_END);
+        }
+    }
+
+    @Test
+    void connectionCountReturnsToZeroAfterClientsClose() throws Exception {
+        // given
+        final List<Socket> sockets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final var socket = connect();
+            socket.getOutputStream().write(bytes("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n"));
+            readResponse(socket.getInputStream());
+            sockets.add(socket);
+        }
+        assertThat(endpoint.getConnectionCount()).isEqualTo(10);
+
+        // when
+        for (final Socket socket : sockets) {
+            socket.close();
+        }
+
+        // then
+        awaitConnectionCount(0);
+    }
+
+    @Test
+    void closesOpenedListenersWhenBindFails() throws Exception {
+        try (final var occupied = new ServerSocket(0)) {
+            // given
+            final var failing = new NioEndpoint(occupied.getLocalPort(), 100, executor, new ProcessorHandler());
+            failing.setAcceptorThreadCount(4);
+            failing.setReusePort(true);
+
+            // when & then
+            assertThatThrownBy(failing::bind).isInstanceOf(IOException.class);
+            assertThat(failing.getListenSocketCount()).isZero();
+            assertThatCode(failing::stop).doesNotThrowAnyException();
+        }
+    }
+
+    private Socket connect() throws IOException {
+        final var socket = new Socket("localhost", endpoint.getLocalPort());
+        socket.setSoTimeout(5_000);
+        return socket;
+    }
+
+    /**
+     * 응답 본문이 항상 "Hello world!" 이거나 404 페이지이므로, Content-Length 만큼 읽는다.
+     */
+    private String readResponse(final InputStream input) throws IOException {
+        final var head = new StringBuilder();
+        while (!head.toString().endsWith("\r\n\r\n")) {
+            final int read = input.read();
+            if (read < 0) {
+                break;
+            }
+            head.append((char) read);
+        }
+        final String response = head.toString();
+        final int start = response.indexOf("Content-Length: ") + "Content-Length: ".length();
+        final int length = Integer.parseInt(response.substring(start, response.indexOf("\r\n", start)));
+        return response + new String(input.readNBytes(length), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * FIN 을 받은 뒤에 연결 수를 줄이므로 조금 기다린다. 타임아웃 검사는 1초마다 돈다.
+     */
+    private void awaitConnectionCount(final int expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (endpoint.getConnectionCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(endpoint.getConnectionCount()).isEqualTo(expected);
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 커넥터처럼 연결에 프로세서를 붙여 두고, 워커에게 넘어온 횟수를 센다.
+     */
+    private class ProcessorHandler implements AbstractEndpoint.Handler {
+
+        @Override
+        public SocketState process(final SocketWrapperBase<?> socketWrapper) {
+            dispatches.incrementAndGet();
+            var processor = (Processor) socketWrapper.getCurrentProcessor();
+            if (processor == null) {
+                processor = new Http11Processor(protocol);
+                socketWrapper.setCurrentProcessor(processor);
+            }
+            return processor.process(socketWrapper);
+        }
+
+        @Override
+        public void release(final SocketWrapperBase<?> socketWrapper) {
+            final var processor = (Processor) socketWrapper.getCurrentProcessor();
+            if (processor != null) {
+                socketWrapper.setCurrentProcessor(null);
+                processor.release();
+            }
+        }
+    }
+}
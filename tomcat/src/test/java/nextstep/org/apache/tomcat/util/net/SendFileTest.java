@@ -0,0 +1,62 @@
+package nextstep.org.apache.tomcat.util.net;
+
+import org.apache.tomcat.util.net.JioSocketWrapper;
+import org.apache.tomcat.util.net.NioSelectorPool;
+import org.apache.tomcat.util.net.NioSocketWrapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SendFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void nioFailsInsteadOfSpinningWhenFileIsTruncated() throws IOException {
+        // given
+        final Path path = Files.write(directory.resolve("truncated.txt"), new byte[100]);
+        try (final var server = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+             final var client = SocketChannel.open(server.getLocalAddress());
+             final var accepted = server.accept();
+             final var file = FileChannel.open(path, StandardOpenOption.READ)) {
+            assertThat(client.isConnected()).isTrue();
+            accepted.configureBlocking(false);
+            final var socketWrapper = new NioSocketWrapper(accepted, null, new NioSelectorPool());
+            socketWrapper.setWriteTimeout(5_000);
+
+            // when & then
+            assertThatThrownBy(() -> socketWrapper.sendFile(file, 0, 200)).isInstanceOf(EOFException.class);
+        }
+    }
+
+    @Test
+    void jioFailsBeforeMappingPastEndOfFile() throws IOException {
+        // given
+        final Path path = Files.write(directory.resolve("truncated.txt"), new byte[100]);
+        try (final var server = new ServerSocket(0);
+             final var client = new Socket("localhost", server.getLocalPort());
+             final var accepted = server.accept();
+             final var file = FileChannel.open(path, StandardOpenOption.READ)) {
+            assertThat(client.isConnected()).isTrue();
+            final var socketWrapper = new JioSocketWrapper(accepted);
+
+            // when & then
+            assertThatThrownBy(() -> socketWrapper.sendFile(file, 0, 200)).isInstanceOf(EOFException.class);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package nextstep.org.apache.tomcat.util.threads;
+
+import org.apache.tomcat.util.threads.CoDelPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoDelPolicyTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final CoDelPolicy policy = new CoDelPolicy(5, 100, TimeUnit.MILLISECONDS);
+    private final long start = System.nanoTime();
+
+    @Test
+    void toleratesShortBurstAboveTarget() {
+        // given
+        policy.shouldShed(50 * MILLIS, start + 10 * MILLIS);
+        policy.shouldShed(MILLIS, start + 20 * MILLIS);
+
+        // when
+        final boolean shed = policy.shouldShed(50 * MILLIS, start + 150 * MILLIS);
+
+        // then
+        assertThat(policy.isOverloaded()).isFalse();
+        assertThat(shed).isFalse();
+    }
+
+    @Test
+    void shedsTasksOverTargetWhenDelayStaysAboveTarget() {
+        // given
+        policy.shouldShed(20 * MILLIS, start + 10 * MILLIS);
+        policy.shouldShed(30 * MILLIS, start + 50 * MILLIS);
+
+        // when
+        final boolean longWait = policy.shouldShed(20 * MILLIS, start + 150 * MILLIS);
+        final boolean shortWait = policy.shouldShed(2 * MILLIS, start + 160 * MILLIS);
+
+        // then
+        assertThat(policy.isOverloaded()).isTrue();
+        assertThat(longWait).isTrue();
+        assertThat(shortWait).isFalse();
+        assertThat(policy.getShedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void recoversWhenDelayDropsBelowTarget() {
+        // given
+        policy.shouldShed(20 * MILLIS, start + 10 * MILLIS);
+        policy.shouldShed(2 * MILLIS, start + 150 * MILLIS);
+
+        // when
+        final boolean shed = policy.shouldShed(20 * MILLIS, start + 300 * MILLIS);
+
+        // then
+        assertThat(policy.isOverloaded()).isFalse();
+        assertThat(shed).isFalse();
+    }
+}
@@ -0,0 +1,64 @@
+package nextstep.org.apache.tomcat.util.threads;
+
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThreadPoolExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void growsToMaxThreadsBeforeQueueing() {
+        // given
+        executor = ThreadPoolExecutor.create(0, 3, 2, new TaskThreadFactory("test-", true));
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            executor.execute(this::block);
+        }
+
+        // then
+        final var stats = executor.getStats();
+        assertThat(stats.poolSize()).isEqualTo(3);
+        assertThat(stats.queueSize()).isZero();
+    }
+
+    @Test
+    void rejectsWhenThreadsAndQueueAreFull() {
+        // given
+        executor = ThreadPoolExecutor.create(0, 2, 2, new TaskThreadFactory("test-", true));
+        for (int i = 0; i < 4; i++) {
+            executor.execute(this::block);
+        }
+
+        // when & then
+        assertThatThrownBy(() -> executor.execute(this::block))
+                .isInstanceOf(RejectedExecutionException.class);
+        final var stats = executor.getStats();
+        assertThat(stats.queueSize()).isEqualTo(2);
+        assertThat(stats.rejectedCount()).isEqualTo(1);
+    }
+
+    private void block() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -13,6 +13,7 @@ public class StubSocket extends Socket {
 
     private final String request;
     private final ByteArrayOutputStream outputStream;
+    private int writeCount;
 
     public StubSocket(final String request) {
         this.request = request;
@@ -43,12 +44,30 @@ public class StubSocket extends Socket {
         return new OutputStream() {
             @Override
             public void write(int b) {
+                writeCount++;
                 outputStream.write(b);
             }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                writeCount++;
+                outputStream.write(b, off, len);
+            }
         };
     }
 
+    public int writeCount() {
+        return writeCount;
+    }
+
+    public byte[] outputBytes() {
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 응답 문자열. Date 헤더는 보낸 시각마다 달라지므로 뺀다. 그대로 보려면 {@link #outputBytes()} 를 쓴다.
+     */
     public String output() {
-        return outputStream.toString(StandardCharsets.UTF_8);
+        return outputStream.toString(StandardCharsets.UTF_8).replaceAll("\r\nDate: [^\r]*", "");
     }
 }